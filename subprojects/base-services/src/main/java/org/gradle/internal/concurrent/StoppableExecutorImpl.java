@@ -33,12 +33,15 @@ class StoppableExecutorImpl extends AbstractExecutorService implements Stoppable
     }
 
     public void execute(final Runnable command) {
+        final Object owner = WorkOwner.current();
         executor.execute(new Runnable() {
             public void run() {
             executing.set(command);
+            Object previousOwner = WorkOwner.set(owner);
             try {
                 executorPolicy.onExecute(command);
             } finally {
+                WorkOwner.set(previousOwner);
                 executing.set(null);
             }
             }
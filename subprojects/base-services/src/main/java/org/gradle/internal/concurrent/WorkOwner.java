@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.concurrent;
+
+/**
+ * Tracks the owner of the unit of work that the current thread is running, for example the build that a daemon runs it for.
+ *
+ * <p>The owner is set explicitly around each unit of work, and is not inherited by threads created while it is set. Executors created by
+ * {@link DefaultExecutorFactory} run each job on behalf of the owner of the thread that submitted the job.</p>
+ */
+public class WorkOwner {
+    private static final ThreadLocal<Object> CURRENT = new ThreadLocal<Object>();
+
+    private WorkOwner() {
+    }
+
+    /**
+     * Returns the owner of the work the current thread is running, or null if none.
+     */
+    public static Object current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Sets the owner of the work the current thread is about to run.
+     *
+     * @param owner the owner, or null to clear it.
+     * @return the previous owner, to be restored once the work is done.
+     */
+    public static Object set(Object owner) {
+        Object previous = CURRENT.get();
+        if (owner == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(owner);
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.memory;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * How close the heap of this process is to running out of space. Each level specifies the proportion of its entries that an in-memory cache should release.
+ */
+public enum MemoryPressure {
+    /**
+     * Retained heap is approaching the point where garbage collection becomes expensive.
+     */
+    MODERATE(0.25),
+    /**
+     * The heap is nearly full, or garbage collection is becoming expensive.
+     */
+    HIGH(0.5),
+    /**
+     * Garbage collection is thrashing.
+     */
+    CRITICAL(1.0);
+
+    private final double fractionToRelease;
+
+    MemoryPressure(double fractionToRelease) {
+        this.fractionToRelease = fractionToRelease;
+    }
+
+    /**
+     * Returns the number of entries that a cache holding the given number of entries should release.
+     */
+    public int entriesToRelease(int size) {
+        return (int) Math.ceil(size * fractionToRelease);
+    }
+
+    /**
+     * Removes the appropriate number of entries from the given map. The map must support removal through its iterators.
+     */
+    public void release(Map<?, ?> entries) {
+        if (this == CRITICAL) {
+            entries.clear();
+            return;
+        }
+        int count = entriesToRelease(entries.size());
+        Iterator<?> iterator = entries.keySet().iterator();
+        while (count > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            count--;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.memory;
+
+/**
+ * Implemented by in-memory caches that can release entries when the heap is under pressure, to avoid the process spending its time in garbage collection.
+ *
+ * <p>Notifications may be delivered from any thread, including while a build is running.</p>
+ */
+public interface MemoryPressureListener {
+    /**
+     * Called when the heap is under pressure. Implementations should release entries that can be recreated later, in proportion to the pressure.
+     */
+    void onMemoryPressure(MemoryPressure pressure);
+}
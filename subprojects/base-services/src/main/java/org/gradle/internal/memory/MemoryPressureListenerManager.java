@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Distributes memory pressure notifications to the in-memory caches of this process. Caches with a shorter lifetime than the process must remove themselves when they are discarded.
+ */
+public class MemoryPressureListenerManager implements MemoryPressureListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryPressureListenerManager.class);
+    private final List<MemoryPressureListener> listeners = new CopyOnWriteArrayList<MemoryPressureListener>();
+
+    public void addListener(MemoryPressureListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(MemoryPressureListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void onMemoryPressure(MemoryPressure pressure) {
+        for (MemoryPressureListener listener : listeners) {
+            try {
+                listener.onMemoryPressure(pressure);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not release memory held by " + listener + ".", e);
+            }
+        }
+    }
+}
@@ -17,6 +17,7 @@ package org.gradle.internal.concurrent
 
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 
+import java.util.concurrent.Callable
 import java.util.concurrent.TimeUnit
 
 class DefaultExecutorFactoryTest extends ConcurrentSpec {
@@ -141,4 +142,23 @@ class DefaultExecutorFactoryTest extends ConcurrentSpec {
         def ex = thrown(RuntimeException)
         ex.is(failure1)
     }
+
+    def runsEachJobOnBehalfOfTheOwnerOfTheSubmittingThread() {
+        def executor = factory.create('test', 1)
+        def owner = { WorkOwner.current() }
+
+        when:
+        def previous = WorkOwner.set("build 1")
+        def first = executor.submit(owner as Callable)
+        WorkOwner.set("build 2")
+        def second = executor.submit(owner as Callable)
+        WorkOwner.set(previous)
+        def third = executor.submit(owner as Callable)
+
+        then:
+        first.get() == "build 1"
+        second.get() == "build 2"
+        third.get() == null
+        WorkOwner.current() == null
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.memory
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class MemoryPressureTest extends Specification {
+
+    @Unroll
+    def "releases #released of 10 entries under #pressure pressure"() {
+        def map = (1..10).collectEntries { [it, it] }
+
+        when:
+        pressure.release(map)
+
+        then:
+        map.size() == 10 - released
+        pressure.entriesToRelease(10) == released
+
+        where:
+        pressure                | released
+        MemoryPressure.MODERATE | 3
+        MemoryPressure.HIGH     | 5
+        MemoryPressure.CRITICAL | 10
+    }
+
+    def "notifies all listeners even when one of them fails"() {
+        def manager = new MemoryPressureListenerManager()
+        def listener1 = Mock(MemoryPressureListener)
+        def listener2 = Mock(MemoryPressureListener)
+        def removed = Mock(MemoryPressureListener)
+        manager.addListener(listener1)
+        manager.addListener(removed)
+        manager.addListener(listener2)
+        manager.removeListener(removed)
+
+        when:
+        manager.onMemoryPressure(MemoryPressure.HIGH)
+
+        then:
+        1 * listener1.onMemoryPressure(MemoryPressure.HIGH) >> { throw new RuntimeException("broken") }
+        1 * listener2.onMemoryPressure(MemoryPressure.HIGH)
+        0 * removed._
+    }
+}
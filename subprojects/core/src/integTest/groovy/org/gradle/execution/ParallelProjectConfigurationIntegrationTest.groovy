@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+import static org.hamcrest.Matchers.startsWith
+
+class ParallelProjectConfigurationIntegrationTest extends AbstractIntegrationSpec {
+    def setup() {
+        executer.withArguments("--configure-in-parallel", "--max-workers=4")
+    }
+
+    def "configures projects using worker threads"() {
+        given:
+        def projects = (1..20).collect { "p$it" }
+        settingsFile << "include ${projects.collect { "'$it'" }.join(', ')}"
+        buildFile << """
+            ext.configuredBy = Thread.currentThread().name
+            // Listeners may be notified about several projects at the same time
+            def configured = Collections.synchronizedList([])
+            gradle.afterProject { p -> configured << p.path }
+            gradle.projectsEvaluated {
+                assert configured.size() == ${projects.size() + 1}
+                assert configured as Set == allprojects*.path as Set
+                assert subprojects.every { it.configuredBy != rootProject.configuredBy }
+            }
+        """
+        projects.each {
+            file("$it/build.gradle") << """
+                apply plugin: 'java'
+                ext.configuredBy = Thread.currentThread().name
+                task hello
+            """
+        }
+
+        when:
+        succeeds "hello"
+
+        then:
+        executedTasks as Set == projects.collect { ":$it:hello".toString() } as Set
+    }
+
+    def "project waits for the sibling project it declares an evaluation dependency on"() {
+        given:
+        settingsFile << "include 'a', 'b', 'c'"
+        file("a/build.gradle") << """
+            Thread.sleep(200)
+            ext.value = 'a'
+        """
+        file("b/build.gradle") << """
+            evaluationDependsOn(':a')
+            ext.value = project(':a').value + 'b'
+            assert value == 'ab'
+        """
+        file("c/build.gradle") << "task hello"
+
+        when:
+        succeeds "hello"
+
+        then:
+        executedTasks == [":c:hello"]
+    }
+
+    def "plugin that uses the state of a sibling project waits for the sibling project it declares an evaluation dependency on"() {
+        given:
+        file("buildSrc/src/main/groovy/ConsumerPlugin.groovy") << """
+            import org.gradle.api.Plugin
+            import org.gradle.api.Project
+
+            class ConsumerPlugin implements Plugin<Project> {
+                void apply(Project project) {
+                    project.evaluationDependsOn(':producer')
+                    def producer = project.project(':producer')
+                    project.ext.consumed = producer.producedValue
+                    project.tasks.create("consume") {
+                        doLast { println "consumed \${project.consumed}" }
+                    }
+                }
+            }
+        """
+        settingsFile << "include 'consumer', 'producer'"
+        file("producer/build.gradle") << """
+            Thread.sleep(200)
+            ext.producedValue = 'value from producer'
+        """
+        file("consumer/build.gradle") << """
+            apply plugin: ConsumerPlugin
+        """
+
+        when:
+        succeeds "consume"
+
+        then:
+        output.contains("consumed value from producer")
+    }
+
+    def "reports projects that declare evaluation dependencies on each other"() {
+        given:
+        settingsFile << "include 'a', 'b'"
+        file("a/build.gradle") << "evaluationDependsOn(':b')"
+        file("b/build.gradle") << "evaluationDependsOn(':a')"
+
+        when:
+        fails "help"
+
+        then:
+        failure.assertThatCause(startsWith("Circular referencing during evaluation for project ':"))
+    }
+}
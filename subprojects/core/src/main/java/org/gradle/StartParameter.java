@@ -85,6 +85,7 @@ public class StartParameter implements LoggingConfiguration, Serializable {
     private boolean recompileScripts;
     private boolean parallelProjectExecution;
     private boolean configureOnDemand;
+    private boolean configureInParallel;
     private int maxWorkerCount;
     private boolean continuous;
 
@@ -223,6 +224,7 @@ public class StartParameter implements LoggingConfiguration, Serializable {
         p.refreshDependencies = refreshDependencies;
         p.parallelProjectExecution = parallelProjectExecution;
         p.configureOnDemand = configureOnDemand;
+        p.configureInParallel = configureInParallel;
         p.maxWorkerCount = maxWorkerCount;
         p.systemPropertiesArgs = new HashMap<String, String>(systemPropertiesArgs);
         return p;
@@ -738,6 +740,7 @@ public class StartParameter implements LoggingConfiguration, Serializable {
             + ", refreshDependencies=" + refreshDependencies
             + ", parallelProjectExecution=" + parallelProjectExecution
             + ", configureOnDemand=" + configureOnDemand
+            + ", configureInParallel=" + configureInParallel
             + ", maxWorkerCount=" + maxWorkerCount
             + '}';
     }
@@ -754,6 +757,20 @@ public class StartParameter implements LoggingConfiguration, Serializable {
         this.configureOnDemand = configureOnDemand;
     }
 
+    /**
+     * If the projects of the build are configured in parallel. This is only safe when the projects are decoupled: a project that uses the state of
+     * another project must declare this using {@link org.gradle.api.Project#evaluationDependsOn(String)}.
+     */
+    @Incubating
+    public boolean isConfigureInParallel() {
+        return configureInParallel;
+    }
+
+    @Incubating
+    public void setConfigureInParallel(boolean configureInParallel) {
+        this.configureInParallel = configureInParallel;
+    }
+
     @Incubating
     public boolean isContinuous() {
         return continuous;
@@ -29,16 +29,24 @@ import org.gradle.internal.serialize.HashValueSerializer;
 import org.gradle.internal.serialize.Serializer;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 
 public class CachingFileSnapshotter implements FileSnapshotter {
     private final PersistentIndexedCache<String, FileInfo> cache;
     private final Hasher hasher;
     private final StringInterner stringInterner;
+    private final List<ImmutableFileHashes> immutableFileHashes;
 
     public CachingFileSnapshotter(Hasher hasher, PersistentStore store, StringInterner stringInterner) {
+        this(hasher, store, stringInterner, Collections.<ImmutableFileHashes>emptyList());
+    }
+
+    public CachingFileSnapshotter(Hasher hasher, PersistentStore store, StringInterner stringInterner, List<ImmutableFileHashes> immutableFileHashes) {
         this.hasher = hasher;
         this.cache = store.createCache("fileHashes", String.class, new FileInfoSerializer());
         this.stringInterner = stringInterner;
+        this.immutableFileHashes = immutableFileHashes;
     }
 
     @Override
@@ -70,6 +78,13 @@ public class CachingFileSnapshotter implements FileSnapshotter {
     }
 
     private FileInfo snapshot(File file, long length, long timestamp) {
+        for (ImmutableFileHashes fileHashes : immutableFileHashes) {
+            HashValue hash = fileHashes.getHash(file);
+            if (hash != null) {
+                return new FileInfo(hash, length, timestamp);
+            }
+        }
+
         String absolutePath = file.getAbsolutePath();
         FileInfo info = cache.get(absolutePath);
 
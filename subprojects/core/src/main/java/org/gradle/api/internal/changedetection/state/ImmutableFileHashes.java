@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.hash.HashValue;
+
+import java.io.File;
+
+/**
+ * Provides the hash of files that never change once written, such as the files of a content addressed store, without
+ * reading or caching them. Implementations are registered as services and are consulted before a file is hashed.
+ */
+public interface ImmutableFileHashes {
+    /**
+     * Returns the hash of the given file, or null when the hash of the file is not known to this provider.
+     */
+    @Nullable
+    HashValue getHash(File file);
+}
@@ -25,13 +25,17 @@ import org.gradle.api.logging.Logging;
 import org.gradle.cache.internal.CacheDecorator;
 import org.gradle.cache.internal.FileLock;
 import org.gradle.cache.internal.MultiProcessSafePersistentIndexedCache;
+import org.gradle.cache.internal.stats.CacheStatistics;
+import org.gradle.cache.internal.stats.CacheStatisticsRegistry;
+import org.gradle.internal.memory.MemoryPressure;
+import org.gradle.internal.memory.MemoryPressureListener;
 
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
-public class InMemoryTaskArtifactCache implements CacheDecorator {
+public class InMemoryTaskArtifactCache implements CacheDecorator, MemoryPressureListener {
     private final static Logger LOG = Logging.getLogger(InMemoryTaskArtifactCache.class);
     private final static Object NULL = new Object();
     private static final Map<String, Integer> CACHE_CAPS = new CacheCapSizer().calculateCaps();
@@ -76,11 +80,25 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
             .build();
 
     private final Map<String, FileLock.State> states = new HashMap<String, FileLock.State>();
+    private final CacheStatisticsRegistry statisticsRegistry;
+
+    public InMemoryTaskArtifactCache() {
+        this(new CacheStatisticsRegistry());
+    }
+
+    public InMemoryTaskArtifactCache(CacheStatisticsRegistry statisticsRegistry) {
+        this.statisticsRegistry = statisticsRegistry;
+    }
 
     public <K, V> MultiProcessSafePersistentIndexedCache<K, V> decorate(final String cacheId, String cacheName, final MultiProcessSafePersistentIndexedCache<K, V> original) {
-        final Cache<Object, Object> data = loadData(cacheId, cacheName);
+        final CacheStatistics statistics = statisticsRegistry.get(cacheName + " (in-memory)");
+        final Cache<Object, Object> data = loadData(cacheId, cacheName, statistics);
 
         return new MultiProcessSafePersistentIndexedCache<K, V>() {
+            public void compact() {
+                original.compact();
+            }
+
             public void close() {
                 original.close();
             }
@@ -89,12 +107,17 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
                 assert key instanceof String || key instanceof Long || key instanceof File : "Unsupported key type: " + key;
                 Object value = data.getIfPresent(key);
                 if (value == NULL) {
+                    statistics.recordHit();
                     return null;
                 }
                 if (value != null) {
+                    statistics.recordHit();
                     return (V) value;
                 }
+                statistics.recordMiss();
+                long start = System.nanoTime();
                 V out = original.get(key);
+                statistics.recordLoad(System.nanoTime() - start);
                 data.put(key, out == null ? NULL : out);
                 return out;
             }
@@ -130,7 +153,16 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
         };
     }
 
-    private Cache<Object, Object> loadData(String cacheId, String cacheName) {
+    @Override
+    public void onMemoryPressure(MemoryPressure pressure) {
+        // Entries are written through to the persistent caches, so can be discarded at any time
+        for (Map.Entry<String, Cache<Object, Object>> entry : cache.asMap().entrySet()) {
+            LOG.info("Releasing {} of in-memory cache of {}", pressure, entry.getKey());
+            pressure.release(entry.getValue().asMap());
+        }
+    }
+
+    private Cache<Object, Object> loadData(String cacheId, String cacheName, CacheStatistics statistics) {
         Cache<Object, Object> theData;
         synchronized (lock) {
             theData = this.cache.getIfPresent(cacheId);
@@ -140,7 +172,7 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
                 Integer maxSize = CACHE_CAPS.get(cacheName);
                 assert maxSize != null : "Unknown cache.";
                 LOG.info("Creating In-memory cache of {}: MaxSize{{}}", cacheId, maxSize);
-                LoggingEvictionListener evictionListener = new LoggingEvictionListener(cacheId, maxSize);
+                LoggingEvictionListener evictionListener = new LoggingEvictionListener(cacheId, maxSize, statistics);
                 CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().removalListener(evictionListener);
                 if (WEAK_REFERENCE_CACHES.contains(cacheName)) {
                     builder.weakValues();
@@ -162,11 +194,17 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
         private Cache<Object, Object> cache;
         private final int maxSize;
         private final int logInterval;
+        private final CacheStatistics statistics;
 
         private LoggingEvictionListener(String cacheId, int maxSize) {
+            this(cacheId, maxSize, CacheStatistics.NO_OP);
+        }
+
+        private LoggingEvictionListener(String cacheId, int maxSize, CacheStatistics statistics) {
             this.cacheId = cacheId;
             this.maxSize = maxSize;
             this.logInterval = maxSize / 10;
+            this.statistics = statistics;
         }
 
         public void setCache(Cache<Object, Object> cache) {
@@ -176,6 +214,7 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
         @Override
         public void onRemoval(RemovalNotification<Object, Object> notification) {
             if (notification.getCause() == RemovalCause.SIZE) {
+                statistics.recordEviction();
                 if (evictionCounter % logInterval == 0) {
                     logger.log(LogLevel.INFO, "Cache entries evicted. In-memory cache of {}: Size{{}} MaxSize{{}}, {} {}", cacheId, cache.size(), maxSize, cache.stats(), EVICTION_MITIGATION_MESSAGE);
                 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.initialization.loadercache;
+
+import com.google.common.collect.Sets;
+import org.gradle.api.Nullable;
+import org.gradle.internal.classloader.FilteringClassLoader;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.net.URLClassLoader;
+import java.util.Set;
+
+/**
+ * The view of the cross-build {@link ClassLoaderCache} used by a single build.
+ *
+ * <p>Class loaders are reused by later builds for as long as their class path and parent are unchanged. A plugin that holds static state can opt out of this
+ * by including a {@value #NON_REUSABLE_MARKER} resource in its jar. Class loaders that include such a resource are released when the build that created them
+ * finishes, so that the next build loads the plugin again.</p>
+ */
+public class BuildScopeClassLoaderCache implements ClassLoaderCache, Stoppable {
+    public static final String NON_REUSABLE_MARKER = "META-INF/gradle/non-reusable-classloader";
+
+    private final ClassLoaderCache delegate;
+    private final Set<ClassLoaderId> nonReusable = Sets.newConcurrentHashSet();
+
+    public BuildScopeClassLoaderCache(ClassLoaderCache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public ClassLoader get(ClassLoaderId id, ClassPath classPath, @Nullable ClassLoader parent, @Nullable FilteringClassLoader.Spec filterSpec) {
+        ClassLoader classLoader = delegate.get(id, classPath, parent, filterSpec);
+        if (classLoader instanceof URLClassLoader && ((URLClassLoader) classLoader).findResource(NON_REUSABLE_MARKER) != null) {
+            nonReusable.add(id);
+        }
+        return classLoader;
+    }
+
+    @Override
+    public void remove(ClassLoaderId id) {
+        nonReusable.remove(id);
+        delegate.remove(id);
+    }
+
+    @Override
+    public void stop() {
+        for (ClassLoaderId id : nonReusable) {
+            delegate.remove(id);
+        }
+        nonReusable.clear();
+    }
+}
@@ -21,19 +21,32 @@ import com.google.common.base.Objects;
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multiset;
+import com.google.common.collect.Sets;
+import org.gradle.BuildAdapter;
+import org.gradle.BuildListener;
+import org.gradle.BuildResult;
 import org.gradle.api.Nullable;
+import org.gradle.api.invocation.Gradle;
 import org.gradle.internal.classloader.FilteringClassLoader;
 import org.gradle.internal.classloader.MutableURLClassLoader;
 import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.memory.MemoryPressure;
+import org.gradle.internal.memory.MemoryPressureListener;
 
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
-public class DefaultClassLoaderCache implements ClassLoaderCache {
+public class DefaultClassLoaderCache implements ClassLoaderCache, MemoryPressureListener {
 
     private final Object lock = new Object();
     private final Map<ClassLoaderId, CachedClassLoader> byId = Maps.newHashMap();
     private final Map<ClassLoaderSpec, CachedClassLoader> bySpec = Maps.newHashMap();
     private final ClassPathSnapshotter snapshotter;
+    // The ids requested by the builds that are currently running, which must keep their class loaders until the builds finish
+    private final Set<ClassLoaderId> usedByRunningBuilds = Sets.newHashSet();
+    private int runningBuilds;
+    private MemoryPressure deferredPressure;
 
     public DefaultClassLoaderCache(ClassPathSnapshotter snapshotter) {
         this.snapshotter = snapshotter;
@@ -44,6 +57,9 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         ClassLoaderSpec spec = new ClassLoaderSpec(parent, classPathSnapshot, filterSpec);
 
         synchronized (lock) {
+            if (runningBuilds > 0) {
+                usedByRunningBuilds.add(id);
+            }
             CachedClassLoader cachedLoader = byId.get(id);
             if (cachedLoader == null || !cachedLoader.is(spec)) {
                 CachedClassLoader newLoader = getAndRetainLoader(classPath, spec, id);
@@ -63,6 +79,7 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
     @Override
     public void remove(ClassLoaderId id) {
         synchronized (lock) {
+            usedByRunningBuilds.remove(id);
             CachedClassLoader cachedClassLoader = byId.remove(id);
             if (cachedClassLoader != null) {
                 cachedClassLoader.release(id);
@@ -70,6 +87,69 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         }
     }
 
+    /**
+     * Releases class loaders, so that they are recreated the next time they are requested. Class loaders requested by a build that is still
+     * running are kept until that build finishes, so that the build never ends up with two class loaders for the same id.
+     */
+    @Override
+    public void onMemoryPressure(MemoryPressure pressure) {
+        synchronized (lock) {
+            int count = pressure.entriesToRelease(byId.size());
+            count -= release(count, false);
+            if (count > 0 && (deferredPressure == null || pressure.compareTo(deferredPressure) > 0)) {
+                deferredPressure = pressure;
+            }
+        }
+    }
+
+    // Must be holding lock
+    private int release(int count, boolean includeUsedByRunningBuilds) {
+        int released = 0;
+        Iterator<Map.Entry<ClassLoaderId, CachedClassLoader>> iterator = byId.entrySet().iterator();
+        while (released < count && iterator.hasNext()) {
+            Map.Entry<ClassLoaderId, CachedClassLoader> entry = iterator.next();
+            if (!includeUsedByRunningBuilds && usedByRunningBuilds.contains(entry.getKey())) {
+                continue;
+            }
+            iterator.remove();
+            entry.getValue().release(entry.getKey());
+            released++;
+        }
+        return released;
+    }
+
+    /**
+     * Returns a listener that tells this cache when builds start and finish.
+     */
+    public BuildListener getBuildTracker() {
+        return new BuildAdapter() {
+            @Override
+            public void buildStarted(Gradle gradle) {
+                synchronized (lock) {
+                    runningBuilds++;
+                }
+            }
+
+            @Override
+            public void buildFinished(BuildResult result) {
+                synchronized (lock) {
+                    if (runningBuilds == 0) {
+                        return;
+                    }
+                    runningBuilds--;
+                    if (runningBuilds > 0) {
+                        return;
+                    }
+                    usedByRunningBuilds.clear();
+                    if (deferredPressure != null) {
+                        release(deferredPressure.entriesToRelease(byId.size()), true);
+                        deferredPressure = null;
+                    }
+                }
+            }
+        };
+    }
+
     private CachedClassLoader getAndRetainLoader(ClassPath classPath, ClassLoaderSpec spec, ClassLoaderId id) {
         CachedClassLoader cachedLoader = bySpec.get(spec);
         if (cachedLoader == null) {
@@ -22,25 +22,36 @@ import org.gradle.api.UnknownDomainObjectException;
 import org.gradle.api.UnknownTaskException;
 import org.gradle.api.internal.DefaultNamedDomainObjectSet;
 import org.gradle.api.internal.collections.CollectionFilter;
+import org.gradle.api.internal.collections.FilteredSet;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
 import org.gradle.api.tasks.TaskCollection;
 import org.gradle.internal.reflect.Instantiator;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
 public class DefaultTaskCollection<T extends Task> extends DefaultNamedDomainObjectSet<T> implements TaskCollection<T> {
     private static final Task.Namer NAMER = new Task.Namer();
 
     protected final ProjectInternal project;
+    protected final TaskRegistrations registrations;
 
     public DefaultTaskCollection(Class<T> type, Instantiator instantiator, ProjectInternal project) {
         super(type, instantiator, NAMER);
         this.project = project;
+        this.registrations = new TaskRegistrations();
     }
 
     public DefaultTaskCollection(DefaultTaskCollection<? super T> collection, CollectionFilter<T> filter, Instantiator instantiator, ProjectInternal project) {
         super(collection, filter, instantiator, NAMER);
         this.project = project;
+        this.registrations = collection.registrations;
     }
 
     protected <S extends T> DefaultTaskCollection<S> filtered(CollectionFilter<S> filter) {
@@ -70,6 +81,80 @@ public class DefaultTaskCollection<T extends Task> extends DefaultNamedDomainObj
         whenObjectAdded(closure);
     }
 
+    /**
+     * Creates the registered tasks that this collection could contain. Registered tasks of other types are left alone.
+     */
+    protected void realizeRegisteredTasks() {
+        registrations.realizeAll(getType());
+    }
+
+    @Override
+    protected <S extends T> Set<S> filteredStore(CollectionFilter<S> filter) {
+        // Filter the tasks that have been created, rather than this collection, so that iterating a filtered collection does not create every registered task
+        return new FilteredSet<T, S>((Set<T>) getStore(), filter);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        realizeRegisteredTasks();
+        return super.iterator();
+    }
+
+    @Override
+    public int size() {
+        realizeRegisteredTasks();
+        return super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        if (!super.isEmpty()) {
+            return false;
+        }
+        realizeRegisteredTasks();
+        return super.isEmpty();
+    }
+
+    @Override
+    public void all(Action<? super T> action) {
+        // Registered tasks receive the action when they are created
+        action = whenObjectAdded(action);
+        for (T t : new LinkedList<T>(getStore())) {
+            action.execute(t);
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        // Registered tasks are discarded without being created
+        registrations.removeAll(getType());
+    }
+
+    @Override
+    protected <S extends Collection<? super T>> S findAll(Closure cl, S matches) {
+        realizeRegisteredTasks();
+        return super.findAll(cl, matches);
+    }
+
+    @Override
+    public T findByName(String name) {
+        registrations.realize(name, getType());
+        return super.findByName(name);
+    }
+
+    @Override
+    public SortedMap<String, T> getAsMap() {
+        realizeRegisteredTasks();
+        return super.getAsMap();
+    }
+
+    @Override
+    public SortedSet<String> getNames() {
+        realizeRegisteredTasks();
+        return super.getNames();
+    }
+
     @Override
     public String getTypeDisplayName() {
         return "task";
@@ -67,9 +67,12 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         }
 
         Task existing = findByNameWithoutRules(name);
-        if (existing != null) {
+        if (existing != null || registrations.contains(name)) {
             if (replace) {
-                remove(existing);
+                if (existing != null) {
+                    remove(existing);
+                }
+                registrations.remove(name);
             } else {
                 throw new InvalidUserDataException(String.format(
                     "Cannot add %s as a task with that name already exists.", task));
@@ -133,6 +136,22 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return type.cast(create(GUtil.map(Task.TASK_NAME, name, Task.TASK_TYPE, type, Task.TASK_OVERWRITE, true)));
     }
 
+    public <T extends Task> void register(final String name, final Class<T> type, final Action<? super T> configureAction) {
+        assertMutable();
+        if (placeholders.remove(name)) {
+            modelNode.removeLink(name);
+        }
+        if (hasWithName(name) || registrations.contains(name)) {
+            throw new InvalidUserDataException(String.format(
+                "Cannot add task '%s' as a task with that name already exists.", project.absoluteProjectPath(name)));
+        }
+        registrations.add(name, type, new Runnable() {
+            public void run() {
+                create(name, type, configureAction);
+            }
+        });
+    }
+
     public Task findByPath(String path) {
         if (!GUtil.isTrue(path)) {
             throw new InvalidUserDataException("A path must be specified!");
@@ -180,7 +199,9 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     }
 
     public SortedSet<String> getNames() {
-        return Sets.newTreeSet(modelNode.getLinkNames());
+        SortedSet<String> names = Sets.newTreeSet(modelNode.getLinkNames());
+        names.addAll(registrations.getNames(Task.class));
+        return names;
     }
 
     public void realize() {
@@ -228,6 +249,9 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     }
 
     public <T extends TaskInternal> void addPlaceholderAction(final String placeholderName, final Class<T> taskType, final Action<? super T> configure) {
+        if (registrations.contains(placeholderName)) {
+            return;
+        }
         if (!modelNode.hasLink(placeholderName)) {
             final ModelType<T> taskModelType = ModelType.of(taskType);
             ModelPath path = MODEL_PATH.child(placeholderName);
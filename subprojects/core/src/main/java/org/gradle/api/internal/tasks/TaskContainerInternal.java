@@ -35,6 +35,16 @@ public interface TaskContainerInternal extends TaskContainer, TaskResolver, Poly
 
     <T extends TaskInternal> void addPlaceholderAction(String placeholderName, Class<T> type, Action<? super T> configure);
 
+    /**
+     * Registers a task that is created and configured only when it is required, either because it is looked up by name, because it is
+     * part of a collection that is iterated, or because it is selected for execution. Until then, only its name is known, through
+     * {@link #getNames()}.
+     *
+     * Unlike a placeholder action, a registered task is the definition of the task with that name: it is an error to create another task
+     * with the same name, unless that task replaces it.
+     */
+    <T extends Task> void register(String name, Class<T> type, Action<? super T> configureAction);
+
     /**
      * Force the entire graph to come into existence.
      *
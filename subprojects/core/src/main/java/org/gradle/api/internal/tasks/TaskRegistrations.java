@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks;
+
+import org.gradle.api.Task;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The tasks that have been registered with a task container but not created yet.
+ *
+ * Shared by a {@link DefaultTaskContainer} and all the collections filtered from it, so that a filtered collection
+ * creates only those registered tasks that it could contain.
+ */
+public class TaskRegistrations {
+    private final Map<String, Registration> registrations = new LinkedHashMap<String, Registration>();
+
+    public boolean isEmpty() {
+        return registrations.isEmpty();
+    }
+
+    public boolean contains(String name) {
+        return registrations.containsKey(name);
+    }
+
+    /**
+     * Registers a task. The given action is run to create and configure the task when it is first required.
+     */
+    public void add(String name, Class<? extends Task> type, Runnable realizeAction) {
+        registrations.put(name, new Registration(type, realizeAction));
+    }
+
+    /**
+     * Discards the registration with the given name, without creating the task.
+     */
+    public boolean remove(String name) {
+        return registrations.remove(name) != null;
+    }
+
+    /**
+     * Discards the registrations whose type is assignable to the given type, without creating the tasks.
+     */
+    public void removeAll(Class<?> type) {
+        for (String name : getNames(type)) {
+            registrations.remove(name);
+        }
+    }
+
+    /**
+     * Returns the names of the registered tasks whose type is assignable to the given type.
+     */
+    public Set<String> getNames(Class<?> type) {
+        Set<String> names = new TreeSet<String>();
+        for (Map.Entry<String, Registration> entry : registrations.entrySet()) {
+            if (type.isAssignableFrom(entry.getValue().type)) {
+                names.add(entry.getKey());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Creates the registered task with the given name, if there is one and its type is assignable to the given type.
+     */
+    public void realize(String name, Class<?> type) {
+        if (registrations.isEmpty()) {
+            return;
+        }
+        Registration registration = registrations.get(name);
+        if (registration != null && type.isAssignableFrom(registration.type)) {
+            registrations.remove(name);
+            registration.realizeAction.run();
+        }
+    }
+
+    /**
+     * Creates all registered tasks whose type is assignable to the given type, including those registered while doing so.
+     */
+    public void realizeAll(Class<?> type) {
+        while (!registrations.isEmpty()) {
+            Set<String> names = getNames(type);
+            if (names.isEmpty()) {
+                return;
+            }
+            for (String name : names) {
+                realize(name, type);
+            }
+        }
+    }
+
+    private static class Registration {
+        private final Class<? extends Task> type;
+        private final Runnable realizeAction;
+
+        public Registration(Class<? extends Task> type, Runnable realizeAction) {
+            this.type = type;
+            this.realizeAction = realizeAction;
+        }
+    }
+}
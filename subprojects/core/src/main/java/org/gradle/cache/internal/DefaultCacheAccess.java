@@ -23,6 +23,8 @@ import org.gradle.cache.PersistentIndexedCacheParameters;
 import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
 import org.gradle.cache.internal.cacheops.CacheAccessOperationsStack;
 import org.gradle.cache.internal.filelock.LockOptions;
+import org.gradle.cache.internal.stats.CacheStatistics;
+import org.gradle.cache.internal.stats.CacheStatisticsRegistry;
 import org.gradle.internal.Factories;
 import org.gradle.internal.Factory;
 import org.gradle.internal.UncheckedException;
@@ -49,6 +51,8 @@ public class DefaultCacheAccess implements CacheCoordinator {
     private final File baseDir;
     private final FileLockManager lockManager;
     private final CacheInitializationAction initializationAction;
+    private final CacheStatisticsRegistry statisticsRegistry;
+    private final CacheStatistics lockStatistics;
     private final FileAccess fileAccess = new UnitOfWorkFileAccess();
     private final Set<MultiProcessSafePersistentIndexedCache> caches = new HashSet<MultiProcessSafePersistentIndexedCache>();
     private final Lock lock = new ReentrantLock();
@@ -62,11 +66,17 @@ public class DefaultCacheAccess implements CacheCoordinator {
     private int cacheClosedCount;
 
     public DefaultCacheAccess(String cacheDisplayName, File lockTarget, File baseDir, FileLockManager lockManager, CacheInitializationAction initializationAction) {
+        this(cacheDisplayName, lockTarget, baseDir, lockManager, initializationAction, new CacheStatisticsRegistry());
+    }
+
+    public DefaultCacheAccess(String cacheDisplayName, File lockTarget, File baseDir, FileLockManager lockManager, CacheInitializationAction initializationAction, CacheStatisticsRegistry statisticsRegistry) {
         this.cacheDisplayName = cacheDisplayName;
         this.lockTarget = lockTarget;
         this.baseDir = baseDir;
         this.lockManager = lockManager;
         this.initializationAction = initializationAction;
+        this.statisticsRegistry = statisticsRegistry;
+        this.lockStatistics = statisticsRegistry.get(baseDir.getName());
         this.operations = new CacheAccessOperationsStack();
     }
 
@@ -83,7 +93,9 @@ public class DefaultCacheAccess implements CacheCoordinator {
             if (fileLock != null) {
                 throw new IllegalStateException("File lock " + lockTarget + " is already open.");
             }
+            long start = System.nanoTime();
             fileLock = lockManager.lock(lockTarget, lockOptions, cacheDisplayName);
+            lockStatistics.recordLockWait(System.nanoTime() - start);
 
             boolean rebuild = initializationAction.requiresInitialization(fileLock);
             if (rebuild) {
@@ -128,10 +140,13 @@ public class DefaultCacheAccess implements CacheCoordinator {
         }
     }
 
-    private void closeFileLock() {
+    private void closeFileLock(boolean compact) {
         try {
             cacheClosedCount++;
             try {
+                if (compact) {
+                    compactCaches();
+                }
                 // Close the caches and then notify them of the final state, in case the caches do work on close
                 new CompositeStoppable().add(caches).stop();
                 FileLock.State state = fileLock.getState();
@@ -148,6 +163,12 @@ public class DefaultCacheAccess implements CacheCoordinator {
         }
     }
 
+    private void compactCaches() {
+        for (MultiProcessSafePersistentIndexedCache cache : caches) {
+            cache.compact();
+        }
+    }
+
     public void close() {
         lock.lock();
         try {
@@ -159,7 +180,8 @@ public class DefaultCacheAccess implements CacheCoordinator {
                 throw new IllegalStateException(String.format("Cannot close %s as it is currently being used by another thread.", cacheDisplayName));
             }
             if (fileLock != null) {
-                closeFileLock();
+                // Only spend time rewriting the cache files when no other process is waiting for the lock
+                closeFileLock(!contended);
             }
             if (cacheClosedCount != 1) {
                 LOG.debug("Cache {} was closed {} times.", cacheDisplayName, cacheClosedCount);
@@ -209,12 +231,16 @@ public class DefaultCacheAccess implements CacheCoordinator {
     private void takeOwnership(String operationDisplayName) {
         lock.lock();
         try {
-            while (owner != null && owner != Thread.currentThread()) {
-                try {
-                    condition.await();
-                } catch (InterruptedException e) {
-                    throw UncheckedException.throwAsUncheckedException(e);
+            if (owner != null && owner != Thread.currentThread()) {
+                long start = System.nanoTime();
+                while (owner != null && owner != Thread.currentThread()) {
+                    try {
+                        condition.await();
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
                 }
+                lockStatistics.recordLockWait(System.nanoTime() - start);
             }
             owner = Thread.currentThread();
             operations.pushCacheAction(operationDisplayName);
@@ -321,7 +347,7 @@ public class DefaultCacheAccess implements CacheCoordinator {
             }
         };
 
-        MultiProcessSafePersistentIndexedCache<K, V> indexedCache = new DefaultMultiProcessSafePersistentIndexedCache<K, V>(indexedCacheFactory, fileAccess);
+        MultiProcessSafePersistentIndexedCache<K, V> indexedCache = new DefaultMultiProcessSafePersistentIndexedCache<K, V>(indexedCacheFactory, fileAccess, statisticsFor(cacheFile));
         CacheDecorator decorator = parameters.getCacheDecorator();
         indexedCache = decorator == null ? indexedCache : decorator.decorate(cacheFile.getAbsolutePath(), parameters.getCacheName(), indexedCache);
 
@@ -339,14 +365,20 @@ public class DefaultCacheAccess implements CacheCoordinator {
     }
 
     <K, V> BTreePersistentIndexedCache<K, V> doCreateCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
-        return new BTreePersistentIndexedCache<K, V>(cacheFile, keySerializer, valueSerializer);
+        return new BTreePersistentIndexedCache<K, V>(cacheFile, keySerializer, valueSerializer, statisticsFor(cacheFile));
+    }
+
+    private CacheStatistics statisticsFor(File cacheFile) {
+        return statisticsRegistry.get(baseDir.getName() + "/" + cacheFile.getName());
     }
 
     private boolean onStartWork() {
         if (fileLock != null) {
             return false;
         }
+        long start = System.nanoTime();
         fileLock = lockManager.lock(lockTarget, lockOptions.withMode(Exclusive), cacheDisplayName, operations.getDescription());
+        lockStatistics.recordLockWait(System.nanoTime() - start);
         if (initializationAction.requiresInitialization(fileLock)) {
             fileLock.writeFile(new Runnable() {
                 public void run() {
@@ -369,7 +401,7 @@ public class DefaultCacheAccess implements CacheCoordinator {
             return false;
         }
         if (contended || fileLock.getMode() == Shared) {
-            closeFileLock();
+            closeFileLock(false);
         }
         return true;
     }
@@ -422,7 +454,7 @@ public class DefaultCacheAccess implements CacheCoordinator {
 
                     takeOwnership("Other process requested access to " + cacheDisplayName);
                     try {
-                        closeFileLock();
+                        closeFileLock(false);
                     } finally {
                         releaseOwnership();
                     }
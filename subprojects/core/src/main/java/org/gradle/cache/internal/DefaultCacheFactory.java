@@ -18,6 +18,7 @@ package org.gradle.cache.internal;
 import org.gradle.api.Action;
 import org.gradle.cache.*;
 import org.gradle.cache.internal.filelock.LockOptions;
+import org.gradle.cache.internal.stats.CacheStatisticsRegistry;
 import org.gradle.internal.Factory;
 import org.gradle.internal.FileUtils;
 import org.gradle.internal.concurrent.CompositeStoppable;
@@ -32,10 +33,16 @@ import java.util.concurrent.locks.ReentrantLock;
 public class DefaultCacheFactory implements CacheFactory, Closeable {
     private final Map<File, DirCacheReference> dirCaches = new HashMap<File, DirCacheReference>();
     private final FileLockManager lockManager;
+    private final CacheStatisticsRegistry statisticsRegistry;
     private final Lock lock = new ReentrantLock();
 
     public DefaultCacheFactory(FileLockManager fileLockManager) {
+        this(fileLockManager, new CacheStatisticsRegistry());
+    }
+
+    public DefaultCacheFactory(FileLockManager fileLockManager, CacheStatisticsRegistry statisticsRegistry) {
         this.lockManager = fileLockManager;
+        this.statisticsRegistry = statisticsRegistry;
     }
 
     void onOpen(Object cache) {
@@ -76,7 +83,7 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
         File canonicalDir = FileUtils.canonicalize(cacheDir);
         DirCacheReference dirCacheReference = dirCaches.get(canonicalDir);
         if (dirCacheReference == null) {
-            ReferencablePersistentCache cache = new DefaultPersistentDirectoryCache(canonicalDir, displayName, validator, properties, lockOptions, action, lockManager);
+            ReferencablePersistentCache cache = new DefaultPersistentDirectoryCache(canonicalDir, displayName, validator, properties, lockOptions, action, lockManager, statisticsRegistry);
             cache.open();
             dirCacheReference = new DirCacheReference(cache, properties, lockOptions);
             dirCaches.put(canonicalDir, dirCacheReference);
@@ -98,7 +105,7 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
         File canonicalDir = FileUtils.canonicalize(storeDir);
         DirCacheReference dirCacheReference = dirCaches.get(canonicalDir);
         if (dirCacheReference == null) {
-            ReferencablePersistentCache cache = new DefaultPersistentDirectoryStore(canonicalDir, displayName, lockOptions, lockManager);
+            ReferencablePersistentCache cache = new DefaultPersistentDirectoryStore(canonicalDir, displayName, lockOptions, lockManager, statisticsRegistry);
             cache.open();
             dirCacheReference = new DirCacheReference(cache, Collections.<String, Object>emptyMap(), lockOptions);
             dirCaches.put(canonicalDir, dirCacheReference);
@@ -17,29 +17,45 @@ package org.gradle.cache.internal;
 
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
+import org.gradle.cache.internal.stats.CacheStatistics;
 import org.gradle.internal.Factory;
 
 public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements MultiProcessSafePersistentIndexedCache<K, V> {
     private final FileAccess fileAccess;
     private final Factory<BTreePersistentIndexedCache<K, V>> factory;
+    private final CacheStatistics statistics;
     private BTreePersistentIndexedCache<K, V> cache;
 
     public DefaultMultiProcessSafePersistentIndexedCache(Factory<BTreePersistentIndexedCache<K, V>> factory, FileAccess fileAccess) {
+        this(factory, fileAccess, CacheStatistics.NO_OP);
+    }
+
+    public DefaultMultiProcessSafePersistentIndexedCache(Factory<BTreePersistentIndexedCache<K, V>> factory, FileAccess fileAccess, CacheStatistics statistics) {
         this.factory = factory;
         this.fileAccess = fileAccess;
+        this.statistics = statistics;
     }
 
     public V get(final K key) {
         final PersistentIndexedCache<K, V> cache = getCache();
+        long start = System.nanoTime();
+        V value;
         try {
-            return fileAccess.readFile(new Factory<V>() {
+            value = fileAccess.readFile(new Factory<V>() {
                 public V create() {
                     return cache.get(key);
                 }
             });
         } catch (FileIntegrityViolationException e) {
-            return null;
+            value = null;
+        }
+        statistics.recordLoad(System.nanoTime() - start);
+        if (value == null) {
+            statistics.recordMiss();
+        } else {
+            statistics.recordHit();
         }
+        return value;
     }
 
     public void put(final K key, final V value) {
@@ -70,6 +86,16 @@ public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements Mult
     public void onEndWork(FileLock.State currentCacheState) {
     }
 
+    public void compact() {
+        if (cache != null) {
+            fileAccess.writeFile(new Runnable() {
+                public void run() {
+                    cache.maybeCompact();
+                }
+            });
+        }
+    }
+
     public void close() {
         if (cache != null) {
             try {
@@ -19,6 +19,7 @@ import org.gradle.api.Action;
 import org.gradle.cache.CacheValidator;
 import org.gradle.cache.PersistentCache;
 import org.gradle.cache.internal.filelock.LockOptions;
+import org.gradle.cache.internal.stats.CacheStatisticsRegistry;
 import org.gradle.util.GFileUtils;
 import org.gradle.util.GUtil;
 import org.slf4j.Logger;
@@ -37,7 +38,11 @@ public class DefaultPersistentDirectoryCache extends DefaultPersistentDirectoryS
     private boolean didRebuild;
 
     public DefaultPersistentDirectoryCache(File dir, String displayName, CacheValidator validator, Map<String, ?> properties, LockOptions lockOptions, Action<? super PersistentCache> initAction, FileLockManager lockManager) {
-        super(dir, displayName, lockOptions, lockManager);
+        this(dir, displayName, validator, properties, lockOptions, initAction, lockManager, new CacheStatisticsRegistry());
+    }
+
+    public DefaultPersistentDirectoryCache(File dir, String displayName, CacheValidator validator, Map<String, ?> properties, LockOptions lockOptions, Action<? super PersistentCache> initAction, FileLockManager lockManager, CacheStatisticsRegistry statisticsRegistry) {
+        super(dir, displayName, lockOptions, lockManager, statisticsRegistry);
         this.validator = validator;
         this.initAction = initAction;
         propertiesFile = new File(dir, "cache.properties");
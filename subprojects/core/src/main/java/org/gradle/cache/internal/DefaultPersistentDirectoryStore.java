@@ -19,6 +19,7 @@ import org.gradle.cache.CacheOpenException;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
 import org.gradle.cache.internal.filelock.LockOptions;
+import org.gradle.cache.internal.stats.CacheStatisticsRegistry;
 import org.gradle.internal.Factory;
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.util.GFileUtils;
@@ -30,12 +31,18 @@ public class DefaultPersistentDirectoryStore implements ReferencablePersistentCa
     private final LockOptions lockOptions;
     private final FileLockManager lockManager;
     private final String displayName;
+    private final CacheStatisticsRegistry statisticsRegistry;
     private CacheCoordinator cacheAccess;
 
     public DefaultPersistentDirectoryStore(File dir, String displayName, LockOptions lockOptions, FileLockManager fileLockManager) {
+        this(dir, displayName, lockOptions, fileLockManager, new CacheStatisticsRegistry());
+    }
+
+    public DefaultPersistentDirectoryStore(File dir, String displayName, LockOptions lockOptions, FileLockManager fileLockManager, CacheStatisticsRegistry statisticsRegistry) {
         this.dir = dir;
         this.lockOptions = lockOptions;
         this.lockManager = fileLockManager;
+        this.statisticsRegistry = statisticsRegistry;
         this.displayName = displayName != null ? (displayName + " (" + dir + ")") : ("cache directory " + dir.getName() + " (" + dir + ")");
     }
 
@@ -52,7 +59,7 @@ public class DefaultPersistentDirectoryStore implements ReferencablePersistentCa
     }
 
     private CacheCoordinator createCacheAccess() {
-        return new DefaultCacheAccess(displayName, getLockTarget(), dir, lockManager, getInitAction());
+        return new DefaultCacheAccess(displayName, getLockTarget(), dir, lockManager, getInitAction(), statisticsRegistry);
     }
 
     protected File getLockTarget() {
@@ -21,6 +21,11 @@ import java.io.Closeable;
 
 public interface MultiProcessSafePersistentIndexedCache<K, V> extends
         PersistentIndexedCache<K, V>, UnitOfWorkParticipant, Closeable {
+    /**
+     * Reclaims unused space in the backing file, if worthwhile. Called before {@link #close()}, only when the cache is being closed at the end of its use and no other process is waiting for the lock.
+     */
+    void compact();
+
     /**
      * Note: this method is called before {@link UnitOfWorkParticipant#onEndWork(org.gradle.cache.internal.FileLock.State)}.
      */
@@ -17,52 +17,71 @@ package org.gradle.cache.internal.btree;
 
 import org.gradle.api.UncheckedIOException;
 import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.internal.stats.CacheStatistics;
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 // todo - stream serialised value to file
-// todo - handle hash collisions (properly, this time)
 // todo - don't store null links to child blocks in leaf index blocks
 // todo - align block boundaries
 // todo - thread safety control
 // todo - merge small values into a single data block
 // todo - discard when file corrupt
 // todo - include data directly in index entry when serializer can guarantee small fixed sized data
-// todo - free list leaks disk space
 // todo - merge adjacent free blocks
 // todo - use more efficient lookup for free block with nearest size
 public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache<K, V> {
     private static final Logger LOGGER = LoggerFactory.getLogger(BTreePersistentIndexedCache.class);
+    private static final long MIN_COMPACTION_FILE_SIZE = 1024 * 1024;
+    private static final int COMPACTION_FREE_SPACE_PERCENT = 50;
+    // Bump this whenever the layout of a block changes, so that files written in an older format are discarded rather than misread
+    private static final int FORMAT_VERSION = 2;
     private final File cacheFile;
     private final Serializer<K> keySerializer;
     private final Serializer<V> serializer;
     private final short maxChildIndexEntries;
     private final int minIndexChildNodes;
+    private final int maxFreeListEntries;
+    private final FreeListBlockStore freeListStore;
     private final StateCheckBlockStore store;
+    private final CacheStatistics statistics;
     private HeaderBlock header;
 
     public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
-        this(cacheFile, keySerializer, valueSerializer, (short) 512, 512);
+        this(cacheFile, keySerializer, valueSerializer, CacheStatistics.NO_OP);
+    }
+
+    public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer, CacheStatistics statistics) {
+        this(cacheFile, keySerializer, valueSerializer, (short) 512, 512, statistics);
     }
 
     public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer,
                                        short maxChildIndexEntries, int maxFreeListEntries) {
+        this(cacheFile, keySerializer, valueSerializer, maxChildIndexEntries, maxFreeListEntries, CacheStatistics.NO_OP);
+    }
+
+    public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                                       short maxChildIndexEntries, int maxFreeListEntries, CacheStatistics statistics) {
         this.cacheFile = cacheFile;
+        this.statistics = statistics;
         this.keySerializer = keySerializer;
         this.serializer = valueSerializer;
         this.maxChildIndexEntries = maxChildIndexEntries;
         this.minIndexChildNodes = maxChildIndexEntries / 2;
+        this.maxFreeListEntries = maxFreeListEntries;
         BlockStore cachingStore = new CachingBlockStore(new FileBackedBlockStore(cacheFile), IndexBlock.class, FreeListBlockStore.FreeListBlock.class);
-        store = new StateCheckBlockStore(new FreeListBlockStore(cachingStore, maxFreeListEntries));
+        freeListStore = new FreeListBlockStore(cachingStore, maxFreeListEntries);
+        store = new StateCheckBlockStore(freeListStore);
         try {
             open();
         } catch (Exception e) {
@@ -131,31 +150,59 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
 
     public void put(K key, V value) {
         try {
-            MessageDigestStream digestStream = new MessageDigestStream();
-            KryoBackedEncoder encoder = new KryoBackedEncoder(digestStream);
-            keySerializer.write(encoder, key);
-            encoder.flush();
-            long hashCode = digestStream.getChecksum();
-            Lookup lookup = header.getRoot().find(hashCode);
-            boolean needNewBlock = true;
-            if (lookup.entry != null) {
-                DataBlock block = store.read(lookup.entry.dataBlock, DataBlock.class);
-                needNewBlock = !block.useNewValue(value);
-                if (needNewBlock) {
-                    store.remove(block);
-                }
+            doPut(hashKey(key), value);
+            store.flush();
+        } catch (Exception e) {
+            throw new UncheckedIOException(String.format("Could not add entry '%s' to %s.", key, this), e);
+        }
+    }
+
+    /**
+     * Adds the given entries to this cache. This is considerably faster than calling {@link #put(Object, Object)} for each
+     * entry, as the entries are inserted in index order, so that each index block is loaded once per run of adjacent keys,
+     * and the changes are flushed to disk once only.
+     */
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        List<PendingEntry<V>> pending = new ArrayList<PendingEntry<V>>(entries.size());
+        try {
+            for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+                pending.add(new PendingEntry<V>(hashKey(entry.getKey()), entry.getValue()));
             }
-            if (needNewBlock) {
-                DataBlock block = new DataBlock(value);
-                store.write(block);
-                lookup.indexBlock.put(hashCode, block.getPos());
+            Collections.sort(pending);
+            for (PendingEntry<V> entry : pending) {
+                doPut(entry.hash, entry.value);
             }
             store.flush();
         } catch (Exception e) {
-            throw new UncheckedIOException(String.format("Could not add entry '%s' to %s.", key, this), e);
+            throw new UncheckedIOException(String.format("Could not add %s entries to %s.", entries.size(), this), e);
         }
     }
 
+    private void doPut(KeyHash hash, V value) throws Exception {
+        Lookup lookup = header.getRoot().find(hash);
+        boolean needNewBlock = true;
+        if (lookup.entry != null) {
+            DataBlock block = store.read(lookup.entry.dataBlock, DataBlock.class);
+            needNewBlock = !block.useNewValue(value);
+            if (needNewBlock) {
+                store.remove(block);
+            }
+        }
+        if (needNewBlock) {
+            DataBlock block = new DataBlock(value);
+            store.write(block);
+            lookup.indexBlock.put(hash, block.getPos());
+        }
+    }
+
+    private KeyHash hashKey(K key) throws Exception {
+        MessageDigestStream digestStream = new MessageDigestStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(digestStream);
+        keySerializer.write(encoder, key);
+        encoder.close();
+        return digestStream.getHash();
+    }
+
     public void remove(K key) {
         try {
             Lookup lookup = header.getRoot().find(key);
@@ -201,6 +248,98 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         return store.isOpen();
     }
 
+    /**
+     * Returns true when a large enough proportion of the backing file is made up of free blocks that it is worth
+     * compacting this cache.
+     */
+    public boolean isCompactionRequired() {
+        long fileSize = cacheFile.length();
+        if (fileSize < MIN_COMPACTION_FILE_SIZE) {
+            return false;
+        }
+        return freeListStore.getFreeSpace() * 100 > fileSize * COMPACTION_FREE_SPACE_PERCENT;
+    }
+
+    /**
+     * Compacts this cache if {@link #isCompactionRequired()}. Does not fail when the cache cannot be compacted.
+     * Should only be called while holding an exclusive lock on the cache.
+     */
+    public void maybeCompact() {
+        if (!isOpen() || !isCompactionRequired()) {
+            return;
+        }
+        try {
+            compact();
+        } catch (Exception e) {
+            LOGGER.warn(String.format("Could not compact %s.", this), e);
+        }
+    }
+
+    /**
+     * Rewrites the live entries of this cache, in key order, into a new file that then replaces the backing file of
+     * this cache. Should only be called while holding an exclusive lock on the cache.
+     */
+    public void compact() {
+        LOGGER.debug("Compacting {}", this);
+        File compactedFile = new File(cacheFile.getParentFile(), cacheFile.getName() + ".compact");
+        try {
+            GFileUtils.deleteQuietly(compactedFile);
+            BTreePersistentIndexedCache<K, V> compacted = new BTreePersistentIndexedCache<K, V>(compactedFile, keySerializer, serializer, maxChildIndexEntries, maxFreeListEntries);
+            try {
+                copyEntries(header.getRoot(), compacted);
+            } finally {
+                compacted.close();
+            }
+        } catch (Exception e) {
+            GFileUtils.deleteQuietly(compactedFile);
+            throw new UncheckedIOException(String.format("Could not compact %s.", this), e);
+        }
+
+        store.close();
+        try {
+            replaceCacheFile(compactedFile);
+        } finally {
+            try {
+                open();
+            } catch (Exception e) {
+                throw new UncheckedIOException(String.format("Could not open %s.", this), e);
+            }
+        }
+    }
+
+    private void copyEntries(IndexBlock block, BTreePersistentIndexedCache<K, V> target) throws Exception {
+        for (IndexEntry entry : block.entries) {
+            if (!entry.childIndexBlock.isNull()) {
+                copyEntries(store.read(entry.childIndexBlock, IndexBlock.class), target);
+            }
+            DataBlock dataBlock = store.read(entry.dataBlock, DataBlock.class);
+            target.append(entry.hash, dataBlock.serialisedValue);
+        }
+        if (!block.tailPos.isNull()) {
+            copyEntries(store.read(block.tailPos, IndexBlock.class), target);
+        }
+    }
+
+    private void append(KeyHash hash, byte[] serialisedValue) throws Exception {
+        Lookup lookup = header.getRoot().find(hash);
+        DataBlock block = new DataBlock();
+        block.serialisedValue = serialisedValue;
+        block.size = serialisedValue.length;
+        store.write(block);
+        lookup.indexBlock.put(hash, block.getPos());
+    }
+
+    private void replaceCacheFile(File compactedFile) {
+        // A rename is atomic on most platforms, but cannot replace an existing file on Windows
+        if (compactedFile.renameTo(cacheFile)) {
+            return;
+        }
+        if (!cacheFile.delete() || !compactedFile.renameTo(cacheFile)) {
+            GFileUtils.deleteQuietly(compactedFile);
+            throw new UncheckedIOException(String.format("Could not replace %s with compacted file %s.", this, compactedFile));
+        }
+    }
+
     private void rebuild() throws Exception {
         LOGGER.warn("{} is corrupt. Discarding.", this);
         store.clear();
@@ -222,7 +361,7 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
 
         HeaderBlock header = store.readFirst(HeaderBlock.class);
         blocks.add(header);
-        verifyTree(header.getRoot(), "", blocks, Long.MAX_VALUE, true);
+        verifyTree(header.getRoot(), "", blocks, null, true);
 
         Collections.sort(blocks, new Comparator<BlockPayload>() {
             public int compare(BlockPayload block, BlockPayload block1) {
@@ -239,7 +378,7 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         }
     }
 
-    private void verifyTree(IndexBlock current, String prefix, Collection<BlockPayload> blocks, long maxValue,
+    private void verifyTree(IndexBlock current, String prefix, Collection<BlockPayload> blocks, KeyHash maxValue,
                             boolean loadData) throws Exception {
         blocks.add(current);
 
@@ -255,18 +394,18 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
             throw new IOException(String.format("Mismatched leaf/tail-node in %s", current));
         }
 
-        long min = Long.MIN_VALUE;
+        KeyHash min = null;
         for (IndexEntry entry : current.entries) {
             if (isLeaf ^ entry.childIndexBlock.isNull()) {
                 throw new IOException(String.format("Mismatched leaf/non-leaf entry in %s", current));
             }
-            if (entry.hashCode >= maxValue || entry.hashCode <= min) {
+            if ((maxValue != null && entry.hash.compareTo(maxValue) >= 0) || (min != null && entry.hash.compareTo(min) <= 0)) {
                 throw new IOException(String.format("Out-of-order key in %s", current));
             }
-            min = entry.hashCode;
+            min = entry.hash;
             if (!entry.childIndexBlock.isNull()) {
                 IndexBlock child = store.read(entry.childIndexBlock, IndexBlock.class);
-                verifyTree(child, "   " + prefix, blocks, entry.hashCode, loadData);
+                verifyTree(child, "   " + prefix, blocks, entry.hash, loadData);
             }
             if (loadData) {
                 DataBlock block = store.read(entry.dataBlock, DataBlock.class);
@@ -318,7 +457,7 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
 
         @Override
         protected int getSize() {
-            return Block.LONG_SIZE + Block.SHORT_SIZE;
+            return Block.LONG_SIZE + Block.SHORT_SIZE + Block.INT_SIZE;
         }
 
         @Override
@@ -329,12 +468,17 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
             if (actualChildIndexEntries != maxChildIndexEntries) {
                 throw blockCorruptedException();
             }
+            int actualFormatVersion = instr.readInt();
+            if (actualFormatVersion != FORMAT_VERSION) {
+                throw blockCorruptedException();
+            }
         }
 
         @Override
         protected void write(DataOutputStream outstr) throws Exception {
             outstr.writeLong(index.rootPos.getPos());
             outstr.writeShort(maxChildIndexEntries);
+            outstr.writeInt(FORMAT_VERSION);
         }
 
         public IndexBlock getRoot() throws Exception {
@@ -357,7 +501,7 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
 
         @Override
         protected int getSize() {
-            return Block.INT_SIZE + Block.LONG_SIZE + (3 * Block.LONG_SIZE) * maxChildIndexEntries;
+            return Block.INT_SIZE + Block.LONG_SIZE + IndexEntry.SIZE * maxChildIndexEntries;
         }
 
         public void read(DataInputStream instr) throws IOException {
@@ -365,7 +509,7 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
             entries.clear();
             for (int i = 0; i < count; i++) {
                 IndexEntry entry = new IndexEntry();
-                entry.hashCode = instr.readLong();
+                entry.hash = new KeyHash(instr.readLong(), instr.readLong());
                 entry.dataBlock = new BlockPointer(instr.readLong());
                 entry.childIndexBlock = new BlockPointer(instr.readLong());
                 entries.add(entry);
@@ -376,22 +520,23 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         public void write(DataOutputStream outstr) throws IOException {
             outstr.writeInt(entries.size());
             for (IndexEntry entry : entries) {
-                outstr.writeLong(entry.hashCode);
+                outstr.writeLong(entry.hash.high);
+                outstr.writeLong(entry.hash.low);
                 outstr.writeLong(entry.dataBlock.getPos());
                 outstr.writeLong(entry.childIndexBlock.getPos());
             }
             outstr.writeLong(tailPos.getPos());
         }
 
-        public void put(long hashCode, BlockPointer pos) throws Exception {
-            int index = Collections.binarySearch(entries, new IndexEntry(hashCode));
+        public void put(KeyHash hash, BlockPointer pos) throws Exception {
+            int index = indexOf(hash);
             IndexEntry entry;
             if (index >= 0) {
                 entry = entries.get(index);
             } else {
                 assert tailPos.isNull();
                 entry = new IndexEntry();
-                entry.hashCode = hashCode;
+                entry.hash = hash;
                 entry.childIndexBlock = new BlockPointer();
                 index = -index - 1;
                 entries.add(index, entry);
@@ -449,16 +594,11 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         }
 
         public Lookup find(K key) throws Exception {
-            MessageDigestStream digestStream = new MessageDigestStream();
-            KryoBackedEncoder encoder = new KryoBackedEncoder(digestStream);
-            keySerializer.write(encoder, key);
-            encoder.flush();
-            long checksum = digestStream.getChecksum();
-            return find(checksum);
+            return find(hashKey(key));
         }
 
-        private Lookup find(long hashCode) throws Exception {
-            int index = Collections.binarySearch(entries, new IndexEntry(hashCode));
+        private Lookup find(KeyHash hash) throws Exception {
+            int index = indexOf(hash);
             if (index >= 0) {
                 return new Lookup(this, entries.get(index));
             }
@@ -475,7 +615,27 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
             }
 
             IndexBlock childBlock = load(childBlockPos, root, this, index);
-            return childBlock.find(hashCode);
+            return childBlock.find(hash);
+        }
+
+        /**
+         * Locates the entry with the given hash, using the same contract as {@link Collections#binarySearch(List, Object)}.
+         */
+        private int indexOf(KeyHash hash) {
+            int low = 0;
+            int high = entries.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int diff = entries.get(mid).hash.compareTo(hash);
+                if (diff < 0) {
+                    low = mid + 1;
+                } else if (diff > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
         }
 
         public void remove(IndexEntry entry) throws Exception {
@@ -601,29 +761,52 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         }
     }
 
-    private static class IndexEntry implements Comparable<IndexEntry> {
-        long hashCode;
+    private static class IndexEntry {
+        // Entries are fixed width: the key hash, followed by the data block and child index block pointers
+        static final int SIZE = 4 * Block.LONG_SIZE;
+        KeyHash hash;
         BlockPointer dataBlock;
         BlockPointer childIndexBlock;
+    }
 
-        private IndexEntry() {
-        }
+    /**
+     * The 128 bit MD5 digest of a serialized key. Entries are identified by this hash alone, as the chance of two keys sharing
+     * a digest is negligible.
+     */
+    private static class KeyHash implements Comparable<KeyHash> {
+        final long high;
+        final long low;
 
-        private IndexEntry(long hashCode) {
-            this.hashCode = hashCode;
+        private KeyHash(long high, long low) {
+            this.high = high;
+            this.low = low;
         }
 
-        public int compareTo(IndexEntry indexEntry) {
-            if (hashCode > indexEntry.hashCode) {
-                return 1;
+        public int compareTo(KeyHash other) {
+            if (high != other.high) {
+                return high > other.high ? 1 : -1;
             }
-            if (hashCode < indexEntry.hashCode) {
-                return -1;
+            if (low != other.low) {
+                return low > other.low ? 1 : -1;
             }
             return 0;
         }
     }
 
+    private static class PendingEntry<V> implements Comparable<PendingEntry<V>> {
+        final KeyHash hash;
+        final V value;
+
+        private PendingEntry(KeyHash hash, V value) {
+            this.hash = hash;
+            this.value = value;
+        }
+
+        public int compareTo(PendingEntry<V> other) {
+            return hash.compareTo(other.hash);
+        }
+    }
+
     private class Lookup {
         final IndexBlock indexBlock;
         final IndexEntry entry;
@@ -652,13 +835,18 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
             ByteArrayOutputStream outStr = new ByteArrayOutputStream();
             KryoBackedEncoder encoder = new KryoBackedEncoder(outStr);
             serializer.write(encoder, value);
-            encoder.flush();
+            encoder.close();
             this.serialisedValue = outStr.toByteArray();
         }
 
         public V getValue() throws Exception {
             if (value == null) {
-                value = serializer.read(new KryoBackedDecoder(new ByteArrayInputStream(serialisedValue)));
+                KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(serialisedValue));
+                try {
+                    value = serializer.read(decoder);
+                } finally {
+                    decoder.close();
+                }
             }
             return value;
         }
@@ -678,12 +866,14 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
             int bytes = instr.readInt();
             serialisedValue = new byte[bytes];
             instr.readFully(serialisedValue);
+            statistics.recordBytesRead(bytes);
         }
 
         public void write(DataOutputStream outstr) throws Exception {
             outstr.writeInt(size);
             outstr.writeInt(serialisedValue.length);
             outstr.write(serialisedValue);
+            statistics.recordBytesWritten(serialisedValue.length);
         }
 
         public boolean useNewValue(V value) throws Exception {
@@ -718,10 +908,11 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
             messageDigest.update(b, off, len);
         }
 
-        long getChecksum() {
+        KeyHash getHash() {
             byte[] digest = messageDigest.digest();
             assert digest.length == 16;
-            return new BigInteger(digest).longValue();
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new KeyHash(buffer.getLong(), buffer.getLong());
         }
     }
 }
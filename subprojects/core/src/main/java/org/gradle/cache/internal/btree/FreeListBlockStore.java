@@ -92,6 +92,21 @@ public class FreeListBlockStore implements BlockStore {
         store.flush();
     }
 
+    /**
+     * Returns the total number of bytes held by blocks in the free list.
+     */
+    public long getFreeSpace() {
+        long freeSpace = 0;
+        FreeListBlock block = freeListBlock;
+        while (block != null) {
+            for (FreeListEntry entry : block.entries) {
+                freeSpace += entry.size;
+            }
+            block = block.nextBlock.isNull() ? null : block.getNextBlock();
+        }
+        return freeSpace;
+    }
+
     private void verify() {
         FreeListBlock block = store.readFirst(FreeListBlock.class);
         verify(block, Integer.MAX_VALUE);
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.stats;
+
+/**
+ * Receives the events of a single cache, for reporting. Implementations must be cheap to call, and safe to call from multiple threads.
+ */
+public interface CacheStatistics {
+    CacheStatistics NO_OP = new CacheStatistics() {
+        public void recordHit() {
+        }
+
+        public void recordMiss() {
+        }
+
+        public void recordLoad(long durationNanos) {
+        }
+
+        public void recordEviction() {
+        }
+
+        public void recordBytesRead(long count) {
+        }
+
+        public void recordBytesWritten(long count) {
+        }
+
+        public void recordLockWait(long durationNanos) {
+        }
+    };
+
+    /**
+     * Called when a requested entry was found in the cache.
+     */
+    void recordHit();
+
+    /**
+     * Called when a requested entry was not found in the cache.
+     */
+    void recordMiss();
+
+    /**
+     * Called when a value has been read from the backing store or calculated, with the time this took.
+     */
+    void recordLoad(long durationNanos);
+
+    /**
+     * Called when an entry is discarded to make room for other entries.
+     */
+    void recordEviction();
+
+    void recordBytesRead(long count);
+
+    void recordBytesWritten(long count);
+
+    /**
+     * Called when access to the cache had to wait for a lock, with the time spent waiting.
+     */
+    void recordLockWait(long durationNanos);
+}
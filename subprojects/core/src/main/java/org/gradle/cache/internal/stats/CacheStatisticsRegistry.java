@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.stats;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the statistics of all caches of the process, keyed by cache name. Caches with the same name share their statistics.
+ */
+@ThreadSafe
+public class CacheStatisticsRegistry {
+    private final ConcurrentMap<String, DefaultCacheStatistics> statistics = new ConcurrentHashMap<String, DefaultCacheStatistics>();
+
+    public CacheStatistics get(String cacheName) {
+        DefaultCacheStatistics cacheStatistics = statistics.get(cacheName);
+        if (cacheStatistics == null) {
+            cacheStatistics = new DefaultCacheStatistics();
+            DefaultCacheStatistics existing = statistics.putIfAbsent(cacheName, cacheStatistics);
+            if (existing != null) {
+                cacheStatistics = existing;
+            }
+        }
+        return cacheStatistics;
+    }
+
+    public SortedMap<String, CacheStatisticsSnapshot> snapshot() {
+        SortedMap<String, CacheStatisticsSnapshot> result = new TreeMap<String, CacheStatisticsSnapshot>();
+        for (Map.Entry<String, DefaultCacheStatistics> entry : statistics.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the activity of each cache since the given snapshot was taken. Caches without any activity are not included.
+     */
+    public SortedMap<String, CacheStatisticsSnapshot> getActivitySince(Map<String, CacheStatisticsSnapshot> previous) {
+        SortedMap<String, CacheStatisticsSnapshot> result = new TreeMap<String, CacheStatisticsSnapshot>();
+        for (Map.Entry<String, CacheStatisticsSnapshot> entry : snapshot().entrySet()) {
+            CacheStatisticsSnapshot earlier = previous.get(entry.getKey());
+            CacheStatisticsSnapshot activity = earlier == null ? entry.getValue() : entry.getValue().minus(earlier);
+            if (activity.hasActivity()) {
+                result.put(entry.getKey(), activity);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.stats;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable view of the statistics of a cache at some point in time.
+ */
+public class CacheStatisticsSnapshot {
+    public static final CacheStatisticsSnapshot EMPTY = new CacheStatisticsSnapshot(0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long loadTimeNanos;
+    private final long evictions;
+    private final long bytesRead;
+    private final long bytesWritten;
+    private final long lockWaits;
+    private final long lockWaitNanos;
+
+    public CacheStatisticsSnapshot(long hits, long misses, long loads, long loadTimeNanos, long evictions, long bytesRead, long bytesWritten, long lockWaits, long lockWaitNanos) {
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.loadTimeNanos = loadTimeNanos;
+        this.evictions = evictions;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+        this.lockWaits = lockWaits;
+        this.lockWaitNanos = lockWaitNanos;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the proportion of requests that were hits, between 0 and 1. Returns 0 when there were no requests.
+     */
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    public long getLoads() {
+        return loads;
+    }
+
+    public long getLoadTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(loadTimeNanos);
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getLockWaits() {
+        return lockWaits;
+    }
+
+    public long getLockWaitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lockWaitNanos);
+    }
+
+    public boolean hasActivity() {
+        return hits != 0 || misses != 0 || loads != 0 || evictions != 0 || bytesRead != 0 || bytesWritten != 0 || lockWaits != 0;
+    }
+
+    /**
+     * Returns the activity that happened between the given earlier snapshot and this one.
+     */
+    public CacheStatisticsSnapshot minus(CacheStatisticsSnapshot earlier) {
+        return new CacheStatisticsSnapshot(hits - earlier.hits, misses - earlier.misses, loads - earlier.loads, loadTimeNanos - earlier.loadTimeNanos,
+            evictions - earlier.evictions, bytesRead - earlier.bytesRead, bytesWritten - earlier.bytesWritten, lockWaits - earlier.lockWaits, lockWaitNanos - earlier.lockWaitNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits: %s, misses: %s, loads: %s (%sms), evictions: %s, bytes read: %s, bytes written: %s, lock waits: %s (%sms)",
+            hits, misses, loads, getLoadTimeMillis(), evictions, bytesRead, bytesWritten, lockWaits, getLockWaitTimeMillis());
+    }
+}
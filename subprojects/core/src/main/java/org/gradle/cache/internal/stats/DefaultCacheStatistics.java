@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.stats;
+
+/**
+ * Collects statistics using {@link StripedCounter}s, so that recording does not introduce contention between threads sharing a cache.
+ */
+public class DefaultCacheStatistics implements CacheStatistics {
+    private final StripedCounter hits = new StripedCounter();
+    private final StripedCounter misses = new StripedCounter();
+    private final StripedCounter loads = new StripedCounter();
+    private final StripedCounter loadTime = new StripedCounter();
+    private final StripedCounter evictions = new StripedCounter();
+    private final StripedCounter bytesRead = new StripedCounter();
+    private final StripedCounter bytesWritten = new StripedCounter();
+    private final StripedCounter lockWaits = new StripedCounter();
+    private final StripedCounter lockWaitTime = new StripedCounter();
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordLoad(long durationNanos) {
+        loads.increment();
+        loadTime.add(durationNanos);
+    }
+
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    public void recordBytesRead(long count) {
+        bytesRead.add(count);
+    }
+
+    public void recordBytesWritten(long count) {
+        bytesWritten.add(count);
+    }
+
+    public void recordLockWait(long durationNanos) {
+        lockWaits.increment();
+        lockWaitTime.add(durationNanos);
+    }
+
+    public CacheStatisticsSnapshot snapshot() {
+        return new CacheStatisticsSnapshot(hits.get(), misses.get(), loads.get(), loadTime.get(), evictions.get(), bytesRead.get(), bytesWritten.get(), lockWaits.get(), lockWaitTime.get());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that spreads concurrent updates over several cells, so that threads updating the same counter rarely contend on the same memory.
+ * Reading the value sums the cells, and is not atomic with respect to concurrent updates.
+ */
+public class StripedCounter {
+    private static final int STRIPES = stripesFor(Runtime.getRuntime().availableProcessors());
+    // Cells are spaced 64 bytes apart, so that each stripe sits on its own cache line
+    private static final int SPACING = 8;
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * SPACING);
+
+    public void increment() {
+        add(1);
+    }
+
+    public void add(long delta) {
+        cells.getAndAdd(cellForCurrentThread(), delta);
+    }
+
+    public long get() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.get(i * SPACING);
+        }
+        return sum;
+    }
+
+    private static int cellForCurrentThread() {
+        return (int) (Thread.currentThread().getId() & (STRIPES - 1)) * SPACING;
+    }
+
+    static int stripesFor(int processors) {
+        int stripes = 1;
+        while (stripes < processors && stripes < 16) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration;
+
+import org.gradle.api.Project;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.groovy.scripts.ScriptCompiler;
+import org.gradle.groovy.scripts.ScriptCompilerFactory;
+import org.gradle.groovy.scripts.ScriptRunner;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.internal.Actions;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.model.dsl.internal.transform.ClosureCreationInterceptingVerifier;
+import org.gradle.plugin.use.internal.PluginRequests;
+import org.gradle.util.Clock;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Compiles the build scripts of all projects in parallel, once the projects have been loaded and before any of them is configured.
+ * The compiled scripts end up in the script caches, where configuration finds them instead of compiling the scripts one after the other.
+ *
+ * <p>Pass 1 of each script is compiled against the base class loader of the build, just as it is during configuration. Pass 2 has to be compiled against the
+ * class loader of the project, which is only known once the project and its parents have run their {@code buildscript {}} and {@code plugins {}} blocks.
+ * It is compiled up front only when neither the project nor any of its parents have such blocks, as the class loader of the project is then the base class loader.</p>
+ *
+ * <p>Compilation failures are ignored here, so that they are reported as usual when the script is compiled again during configuration.</p>
+ */
+public class BuildScriptPrecompiler {
+    public static final String ENABLED_PROPERTY = "org.gradle.scripts.precompile";
+    private static final Logger LOGGER = Logging.getLogger(BuildScriptPrecompiler.class);
+
+    private final ScriptCompilerFactory scriptCompilerFactory;
+    private final DocumentationRegistry documentationRegistry;
+    private final ExecutorFactory executorFactory;
+
+    public BuildScriptPrecompiler(ScriptCompilerFactory scriptCompilerFactory, DocumentationRegistry documentationRegistry, ExecutorFactory executorFactory) {
+        this.scriptCompilerFactory = scriptCompilerFactory;
+        this.documentationRegistry = documentationRegistry;
+        this.executorFactory = executorFactory;
+    }
+
+    public void precompile(GradleInternal gradle) {
+        if (!Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"))) {
+            return;
+        }
+        ClassLoaderScope baseScope = gradle.getRootProject().getBaseClassLoaderScope();
+        if (!baseScope.isLocked()) {
+            // Asking for the class loader now would make the scope build its class loaders before everything has been added to it
+            return;
+        }
+        List<ProjectInternal> projects = new ArrayList<ProjectInternal>();
+        for (Project project : gradle.getRootProject().getAllprojects()) {
+            ProjectInternal projectInternal = (ProjectInternal) project;
+            if (isPrecompilable(projectInternal.getBuildScriptSource())) {
+                projects.add(projectInternal);
+            }
+        }
+        int workerCount = Math.min(projects.size(), gradle.getStartParameter().getMaxWorkerCount());
+        if (workerCount < 2) {
+            return;
+        }
+
+        Clock clock = new Clock();
+        ClassLoader baseClassLoader = baseScope.getExportClassLoader();
+        StoppableExecutor executor = executorFactory.create("Build script compiler", workerCount);
+        try {
+            Map<ProjectInternal, Future<Boolean>> initialPasses = new LinkedHashMap<ProjectInternal, Future<Boolean>>();
+            for (ProjectInternal project : projects) {
+                initialPasses.put(project, executor.submit(new InitialPassCompilation(project, baseClassLoader)));
+            }
+            Set<ProjectInternal> contributingToClassLoader = new HashSet<ProjectInternal>();
+            for (Map.Entry<ProjectInternal, Future<Boolean>> entry : initialPasses.entrySet()) {
+                if (await(entry.getValue())) {
+                    contributingToClassLoader.add(entry.getKey());
+                }
+            }
+
+            List<Future<Boolean>> mainPasses = new ArrayList<Future<Boolean>>();
+            for (ProjectInternal project : projects) {
+                if (!isContributingToClassLoader(project, contributingToClassLoader)) {
+                    mainPasses.add(executor.submit(new MainPassCompilation(project, baseClassLoader)));
+                }
+            }
+            for (Future<Boolean> mainPass : mainPasses) {
+                await(mainPass);
+            }
+            LOGGER.debug("Precompiled the build scripts of {} projects using {} threads in {}.", projects.size(), workerCount, clock.getTime());
+        } finally {
+            executor.stop();
+        }
+    }
+
+    private static boolean isPrecompilable(ScriptSource source) {
+        // Other kinds of scripts are handled by other script plugin factories, see ScriptPluginFactorySelector
+        return source.getFileName().endsWith(".gradle") && source.getResource().getExists();
+    }
+
+    private static boolean isContributingToClassLoader(ProjectInternal project, Set<ProjectInternal> contributingToClassLoader) {
+        for (ProjectInternal current = project; current != null; current = current.getParent()) {
+            if (contributingToClassLoader.contains(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean await(Future<Boolean> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+
+    /**
+     * Compiles pass 1 of a build script. Returns true when the script may add to the class loader of the project, or when this is unknown because the script failed to compile.
+     */
+    private class InitialPassCompilation implements Callable<Boolean> {
+        private final ProjectInternal project;
+        private final ClassLoader classLoader;
+
+        InitialPassCompilation(ProjectInternal project, ClassLoader classLoader) {
+            this.project = project;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public Boolean call() {
+            ScriptSource source = project.getBuildScriptSource();
+            ScriptTarget target = new ProjectScriptTarget(project);
+            try {
+                ScriptCompiler compiler = scriptCompilerFactory.createCompiler(source);
+                ScriptRunner<?, PluginRequests> runner = compiler.compile(target.getScriptClass(), DefaultScriptPluginFactory.initialPassOperation(source, target, documentationRegistry), classLoader, Actions.doNothing());
+                return runner.getRunDoesSomething() || !runner.getData().isEmpty();
+            } catch (Exception e) {
+                LOGGER.debug("Could not precompile {}. It will be compiled when the project is configured.", source.getDisplayName(), e);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Compiles pass 2 of a build script.
+     */
+    private class MainPassCompilation implements Callable<Boolean> {
+        private final ProjectInternal project;
+        private final ClassLoader classLoader;
+
+        MainPassCompilation(ProjectInternal project, ClassLoader classLoader) {
+            this.project = project;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public Boolean call() {
+            ScriptSource source = project.getBuildScriptSource();
+            ScriptTarget target = new ProjectScriptTarget(project);
+            try {
+                ScriptCompiler compiler = scriptCompilerFactory.createCompiler(source);
+                compiler.compile(target.getScriptClass(), DefaultScriptPluginFactory.mainPassOperation(source, target), classLoader, ClosureCreationInterceptingVerifier.INSTANCE);
+                return true;
+            } catch (Exception e) {
+                LOGGER.debug("Could not precompile {}. It will be compiled when the project is configured.", source.getDisplayName(), e);
+                return false;
+            }
+        }
+    }
+}
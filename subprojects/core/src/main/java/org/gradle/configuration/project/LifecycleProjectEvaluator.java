@@ -15,13 +15,18 @@
  */
 package org.gradle.configuration.project;
 
+import org.gradle.api.CircularReferenceException;
 import org.gradle.api.ProjectConfigurationException;
 import org.gradle.api.ProjectEvaluationListener;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.ProjectStateInternal;
+import org.gradle.internal.UncheckedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Manages lifecycle concerns while delegating actual evaluation to another evaluator
  *
@@ -31,17 +36,84 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
     private static final Logger LOGGER = LoggerFactory.getLogger(LifecycleProjectEvaluator.class);
 
     private final ProjectEvaluator delegate;
+    private final Object lock = new Object();
+    private final Map<ProjectStateInternal, Thread> evaluatingThreads = new HashMap<ProjectStateInternal, Thread>();
+    private final Map<Thread, ProjectStateInternal> waitingThreads = new HashMap<Thread, ProjectStateInternal>();
 
     public LifecycleProjectEvaluator(ProjectEvaluator delegate) {
         this.delegate = delegate;
     }
 
     public void evaluate(ProjectInternal project, ProjectStateInternal state) {
-        //TODO this is one of the places to look into thread safety when we implement parallel configuration
-        if (state.getExecuted() || state.getExecuting()) {
+        if (!startEvaluation(project, state)) {
             return;
         }
+        try {
+            doEvaluate(project, state);
+        } finally {
+            finishEvaluation(state);
+        }
+    }
+
+    /**
+     * Claims the project for the current thread. When projects are configured in parallel, another thread may be configuring the project. In this
+     * case, waits for the other thread to finish, so that the project is configured when evaluation returns.
+     *
+     * @return true if the current thread should configure the project.
+     */
+    private boolean startEvaluation(ProjectInternal project, ProjectStateInternal state) {
+        Thread currentThread = Thread.currentThread();
+        synchronized (lock) {
+            while (true) {
+                Thread owner = evaluatingThreads.get(state);
+                if (owner == null) {
+                    if (state.getExecuted() || state.getExecuting()) {
+                        return false;
+                    }
+                    evaluatingThreads.put(state, currentThread);
+                    return true;
+                }
+                if (owner == currentThread) {
+                    return false;
+                }
+                if (waitsFor(owner, currentThread)) {
+                    throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.", project));
+                }
+                waitingThreads.put(currentThread, state);
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                } finally {
+                    waitingThreads.remove(currentThread);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the given thread is waiting, directly or through other threads, for a project that is being configured by the given owner.
+     */
+    private boolean waitsFor(Thread thread, Thread owner) {
+        ProjectStateInternal awaited = waitingThreads.get(thread);
+        while (awaited != null) {
+            Thread awaitedOwner = evaluatingThreads.get(awaited);
+            if (awaitedOwner == owner) {
+                return true;
+            }
+            awaited = waitingThreads.get(awaitedOwner);
+        }
+        return false;
+    }
+
+    private void finishEvaluation(ProjectStateInternal state) {
+        synchronized (lock) {
+            evaluatingThreads.remove(state);
+            lock.notifyAll();
+        }
+    }
 
+    private void doEvaluate(ProjectInternal project, ProjectStateInternal state) {
         ProjectEvaluationListener listener = project.getProjectEvaluationBroadcaster();
         try {
             listener.beforeEvaluate(project);
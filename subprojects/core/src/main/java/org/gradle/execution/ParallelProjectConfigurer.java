@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.execution;
+
+import org.gradle.StartParameter;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link ProjectConfigurer} that configures the projects of a hierarchy concurrently, when enabled using {@link org.gradle.StartParameter#isConfigureInParallel()}.
+ *
+ * <p>The root project is configured first. Each subproject is then configured by a worker thread as soon as its parent project has been configured,
+ * as project properties are inherited from the parent. This relies on the projects being decoupled: a project that uses the state of another project
+ * must declare this using {@link Project#evaluationDependsOn(String)}, which waits for the other project when it is being configured by another
+ * thread.</p>
+ */
+public class ParallelProjectConfigurer implements ProjectConfigurer {
+    private final ProjectConfigurer delegate;
+    private final ExecutorFactory executorFactory;
+
+    public ParallelProjectConfigurer(ProjectConfigurer delegate, ExecutorFactory executorFactory) {
+        this.delegate = delegate;
+        this.executorFactory = executorFactory;
+    }
+
+    public void configure(ProjectInternal project) {
+        delegate.configure(project);
+    }
+
+    public void configureHierarchy(ProjectInternal project) {
+        StartParameter startParameter = project.getGradle().getStartParameter();
+        int workerCount = startParameter.getMaxWorkerCount();
+        if (!startParameter.isConfigureInParallel() || workerCount < 2) {
+            delegate.configureHierarchy(project);
+            return;
+        }
+
+        delegate.configure(project);
+        StoppableExecutor executor = executorFactory.create("Project configurer", workerCount);
+        try {
+            configureConcurrently(project.getSubprojects(), executor);
+        } finally {
+            executor.stop();
+        }
+    }
+
+    private void configureConcurrently(Set<Project> projects, StoppableExecutor executor) {
+        AtomicInteger firstFailure = new AtomicInteger(Integer.MAX_VALUE);
+        Map<Project, Future<?>> started = new HashMap<Project, Future<?>>();
+        List<Future<?>> inProgress = new ArrayList<Future<?>>();
+        int index = 0;
+        for (Project subproject : projects) {
+            ProjectInternal project = (ProjectInternal) subproject;
+            Future<?> result = executor.submit(new ConfigureProject(project, index, started.get(project.getParent()), firstFailure));
+            started.put(project, result);
+            inProgress.add(result);
+            index++;
+        }
+        awaitAll(inProgress);
+    }
+
+    /**
+     * Waits for the given projects to be configured and rethrows the failure of the first of them to fail, if any.
+     */
+    private static void awaitAll(List<Future<?>> results) {
+        Throwable failure = null;
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure != null) {
+            throw UncheckedException.throwAsUncheckedException(failure);
+        }
+    }
+
+    private class ConfigureProject implements Callable<Void> {
+        private final ProjectInternal project;
+        private final int index;
+        private final Future<?> parent;
+        private final AtomicInteger firstFailure;
+
+        ConfigureProject(ProjectInternal project, int index, Future<?> parent, AtomicInteger firstFailure) {
+            this.project = project;
+            this.index = index;
+            this.parent = parent;
+            this.firstFailure = firstFailure;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            if (parent != null) {
+                try {
+                    parent.get();
+                } catch (ExecutionException e) {
+                    // The parent failed, so this project would not have been configured either
+                    return null;
+                }
+            }
+            if (firstFailure.get() < index) {
+                return null;
+            }
+            try {
+                delegate.configure(project);
+            } catch (RuntimeException e) {
+                int current = firstFailure.get();
+                while (index < current && !firstFailure.compareAndSet(current, index)) {
+                    current = firstFailure.get();
+                }
+                throw e;
+            }
+            return null;
+        }
+    }
+}
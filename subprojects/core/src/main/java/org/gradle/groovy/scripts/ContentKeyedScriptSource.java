@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.groovy.scripts;
+
+import org.gradle.internal.hash.HashUtil;
+
+import static org.apache.commons.lang.StringUtils.substringBeforeLast;
+
+/**
+ * A script source whose class name is derived from the content of the script rather than its location, so that
+ * scripts with identical content are compiled to and loaded as the same class.
+ */
+public class ContentKeyedScriptSource extends DelegatingScriptSource {
+    private String className;
+
+    public ContentKeyedScriptSource(ScriptSource source) {
+        super(source);
+    }
+
+    @Override
+    public String getClassName() {
+        if (className == null) {
+            String name = substringBeforeLast(getSource().getClassName(), "_");
+            className = name + "_" + HashUtil.createCompactMD5(getResource().getText());
+        }
+        return className;
+    }
+}
@@ -25,6 +25,12 @@ import org.gradle.groovy.scripts.internal.ScriptClassCompiler;
 import org.gradle.groovy.scripts.internal.ScriptRunnerFactory;
 
 public class DefaultScriptCompilerFactory implements ScriptCompilerFactory {
+    /**
+     * When enabled, scripts with identical content share a single compiled class and class loader, provided they are compiled against the same
+     * class loader. Stack traces and failure locations for such scripts refer to the first script that was compiled.
+     */
+    public static final String SHARE_IDENTICAL_SCRIPTS_PROPERTY = "org.gradle.scripts.share-identical";
+
     private final ScriptRunnerFactory scriptRunnerFactory;
     private final ScriptClassCompiler scriptClassCompiler;
 
@@ -39,15 +45,17 @@ public class DefaultScriptCompilerFactory implements ScriptCompilerFactory {
 
     private class ScriptCompilerImpl implements ScriptCompiler {
         private final ScriptSource source;
+        private final ScriptSource compiledSource;
 
         public ScriptCompilerImpl(ScriptSource source) {
             this.source = CachingScriptSource.of(source);
+            this.compiledSource = Boolean.getBoolean(SHARE_IDENTICAL_SCRIPTS_PROPERTY) ? new ContentKeyedScriptSource(this.source) : this.source;
         }
 
         @Override
         public <T extends Script, M> ScriptRunner<T, M> compile(Class<T> scriptType, CompileOperation<M> extractingTransformer, ClassLoader classloader, Action<? super ClassNode> verifier) {
             ClassLoaderId classLoaderId = ClassLoaderIds.buildScript(source.getFileName(), extractingTransformer.getId());
-            CompiledScript<T, M> compiledScript = scriptClassCompiler.compile(source, classloader, classLoaderId, extractingTransformer, scriptType, verifier);
+            CompiledScript<T, M> compiledScript = scriptClassCompiler.compile(compiledSource, classloader, classLoaderId, extractingTransformer, scriptType, verifier);
             return scriptRunnerFactory.create(compiledScript, source, classloader);
         }
     }
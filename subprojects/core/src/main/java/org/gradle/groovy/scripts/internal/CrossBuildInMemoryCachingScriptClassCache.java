@@ -22,16 +22,26 @@ import org.codehaus.groovy.ast.ClassNode;
 import org.gradle.api.Action;
 import org.gradle.api.internal.changedetection.state.FileSnapshotter;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderId;
+import org.gradle.cache.internal.stats.CacheStatistics;
+import org.gradle.cache.internal.stats.CacheStatisticsRegistry;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.Cast;
 import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.memory.MemoryPressure;
+import org.gradle.internal.memory.MemoryPressureListener;
 
-public class CrossBuildInMemoryCachingScriptClassCache {
+public class CrossBuildInMemoryCachingScriptClassCache implements MemoryPressureListener {
     private final Cache<ScriptCacheKey, CachedCompiledScript> cachedCompiledScripts = CacheBuilder.newBuilder().maximumSize(100).recordStats().build();
     private final FileSnapshotter snapshotter;
+    private final CacheStatistics statistics;
 
     public CrossBuildInMemoryCachingScriptClassCache(FileSnapshotter snapshotter) {
+        this(snapshotter, new CacheStatisticsRegistry());
+    }
+
+    public CrossBuildInMemoryCachingScriptClassCache(FileSnapshotter snapshotter, CacheStatisticsRegistry statisticsRegistry) {
         this.snapshotter = snapshotter;
+        this.statistics = statisticsRegistry.get("compiled scripts (in-memory)");
     }
 
     public <T extends Script, M> CompiledScript<T, M> getOrCompile(ScriptSource source, ClassLoader classLoader, ClassLoaderId classLoaderId, CompileOperation<M> operation, Class<T> scriptBaseClass, Action<? super ClassNode> verifier, ScriptClassCompiler delegate) {
@@ -40,14 +50,24 @@ public class CrossBuildInMemoryCachingScriptClassCache {
         HashValue hash = snapshotter.snapshot(source.getResource()).getHash();
         if (cached != null) {
             if (hash.equals(cached.hash)) {
+                statistics.recordHit();
                 return Cast.uncheckedCast(cached.compiledScript);
             }
         }
+        statistics.recordMiss();
+        long start = System.nanoTime();
         CompiledScript<T, M> compiledScript = delegate.compile(source, classLoader, classLoaderId, operation, scriptBaseClass, verifier);
+        statistics.recordLoad(System.nanoTime() - start);
         cachedCompiledScripts.put(key, new CachedCompiledScript(hash, compiledScript));
         return compiledScript;
     }
 
+    @Override
+    public void onMemoryPressure(MemoryPressure pressure) {
+        // Discarded scripts are loaded again from the persistent script cache
+        pressure.release(cachedCompiledScripts.asMap());
+    }
+
     private static class CachedCompiledScript {
         private final HashValue hash;
         private final CompiledScript<?, ?> compiledScript;
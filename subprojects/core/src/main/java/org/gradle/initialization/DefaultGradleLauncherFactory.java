@@ -49,7 +49,6 @@ import org.gradle.util.DeprecationLogger;
 public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
     private final ServiceRegistry sharedServices;
     private final NestedBuildTracker tracker;
-    private final BuildProgressLogger buildProgressLogger;
 
     public DefaultGradleLauncherFactory(ServiceRegistry sharedServices) {
         this.sharedServices = sharedServices;
@@ -57,8 +56,6 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
 
         // Register default loggers
         ListenerManager listenerManager = sharedServices.get(ListenerManager.class);
-        buildProgressLogger = new BuildProgressLogger(sharedServices.get(ProgressLoggerFactory.class));
-        listenerManager.addListener(new BuildProgressFilter(buildProgressLogger));
         listenerManager.useLogger(new DependencyResolutionLogger(sharedServices.get(ProgressLoggerFactory.class)));
     }
 
@@ -79,8 +76,9 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         BuildRequestMetaData requestMetaData;
         BuildCancellationToken cancellationToken;
         BuildEventConsumer buildEventConsumer;
-        if (tracker.getCurrentBuild() != null) {
-            ServiceRegistry services = tracker.getCurrentBuild().getServices();
+        GradleInternal parentBuild = tracker.getCurrentBuild();
+        if (parentBuild != null) {
+            ServiceRegistry services = parentBuild.getServices();
             requestMetaData = new DefaultBuildRequestMetaData(services.get(BuildClientMetaData.class), System.currentTimeMillis());
             cancellationToken = services.get(BuildCancellationToken.class);
             buildEventConsumer = services.get(BuildEventConsumer.class);
@@ -91,7 +89,7 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         }
 
         final BuildScopeServices buildScopeServices = BuildScopeServices.singleSession(parentRegistry, startParameter);
-        return doNewInstance(startParameter, cancellationToken, requestMetaData, buildEventConsumer, buildScopeServices);
+        return doNewInstance(startParameter, parentBuild, cancellationToken, requestMetaData, buildEventConsumer, buildScopeServices);
     }
 
     @Override
@@ -104,13 +102,13 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         }
 
         BuildScopeServices buildScopeServices = BuildScopeServices.forSession((BuildSessionScopeServices) parentRegistry);
-        DefaultGradleLauncher launcher = doNewInstance(startParameter, requestContext.getCancellationToken(), requestContext, requestContext.getEventConsumer(), buildScopeServices);
+        DefaultGradleLauncher launcher = doNewInstance(startParameter, null, requestContext.getCancellationToken(), requestContext, requestContext.getEventConsumer(), buildScopeServices);
         DeploymentRegistry deploymentRegistry = parentRegistry.get(DeploymentRegistry.class);
         deploymentRegistry.onNewBuild(launcher.getGradle());
         return launcher;
     }
 
-    private DefaultGradleLauncher doNewInstance(StartParameter startParameter, BuildCancellationToken cancellationToken, BuildRequestMetaData requestMetaData, BuildEventConsumer buildEventConsumer, BuildScopeServices serviceRegistry) {
+    private DefaultGradleLauncher doNewInstance(StartParameter startParameter, GradleInternal parentBuild, BuildCancellationToken cancellationToken, BuildRequestMetaData requestMetaData, BuildEventConsumer buildEventConsumer, BuildScopeServices serviceRegistry) {
         serviceRegistry.add(BuildRequestMetaData.class, requestMetaData);
         serviceRegistry.add(BuildClientMetaData.class, requestMetaData.getClient());
         serviceRegistry.add(BuildEventConsumer.class, buildEventConsumer);
@@ -123,9 +121,15 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         loggingManager.addStandardOutputListener(listenerManager.getBroadcaster(StandardOutputListener.class));
         loggingManager.addStandardErrorListener(listenerManager.getBroadcaster(StandardOutputListener.class));
 
-        LoggerProvider loggerProvider = (tracker.getCurrentBuild() == null) ? buildProgressLogger : LoggerProvider.NO_OP;
+        LoggerProvider loggerProvider = LoggerProvider.NO_OP;
+        if (parentBuild == null) {
+            // Each top level build reports its own progress, as several may run at the same time
+            BuildProgressLogger buildProgressLogger = new BuildProgressLogger(serviceRegistry.get(ProgressLoggerFactory.class));
+            listenerManager.addListener(new BuildProgressFilter(buildProgressLogger));
+            loggerProvider = buildProgressLogger;
+        }
         listenerManager.useLogger(new TaskExecutionLogger(serviceRegistry.get(ProgressLoggerFactory.class), loggerProvider));
-        if (tracker.getCurrentBuild() == null) {
+        if (parentBuild == null) {
             listenerManager.useLogger(new BuildLogger(Logging.getLogger(BuildLogger.class), serviceRegistry.get(StyledTextOutputFactory.class), startParameter, requestMetaData));
         }
         listenerManager.addListener(tracker);
@@ -138,7 +142,7 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         listenerManager.addListener(usageLocationReporter);
         DeprecationLogger.useLocationReporter(usageLocationReporter);
 
-        GradleInternal gradle = serviceRegistry.get(Instantiator.class).newInstance(DefaultGradle.class, tracker.getCurrentBuild(), startParameter, serviceRegistry.get(ServiceRegistryFactory.class));
+        GradleInternal gradle = serviceRegistry.get(Instantiator.class).newInstance(DefaultGradle.class, parentBuild, startParameter, serviceRegistry.get(ServiceRegistryFactory.class));
         return new DefaultGradleLauncher(
             gradle,
             serviceRegistry.get(InitScriptHandler.class),
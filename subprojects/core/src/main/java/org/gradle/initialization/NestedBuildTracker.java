@@ -19,24 +19,56 @@ import org.gradle.BuildAdapter;
 import org.gradle.BuildResult;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.invocation.Gradle;
+import org.gradle.internal.concurrent.WorkOwner;
 
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
 
+/**
+ * Tracks the builds that are running, so that a nested build can find the build it is nested in. Builds that run concurrently on behalf of different
+ * owners, as given by {@link WorkOwner}, are tracked separately. Builds that run without an owner are all tracked together.
+ */
 public class NestedBuildTracker extends BuildAdapter {
-    private final List<GradleInternal> buildStack = new CopyOnWriteArrayList<GradleInternal>();
+    private static final Object NO_OWNER = new Object();
+
+    // The running builds for each owner, most recently started first
+    private final Map<Object, LinkedList<GradleInternal>> buildStacks = new HashMap<Object, LinkedList<GradleInternal>>();
 
     @Override
-    public void buildStarted(Gradle gradle) {
-        buildStack.add(0, (GradleInternal) gradle);
+    public synchronized void buildStarted(Gradle gradle) {
+        Object owner = currentOwner();
+        LinkedList<GradleInternal> buildStack = buildStacks.get(owner);
+        if (buildStack == null) {
+            buildStack = new LinkedList<GradleInternal>();
+            buildStacks.put(owner, buildStack);
+        }
+        buildStack.addFirst((GradleInternal) gradle);
     }
 
     @Override
-    public void buildFinished(BuildResult result) {
-        buildStack.remove(result.getGradle());
+    public synchronized void buildFinished(BuildResult result) {
+        // Usually finished by the same owner that started it, but look at every owner to be safe
+        for (Map.Entry<Object, LinkedList<GradleInternal>> entry : buildStacks.entrySet()) {
+            if (entry.getValue().remove(result.getGradle())) {
+                if (entry.getValue().isEmpty()) {
+                    buildStacks.remove(entry.getKey());
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the innermost build running on behalf of the owner of the current thread, or null if there is none.
+     */
+    public synchronized GradleInternal getCurrentBuild() {
+        LinkedList<GradleInternal> buildStack = buildStacks.get(currentOwner());
+        return buildStack == null ? null : buildStack.getFirst();
     }
 
-    public GradleInternal getCurrentBuild() {
-        return buildStack.isEmpty() ? null : buildStack.get(0);
+    private static Object currentOwner() {
+        Object owner = WorkOwner.current();
+        return owner == null ? NO_OWNER : owner;
     }
 }
@@ -22,13 +22,16 @@ import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Reports the progress of the build. Projects may be configured concurrently, so the methods of this class may be called by several threads at once.
+ */
 public class BuildProgressLogger implements LoggerProvider {
 
     private final ProgressLoggerProvider loggerProvider;
 
     private ProgressLogger buildProgress;
     private ProgressLogger configurationProgress;
-    private Map<String, ProgressLogger> projectConfigurationProgress = new HashMap<String, ProgressLogger>();
+    private final Map<String, ProgressLogger> projectConfigurationProgress = new HashMap<String, ProgressLogger>();
 
     private ProgressFormatter buildProgressFormatter;
     private ProgressFormatter configurationProgressFormatter;
@@ -41,16 +44,16 @@ public class BuildProgressLogger implements LoggerProvider {
         this.loggerProvider = loggerProvider;
     }
 
-    public void buildStarted() {
+    public synchronized void buildStarted() {
         buildProgress = loggerProvider.start("Initialize build", "Loading");
     }
 
-    public void projectsLoaded(int totalProjects) {
+    public synchronized void projectsLoaded(int totalProjects) {
         configurationProgressFormatter = new SimpleProgressFormatter(totalProjects, "projects");
         configurationProgress = loggerProvider.start("Configure projects", configurationProgressFormatter.getProgress());
     }
 
-    public void graphPopulated(int totalTasks) {
+    public synchronized void graphPopulated(int totalTasks) {
         configurationProgress.completed();
         configurationProgress = null;
 
@@ -60,7 +63,7 @@ public class BuildProgressLogger implements LoggerProvider {
         buildProgress = loggerProvider.start("Execute tasks", buildProgressFormatter.getProgress());
     }
 
-    public void buildFinished() {
+    public synchronized void buildFinished() {
         for (ProgressLogger l : projectConfigurationProgress.values()) {
             l.completed();
         }
@@ -73,22 +76,23 @@ public class BuildProgressLogger implements LoggerProvider {
         configurationProgress = null;
     }
 
-    public void afterExecute() {
+    public synchronized void afterExecute() {
         buildProgress.progress(buildProgressFormatter.incrementAndGetProgress());
     }
 
-    public void settingsEvaluated() {
+    public synchronized void settingsEvaluated() {
         buildProgress.progress("Configuring");
     }
 
-    public void beforeEvaluate(String projectPath) {
+    public synchronized void beforeEvaluate(String projectPath) {
         if (configurationProgress != null) {
-            ProgressLogger logger = loggerProvider.start("Configure project " + projectPath, projectPath.equals(":") ? "root project" : projectPath);
+            // Use an explicit parent, as the current operation is tracked per thread and this may be called by a worker thread
+            ProgressLogger logger = loggerProvider.start("Configure project " + projectPath, projectPath.equals(":") ? "root project" : projectPath, configurationProgress);
             projectConfigurationProgress.put(projectPath, logger);
         }
     }
 
-    public void afterEvaluate(String projectPath) {
+    public synchronized void afterEvaluate(String projectPath) {
         if (configurationProgress != null) {
             ProgressLogger logger = projectConfigurationProgress.remove(projectPath);
             if (logger == null) {
@@ -99,7 +103,7 @@ public class BuildProgressLogger implements LoggerProvider {
         }
     }
 
-    public ProgressLogger getLogger() {
+    public synchronized ProgressLogger getLogger() {
         if (buildProgress == null) {
             throw new IllegalStateException("Build logger is unavailable (it hasn't started or is already completed).");
         }
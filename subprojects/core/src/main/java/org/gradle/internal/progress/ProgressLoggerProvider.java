@@ -30,4 +30,8 @@ public class ProgressLoggerProvider {
     public ProgressLogger start(String description, String shortDescription) {
         return progressLoggerFactory.newOperation(loggerClazz).start(description, shortDescription);
     }
+
+    public ProgressLogger start(String description, String shortDescription, ProgressLogger parent) {
+        return progressLoggerFactory.newOperation(loggerClazz, parent).start(description, shortDescription);
+    }
 }
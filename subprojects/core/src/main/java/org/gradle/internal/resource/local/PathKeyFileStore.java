@@ -45,6 +45,8 @@ import static org.gradle.internal.FileUtils.hasExtension;
  * removed at a later time.
  * <p>
  * This file store also provides searching via relative ant path patterns.
+ * <p>
+ * Entries that are added, found or searched for are reported to the {@link FileAccessTracker} of this store.
  */
 public class PathKeyFileStore implements FileStore<String>, FileStoreSearcher<String> {
 
@@ -57,9 +59,15 @@ public class PathKeyFileStore implements FileStore<String>, FileStoreSearcher<St
 
     private File baseDir;
     private final Deleter deleter;
+    private final FileAccessTracker fileAccessTracker;
 
     public PathKeyFileStore(File baseDir) {
+        this(baseDir, FileAccessTracker.NO_OP);
+    }
+
+    public PathKeyFileStore(File baseDir, FileAccessTracker fileAccessTracker) {
         this.baseDir = baseDir;
+        this.fileAccessTracker = fileAccessTracker;
         IdentityFileResolver fileResolver = new IdentityFileResolver();
         deleter = new Deleter(fileResolver, fileResolver.getFileSystem());
     }
@@ -68,6 +76,10 @@ public class PathKeyFileStore implements FileStore<String>, FileStoreSearcher<St
         return baseDir;
     }
 
+    protected FileAccessTracker getFileAccessTracker() {
+        return fileAccessTracker;
+    }
+
     public LocallyAvailableResource move(String path, File source) {
         return saveIntoFileStore(source, getFile(path), true);
     }
@@ -139,6 +151,7 @@ public class PathKeyFileStore implements FileStore<String>, FileStoreSearcher<St
         } catch (Throwable t) {
             throw new GradleException(failureDescription, t);
         }
+        fileAccessTracker.markAccessed(destination);
         return entryAt(destination);
     }
 
@@ -154,6 +167,7 @@ public class PathKeyFileStore implements FileStore<String>, FileStoreSearcher<St
                 // We cannot clean in progress markers, or in progress files here because
                 // the file system visitor stuff can't handle the file system mutating while visiting
                 if (!isInProgressMarkerFile(file) && !isInProgressFile(file)) {
+                    fileAccessTracker.markAccessed(file);
                     entries.add(entryAt(file));
                 }
             }
@@ -194,6 +208,7 @@ public class PathKeyFileStore implements FileStore<String>, FileStoreSearcher<St
     public LocallyAvailableResource get(String key) {
         final File file = getFileWhileCleaningInProgress(key);
         if (file.exists()) {
+            fileAccessTracker.markAccessed(file);
             return entryAt(file);
         } else {
             return null;
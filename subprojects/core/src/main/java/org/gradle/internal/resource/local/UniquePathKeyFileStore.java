@@ -32,6 +32,10 @@ public class UniquePathKeyFileStore extends PathKeyFileStore {
         super(baseDir);
     }
 
+    public UniquePathKeyFileStore(File baseDir, FileAccessTracker fileAccessTracker) {
+        super(baseDir, fileAccessTracker);
+    }
+
     @Override
     public LocallyAvailableResource move(String path, File source) {
         LocallyAvailableResource entry = super.move(path, source);
@@ -44,6 +48,7 @@ public class UniquePathKeyFileStore extends PathKeyFileStore {
     @Override
     protected LocallyAvailableResource doAdd(File destination, String failureDescription, Action<File> action) {
         if (destination.exists()) {
+            getFileAccessTracker().markAccessed(destination);
             return entryAt(destination);
         }
         return super.doAdd(destination, failureDescription, action);
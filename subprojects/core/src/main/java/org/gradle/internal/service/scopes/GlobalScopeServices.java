@@ -41,6 +41,7 @@ import org.gradle.api.tasks.util.internal.PatternSpecFactory;
 import org.gradle.cache.internal.*;
 import org.gradle.cache.internal.locklistener.DefaultFileLockContentionHandler;
 import org.gradle.cache.internal.locklistener.FileLockContentionHandler;
+import org.gradle.cache.internal.stats.CacheStatisticsRegistry;
 import org.gradle.cli.CommandLineConverter;
 import org.gradle.configuration.DefaultImportsReader;
 import org.gradle.configuration.ImportsReader;
@@ -59,6 +60,7 @@ import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.filewatch.DefaultFileWatcherFactory;
 import org.gradle.internal.filewatch.FileWatcherFactory;
 import org.gradle.internal.installation.CurrentGradleInstallation;
+import org.gradle.internal.memory.MemoryPressureListenerManager;
 import org.gradle.internal.installation.GradleRuntimeShadedJarDetector;
 import org.gradle.internal.jvm.inspection.JvmVersionDetector;
 import org.gradle.internal.nativeintegration.ProcessEnvironment;
@@ -158,8 +160,12 @@ public class GlobalScopeServices {
         return new JvmVersionDetector(execHandleFactory);
     }
 
-    protected CacheFactory createCacheFactory(FileLockManager fileLockManager) {
-        return new DefaultCacheFactory(fileLockManager);
+    CacheStatisticsRegistry createCacheStatisticsRegistry() {
+        return new CacheStatisticsRegistry();
+    }
+
+    protected CacheFactory createCacheFactory(FileLockManager fileLockManager, CacheStatisticsRegistry statisticsRegistry) {
+        return new DefaultCacheFactory(fileLockManager, statisticsRegistry);
     }
 
     ClassLoaderRegistry createClassLoaderRegistry(ClassPathRegistry classPathRegistry, ClassLoaderFactory classLoaderFactory) {
@@ -184,6 +190,10 @@ public class GlobalScopeServices {
         return new DefaultListenerManager();
     }
 
+    MemoryPressureListenerManager createMemoryPressureListenerManager() {
+        return new MemoryPressureListenerManager();
+    }
+
     ClassLoaderFactory createClassLoaderFactory() {
         return new DefaultClassLoaderFactory();
     }
@@ -215,8 +225,10 @@ public class GlobalScopeServices {
             fileLockContentionHandler);
     }
 
-    InMemoryTaskArtifactCache createInMemoryTaskArtifactCache() {
-        return new InMemoryTaskArtifactCache();
+    InMemoryTaskArtifactCache createInMemoryTaskArtifactCache(CacheStatisticsRegistry statisticsRegistry, MemoryPressureListenerManager memoryPressureListenerManager) {
+        InMemoryTaskArtifactCache cache = new InMemoryTaskArtifactCache(statisticsRegistry);
+        memoryPressureListenerManager.addListener(cache);
+        return cache;
     }
 
     DefaultFileLockContentionHandler createFileLockContentionHandler(ExecutorFactory executorFactory, MessagingServices messagingServices) {
@@ -264,8 +276,11 @@ public class GlobalScopeServices {
         return new CachingFileSnapshotter(new DefaultHasher(), inMemoryStore, stringInterner);
     }
 
-    ClassLoaderCache createClassLoaderCache(ClassPathSnapshotter classPathSnapshotter) {
-        return new DefaultClassLoaderCache(classPathSnapshotter);
+    ClassLoaderCache createClassLoaderCache(ClassPathSnapshotter classPathSnapshotter, MemoryPressureListenerManager memoryPressureListenerManager, ListenerManager listenerManager) {
+        DefaultClassLoaderCache cache = new DefaultClassLoaderCache(classPathSnapshotter);
+        memoryPressureListenerManager.addListener(cache);
+        listenerManager.addListener(cache.getBuildTracker());
+        return cache;
     }
 
     protected ModelSchemaAspectExtractor createModelSchemaAspectExtractor(ServiceRegistry serviceRegistry) {
@@ -281,8 +296,10 @@ public class GlobalScopeServices {
         return DefaultModelSchemaExtractor.withDefaultStrategies(serviceRegistry.getAll(ModelSchemaExtractionStrategy.class), aspectExtractor);
     }
 
-    protected ModelSchemaStore createModelSchemaStore(ModelSchemaExtractor modelSchemaExtractor) {
-        return new DefaultModelSchemaStore(modelSchemaExtractor);
+    protected ModelSchemaStore createModelSchemaStore(ModelSchemaExtractor modelSchemaExtractor, MemoryPressureListenerManager memoryPressureListenerManager) {
+        DefaultModelSchemaStore store = new DefaultModelSchemaStore(modelSchemaExtractor);
+        memoryPressureListenerManager.addListener(store);
+        return store;
     }
 
     protected StructBindingsStore createStructBindingsStore(ModelSchemaStore schemaStore) {
@@ -313,8 +330,11 @@ public class GlobalScopeServices {
         return PatternSets.getPatternSetFactory(patternSpecFactory);
     }
 
-    protected CrossBuildInMemoryCachingScriptClassCache createCachingScriptCompiler(CachingFileSnapshotter snapshotter) {
-        return new CrossBuildInMemoryCachingScriptClassCache(snapshotter);
+    protected CrossBuildInMemoryCachingScriptClassCache createCachingScriptCompiler(CachingFileSnapshotter snapshotter, CacheStatisticsRegistry statisticsRegistry,
+                                                                                  MemoryPressureListenerManager memoryPressureListenerManager) {
+        CrossBuildInMemoryCachingScriptClassCache cache = new CrossBuildInMemoryCachingScriptClassCache(snapshotter, statisticsRegistry);
+        memoryPressureListenerManager.addListener(cache);
+        return cache;
     }
 
 
@@ -44,6 +44,7 @@ import org.gradle.internal.operations.DefaultBuildOperationQueueFactory;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.serialize.DefaultSerializerRegistry;
 import org.gradle.internal.serialize.SerializerRegistry;
+import org.gradle.internal.service.ServiceRegistry;
 
 public class TaskExecutionServices {
 
@@ -87,8 +88,8 @@ public class TaskExecutionServices {
         return new DefaultTaskArtifactStateCacheAccess(gradle, cacheRepository, decorator);
     }
 
-    FileSnapshotter createFileSnapshotter(TaskArtifactStateCacheAccess cacheAccess, StringInterner stringInterner) {
-        return new CachingFileSnapshotter(new DefaultHasher(), cacheAccess, stringInterner);
+    FileSnapshotter createFileSnapshotter(TaskArtifactStateCacheAccess cacheAccess, StringInterner stringInterner, ServiceRegistry serviceRegistry) {
+        return new CachingFileSnapshotter(new DefaultHasher(), cacheAccess, stringInterner, serviceRegistry.getAll(ImmutableFileHashes.class));
     }
 
     CachingTreeVisitor createTreeVisitor() {
@@ -24,7 +24,17 @@ import org.gradle.plugin.internal.PluginId;
 
 import java.util.List;
 
+/**
+ * Serializes the plugin requests of a script without the location of the script, so that the serialized form can be shared between scripts with the
+ * same content at different locations. The requests are associated with the script they are read for.
+ */
 public class PluginRequestsSerializer implements Serializer<PluginRequests> {
+    private final String scriptDisplayName;
+
+    public PluginRequestsSerializer(String scriptDisplayName) {
+        this.scriptDisplayName = scriptDisplayName;
+    }
+
     @Override
     public PluginRequests read(Decoder decoder) throws Exception {
         int requestCount = decoder.readSmallInt();
@@ -33,8 +43,6 @@ public class PluginRequestsSerializer implements Serializer<PluginRequests> {
             PluginId pluginId = PluginId.unvalidated(decoder.readString());
             String version = decoder.readNullableString();
             int lineNumber = decoder.readSmallInt();
-            String scriptDisplayName = decoder.readString();
-
             requests.add(i, new DefaultPluginRequest(pluginId, version, lineNumber, scriptDisplayName));
         }
         return new DefaultPluginRequests(requests);
@@ -47,7 +55,6 @@ public class PluginRequestsSerializer implements Serializer<PluginRequests> {
             encoder.writeString(request.getId().asString());
             encoder.writeNullableString(request.getVersion());
             encoder.writeSmallInt(request.getLineNumber());
-            encoder.writeString(request.getScriptDisplayName());
         }
     }
 }
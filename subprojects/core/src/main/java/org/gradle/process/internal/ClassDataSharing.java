@@ -0,0 +1,374 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.Files;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.IoActions;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.jvm.Jvm;
+import org.gradle.util.CollectionUtils;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.GradleVersion;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Maintains application class-data sharing archives for the JVMs that Gradle forks, and calculates the JVM arguments needed to use them.
+ *
+ * <p>An archive is keyed by the Gradle version, the JVM and the classpath it is created for, and is stored in the Gradle user home directory.
+ * Archives are written to a temporary file and renamed into place once complete, so a JVM never maps a partially written archive. Only one
+ * JVM writes a given archive at a time. This is coordinated by an OS lock on a lock file next to the archive, which is released when the process
+ * holding it exits.</p>
+ *
+ * <ul>
+ *     <li>Workers use a static archive of the worker bootstrap classpath. It is dumped by a short-lived JVM the first time it is needed.
+ *     The application classpath is not part of the archive, so workers with different application classpaths share the archive.</li>
+ *     <li>The daemon dumps the classes it loaded into a dynamic archive when it exits, and holds the lock while it runs.
+ *     The archive is put into place by the next client that finds the lock released.</li>
+ * </ul>
+ *
+ * <p>Archives that have not been used for some time are deleted.</p>
+ *
+ * <p>Only JVMs that support dynamic archives (Java 13 or later) and classpaths made up entirely of jars are handled. For anything else, no arguments are
+ * returned and the JVM is started as usual.</p>
+ */
+public class ClassDataSharing {
+    public static final String ENABLED_PROPERTY = "org.gradle.jvm.cds";
+    public static final String LOCK_FILE_PROPERTY = "org.gradle.jvm.cds.lock";
+    private static final Logger LOGGER = Logging.getLogger(ClassDataSharing.class);
+    private static final int MIN_JAVA_VERSION = 13;
+    private static final long MAX_UNUSED_AGE = TimeUnit.DAYS.toMillis(7);
+    private static final long TOUCH_INTERVAL = TimeUnit.DAYS.toMillis(1);
+    private static final String ARCHIVE_SUFFIX = ".jsa";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String LOCK_SUFFIX = ".lock";
+
+    // The lock held by this JVM while it runs, when it was started to write an archive on exit
+    private static RandomAccessFile heldLockFile;
+
+    private final File archiveDir;
+    private final int javaMajorVersion;
+    private final String jvmKey;
+    private final File javaExecutable;
+
+    @VisibleForTesting
+    ClassDataSharing(File archiveDir, int javaMajorVersion, String jvmKey, File javaExecutable) {
+        this.archiveDir = archiveDir;
+        this.javaMajorVersion = javaMajorVersion;
+        this.jvmKey = jvmKey;
+        this.javaExecutable = javaExecutable;
+    }
+
+    /**
+     * Creates an instance for JVMs that use the same Java installation as the current JVM.
+     *
+     * @param gradleUserHomeDir the Gradle user home directory. May be null, in which case no archives are used.
+     */
+    public static ClassDataSharing forCurrentJvm(File gradleUserHomeDir) {
+        if (gradleUserHomeDir == null || !Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"))) {
+            return new ClassDataSharing(null, 0, null, null);
+        }
+        File archiveDir = new File(gradleUserHomeDir, "caches/cds");
+        String jvmKey = GradleVersion.current().getVersion() + File.pathSeparator + System.getProperty("java.home") + File.pathSeparator + System.getProperty("java.vm.vendor") + File.pathSeparator + System.getProperty("java.vm.version");
+        return new ClassDataSharing(archiveDir, parseMajorVersion(System.getProperty("java.specification.version")), jvmKey, Jvm.current().getJavaExecutable());
+    }
+
+    /**
+     * Takes the archive lock passed to this JVM by {@link #getDaemonJvmArgs(Collection)}, if any, and holds it until this JVM exits.
+     */
+    public static synchronized void lockArchiveForCurrentJvm() {
+        String lockFilePath = System.getProperty(LOCK_FILE_PROPERTY);
+        if (lockFilePath == null || heldLockFile != null) {
+            return;
+        }
+        try {
+            RandomAccessFile lockFile = new RandomAccessFile(lockFilePath, "rw");
+            if (lockFile.getChannel().tryLock() == null) {
+                // Another JVM is writing the archive. This JVM will still write its own copy, which is discarded
+                lockFile.close();
+                return;
+            }
+            heldLockFile = lockFile;
+        } catch (IOException e) {
+            LOGGER.debug("Could not lock class-data sharing archive lock file {}.", lockFilePath, e);
+        }
+    }
+
+    /**
+     * Returns the JVM arguments to use for a daemon JVM started with the given classpath.
+     */
+    public List<String> getDaemonJvmArgs(Collection<File> classpath) {
+        File archive = archiveFor("daemon", classpath);
+        if (archive == null) {
+            return Collections.emptyList();
+        }
+        if (archive.isFile()) {
+            return useArchive(archive);
+        }
+        File lockFile = new File(archiveDir, archive.getName() + LOCK_SUFFIX);
+        RandomAccessFile lock = tryLock(lockFile);
+        if (lock == null) {
+            // A daemon that is still running will write the archive when it exits
+            return Collections.emptyList();
+        }
+        try {
+            if (moveWrittenArchiveIntoPlace(archive)) {
+                return useArchive(archive);
+            }
+        } finally {
+            IoActions.closeQuietly(lock);
+        }
+        // The daemon takes over the lock once it has started. Should another client start a daemon in between, both daemons write
+        // a temporary archive and only one of them is used.
+        File tempFile = new File(archiveDir, archive.getName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        LOGGER.debug("Creating class-data sharing archive {} on daemon exit.", archive);
+        return Arrays.asList("-XX:ArchiveClassesAtExit=" + tempFile.getAbsolutePath(), "-D" + LOCK_FILE_PROPERTY + "=" + lockFile.getAbsolutePath(), "-Xlog:cds*=off");
+    }
+
+    /**
+     * Returns the JVM arguments to use for a worker JVM whose classpath starts with the given worker bootstrap classpath.
+     * Creates the archive for the bootstrap classpath when it does not exist yet.
+     */
+    public List<String> getWorkerJvmArgs(Collection<File> bootstrapClasspath) {
+        File archive = archiveFor("worker", bootstrapClasspath);
+        if (archive == null) {
+            return Collections.emptyList();
+        }
+        if (archive.isFile()) {
+            return useArchive(archive);
+        }
+        RandomAccessFile lock = tryLock(new File(archiveDir, archive.getName() + LOCK_SUFFIX));
+        if (lock == null) {
+            // Another process is creating the archive
+            return Collections.emptyList();
+        }
+        try {
+            if (!archive.isFile() && !dumpStaticArchive(archive, bootstrapClasspath)) {
+                return Collections.emptyList();
+            }
+            removeUnusedArchives();
+            return useArchive(archive);
+        } finally {
+            IoActions.closeQuietly(lock);
+        }
+    }
+
+    private File archiveFor(String name, Collection<File> classpath) {
+        if (archiveDir == null || javaMajorVersion < MIN_JAVA_VERSION || classpath.isEmpty()) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(jvmKey);
+        for (File file : classpath) {
+            if (!file.isFile() || !file.getName().endsWith(".jar")) {
+                // Directories cannot be archived
+                return null;
+            }
+            key.append(File.pathSeparator).append(file.getAbsolutePath()).append(':').append(file.length()).append(':').append(file.lastModified());
+        }
+        return new File(archiveDir, name + "-" + HashUtil.createCompactMD5(key.toString()) + ARCHIVE_SUFFIX);
+    }
+
+    private static List<String> useArchive(File archive) {
+        long now = System.currentTimeMillis();
+        if (now - archive.lastModified() > TOUCH_INTERVAL) {
+            // Mark the archive as used, so that it is not removed
+            archive.setLastModified(now);
+        }
+        return Arrays.asList("-XX:SharedArchiveFile=" + archive.getAbsolutePath(), "-Xshare:auto", "-Xlog:cds*=off");
+    }
+
+    // Must be holding the archive lock, so that the JVMs that wrote the temporary files have exited
+    private boolean moveWrittenArchiveIntoPlace(File archive) {
+        File[] tempFiles = archiveDir.listFiles();
+        boolean moved = false;
+        for (File tempFile : tempFiles == null ? new File[0] : tempFiles) {
+            if (!tempFile.getName().startsWith(archive.getName() + ".") || !tempFile.getName().endsWith(TEMP_SUFFIX)) {
+                continue;
+            }
+            if (!moved && tempFile.length() > 0 && tempFile.renameTo(archive)) {
+                moved = true;
+            } else {
+                GFileUtils.deleteQuietly(tempFile);
+            }
+        }
+        if (moved) {
+            removeUnusedArchives();
+        }
+        return moved;
+    }
+
+    private boolean dumpStaticArchive(File archive, Collection<File> classpath) {
+        File classList = new File(archiveDir, archive.getName() + ".classlist" + TEMP_SUFFIX);
+        File tempFile = new File(archiveDir, archive.getName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            writeClassList(classpath, classList);
+            List<String> args = Arrays.asList("-Xshare:dump", "-XX:SharedClassListFile=" + classList.getAbsolutePath(), "-XX:SharedArchiveFile=" + tempFile.getAbsolutePath(),
+                "-Xlog:cds*=off", "-cp", CollectionUtils.join(File.pathSeparator, classpath));
+            LOGGER.debug("Creating class-data sharing archive {}.", archive);
+            if (runJava(args) && tempFile.length() > 0 && tempFile.renameTo(archive)) {
+                return true;
+            }
+            LOGGER.debug("Could not create class-data sharing archive {}.", archive);
+            return false;
+        } catch (IOException e) {
+            LOGGER.debug("Could not create class-data sharing archive {}.", archive, e);
+            return false;
+        } finally {
+            GFileUtils.deleteQuietly(classList);
+            GFileUtils.deleteQuietly(tempFile);
+        }
+    }
+
+    private void writeClassList(Collection<File> classpath, File classList) throws IOException {
+        Writer writer = Files.newWriter(classList, Charset.forName("UTF-8"));
+        try {
+            // Keep the classes of the default archive of the JVM, which this archive replaces
+            File defaultClassList = new File(System.getProperty("java.home"), "lib/classlist");
+            if (defaultClassList.isFile()) {
+                Files.copy(defaultClassList, Charset.forName("UTF-8"), writer);
+            }
+            for (File jar : classpath) {
+                ZipFile zipFile = new ZipFile(jar);
+                try {
+                    Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                    while (entries.hasMoreElements()) {
+                        String name = entries.nextElement().getName();
+                        if (name.endsWith(".class") && !name.startsWith("META-INF/") && !name.endsWith("module-info.class")) {
+                            writer.write(name.substring(0, name.length() - ".class".length()));
+                            writer.write('\n');
+                        }
+                    }
+                } finally {
+                    zipFile.close();
+                }
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    @VisibleForTesting
+    boolean runJava(List<String> args) throws IOException {
+        List<String> command = new ArrayList<String>(args.size() + 1);
+        command.add(javaExecutable.getAbsolutePath());
+        command.addAll(args);
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        InputStream output = process.getInputStream();
+        try {
+            while (output.read() >= 0) {
+                // Discard
+            }
+            return process.waitFor() == 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            IoActions.closeQuietly(output);
+            process.destroy();
+        }
+    }
+
+    // Must be holding the lock of a newly created archive
+    private void removeUnusedArchives() {
+        File[] files = archiveDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - MAX_UNUSED_AGE;
+        for (File file : files) {
+            String name = file.getName();
+            if ((!name.endsWith(ARCHIVE_SUFFIX) && !name.endsWith(TEMP_SUFFIX)) || file.lastModified() >= cutoff) {
+                continue;
+            }
+            String archiveName = name.endsWith(ARCHIVE_SUFFIX) ? name : name.substring(0, name.indexOf(ARCHIVE_SUFFIX) + ARCHIVE_SUFFIX.length());
+            File lockFile = new File(archiveDir, archiveName + LOCK_SUFFIX);
+            RandomAccessFile lock = tryLock(lockFile);
+            if (lock == null) {
+                // In use by a JVM that is writing it
+                continue;
+            }
+            try {
+                LOGGER.debug("Removing unused class-data sharing archive {}.", file);
+                // May fail on Windows when the archive is still mapped by a running JVM
+                GFileUtils.deleteQuietly(file);
+            } finally {
+                IoActions.closeQuietly(lock);
+            }
+        }
+    }
+
+    /**
+     * Returns the lock file, locked by this process, or null when another process holds the lock.
+     */
+    private static RandomAccessFile tryLock(File lockFile) {
+        try {
+            GFileUtils.mkdirs(lockFile.getParentFile());
+            RandomAccessFile file = new RandomAccessFile(lockFile, "rw");
+            FileLock lock;
+            try {
+                lock = file.getChannel().tryLock();
+            } catch (OverlappingFileLockException e) {
+                // Held by another thread of this process
+                lock = null;
+            } catch (IOException e) {
+                file.close();
+                throw e;
+            }
+            if (lock == null) {
+                file.close();
+                return null;
+            }
+            return file;
+        } catch (IOException e) {
+            LOGGER.debug("Could not lock class-data sharing archive lock file {}.", lockFile, e);
+            return null;
+        }
+    }
+
+    @VisibleForTesting
+    static int parseMajorVersion(String specificationVersion) {
+        if (specificationVersion == null) {
+            return 0;
+        }
+        String version = specificationVersion.startsWith("1.") ? specificationVersion.substring(2) : specificationVersion;
+        int end = 0;
+        while (end < version.length() && Character.isDigit(version.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? 0 : Integer.parseInt(version.substring(0, end));
+    }
+}
@@ -29,6 +29,7 @@ import org.gradle.internal.remote.Address;
 import org.gradle.internal.remote.internal.inet.MultiChoiceAddress;
 import org.gradle.internal.remote.internal.inet.MultiChoiceAddressSerializer;
 import org.gradle.process.internal.worker.DefaultWorkerProcessBuilder;
+import org.gradle.process.internal.ClassDataSharing;
 import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.worker.GradleWorkerMain;
 import org.gradle.process.internal.streams.EncodedStream;
@@ -84,7 +85,11 @@ public class ApplicationClassesInSystemClassLoaderWorkerFactory implements Worke
         if (useOptionsFile) {
             // Use an options file to pass across application classpath
             File optionsFile = temporaryFileProvider.createTemporaryFile("gradle-worker-classpath", "txt");
-            List<String> jvmArgs = writeOptionsFile(workerMainClassPath.getAsFiles(), applicationClasspath, optionsFile);
+            List<File> classpath = new ArrayList<File>(workerMainClassPath.getAsFiles());
+            classpath.addAll(applicationClasspath);
+            // The archive covers the worker bootstrap classpath only, which comes first on the classpath
+            execSpec.jvmArgs(ClassDataSharing.forCurrentJvm(processBuilder.getGradleUserHomeDir()).getWorkerJvmArgs(workerMainClassPath.getAsFiles()));
+            List<String> jvmArgs = writeOptionsFile(classpath, optionsFile);
             execSpec.jvmArgs(jvmArgs);
         } else {
             // Use a dummy security manager, which hacks the application classpath into the system ClassLoader
@@ -137,10 +142,7 @@ public class ApplicationClassesInSystemClassLoaderWorkerFactory implements Worke
         execSpec.setStandardInput(new ByteArrayInputStream(encodedConfig));
     }
 
-    private List<String> writeOptionsFile(Collection<File> workerMainClassPath, Collection<File> applicationClasspath, File optionsFile) {
-        List<File> classpath = new ArrayList<File>(workerMainClassPath.size() + applicationClasspath.size());
-        classpath.addAll(workerMainClassPath);
-        classpath.addAll(applicationClasspath);
+    private List<String> writeOptionsFile(List<File> classpath, File optionsFile) {
         return ArgWriter.argsFileGenerator(optionsFile, ArgWriter.unixStyleFactory()).transform(Arrays.asList("-cp", Joiner.on(File.pathSeparator).join(classpath)));
     }
 }
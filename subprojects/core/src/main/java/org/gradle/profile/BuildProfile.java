@@ -16,14 +16,18 @@
 package org.gradle.profile;
 
 import org.gradle.StartParameter;
+import org.gradle.cache.internal.stats.CacheStatisticsSnapshot;
 import org.gradle.util.CollectionUtils;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  * Root container for profile information about a build.  This includes summary
@@ -46,6 +50,7 @@ public class BuildProfile {
 
     private final Map<String, ProjectProfile> projects = new LinkedHashMap<String, ProjectProfile>();
     private final Map<String, ContinuousOperation> dependencySets = new LinkedHashMap<String, ContinuousOperation>();
+    private final SortedMap<String, CacheStatisticsSnapshot> cacheStatistics = new TreeMap<String, CacheStatisticsSnapshot>();
     private long profilingStarted;
     private long buildStarted;
     private long settingsEvaluated;
@@ -136,6 +141,18 @@ public class BuildProfile {
         return new CompositeOperation<ContinuousOperation>(profiles);
     }
 
+    /**
+     * Get the activity of each cache during this build, keyed by cache name. Caches that were not used are not included.
+     */
+    public SortedMap<String, CacheStatisticsSnapshot> getCacheStatistics() {
+        return Collections.unmodifiableSortedMap(cacheStatistics);
+    }
+
+    public void setCacheStatistics(Map<String, CacheStatisticsSnapshot> cacheStatistics) {
+        this.cacheStatistics.clear();
+        this.cacheStatistics.putAll(cacheStatistics);
+    }
+
     /**
      * Should be set with a time as soon as possible after startup.
      * @param profilingStarted
@@ -27,10 +27,14 @@ import org.gradle.api.execution.TaskExecutionListener;
 import org.gradle.api.initialization.Settings;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.api.tasks.TaskState;
+import org.gradle.cache.internal.stats.CacheStatisticsRegistry;
+import org.gradle.cache.internal.stats.CacheStatisticsSnapshot;
 import org.gradle.initialization.BuildCompletionListener;
 import org.gradle.initialization.BuildRequestMetaData;
 import org.gradle.internal.TimeProvider;
 
+import java.util.Map;
+
 /**
  * Adapts various events to build a {@link BuildProfile} model, and then notifies a {@link ReportGeneratingProfileListener} when the model is ready.
  */
@@ -38,12 +42,15 @@ public class ProfileEventAdapter implements BuildListener, ProjectEvaluationList
     private final BuildRequestMetaData buildMetaData;
     private final TimeProvider timeProvider;
     private final ProfileListener listener;
+    private final CacheStatisticsRegistry cacheStatisticsRegistry;
     private BuildProfile buildProfile;
+    private Map<String, CacheStatisticsSnapshot> cacheStatisticsAtStart;
 
-    public ProfileEventAdapter(BuildRequestMetaData buildMetaData, TimeProvider timeProvider, ProfileListener listener) {
+    public ProfileEventAdapter(BuildRequestMetaData buildMetaData, TimeProvider timeProvider, ProfileListener listener, CacheStatisticsRegistry cacheStatisticsRegistry) {
         this.buildMetaData = buildMetaData;
         this.timeProvider = timeProvider;
         this.listener = listener;
+        this.cacheStatisticsRegistry = cacheStatisticsRegistry;
     }
 
     // BuildListener
@@ -52,6 +59,8 @@ public class ProfileEventAdapter implements BuildListener, ProjectEvaluationList
         buildProfile = new BuildProfile(gradle.getStartParameter());
         buildProfile.setBuildStarted(now);
         buildProfile.setProfilingStarted(buildMetaData.getBuildTimeClock().getStartTime());
+        // The caches outlive the build, so report only what happened from here on
+        cacheStatisticsAtStart = cacheStatisticsRegistry.snapshot();
     }
 
     public void settingsEvaluated(Settings settings) {
@@ -73,10 +82,12 @@ public class ProfileEventAdapter implements BuildListener, ProjectEvaluationList
     public void completed() {
         if(buildProfile != null) {
             buildProfile.setBuildFinished(timeProvider.getCurrentTime());
+            buildProfile.setCacheStatistics(cacheStatisticsRegistry.getActivitySince(cacheStatisticsAtStart));
             try {
                 listener.buildFinished(buildProfile);
             } finally {
                 buildProfile = null;
+                cacheStatisticsAtStart = null;
             }
         }
     }
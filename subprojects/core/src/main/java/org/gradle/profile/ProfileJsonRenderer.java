@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile;
+
+import groovy.json.JsonBuilder;
+import org.gradle.cache.internal.stats.CacheStatisticsSnapshot;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a {@link BuildProfile} as JSON, for consumption by tools. All durations are in milliseconds.
+ */
+public class ProfileJsonRenderer {
+    public void writeTo(BuildProfile buildProfile, File file) {
+        GFileUtils.writeFile(render(buildProfile), file);
+    }
+
+    String render(BuildProfile buildProfile) {
+        Map<String, Object> summary = new LinkedHashMap<String, Object>();
+        summary.put("total", buildProfile.getElapsedTotal());
+        summary.put("startup", buildProfile.getElapsedStartup());
+        summary.put("settings", buildProfile.getElapsedSettings());
+        summary.put("projectsLoading", buildProfile.getElapsedProjectsLoading());
+        summary.put("projectsConfiguration", buildProfile.getProjectConfiguration().getElapsedTime());
+        summary.put("taskExecution", buildProfile.getElapsedTotalExecutionTime());
+
+        List<Map<String, Object>> caches = new ArrayList<Map<String, Object>>();
+        for (Map.Entry<String, CacheStatisticsSnapshot> entry : buildProfile.getCacheStatistics().entrySet()) {
+            CacheStatisticsSnapshot statistics = entry.getValue();
+            Map<String, Object> cache = new LinkedHashMap<String, Object>();
+            cache.put("name", entry.getKey());
+            cache.put("hits", statistics.getHits());
+            cache.put("misses", statistics.getMisses());
+            cache.put("hitRate", statistics.getHitRate());
+            cache.put("loads", statistics.getLoads());
+            cache.put("loadTime", statistics.getLoadTimeMillis());
+            cache.put("evictions", statistics.getEvictions());
+            cache.put("bytesRead", statistics.getBytesRead());
+            cache.put("bytesWritten", statistics.getBytesWritten());
+            cache.put("lockWaits", statistics.getLockWaits());
+            cache.put("lockWaitTime", statistics.getLockWaitTimeMillis());
+            caches.add(cache);
+        }
+
+        Map<String, Object> profile = new LinkedHashMap<String, Object>();
+        profile.put("description", buildProfile.getBuildDescription());
+        profile.put("buildStarted", buildProfile.getBuildStarted());
+        profile.put("successful", buildProfile.isSuccessful());
+        profile.put("summary", summary);
+        profile.put("caches", caches);
+        return new JsonBuilder(profile).toPrettyString();
+    }
+}
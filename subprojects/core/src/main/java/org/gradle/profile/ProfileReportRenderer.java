@@ -15,6 +15,7 @@
  */
 package org.gradle.profile;
 
+import org.gradle.cache.internal.stats.CacheStatisticsSnapshot;
 import org.gradle.internal.html.SimpleHtmlWriter;
 import org.gradle.reporting.DurationFormatter;
 import org.gradle.reporting.HtmlReportRenderer;
@@ -24,6 +25,7 @@ import org.gradle.reporting.TabbedPageRenderer;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Map;
 
 public class ProfileReportRenderer {
     private static final DurationFormatter DURATION_FORMAT = new DurationFormatter();
@@ -71,8 +73,11 @@ public class ProfileReportRenderer {
                             .startElement("li").startElement("a").attribute("href", "#tab0").characters("Summary").endElement().endElement()
                             .startElement("li").startElement("a").attribute("href", "#tab1").characters("Configuration").endElement().endElement()
                             .startElement("li").startElement("a").attribute("href", "#tab2").characters("Dependency Resolution").endElement().endElement()
-                            .startElement("li").startElement("a").attribute("href", "#tab3").characters("Task Execution").endElement().endElement()
-                        .endElement();
+                            .startElement("li").startElement("a").attribute("href", "#tab3").characters("Task Execution").endElement().endElement();
+                            if (!model.getCacheStatistics().isEmpty()) {
+                                htmlWriter.startElement("li").startElement("a").attribute("href", "#tab4").characters("Caches").endElement().endElement();
+                            }
+                        htmlWriter.endElement();
                         htmlWriter.startElement("div").attribute("class", "tab").attribute("id", "tab0");
                             htmlWriter.startElement("h2").characters("Summary").endElement();
                             htmlWriter.startElement("table");
@@ -176,10 +181,48 @@ public class ProfileReportRenderer {
                                     }
                                 }
                             htmlWriter.endElement()
-                        .endElement()
-                    .endElement();
+                        .endElement();
+                        if (!model.getCacheStatistics().isEmpty()) {
+                            renderCacheStatistics(model.getCacheStatistics(), htmlWriter);
+                        }
+                    htmlWriter.endElement();
                 }
             };
         }
+
+        private void renderCacheStatistics(Map<String, CacheStatisticsSnapshot> cacheStatistics, SimpleHtmlWriter htmlWriter) throws IOException {
+            htmlWriter.startElement("div").attribute("class", "tab").attribute("id", "tab4");
+                htmlWriter.startElement("h2").characters("Caches").endElement()
+                .startElement("table")
+                    .startElement("thead")
+                        .startElement("tr")
+                            .startElement("th").characters("Cache").endElement()
+                            .startElement("th").attribute("class", "numeric").characters("Hits").endElement()
+                            .startElement("th").attribute("class", "numeric").characters("Misses").endElement()
+                            .startElement("th").attribute("class", "numeric").characters("Hit Rate").endElement()
+                            .startElement("th").attribute("class", "numeric").characters("Load Time").endElement()
+                            .startElement("th").attribute("class", "numeric").characters("Evictions").endElement()
+                            .startElement("th").attribute("class", "numeric").characters("Bytes Read").endElement()
+                            .startElement("th").attribute("class", "numeric").characters("Bytes Written").endElement()
+                            .startElement("th").attribute("class", "numeric").characters("Lock Wait").endElement()
+                        .endElement()
+                    .endElement();
+                    for (Map.Entry<String, CacheStatisticsSnapshot> entry : cacheStatistics.entrySet()) {
+                        CacheStatisticsSnapshot statistics = entry.getValue();
+                        htmlWriter.startElement("tr")
+                            .startElement("td").characters(entry.getKey()).endElement()
+                            .startElement("td").attribute("class", "numeric").characters(String.valueOf(statistics.getHits())).endElement()
+                            .startElement("td").attribute("class", "numeric").characters(String.valueOf(statistics.getMisses())).endElement()
+                            .startElement("td").attribute("class", "numeric").characters(String.format("%.0f%%", statistics.getHitRate() * 100)).endElement()
+                            .startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(statistics.getLoadTimeMillis())).endElement()
+                            .startElement("td").attribute("class", "numeric").characters(String.valueOf(statistics.getEvictions())).endElement()
+                            .startElement("td").attribute("class", "numeric").characters(String.valueOf(statistics.getBytesRead())).endElement()
+                            .startElement("td").attribute("class", "numeric").characters(String.valueOf(statistics.getBytesWritten())).endElement()
+                            .startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(statistics.getLockWaitTimeMillis())).endElement()
+                        .endElement();
+                    }
+                htmlWriter.endElement()
+            .endElement();
+        }
     }
 }
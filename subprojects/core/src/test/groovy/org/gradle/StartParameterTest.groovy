@@ -50,6 +50,7 @@ class StartParameterTest extends Specification {
         parameter.refreshDependencies = true
         parameter.recompileScripts = true
         parameter.configureOnDemand = true
+        parameter.configureInParallel = true
 
         when:
         def newInstance = parameter.newInstance()
@@ -260,6 +261,7 @@ class StartParameterTest extends Specification {
         parameter.logLevel = LogLevel.DEBUG
         parameter.consoleOutput = ConsoleOutput.Plain
         parameter.configureOnDemand = true
+        parameter.configureInParallel = true
         parameter.systemPropertiesArgs.put("testprop", "foo")
 
         // Non-copied
@@ -283,6 +285,7 @@ class StartParameterTest extends Specification {
         newParameter != parameter
 
         newParameter.configureOnDemand == parameter.configureOnDemand
+        newParameter.configureInParallel == parameter.configureInParallel
         newParameter.gradleUserHomeDir == parameter.gradleUserHomeDir
         newParameter.logLevel == parameter.logLevel
         newParameter.consoleOutput == parameter.consoleOutput
@@ -59,6 +59,22 @@ class CachingFileSnapshotterTest extends Specification {
         0 * _._
     }
 
+    def usesHashOfImmutableFileWithoutHashingOrCaching() {
+        def immutableFileHashes = Mock(ImmutableFileHashes)
+        1 * cacheAccess.createCache("fileHashes", _, _) >> cache
+        def hasher = new CachingFileSnapshotter(target, cacheAccess, new StringInterner(), [immutableFileHashes])
+
+        when:
+        def result = hasher.snapshot(file)
+
+        then:
+        result.hash == hash
+
+        and:
+        1 * immutableFileHashes.getHash(file) >> hash
+        0 * _._
+    }
+
     def hashesFileWhenLengthHasChanged() {
         when:
         def result = hasher.snapshot(file)
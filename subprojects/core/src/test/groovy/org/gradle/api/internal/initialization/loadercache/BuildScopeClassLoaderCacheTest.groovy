@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.initialization.loadercache
+
+import org.gradle.internal.classpath.ClassPath
+import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class BuildScopeClassLoaderCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider testDirectoryProvider = new TestNameTestDirectoryProvider()
+
+    def crossBuildCache = new DefaultClassLoaderCache(new FileClassPathSnapshotter())
+    def id = new ClassLoaderId() {}
+    def parent = new URLClassLoader(new URL[0])
+
+    def "class loaders are reused by later builds"() {
+        def classPath = classPath("plugin")
+
+        when:
+        def build1 = new BuildScopeClassLoaderCache(crossBuildCache)
+        def loader = build1.get(id, classPath, parent, null)
+        build1.stop()
+
+        then:
+        new BuildScopeClassLoaderCache(crossBuildCache).get(id, classPath, parent, null).is(loader)
+    }
+
+    def "class loaders whose class path opts out are released when build finishes"() {
+        def classPath = classPath("plugin")
+        testDirectoryProvider.testDirectory.file("plugin/${BuildScopeClassLoaderCache.NON_REUSABLE_MARKER}").createFile()
+
+        when:
+        def build = new BuildScopeClassLoaderCache(crossBuildCache)
+        def loader = build.get(id, classPath, parent, null)
+
+        then:
+        build.get(id, classPath, parent, null).is(loader)
+
+        when:
+        build.stop()
+
+        then:
+        crossBuildCache.size() == 0
+        !new BuildScopeClassLoaderCache(crossBuildCache).get(id, classPath, parent, null).is(loader)
+    }
+
+    ClassPath classPath(String path) {
+        new DefaultClassPath(testDirectoryProvider.testDirectory.createDir(path))
+    }
+}
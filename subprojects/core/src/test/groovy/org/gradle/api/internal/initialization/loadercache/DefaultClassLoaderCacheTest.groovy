@@ -16,9 +16,12 @@
 
 package org.gradle.api.internal.initialization.loadercache
 
+import org.gradle.BuildResult
+import org.gradle.api.invocation.Gradle
 import org.gradle.internal.classloader.FilteringClassLoader
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.internal.memory.MemoryPressure
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
@@ -165,4 +168,70 @@ class DefaultClassLoaderCacheTest extends Specification {
         then:
         cache.size() == 0
     }
+
+    def "releases class loaders under memory pressure"() {
+        def root = classLoader(classPath("root"))
+        def loader = cache.get(id1, classPath("c1"), root, null)
+        cache.get(id2, classPath("c2"), root, null)
+
+        when:
+        cache.onMemoryPressure(MemoryPressure.HIGH)
+
+        then:
+        cache.size() == 1
+
+        when:
+        cache.onMemoryPressure(MemoryPressure.CRITICAL)
+
+        then:
+        cache.size() == 0
+        !cache.get(id1, classPath("c1"), root, null).is(loader)
+    }
+
+    def "keeps class loaders used by running build until the build finishes"() {
+        def root = classLoader(classPath("root"))
+        def buildTracker = cache.buildTracker
+        cache.get(id2, classPath("c2"), root, null)
+
+        given:
+        buildTracker.buildStarted(Stub(Gradle))
+        def loader = cache.get(id1, classPath("c1"), root, null)
+
+        when:
+        cache.onMemoryPressure(MemoryPressure.CRITICAL)
+
+        then:
+        cache.size() == 1
+        cache.get(id1, classPath("c1"), root, null).is(loader)
+
+        when:
+        buildTracker.buildFinished(Stub(BuildResult))
+
+        then:
+        cache.size() == 0
+    }
+
+    def "keeps class loaders used by outer build when nested build finishes"() {
+        def root = classLoader(classPath("root"))
+        def buildTracker = cache.buildTracker
+
+        given:
+        buildTracker.buildStarted(Stub(Gradle))
+        cache.get(id1, classPath("c1"), root, null)
+        buildTracker.buildStarted(Stub(Gradle))
+        cache.get(id2, classPath("c2"), root, null)
+
+        when:
+        cache.onMemoryPressure(MemoryPressure.CRITICAL)
+        buildTracker.buildFinished(Stub(BuildResult))
+
+        then:
+        cache.size() == 2
+
+        when:
+        buildTracker.buildFinished(Stub(BuildResult))
+
+        then:
+        cache.size() == 0
+    }
 }
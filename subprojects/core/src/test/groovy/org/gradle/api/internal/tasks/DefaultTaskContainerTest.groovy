@@ -390,6 +390,152 @@ public class DefaultTaskContainerTest extends Specification {
         container.maybeCreate("task", CustomTask) == task
     }
 
+    void "registered task is created and configured when it is looked up by name"() {
+        given:
+        def action = Mock(Action)
+        def task = task("task", CustomTask)
+        container.register("task", CustomTask, action)
+
+        when:
+        def names = container.names
+
+        then:
+        names == ['task'] as SortedSet
+        0 * taskFactory._
+        0 * action._
+
+        when:
+        def found = container.getByName("task")
+
+        then:
+        found == task
+        1 * taskFactory.createTask([name: "task", type: CustomTask]) >> task
+        1 * action.execute(task)
+
+        when:
+        container.getByName("task")
+
+        then:
+        0 * taskFactory._
+        0 * action._
+    }
+
+    void "registered tasks are created when the container is iterated"() {
+        given:
+        def task1 = task("task1")
+        def task2 = task("task2", CustomTask)
+        taskFactory.createTask([name: "task1", type: TaskInternal]) >> task1
+        taskFactory.createTask([name: "task2", type: CustomTask]) >> task2
+        container.register("task1", TaskInternal, Mock(Action))
+        container.register("task2", CustomTask, Mock(Action))
+
+        expect:
+        container.toList() == [task1, task2]
+        container.size() == 2
+    }
+
+    void "filtered collection creates only the registered tasks of the requested type"() {
+        given:
+        def task = task("task2", CustomTask)
+        container.register("task1", TaskInternal, Mock(Action))
+        container.register("task2", CustomTask, Mock(Action))
+
+        when:
+        def tasks = container.withType(CustomTask).toList()
+
+        then:
+        tasks == [task]
+        1 * taskFactory.createTask([name: "task2", type: CustomTask]) >> task
+        0 * taskFactory._
+
+        and:
+        container.names == ['task1', 'task2'] as SortedSet
+    }
+
+    void "actions for all tasks are applied to a registered task when it is created"() {
+        given:
+        def action = Mock(Action)
+        def task = task("task", CustomTask)
+        taskFactory.createTask([name: "task", type: CustomTask]) >> task
+        container.register("task", CustomTask, Mock(Action))
+
+        when:
+        container.withType(CustomTask).all(action)
+
+        then:
+        0 * action._
+
+        when:
+        container.getByName("task")
+
+        then:
+        1 * action.execute(task)
+    }
+
+    void "clearing a collection discards the registered tasks it could contain"() {
+        given:
+        def task = task("task1")
+        taskFactory.createTask([name: "task1", type: TaskInternal]) >> task
+        container.register("task1", TaskInternal, Mock(Action))
+        container.register("task2", CustomTask, Mock(Action))
+
+        when:
+        container.withType(CustomTask).clear()
+
+        then:
+        container.findByName("task2") == null
+        container.findByName("task1") == task
+
+        when:
+        container.clear()
+
+        then:
+        container.isEmpty()
+        0 * taskFactory._
+    }
+
+    void "cannot register task with the same name as an existing or registered task"() {
+        given:
+        project.absoluteProjectPath(_) >> { ":" + it[0] }
+        addTask("task1")
+        container.register("task2", CustomTask, Mock(Action))
+
+        when:
+        container.register("task1", CustomTask, Mock(Action))
+
+        then:
+        def e = thrown(InvalidUserDataException)
+        e.message == "Cannot add task ':task1' as a task with that name already exists."
+
+        when:
+        container.register("task2", CustomTask, Mock(Action))
+
+        then:
+        e = thrown(InvalidUserDataException)
+        e.message == "Cannot add task ':task2' as a task with that name already exists."
+    }
+
+    void "cannot create task with the same name as a registered task unless it replaces it"() {
+        given:
+        def action = Mock(Action)
+        def newTask = task("task")
+        taskFactory.createTask(singletonMap(Task.TASK_NAME, "task")) >>> [task("task"), newTask]
+        container.register("task", CustomTask, action)
+
+        when:
+        container.create("task")
+
+        then:
+        thrown(InvalidUserDataException)
+
+        when:
+        container.replace("task")
+
+        then:
+        container.getByName("task") == newTask
+        0 * action._
+    }
+
     private ProjectInternal expectTaskLookupInOtherProject(final String projectPath, final String taskName, def task) {
         def otherProject = Mock(ProjectInternal)
         def otherTaskContainer = Mock(TaskContainerInternal)
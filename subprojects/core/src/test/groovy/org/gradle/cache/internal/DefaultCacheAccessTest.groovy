@@ -478,6 +478,42 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
         1 * lock.close()
     }
 
+    def "compacts caches when closing the lock at the end of use"() {
+        given:
+        lockManager.lock(lockFile, mode(Exclusive), "<display-name>", "use cache") >> lock
+        lock.writeFile(_) >> { Runnable r -> r.run() }
+        access.open(mode(None))
+        def cache = access.newCache(new PersistentIndexedCacheParameters('cache', String.class, Integer.class))
+        access.useCache("use cache", { cache.get("key") })
+
+        when:
+        access.close()
+
+        then:
+        1 * backingCache.maybeCompact()
+
+        then:
+        1 * backingCache.close()
+        1 * lock.close()
+    }
+
+    def "does not compact caches when closing the lock because another process is waiting"() {
+        given:
+        lockManager.lock(lockFile, mode(Exclusive), "<display-name>", "use cache") >> lock
+        lock.writeFile(_) >> { Runnable r -> r.run() }
+        access.open(mode(None))
+        def cache = access.newCache(new PersistentIndexedCacheParameters('cache', String.class, Integer.class))
+        access.useCache("use cache", { cache.get("key") })
+
+        when:
+        access.whenContended().run()
+
+        then:
+        0 * backingCache.maybeCompact()
+        1 * backingCache.close()
+        1 * lock.close()
+    }
+
     def "file access requires acquired lock"() {
         def runnable = Mock(Runnable)
 
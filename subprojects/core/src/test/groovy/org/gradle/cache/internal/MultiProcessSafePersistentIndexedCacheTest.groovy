@@ -102,6 +102,27 @@ class MultiProcessSafePersistentIndexedCacheTest extends Specification {
         0 * _._
     }
 
+    def "holds write lock while compacting cache"() {
+        given:
+        cacheOpened()
+
+        when:
+        cache.compact()
+
+        then:
+        1 * fileAccess.writeFile(!null) >> { Runnable action -> action.run() }
+        1 * backingCache.maybeCompact()
+        0 * _._
+    }
+
+    def "does nothing on compact when cache is not open"() {
+        when:
+        cache.compact()
+
+        then:
+        0 * _._
+    }
+
     def "does nothing on close when cache is not open"() {
         when:
         cache.close()
@@ -180,6 +180,72 @@ public class BTreePersistentIndexedCacheTest {
         cache.close();
     }
 
+    @Test
+    public void putAllAddsAndReplacesEntries() {
+        createCache();
+        checkAdds(1, 2, 3);
+
+        Map<String, Integer> entries = new LinkedHashMap<String, Integer>();
+        for (int i = 2; i < 1000; i++) {
+            entries.put(String.format("key_%d", i), i * 10);
+        }
+        cache.putAll(entries);
+
+        assertThat(cache.get("key_1"), equalTo(1));
+        for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+            assertThat(cache.get(entry.getKey()), equalTo(entry.getValue()));
+        }
+
+        cache.reset();
+
+        assertThat(cache.get("key_1"), equalTo(1));
+        for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+            assertThat(cache.get(entry.getKey()), equalTo(entry.getValue()));
+        }
+        verifyAndCloseCache();
+    }
+
+    @Test
+    public void compactionReclaimsFreeSpaceAndRetainsLiveEntries() {
+        createCache();
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < 500; i++) {
+            values.add(i);
+        }
+        checkAdds(values);
+        for (int i = 0; i < 500; i += 2) {
+            cache.remove(String.format("key_%d", i));
+        }
+        long len = cacheFile.length();
+
+        cache.compact();
+
+        assertThat(cacheFile.length(), lessThan(len));
+        assertThat(tmpDir.file("cache.bin.compact").exists(), equalTo(false));
+        for (int i = 0; i < 500; i++) {
+            String key = String.format("key_%d", i);
+            if (i % 2 == 0) {
+                assertNull(cache.get(key));
+            } else {
+                assertThat(cache.get(key), equalTo(i));
+            }
+        }
+
+        cache.reset();
+
+        assertThat(cache.get("key_1"), equalTo(1));
+        assertNull(cache.get("key_2"));
+        verifyAndCloseCache();
+    }
+
+    @Test
+    public void compactionNotRequiredForSmallCache() {
+        createCache();
+        checkAddsAndRemoves(1, 2, 3, 4, 5);
+        assertThat(cache.isCompactionRequired(), equalTo(false));
+        verifyAndCloseCache();
+    }
+
     @Test
     public void persistsRemovalOfEntries() {
         createCache();
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.cache.internal.stats
+
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+class CacheStatisticsRegistryTest extends ConcurrentSpec {
+    def registry = new CacheStatisticsRegistry()
+
+    def "caches with the same name share statistics"() {
+        when:
+        registry.get("cache").recordHit()
+        registry.get("cache").recordMiss()
+        registry.get("other").recordBytesRead(12)
+
+        then:
+        def snapshot = registry.snapshot()
+        snapshot.keySet() as List == ["cache", "other"]
+        snapshot.cache.hits == 1
+        snapshot.cache.misses == 1
+        snapshot.cache.hitRate == 0.5d
+        snapshot.other.bytesRead == 12
+    }
+
+    def "reports only activity since previous snapshot"() {
+        def cache = registry.get("cache")
+        registry.get("idle").recordEviction()
+        cache.recordHit()
+        cache.recordLoad(5000000)
+        def start = registry.snapshot()
+
+        when:
+        cache.recordHit()
+        cache.recordLoad(3000000)
+        cache.recordLockWait(2000000)
+        registry.get("new").recordMiss()
+
+        then:
+        def activity = registry.getActivitySince(start)
+        activity.keySet() as List == ["cache", "new"]
+        activity.cache.hits == 1
+        activity.cache.loads == 1
+        activity.cache.loadTimeMillis == 3
+        activity.cache.lockWaits == 1
+        activity.cache.lockWaitTimeMillis == 2
+        activity.new.misses == 1
+    }
+
+    def "counts updates from multiple threads"() {
+        def cache = registry.get("cache")
+
+        when:
+        async {
+            10.times {
+                start {
+                    1000.times {
+                        cache.recordHit()
+                        cache.recordBytesWritten(2)
+                    }
+                }
+            }
+        }
+
+        then:
+        registry.snapshot().cache.hits == 10000
+        registry.snapshot().cache.bytesWritten == 20000
+    }
+}
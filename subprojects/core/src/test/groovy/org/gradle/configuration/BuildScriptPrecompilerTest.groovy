@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.StartParameter
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectScript
+import org.gradle.groovy.scripts.ScriptCompiler
+import org.gradle.groovy.scripts.ScriptCompilerFactory
+import org.gradle.groovy.scripts.ScriptRunner
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.resource.TextResource
+import org.gradle.plugin.use.internal.PluginRequests
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+class BuildScriptPrecompilerTest extends Specification {
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties()
+    def scriptCompilerFactory = Mock(ScriptCompilerFactory)
+    def executorFactory = new DefaultExecutorFactory()
+    def precompiler = new BuildScriptPrecompiler(scriptCompilerFactory, Mock(DocumentationRegistry), executorFactory)
+    def gradle = Stub(GradleInternal)
+    def startParameter = Stub(StartParameter)
+    def baseScope = Stub(ClassLoaderScope)
+    def baseClassLoader = Stub(ClassLoader)
+    def root = project("root", null)
+    def child = project("child", root)
+
+    def setup() {
+        gradle.rootProject >> root
+        gradle.startParameter >> startParameter
+        startParameter.maxWorkerCount >> 4
+        root.allprojects >> ([root, child] as Set)
+        baseScope.locked >> true
+        baseScope.exportClassLoader >> baseClassLoader
+    }
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "compiles both passes of scripts that cannot change the project class loader"() {
+        def rootCompiler = Mock(ScriptCompiler)
+        def childCompiler = Mock(ScriptCompiler)
+
+        when:
+        precompiler.precompile(gradle)
+
+        then:
+        1 * scriptCompilerFactory.createCompiler(root.buildScriptSource) >> rootCompiler
+        1 * scriptCompilerFactory.createCompiler(child.buildScriptSource) >> childCompiler
+        1 * rootCompiler.compile(ProjectScript, { it.id == "cp_proj" }, baseClassLoader, _) >> initialPass(false)
+        1 * childCompiler.compile(ProjectScript, { it.id == "cp_proj" }, baseClassLoader, _) >> initialPass(false)
+
+        then:
+        1 * scriptCompilerFactory.createCompiler(root.buildScriptSource) >> rootCompiler
+        1 * scriptCompilerFactory.createCompiler(child.buildScriptSource) >> childCompiler
+        1 * rootCompiler.compile(ProjectScript, { it.id == "proj" }, baseClassLoader, _)
+        1 * childCompiler.compile(ProjectScript, { it.id == "proj" }, baseClassLoader, _)
+        0 * _
+    }
+
+    def "does not compile second pass of scripts whose project or parent project can change the project class loader"() {
+        def rootCompiler = Mock(ScriptCompiler)
+        def childCompiler = Mock(ScriptCompiler)
+        scriptCompilerFactory.createCompiler(root.buildScriptSource) >> rootCompiler
+        scriptCompilerFactory.createCompiler(child.buildScriptSource) >> childCompiler
+
+        when:
+        precompiler.precompile(gradle)
+
+        then:
+        1 * rootCompiler.compile(ProjectScript, { it.id == "cp_proj" }, baseClassLoader, _) >> initialPass(true)
+        1 * childCompiler.compile(ProjectScript, { it.id == "cp_proj" }, baseClassLoader, _) >> initialPass(false)
+        0 * rootCompiler.compile(ProjectScript, { it.id == "proj" }, _, _)
+        0 * childCompiler.compile(ProjectScript, { it.id == "proj" }, _, _)
+    }
+
+    def "ignores scripts that fail to compile"() {
+        def compiler = Mock(ScriptCompiler)
+        scriptCompilerFactory.createCompiler(_) >> compiler
+
+        when:
+        precompiler.precompile(gradle)
+
+        then:
+        2 * compiler.compile(ProjectScript, { it.id == "cp_proj" }, baseClassLoader, _) >> { throw new RuntimeException("broken") }
+        0 * compiler.compile(ProjectScript, { it.id == "proj" }, _, _)
+        noExceptionThrown()
+    }
+
+    def "does nothing when base class loader scope is not locked"() {
+        when:
+        precompiler.precompile(gradle)
+
+        then:
+        baseScope.locked >> false
+        0 * scriptCompilerFactory._
+    }
+
+    def "does nothing when disabled"() {
+        given:
+        System.setProperty(BuildScriptPrecompiler.ENABLED_PROPERTY, "false")
+
+        when:
+        precompiler.precompile(gradle)
+
+        then:
+        0 * scriptCompilerFactory._
+    }
+
+    private ScriptRunner initialPass(boolean changesClassLoader) {
+        return Stub(ScriptRunner) {
+            getRunDoesSomething() >> changesClassLoader
+            getData() >> Stub(PluginRequests) {
+                isEmpty() >> true
+            }
+        }
+    }
+
+    private ProjectInternal project(String name, ProjectInternal parent) {
+        def source = Stub(ScriptSource) {
+            getFileName() >> "${name}/build.gradle"
+            getDisplayName() >> "build file '${name}/build.gradle'"
+            getResource() >> Stub(TextResource) {
+                getExists() >> true
+            }
+        }
+        return Stub(ProjectInternal) {
+            getName() >> name
+            getParent() >> parent
+            getBuildScriptSource() >> source
+            getBaseClassLoaderScope() >> baseScope
+        }
+    }
+}
@@ -16,12 +16,16 @@
 
 package org.gradle.configuration.project
 
+import org.gradle.api.CircularReferenceException
 import org.gradle.api.ProjectConfigurationException
 import org.gradle.api.ProjectEvaluationListener
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.project.ProjectStateInternal
 import spock.lang.Specification
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 public class LifecycleProjectEvaluatorTest extends Specification {
     private project = Mock(ProjectInternal)
     private listener = Mock(ProjectEvaluationListener)
@@ -156,4 +160,65 @@ public class LifecycleProjectEvaluatorTest extends Specification {
         0 * state.executed(_)
     }
 
+    void "waits for a project that is being configured by another thread"() {
+        def realState = new ProjectStateInternal()
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def evaluator = concurrentEvaluator { p, s ->
+            started.countDown()
+            assert release.await(10, TimeUnit.SECONDS)
+        }
+
+        when:
+        def other = Thread.start { evaluator.evaluate(project, realState) }
+        assert started.await(10, TimeUnit.SECONDS)
+        def waiter = Thread.start { evaluator.evaluate(project, realState) }
+        Thread.sleep(100)
+
+        then:
+        waiter.alive
+
+        when:
+        release.countDown()
+        [other, waiter]*.join(10000)
+
+        then:
+        !waiter.alive
+        realState.executed
+        !realState.hasFailure()
+    }
+
+    void "fails when projects configured by different threads wait for each other"() {
+        def project2 = Mock(ProjectInternal)
+        project2.getProjectEvaluationBroadcaster() >> listener
+        project2.toString() >> "project2"
+        def state1 = new ProjectStateInternal()
+        def state2 = new ProjectStateInternal()
+        def bothStarted = new CountDownLatch(2)
+        def evaluator
+        evaluator = concurrentEvaluator { p, s ->
+            bothStarted.countDown()
+            assert bothStarted.await(10, TimeUnit.SECONDS)
+            if (p.is(project)) {
+                evaluator.evaluate(project2, state2)
+            } else {
+                evaluator.evaluate(project, state1)
+            }
+        }
+
+        when:
+        def threads = [Thread.start { evaluator.evaluate(project, state1) }, Thread.start { evaluator.evaluate(project2, state2) }]
+        threads*.join(10000)
+
+        then:
+        threads.every { !it.alive }
+        [state1, state2].count { it.failure?.cause instanceof CircularReferenceException } == 1
+    }
+
+    /**
+     * Mocks handle one invocation at a time, so use a plain delegate for tests that evaluate projects concurrently.
+     */
+    private LifecycleProjectEvaluator concurrentEvaluator(Closure action) {
+        return new LifecycleProjectEvaluator({ ProjectInternal p, ProjectStateInternal s -> action.call(p, s) } as ProjectEvaluator)
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution
+
+import org.gradle.StartParameter
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class ParallelProjectConfigurerTest extends Specification {
+    def executorFactory = new DefaultExecutorFactory()
+    def events = new CopyOnWriteArrayList<String>()
+    def actions = [:]
+    def names = [:]
+    def delegate = [
+        configure: { ProjectInternal project ->
+            def name = names[project]
+            events << "start $name".toString()
+            actions[name]?.call()
+            events << "end $name".toString()
+        },
+        configureHierarchy: { ProjectInternal project -> events << "sequential" }
+    ] as ProjectConfigurer
+    def configurer = new ParallelProjectConfigurer(delegate, executorFactory)
+    def configureInParallel = true
+    def maxWorkerCount = 4
+    def gradle = Stub(GradleInternal) {
+        getStartParameter() >> Stub(StartParameter) {
+            isConfigureInParallel() >> { configureInParallel }
+            getMaxWorkerCount() >> { maxWorkerCount }
+        }
+    }
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "configures projects one at a time when not enabled"() {
+        given:
+        configureInParallel = false
+        def root = project("root", null, [])
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        events == ["sequential"]
+    }
+
+    def "configures projects one at a time when only a single worker is available"() {
+        given:
+        maxWorkerCount = 1
+        def root = project("root", null, [])
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        events == ["sequential"]
+    }
+
+    def "configures projects concurrently"() {
+        def bothStarted = new CountDownLatch(2)
+        def a = project("a", null, [])
+        def b = project("b", null, [])
+        def root = project("root", null, [a, b])
+        ["a", "b"].each { name ->
+            actions[name] = {
+                bothStarted.countDown()
+                assert bothStarted.await(10, TimeUnit.SECONDS)
+            }
+        }
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        events.first() == "start root"
+        events.containsAll(["end a", "end b"])
+    }
+
+    def "configures project after its parent project"() {
+        def parent = project("parent", null, [])
+        def child = project("child", parent, [])
+        def root = project("root", null, [parent, child])
+        actions["parent"] = { Thread.sleep(100) }
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        events == ["start root", "end root", "start parent", "end parent", "start child", "end child"]
+    }
+
+    def "rethrows failure of first project to fail and does not configure children of failed project"() {
+        def failure1 = new RuntimeException("broken a")
+        def failure2 = new RuntimeException("broken b")
+        def a = project("a", null, [])
+        def b = project("b", null, [])
+        def child = project("child", a, [])
+        def root = project("root", null, [a, b, child])
+        actions["a"] = { Thread.sleep(100); throw failure1 }
+        actions["b"] = { throw failure2 }
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        def e = thrown(RuntimeException)
+        e == failure1
+
+        and:
+        !events.contains("start child")
+    }
+
+    private ProjectInternal project(String name, ProjectInternal parent, List<ProjectInternal> subprojects) {
+        def project = Stub(ProjectInternal) {
+            getParent() >> parent
+            getGradle() >> gradle
+            getSubprojects() >> (subprojects as LinkedHashSet)
+        }
+        names[project] = name
+        return project
+    }
+}
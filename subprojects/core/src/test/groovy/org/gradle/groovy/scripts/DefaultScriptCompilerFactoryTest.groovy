@@ -24,9 +24,12 @@ import org.gradle.groovy.scripts.internal.ScriptRunnerFactory
 import org.gradle.internal.resource.TextResource
 import org.gradle.internal.service.ServiceRegistry
 import org.gradle.internal.logging.StandardOutputCapture
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 import spock.lang.Specification
 
 class DefaultScriptCompilerFactoryTest extends Specification {
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties()
     final ScriptRunnerFactory scriptRunnerFactory = Mock()
     final ScriptClassCompiler scriptClassCompiler = Mock()
     final ScriptSource source = Mock() {
@@ -57,6 +60,39 @@ class DefaultScriptCompilerFactoryTest extends Specification {
         0 * scriptRunnerFactory._
         0 * scriptClassCompiler._
     }
+
+    def "compiles scripts with identical content to the same class when sharing is enabled"() {
+        given:
+        System.setProperty(DefaultScriptCompilerFactory.SHARE_IDENTICAL_SCRIPTS_PROPERTY, "true")
+        def classNames = []
+
+        when:
+        factory.createCompiler(scriptSource("build_abc", "println 'hello'")).compile(Script, operation, classLoader, verifier)
+        factory.createCompiler(scriptSource("build_def", "println 'hello'")).compile(Script, operation, classLoader, verifier)
+        factory.createCompiler(scriptSource("build_ghi", "println 'bye'")).compile(Script, operation, classLoader, verifier)
+
+        then:
+        3 * scriptClassCompiler.compile({ it instanceof ContentKeyedScriptSource }, classLoader, _, operation, Script, verifier) >> { args ->
+            classNames << args[0].className
+            compiledScript
+        }
+        3 * scriptRunnerFactory.create(compiledScript, { it instanceof CachingScriptSource }, classLoader) >> runner
+
+        and:
+        classNames[0].startsWith("build_")
+        classNames[0] == classNames[1]
+        classNames[0] != classNames[2]
+    }
+
+    private ScriptSource scriptSource(String className, String content) {
+        return Stub(ScriptSource) {
+            getClassName() >> className
+            getFileName() >> "${className}.gradle"
+            getResource() >> Stub(TextResource) {
+                getText() >> content
+            }
+        }
+    }
 }
 
 class TestScript extends Script {
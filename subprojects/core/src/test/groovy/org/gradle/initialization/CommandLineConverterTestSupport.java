@@ -58,6 +58,7 @@ public class CommandLineConverterTestSupport {
     protected int expectedParallelExecutorCount;
     protected int expectedMaxWorkersCount = Runtime.getRuntime().availableProcessors();
     protected boolean expectedConfigureOnDemand;
+    protected boolean expectedConfigureInParallel;
     protected boolean expectedContinuous;
 
     protected void checkConversion(String... args) {
@@ -95,6 +96,7 @@ public class CommandLineConverterTestSupport {
         assertEquals(expectedProjectCacheDir, startParameter.getProjectCacheDir());
         assertEquals(expectedParallelExecutorCount, startParameter.getParallelThreadCount());
         assertEquals(expectedConfigureOnDemand, startParameter.isConfigureOnDemand());
+        assertEquals(expectedConfigureInParallel, startParameter.isConfigureInParallel());
         assertEquals(expectedMaxWorkersCount, startParameter.getMaxWorkerCount());
         assertEquals(expectedContinuous, startParameter.isContinuous());
     }
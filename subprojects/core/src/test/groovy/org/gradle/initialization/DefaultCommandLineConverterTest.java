@@ -346,6 +346,12 @@ public class DefaultCommandLineConverterTest extends CommandLineConverterTestSup
         checkConversion("--configure-on-demand");
     }
 
+    @Test
+    public void withConfigureInParallel() {
+        expectedConfigureInParallel = true;
+        checkConversion("--configure-in-parallel");
+    }
+
     @Test
     public void withContinuous() {
         expectedContinuous = true;
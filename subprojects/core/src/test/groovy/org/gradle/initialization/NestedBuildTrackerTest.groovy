@@ -17,6 +17,7 @@ package org.gradle.initialization
 
 import org.gradle.BuildResult
 import org.gradle.api.internal.GradleInternal
+import org.gradle.internal.concurrent.WorkOwner
 import org.gradle.util.JUnit4GroovyMockery
 import org.jmock.integration.junit4.JMock
 import org.junit.Test
@@ -69,6 +70,37 @@ class NestedBuildTrackerTest {
         tracker.buildFinished(new BuildResult(build, null))
         assertThat(tracker.currentBuild, nullValue())
     }
-}
 
+    @Test
+    public void tracksBuildsOfEachOwnerSeparately() {
+        def build = context.mock(GradleInternal.class, 'build1')
+        def build2 = context.mock(GradleInternal.class, 'build2')
+        def owner1 = new Object()
+        def owner2 = new Object()
+
+        try {
+            WorkOwner.set(owner1)
+            tracker.buildStarted(build)
 
+            WorkOwner.set(owner2)
+            assertThat(tracker.currentBuild, nullValue())
+            tracker.buildStarted(build2)
+            assertThat(tracker.currentBuild, sameInstance(build2))
+
+            WorkOwner.set(owner1)
+            assertThat(tracker.currentBuild, sameInstance(build))
+            tracker.buildFinished(new BuildResult(build, null))
+            assertThat(tracker.currentBuild, nullValue())
+
+            WorkOwner.set(null)
+            assertThat(tracker.currentBuild, nullValue())
+
+            WorkOwner.set(owner2)
+            assertThat(tracker.currentBuild, sameInstance(build2))
+            tracker.buildFinished(new BuildResult(build2, null))
+            assertThat(tracker.currentBuild, nullValue())
+        } finally {
+            WorkOwner.set(null)
+        }
+    }
+}
@@ -60,8 +60,8 @@ class BuildProgressLoggerTest extends Specification {
 
         then:
         1 * provider.start("Configure projects", '0/16 projects') >> confProgress
-        1 * provider.start("Configure project :", 'root project') >> progress1
-        1 * provider.start("Configure project :foo:bar", ':foo:bar') >> progress2
+        1 * provider.start("Configure project :", 'root project', confProgress) >> progress1
+        1 * provider.start("Configure project :foo:bar", ':foo:bar', confProgress) >> progress2
         0 * _
 
         when: logger.afterEvaluate(":foo:bar")
@@ -168,8 +168,30 @@ class BuildProgressLoggerTest extends Specification {
 
         then:
         1 * provider.start('Initialize build', _) >> progress
-        1 * provider.start("Configure project :", 'root project') >> progress1
+        1 * provider.start("Configure project :", 'root project', confProgress) >> progress1
         1 * provider.start("Configure projects", _) >> confProgress
         1 * progress1.completed()
     }
+
+    def "logs configuration progress of projects configured concurrently"() {
+        given:
+        def paths = (1..50).collect { ":p$it".toString() }
+        def loggers = paths.collectEntries { [it, Mock(ProgressLogger)] }
+        provider.start("Configure projects", _) >> confProgress
+        provider.start(_, _, confProgress) >> { String description, String shortDescription, ProgressLogger parent -> loggers[shortDescription] }
+        logger.projectsLoaded(paths.size())
+
+        when:
+        def threads = paths.collect { path ->
+            Thread.start {
+                logger.beforeEvaluate(path)
+                logger.afterEvaluate(path)
+            }
+        }
+        threads*.join()
+
+        then:
+        1 * confProgress.progress("50/50 projects")
+        49 * confProgress.progress(_)
+    }
 }
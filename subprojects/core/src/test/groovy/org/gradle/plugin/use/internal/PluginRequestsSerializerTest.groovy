@@ -21,7 +21,7 @@ import org.gradle.plugin.internal.PluginId
 
 class PluginRequestsSerializerTest extends SerializerSpec {
 
-    def serializer = new PluginRequestsSerializer()
+    def serializer = new PluginRequestsSerializer("build file 'other/build.gradle'")
 
     def "empty"() {
         when:
@@ -43,6 +43,6 @@ class PluginRequestsSerializerTest extends SerializerSpec {
         serialized*.id == ["java", "groovy", "custom"].collect { PluginId.of(it) }
         serialized*.version == [null, null, "1.0"]
         serialized*.lineNumber == [1, 2, 3]
-        serialized*.scriptDisplayName == ["buildscript", "buildscript", "initscript"]
+        serialized*.scriptDisplayName == ["build file 'other/build.gradle'"] * 3
     }
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal
+
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.TimeUnit
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+class ClassDataSharingTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def archiveDir = tmpDir.file("cds")
+    def jar = jar("lib/a.jar")
+    def dumps = []
+
+    def "first worker creates the archive of the bootstrap classpath and later workers use it"() {
+        def cds = classDataSharing()
+
+        when:
+        def first = cds.getWorkerJvmArgs([jar])
+        def archive = archiveDir.listFiles().find { it.name.endsWith(".jsa") }
+
+        then:
+        dumps.size() == 1
+        dumps[0].contains("-Xshare:dump")
+        dumps[0].contains("-cp")
+        dumps[0].contains(jar.path)
+        first == ["-XX:SharedArchiveFile=$archive".toString(), "-Xshare:auto", "-Xlog:cds*=off"]
+        archive.text == "archive"
+        archiveDir.listFiles().findAll { it.name.endsWith(".tmp") }.empty
+
+        when:
+        def later = cds.getWorkerJvmArgs([jar])
+
+        then:
+        dumps.size() == 1
+        later == first
+    }
+
+    def "dumps the classes of the bootstrap classpath"() {
+        def classList = null
+        def cds = classDataSharing { List<String> args ->
+            classList = new File(args.find { it.startsWith("-XX:SharedClassListFile=") } - "-XX:SharedClassListFile=").text
+            return true
+        }
+
+        when:
+        cds.getWorkerJvmArgs([jar])
+
+        then:
+        classList.readLines().containsAll(["worker/org/gradle/Main", "worker/org/gradle/Other"])
+        !classList.contains("META-INF")
+    }
+
+    def "does not use worker archive that could not be created"() {
+        def cds = classDataSharing { false }
+
+        expect:
+        cds.getWorkerJvmArgs([jar]) == []
+        archiveDir.list().every { it.endsWith(".lock") }
+    }
+
+    def "does not create worker archive while another process is creating it"() {
+        classDataSharing { false }.getWorkerJvmArgs([jar])
+        def lockFile = archiveDir.listFiles().find { it.name.endsWith(".lock") }
+        dumps.clear()
+
+        when:
+        def args = withLock(lockFile) { classDataSharing().getWorkerJvmArgs([jar]) }
+
+        then:
+        args == []
+        dumps.empty
+    }
+
+    def "daemon writes the archive on exit and the next client moves it into place"() {
+        def cds = classDataSharing()
+
+        when:
+        def first = cds.getDaemonJvmArgs([jar])
+        def tempFile = new File(first[0] - "-XX:ArchiveClassesAtExit=")
+        def lockFile = new File(first[1] - "-D${ClassDataSharing.LOCK_FILE_PROPERTY}=")
+
+        then:
+        first[0].startsWith("-XX:ArchiveClassesAtExit=")
+        tempFile.name.endsWith(".tmp")
+        lockFile.file
+        first[2] == "-Xlog:cds*=off"
+
+        when:
+        def concurrent = withLock(lockFile) {
+            // Daemon is running and writes the archive on exit
+            tempFile.text = "archive"
+            cds.getDaemonJvmArgs([jar])
+        }
+
+        then:
+        concurrent == []
+
+        when:
+        def later = cds.getDaemonJvmArgs([jar])
+        def archive = archiveDir.listFiles().find { it.name.endsWith(".jsa") }
+
+        then:
+        later == ["-XX:SharedArchiveFile=$archive".toString(), "-Xshare:auto", "-Xlog:cds*=off"]
+        archive.text == "archive"
+        !tempFile.exists()
+    }
+
+    def "starts another daemon to write the archive when previous daemon exited without writing it"() {
+        def cds = classDataSharing()
+
+        when:
+        def first = cds.getDaemonJvmArgs([jar])
+        def second = cds.getDaemonJvmArgs([jar])
+
+        then:
+        first[0].startsWith("-XX:ArchiveClassesAtExit=")
+        second[0].startsWith("-XX:ArchiveClassesAtExit=")
+        second[0] != first[0]
+    }
+
+    def "uses a separate archive for each JVM and classpath"() {
+        def other = jar("lib/b.jar")
+
+        when:
+        classDataSharing("jvm").getWorkerJvmArgs([jar])
+        classDataSharing("jvm").getWorkerJvmArgs([jar, other])
+        classDataSharing("other").getWorkerJvmArgs([jar])
+
+        then:
+        archiveDir.list().findAll { it.endsWith(".jsa") }.size() == 3
+    }
+
+    def "removes archives that have not been used for some time"() {
+        def unused = archiveDir.createFile("worker-unused.jsa")
+        def unusedTemp = archiveDir.createFile("daemon-unused.jsa.1234.tmp")
+        def recent = archiveDir.createFile("worker-recent.jsa")
+        def old = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(8)
+        unused.lastModified = old
+        unusedTemp.lastModified = old
+
+        when:
+        classDataSharing().getWorkerJvmArgs([jar])
+
+        then:
+        !unused.exists()
+        !unusedTemp.exists()
+        recent.exists()
+    }
+
+    def "does not use an archive for classpath containing directories"() {
+        expect:
+        classDataSharing().getWorkerJvmArgs([jar, tmpDir.createDir("classes")]) == []
+        classDataSharing().getDaemonJvmArgs([jar, tmpDir.createDir("classes")]) == []
+    }
+
+    def "does not use an archive for JVMs that do not support dynamic archives"() {
+        expect:
+        new ClassDataSharing(archiveDir, 11, "jvm", new File("java")).getDaemonJvmArgs([jar]) == []
+        new ClassDataSharing(archiveDir, 11, "jvm", new File("java")).getWorkerJvmArgs([jar]) == []
+        new ClassDataSharing(null, 0, null, null).getDaemonJvmArgs([jar]) == []
+    }
+
+    @Unroll
+    def "parses major version from '#version'"() {
+        expect:
+        ClassDataSharing.parseMajorVersion(version) == major
+
+        where:
+        version | major
+        "1.8"   | 8
+        "9"     | 9
+        "13"    | 13
+        "17.0"  | 17
+        "bogus" | 0
+        null    | 0
+    }
+
+    private ClassDataSharing classDataSharing(String jvmKey = "jvm", Closure dump = { List<String> args ->
+        new File(args.find { it.startsWith("-XX:SharedArchiveFile=") } - "-XX:SharedArchiveFile=").text = "archive"
+        return true
+    }) {
+        return new ClassDataSharing(archiveDir, 13, jvmKey, new File("java")) {
+            @Override
+            boolean runJava(List<String> args) {
+                dumps << args
+                return dump.call(args)
+            }
+        }
+    }
+
+    private ClassDataSharing classDataSharing(Closure dump) {
+        return classDataSharing("jvm", dump)
+    }
+
+    private static <T> T withLock(File lockFile, Closure<T> action) {
+        def file = new RandomAccessFile(lockFile, "rw")
+        try {
+            file.channel.lock()
+            return action.call()
+        } finally {
+            file.close()
+        }
+    }
+
+    private TestFile jar(String path) {
+        def jar = tmpDir.file(path)
+        jar.parentFile.mkdirs()
+        def zip = new ZipOutputStream(new FileOutputStream(jar))
+        try {
+            ["META-INF/MANIFEST.MF", "worker/org/gradle/Main.class", "worker/org/gradle/Other.class"].each {
+                zip.putNextEntry(new ZipEntry(it))
+                zip.closeEntry()
+            }
+        } finally {
+            zip.close()
+        }
+        return jar
+    }
+}
@@ -18,6 +18,7 @@ package org.gradle.profile
 
 import org.gradle.StartParameter
 import org.gradle.api.tasks.TaskState
+import org.gradle.cache.internal.stats.CacheStatisticsSnapshot
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
@@ -218,6 +219,31 @@ class ProfileReportRendererTest extends Specification {
 </div>"""))
     }
 
+    def "renders cache statistics when caches were used"() {
+        def model = new BuildProfile(new StartParameter())
+        def file = temp.file("report.html")
+        model.cacheStatistics = ["fileHashes (in-memory)": new CacheStatisticsSnapshot(3, 1, 1, 2000000, 0, 0, 0, 0, 0)]
+
+        when:
+        new ProfileReportRenderer().writeTo(model, file)
+
+        then:
+        file.text.contains(toPlatformLineSeparators('''<li>
+<a href="#tab4">Caches</a>
+</li>'''))
+        file.text.contains(toPlatformLineSeparators('''<tr>
+<td>fileHashes (in-memory)</td>
+<td class="numeric">3</td>
+<td class="numeric">1</td>
+<td class="numeric">75%</td>
+<td class="numeric">0.002s</td>
+<td class="numeric">0</td>
+<td class="numeric">0</td>
+<td class="numeric">0</td>
+<td class="numeric">0s</td>
+</tr>'''))
+    }
+
     private long time(int hour, int mins, int secs, int ms = 0) {
         def cal = new GregorianCalendar(2010, 1, 5, hour, mins, secs)
         cal.add(Calendar.MILLISECOND, ms)
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.resource.local.FileAccessTracker;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the last access time of the files held in the artifact cache.
+ *
+ * <p>Access times are collected in memory, at most once per file, and are written to a sidecar index in batches
+ * by {@link #flush(java.io.File, org.gradle.cache.PersistentIndexedCache)}. This keeps cache lookups free of any
+ * additional disk writes.
+ */
+@ThreadSafe
+public class ArtifactCacheAccessTimeJournal implements FileAccessTracker {
+    private final ConcurrentMap<File, Long> pending = new ConcurrentHashMap<File, Long>();
+
+    public void markAccessed(File file) {
+        if (!pending.containsKey(file)) {
+            pending.putIfAbsent(file, System.currentTimeMillis());
+        }
+    }
+
+    public boolean hasPendingUpdates() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Writes the pending access times for files under the given base directory to the given index.
+     * Must be called while holding a lock on the artifact cache.
+     */
+    public void flush(File baseDir, PersistentIndexedCache<String, Long> index) {
+        String basePath = baseDir.getAbsolutePath() + File.separator;
+        for (Map.Entry<File, Long> entry : pending.entrySet()) {
+            String path = entry.getKey().getAbsolutePath();
+            if (path.startsWith(basePath)) {
+                index.put(path.substring(basePath.length()), entry.getValue());
+            }
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns the last time the given file was accessed, falling back to its modification time when no access has been
+     * recorded for the file, for example because it was added by an older Gradle version.
+     */
+    public long getLastAccessTime(File baseDir, File file, PersistentIndexedCache<String, Long> index) {
+        Long accessTime = index.get(relativePath(baseDir, file));
+        return accessTime != null ? accessTime : file.lastModified();
+    }
+
+    public void remove(File baseDir, File file, PersistentIndexedCache<String, Long> index) {
+        index.remove(relativePath(baseDir, file));
+    }
+
+    private static String relativePath(File baseDir, File file) {
+        return file.getAbsolutePath().substring(baseDir.getAbsolutePath().length() + 1);
+    }
+}
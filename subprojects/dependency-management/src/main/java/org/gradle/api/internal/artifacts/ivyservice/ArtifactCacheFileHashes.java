@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.api.internal.changedetection.state.ImmutableFileHashes;
+import org.gradle.internal.hash.HashValue;
+
+import java.io.File;
+
+/**
+ * Provides the hashes of files held in the artifact file store. Entries in this store are never modified once written,
+ * and the SHA1 of each entry is part of its path: {@code <group>/<module>/<version>/<sha1>/<file name>}. This means
+ * that the hash of an entry is known without reading it, and that it is the same for every build on this machine.
+ */
+public class ArtifactCacheFileHashes implements ImmutableFileHashes {
+    private static final int SHA1_HEX_LENGTH = 40;
+    private static final int MIN_DEPTH = 4;
+    private final String fileStorePath;
+
+    public ArtifactCacheFileHashes(File fileStoreDir) {
+        this.fileStorePath = fileStoreDir.getAbsolutePath() + File.separator;
+    }
+
+    public HashValue getHash(File file) {
+        String path = file.getAbsolutePath();
+        if (!path.startsWith(fileStorePath) || depth(path, fileStorePath.length()) < MIN_DEPTH) {
+            return null;
+        }
+        File checksumDir = file.getParentFile();
+        if (checksumDir == null || !isSha1(checksumDir.getName())) {
+            return null;
+        }
+        return new HashValue(checksumDir.getName());
+    }
+
+    private static int depth(String path, int startIndex) {
+        int depth = 0;
+        for (int i = path.indexOf(File.separatorChar, startIndex); i >= 0; i = path.indexOf(File.separatorChar, i + 1)) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static boolean isSha1(String name) {
+        // Leading zeros are not included in the directory name
+        int length = name.length();
+        if (length == 0 || length > SHA1_HEX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char ch = name.charAt(i);
+            if (!(ch >= '0' && ch <= '9') && !(ch >= 'a' && ch <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
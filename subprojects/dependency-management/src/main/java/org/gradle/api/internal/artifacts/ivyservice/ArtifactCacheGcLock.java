@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Coordinates cleanup of the artifact cache with the builds that use it. Each build holds a shared lock on the gc lock
+ * file for as long as it runs, and cleanup is only performed by the last build to finish, when it can take an
+ * exclusive lock on the file. So, files are never removed while another build, in this or any other process, may
+ * still be using them.
+ *
+ * <p>The OS lock is held once per process and reference counted, as a process cannot hold overlapping locks on a file.
+ */
+class ArtifactCacheGcLock {
+    private static final Logger LOGGER = Logging.getLogger(ArtifactCacheGcLock.class);
+    private static final Map<File, Holder> HOLDERS = new HashMap<File, Holder>();
+
+    private final File lockFile;
+    private boolean acquired;
+
+    ArtifactCacheGcLock(File lockFile) {
+        this.lockFile = lockFile.getAbsoluteFile();
+    }
+
+    /**
+     * Marks the start of use of the artifact cache by this build. Blocks while this or another process is cleaning up the cache.
+     */
+    void acquire() {
+        synchronized (HOLDERS) {
+            if (acquired) {
+                return;
+            }
+            Holder holder = HOLDERS.get(lockFile);
+            while (holder != null && holder.cleaning) {
+                try {
+                    HOLDERS.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+                holder = HOLDERS.get(lockFile);
+            }
+            if (holder == null) {
+                holder = new Holder(lockFile);
+                holder.lockShared();
+                HOLDERS.put(lockFile, holder);
+            }
+            holder.users++;
+            acquired = true;
+        }
+    }
+
+    /**
+     * Marks the end of use of the artifact cache by this build, running the given cleanup action first when no other
+     * build is using the cache.
+     *
+     * @return true if the cleanup action was run.
+     */
+    boolean releaseAndCleanup(Runnable cleanup) {
+        Holder holder;
+        synchronized (HOLDERS) {
+            if (!acquired) {
+                return false;
+            }
+            acquired = false;
+            holder = HOLDERS.get(lockFile);
+            holder.users--;
+            if (holder.users > 0) {
+                LOGGER.debug("Not cleaning up artifact cache, as it is in use by another build in this process.");
+                return false;
+            }
+            if (cleanup == null || !holder.tryLockExclusive()) {
+                if (cleanup != null) {
+                    LOGGER.debug("Not cleaning up artifact cache, as it is in use by another process.");
+                }
+                HOLDERS.remove(lockFile);
+                holder.close();
+                return false;
+            }
+            // Builds in this process that start using the cache wait until the cleanup has finished
+            holder.cleaning = true;
+        }
+
+        // Run the cleanup without holding the monitor, so that builds using other caches are not blocked
+        try {
+            cleanup.run();
+            return true;
+        } finally {
+            synchronized (HOLDERS) {
+                HOLDERS.remove(lockFile);
+                holder.close();
+                HOLDERS.notifyAll();
+            }
+        }
+    }
+
+    private static class Holder {
+        final File lockFile;
+        final RandomAccessFile file;
+        FileLock lock;
+        int users;
+        boolean cleaning;
+
+        Holder(File lockFile) {
+            this.lockFile = lockFile;
+            try {
+                lockFile.getParentFile().mkdirs();
+                file = new RandomAccessFile(lockFile, "rw");
+            } catch (IOException e) {
+                throw new UncheckedIOException(String.format("Could not open artifact cache gc lock file %s.", lockFile), e);
+            }
+        }
+
+        void lockShared() {
+            try {
+                lock = file.getChannel().lock(0, Long.MAX_VALUE, true);
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(String.format("Could not lock artifact cache gc lock file %s.", lockFile), e);
+            }
+        }
+
+        boolean tryLockExclusive() {
+            try {
+                lock.release();
+                lock = file.getChannel().tryLock(0, Long.MAX_VALUE, false);
+                return lock != null;
+            } catch (IOException e) {
+                LOGGER.debug("Could not lock artifact cache gc lock file {}.", lockFile, e);
+                return false;
+            }
+        }
+
+        void close() {
+            // Also releases the lock
+            CompositeStoppable.stoppable(file).stop();
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.gradle.api.internal.artifacts.ivyservice;
 import net.jcip.annotations.ThreadSafe;
 import org.gradle.cache.CacheAccess;
 import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.resource.local.FileAccessTracker;
 import org.gradle.internal.serialize.Serializer;
 
 import java.io.File;
@@ -50,4 +51,9 @@ public interface CacheLockingManager extends ArtifactCacheMetaData, CacheAccess
      * @return Metadata store location
      */
     File createMetaDataStore();
+
+    /**
+     * Returns the tracker that should be notified when files held by this cache are used.
+     */
+    FileAccessTracker getFileAccessTracker();
 }
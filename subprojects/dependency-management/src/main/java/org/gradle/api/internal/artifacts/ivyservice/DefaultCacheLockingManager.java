@@ -21,11 +21,16 @@ import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
 import org.gradle.cache.internal.FileLockManager;
 import org.gradle.internal.Factory;
+import org.gradle.internal.resource.local.FileAccessTracker;
+import org.gradle.internal.serialize.BaseSerializerFactory;
 import org.gradle.internal.serialize.Serializer;
+import org.gradle.util.GFileUtils;
 import org.gradle.util.VersionNumber;
 
 import java.io.Closeable;
 import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
@@ -33,7 +38,19 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
 
     public static final VersionNumber CACHE_LAYOUT_VERSION = CacheLayout.META_DATA.getVersion();
 
+    /**
+     * The maximum size, in megabytes, of the artifact file stores. When not set, the artifact cache is never cleaned up.
+     */
+    public static final String MAX_SIZE_PROPERTY = "org.gradle.cache.artifacts.maxSize";
+
+    private static final long CLEANUP_INTERVAL = TimeUnit.DAYS.toMillis(1);
+    private static final long MIN_RETENTION = TimeUnit.DAYS.toMillis(1);
+
     private final PersistentCache cache;
+    private final ArtifactCacheAccessTimeJournal accessTimeJournal = new ArtifactCacheAccessTimeJournal();
+    private final ArtifactCacheGcLock gcLock;
+    private final Long maxSize;
+    private PersistentIndexedCache<String, Long> accessTimes;
 
     public DefaultCacheLockingManager(CacheRepository cacheRepository) {
         cache = cacheRepository
@@ -42,10 +59,78 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
                 .withDisplayName("artifact cache")
                 .withLockOptions(mode(FileLockManager.LockMode.None)) // Don't need to lock anything until we use the caches
                 .open();
+        maxSize = parseMaxSize(System.getProperty(MAX_SIZE_PROPERTY));
+        gcLock = new ArtifactCacheGcLock(new File(getCacheDir(), "gc.lock"));
+        gcLock.acquire();
+    }
+
+    private static Long parseMaxSize(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim()) * 1024 * 1024;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid value '%s' for system property '%s'. The value should be a number of megabytes.", value, MAX_SIZE_PROPERTY), e);
+        }
     }
 
     public void close() {
-        cache.close();
+        try {
+            if (accessTimeJournal.hasPendingUpdates()) {
+                cache.useCache("update artifact cache access times", new Runnable() {
+                    public void run() {
+                        flushAccessTimes();
+                    }
+                });
+            }
+            gcLock.releaseAndCleanup(isCleanupDue() ? new Runnable() {
+                public void run() {
+                    useCache("clean up artifact cache", new Runnable() {
+                        public void run() {
+                            cleanup();
+                        }
+                    });
+                }
+            } : null);
+        } finally {
+            cache.close();
+        }
+    }
+
+    private PersistentIndexedCache<String, Long> getAccessTimes() {
+        if (accessTimes == null) {
+            accessTimes = createCache("access-times", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.LONG_SERIALIZER);
+        }
+        return accessTimes;
+    }
+
+    /**
+     * Writes the access times collected so far, at the end of each use of the cache rather than only at the end of the
+     * build, so they are not lost when the build does not finish cleanly. Must be holding the artifact cache lock.
+     */
+    private void flushAccessTimes() {
+        if (accessTimeJournal.hasPendingUpdates()) {
+            accessTimeJournal.flush(getCacheDir(), getAccessTimes());
+        }
+    }
+
+    private File getCleanupMarkerFile() {
+        return new File(getCacheDir(), "gc.properties");
+    }
+
+    private boolean isCleanupDue() {
+        if (maxSize == null) {
+            return false;
+        }
+        File markerFile = getCleanupMarkerFile();
+        return !markerFile.exists() || System.currentTimeMillis() - markerFile.lastModified() > CLEANUP_INTERVAL;
+    }
+
+    private void cleanup() {
+        LeastRecentlyUsedArtifactCacheCleanup cleanup = new LeastRecentlyUsedArtifactCacheCleanup(getCacheDir(), accessTimeJournal, maxSize, MIN_RETENTION);
+        cleanup.cleanup(Arrays.asList(getFileStoreDirectory(), createMetaDataStore()), getAccessTimes());
+        GFileUtils.touch(getCleanupMarkerFile());
     }
 
     public File getCacheDir() {
@@ -56,12 +141,28 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
         cache.longRunningOperation(operationDisplayName, action);
     }
 
-    public <T> T useCache(String operationDisplayName, Factory<? extends T> action) {
-        return cache.useCache(operationDisplayName, action);
+    public <T> T useCache(String operationDisplayName, final Factory<? extends T> action) {
+        return cache.useCache(operationDisplayName, new Factory<T>() {
+            public T create() {
+                try {
+                    return action.create();
+                } finally {
+                    flushAccessTimes();
+                }
+            }
+        });
     }
 
-    public void useCache(String operationDisplayName, Runnable action) {
-        cache.useCache(operationDisplayName, action);
+    public void useCache(String operationDisplayName, final Runnable action) {
+        cache.useCache(operationDisplayName, new Runnable() {
+            public void run() {
+                try {
+                    action.run();
+                } finally {
+                    flushAccessTimes();
+                }
+            }
+        });
     }
 
     public <T> T longRunningOperation(String operationDisplayName, Factory<? extends T> action) {
@@ -81,6 +182,10 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
         return new File(createCacheRelativeDir(CacheLayout.META_DATA), "descriptors");
     }
 
+    public FileAccessTracker getFileAccessTracker() {
+        return accessTimeJournal;
+    }
+
     private File createCacheRelativeDir(CacheLayout cacheLayout) {
         return cacheLayout.getPath(cache.getBaseDir());
     }
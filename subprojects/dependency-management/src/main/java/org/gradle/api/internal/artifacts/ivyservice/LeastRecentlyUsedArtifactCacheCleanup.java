@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.resource.local.PathKeyFileStore;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Removes the least recently used entries from the file stores of the artifact cache, until the stores fit within a
+ * maximum size. Entries that have been used recently are always retained, as builds run by older Gradle versions
+ * do not record access times and may still be using them.
+ *
+ * <p>Must be run while holding an exclusive lock on the artifact cache and on its gc lock, so that no other build is
+ * using the cache.
+ */
+public class LeastRecentlyUsedArtifactCacheCleanup {
+    private static final Logger LOGGER = Logging.getLogger(LeastRecentlyUsedArtifactCacheCleanup.class);
+
+    private final File baseDir;
+    private final ArtifactCacheAccessTimeJournal journal;
+    private final long maxSize;
+    private final long minRetentionMillis;
+
+    public LeastRecentlyUsedArtifactCacheCleanup(File baseDir, ArtifactCacheAccessTimeJournal journal, long maxSize, long minRetentionMillis) {
+        this.baseDir = baseDir;
+        this.journal = journal;
+        this.maxSize = maxSize;
+        this.minRetentionMillis = minRetentionMillis;
+    }
+
+    public void cleanup(List<File> fileStoreDirs, PersistentIndexedCache<String, Long> accessTimes) {
+        List<CacheEntry> entries = new ArrayList<CacheEntry>();
+        for (File fileStoreDir : fileStoreDirs) {
+            collectEntries(fileStoreDir, entries);
+        }
+
+        long totalSize = 0;
+        for (CacheEntry entry : entries) {
+            entry.lastAccessTime = journal.getLastAccessTime(baseDir, entry.file, accessTimes);
+            totalSize += entry.size;
+        }
+        if (totalSize <= maxSize) {
+            LOGGER.debug("Artifact cache uses {} bytes, no cleanup required.", totalSize);
+            return;
+        }
+
+        Collections.sort(entries, new Comparator<CacheEntry>() {
+            public int compare(CacheEntry left, CacheEntry right) {
+                return left.lastAccessTime < right.lastAccessTime ? -1 : left.lastAccessTime > right.lastAccessTime ? 1 : 0;
+            }
+        });
+
+        long retainAfter = System.currentTimeMillis() - minRetentionMillis;
+        int removed = 0;
+        long removedSize = 0;
+        for (CacheEntry entry : entries) {
+            if (totalSize - removedSize <= maxSize || entry.lastAccessTime >= retainAfter) {
+                break;
+            }
+            if (!entry.file.delete()) {
+                LOGGER.debug("Could not remove {} from artifact cache.", entry.file);
+                continue;
+            }
+            journal.remove(baseDir, entry.file, accessTimes);
+            deleteEmptyParents(entry.file.getParentFile(), fileStoreDirs);
+            removed++;
+            removedSize += entry.size;
+        }
+        LOGGER.info("Removed {} least recently used entries ({} bytes) from the artifact cache.", removed, removedSize);
+    }
+
+    private void collectEntries(File dir, List<CacheEntry> entries) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                collectEntries(file, entries);
+            } else if (!isInProgress(file)) {
+                entries.add(new CacheEntry(file));
+            }
+        }
+    }
+
+    private static boolean isInProgress(File file) {
+        return file.getName().endsWith(PathKeyFileStore.IN_PROGRESS_MARKER_FILE_SUFFIX)
+            || new File(file.getParentFile(), file.getName() + PathKeyFileStore.IN_PROGRESS_MARKER_FILE_SUFFIX).exists();
+    }
+
+    private static void deleteEmptyParents(File dir, List<File> fileStoreDirs) {
+        while (dir != null && !fileStoreDirs.contains(dir)) {
+            String[] children = dir.list();
+            if (children == null || children.length > 0 || !dir.delete()) {
+                return;
+            }
+            dir = dir.getParentFile();
+        }
+    }
+
+    private static class CacheEntry {
+        final File file;
+        final long size;
+        long lastAccessTime;
+
+        CacheEntry(File file) {
+            this.file = file;
+            this.size = file.length();
+        }
+    }
+}
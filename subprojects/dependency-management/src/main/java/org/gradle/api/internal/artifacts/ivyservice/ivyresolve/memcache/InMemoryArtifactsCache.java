@@ -17,14 +17,15 @@
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
 
 import org.gradle.api.artifacts.component.ComponentArtifactIdentifier;
+import org.gradle.internal.memory.MemoryPressure;
 import org.gradle.internal.resolve.result.BuildableArtifactResolveResult;
 
 import java.io.File;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 class InMemoryArtifactsCache {
-    private final Map<ComponentArtifactIdentifier, File> artifacts = new HashMap<ComponentArtifactIdentifier, File>();
+    private final Map<ComponentArtifactIdentifier, File> artifacts = new ConcurrentHashMap<ComponentArtifactIdentifier, File>();
     private InMemoryCacheStats stats;
 
     InMemoryArtifactsCache(InMemoryCacheStats stats) {
@@ -36,8 +37,10 @@ class InMemoryArtifactsCache {
         if (fromCache != null) {
             result.resolved(fromCache);
             stats.artifactsServed++;
+            stats.artifacts.recordHit();
             return true;
         }
+        stats.artifacts.recordMiss();
         return false;
     }
 
@@ -46,4 +49,8 @@ class InMemoryArtifactsCache {
             artifacts.put(id, result.getFile());
         }
     }
+
+    void release(MemoryPressure pressure) {
+        pressure.release(artifacts);
+    }
 }
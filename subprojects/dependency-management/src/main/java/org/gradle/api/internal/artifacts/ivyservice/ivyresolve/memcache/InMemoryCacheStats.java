@@ -16,11 +16,26 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
 
+import org.gradle.cache.internal.stats.CacheStatistics;
+import org.gradle.cache.internal.stats.CacheStatisticsRegistry;
+
 class InMemoryCacheStats {
+    final CacheStatistics metadata;
+    final CacheStatistics artifacts;
     int cacheInstances;
     int reposWrapped;
     int metadataServed;
     int artifactsServed;
+
+    InMemoryCacheStats() {
+        this(new CacheStatisticsRegistry());
+    }
+
+    InMemoryCacheStats(CacheStatisticsRegistry statisticsRegistry) {
+        metadata = statisticsRegistry.get("dependency metadata (in-memory)");
+        artifacts = statisticsRegistry.get("dependency artifacts (in-memory)");
+    }
+
     public String toString() {
         return String.format(
                 "Repos cached: %s, cache instances: %s, modules served from cache: %s, artifacts: %s",
@@ -65,21 +65,27 @@ class InMemoryCachedModuleComponentRepository extends BaseModuleComponentReposit
 
         public void listModuleVersions(DependencyMetaData dependency, BuildableModuleVersionListingResolveResult result) {
             if(!metaDataCache.supplyModuleVersions(dependency.getRequested(), result)) {
+                long start = System.nanoTime();
                 super.listModuleVersions(dependency, result);
+                stats.metadata.recordLoad(System.nanoTime() - start);
                 metaDataCache.newModuleVersions(dependency.getRequested(), result);
             }
         }
 
         public void resolveComponentMetaData(ModuleComponentIdentifier moduleComponentIdentifier, ComponentOverrideMetadata requestMetaData, BuildableModuleComponentMetaDataResolveResult result) {
             if(!metaDataCache.supplyMetaData(moduleComponentIdentifier, result)) {
+                long start = System.nanoTime();
                 super.resolveComponentMetaData(moduleComponentIdentifier, requestMetaData, result);
+                stats.metadata.recordLoad(System.nanoTime() - start);
                 metaDataCache.newDependencyResult(moduleComponentIdentifier, result);
             }
         }
 
         public void resolveArtifact(ComponentArtifactMetaData artifact, ModuleSource moduleSource, BuildableArtifactResolveResult result) {
             if (!artifactsCache.supplyArtifact(artifact.getId(), result)) {
+                long start = System.nanoTime();
                 super.resolveArtifact(artifact, moduleSource, result);
+                stats.artifacts.recordLoad(System.nanoTime() - start);
                 artifactsCache.newArtifact(artifact.getId(), result);
             }
         }
@@ -20,14 +20,18 @@ import com.google.common.collect.MapMaker;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.cache.internal.stats.CacheStatisticsRegistry;
 import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.memory.MemoryPressure;
+import org.gradle.internal.memory.MemoryPressureListener;
+import org.gradle.internal.memory.MemoryPressureListenerManager;
 
 import java.util.Map;
 
 /**
  * Caches the dependency metadata (descriptors, artifact files) in memory.
  */
-public class InMemoryCachedRepositoryFactory implements Stoppable {
+public class InMemoryCachedRepositoryFactory implements Stoppable, MemoryPressureListener {
 
     public final static String TOGGLE_PROPERTY = "org.gradle.resolution.memorycache";
 
@@ -35,7 +39,22 @@ public class InMemoryCachedRepositoryFactory implements Stoppable {
 
     Map<String, InMemoryModuleComponentRepositoryCaches> cachePerRepo = new MapMaker().makeMap();
 
-    final InMemoryCacheStats stats = new InMemoryCacheStats();
+    final InMemoryCacheStats stats;
+    private final MemoryPressureListenerManager memoryPressureListenerManager;
+
+    public InMemoryCachedRepositoryFactory() {
+        this(new CacheStatisticsRegistry());
+    }
+
+    public InMemoryCachedRepositoryFactory(CacheStatisticsRegistry statisticsRegistry) {
+        this(statisticsRegistry, new MemoryPressureListenerManager());
+    }
+
+    public InMemoryCachedRepositoryFactory(CacheStatisticsRegistry statisticsRegistry, MemoryPressureListenerManager memoryPressureListenerManager) {
+        stats = new InMemoryCacheStats(statisticsRegistry);
+        this.memoryPressureListenerManager = memoryPressureListenerManager;
+        memoryPressureListenerManager.addListener(this);
+    }
 
     public ModuleComponentRepository cached(ModuleComponentRepository input) {
         if ("false".equalsIgnoreCase(System.getProperty(TOGGLE_PROPERTY))) {
@@ -55,7 +74,16 @@ public class InMemoryCachedRepositoryFactory implements Stoppable {
         return new InMemoryCachedModuleComponentRepository(caches, input);
     }
 
+    @Override
+    public void onMemoryPressure(MemoryPressure pressure) {
+        LOG.debug("Releasing {} of in-memory dependency metadata cache.", pressure);
+        for (InMemoryModuleComponentRepositoryCaches caches : cachePerRepo.values()) {
+            caches.release(pressure);
+        }
+    }
+
     public void stop() {
+        memoryPressureListenerManager.removeListener(this);
         cachePerRepo.clear();
         LOG.debug("In-memory dependency metadata cache closed. {}", stats);
     }
@@ -18,18 +18,19 @@ package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
 
 import org.gradle.api.artifacts.ModuleVersionSelector;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.internal.memory.MemoryPressure;
 import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult;
 import org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveResult;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveResult.State.Listed;
 
 class InMemoryMetaDataCache {
-    private final Map<ModuleVersionSelector, Set<String>> moduleVersionListing = new HashMap<ModuleVersionSelector, Set<String>>();
-    private final Map<ModuleComponentIdentifier, CachedModuleVersionResult> metaData = new HashMap<ModuleComponentIdentifier, CachedModuleVersionResult>();
+    private final Map<ModuleVersionSelector, Set<String>> moduleVersionListing = new ConcurrentHashMap<ModuleVersionSelector, Set<String>>();
+    private final Map<ModuleComponentIdentifier, CachedModuleVersionResult> metaData = new ConcurrentHashMap<ModuleComponentIdentifier, CachedModuleVersionResult>();
     private InMemoryCacheStats stats;
 
     InMemoryMetaDataCache(InMemoryCacheStats stats) {
@@ -39,9 +40,11 @@ class InMemoryMetaDataCache {
     public boolean supplyModuleVersions(ModuleVersionSelector requested, BuildableModuleVersionListingResolveResult result) {
         Set<String> versions = moduleVersionListing.get(requested);
         if (versions == null) {
+            stats.metadata.recordMiss();
             return false;
         }
         result.listed(versions);
+        stats.metadata.recordHit();
         return true;
     }
 
@@ -54,10 +57,12 @@ class InMemoryMetaDataCache {
     boolean supplyMetaData(ModuleComponentIdentifier requested, BuildableModuleComponentMetaDataResolveResult result) {
         CachedModuleVersionResult fromCache = metaData.get(requested);
         if (fromCache == null) {
+            stats.metadata.recordMiss();
             return false;
         }
         fromCache.supply(result);
         stats.metadataServed++;
+        stats.metadata.recordHit();
         return true;
     }
 
@@ -67,4 +72,9 @@ class InMemoryMetaDataCache {
             metaData.put(requested, cachedResult);
         }
     }
-}
\ No newline at end of file
+
+    void release(MemoryPressure pressure) {
+        pressure.release(moduleVersionListing);
+        pressure.release(metaData);
+    }
+}
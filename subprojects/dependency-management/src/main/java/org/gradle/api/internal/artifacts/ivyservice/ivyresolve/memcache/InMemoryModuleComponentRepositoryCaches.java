@@ -15,6 +15,8 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
 
+import org.gradle.internal.memory.MemoryPressure;
+
 public class InMemoryModuleComponentRepositoryCaches {
     public final InMemoryMetaDataCache localMetaDataCache;
     public final InMemoryMetaDataCache remoteMetaDataCache;
@@ -39,4 +41,11 @@ public class InMemoryModuleComponentRepositoryCaches {
         this.remoteMetaDataCache = remoteMetaDataCache;
         this.stats = stats;
     }
+
+    public void release(MemoryPressure pressure) {
+        localArtifactsCache.release(pressure);
+        remoteArtifactsCache.release(pressure);
+        localMetaDataCache.release(pressure);
+        remoteMetaDataCache.release(pressure);
+    }
 }
@@ -63,7 +63,10 @@ public abstract class AbstractCachedIndex<K, V extends CachedItem> {
                 V found = getPersistentCache().get(key);
                 if (found == null) {
                     return null;
-                } else if (found.isMissing() || found.getCachedFile().exists()) {
+                } else if (found.isMissing()) {
+                    return found;
+                } else if (found.getCachedFile().exists()) {
+                    cacheLockingManager.getFileAccessTracker().markAccessed(found.getCachedFile());
                     return found;
                 } else {
                     clear(key);
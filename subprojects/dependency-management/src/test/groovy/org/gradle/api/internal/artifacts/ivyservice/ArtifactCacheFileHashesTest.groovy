@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.internal.hash.HashValue
+import spock.lang.Specification
+
+class ArtifactCacheFileHashesTest extends Specification {
+    def fileStore = new File("caches/modules-2/files-2.1").absoluteFile
+    def hashes = new ArtifactCacheFileHashes(fileStore)
+
+    def "uses checksum from path of file in file store"() {
+        expect:
+        hashes.getHash(new File(fileStore, "org.group/module/1.0/${sha1}/module-1.0.jar")) == new HashValue(sha1)
+
+        where:
+        sha1 << ["a9993e364706816aba3e25717850c26c9cd0d89d", "9993e364706816aba3e25717850c26c9cd0d89d"]
+    }
+
+    def "does not provide hash for files outside of file store"() {
+        expect:
+        hashes.getHash(new File("lib/a9993e364706816aba3e25717850c26c9cd0d89d/module-1.0.jar").absoluteFile) == null
+    }
+
+    def "does not provide hash when path does not contain a checksum"() {
+        expect:
+        hashes.getHash(new File(fileStore, path)) == null
+
+        where:
+        path << ["org.group/module/1.0/module-1.0.jar", "module/abc/module.jar", "org.group/module/1.0/not-a-checksum/module-1.0.jar", "org.group/module/1.0/${"a" * 41}/module-1.0.jar"]
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class ArtifactCacheGcLockTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def lockFile = tmpDir.file("modules-2/gc.lock")
+    def cleanup = Mock(Runnable)
+
+    def "runs cleanup when released by the last build using the cache"() {
+        def lock = new ArtifactCacheGcLock(lockFile)
+
+        when:
+        lock.acquire()
+        def cleanedUp = lock.releaseAndCleanup(cleanup)
+
+        then:
+        cleanedUp
+        1 * cleanup.run()
+    }
+
+    def "does not run cleanup while another build in this process is using the cache"() {
+        def lock = new ArtifactCacheGcLock(lockFile)
+        def other = new ArtifactCacheGcLock(lockFile)
+
+        when:
+        lock.acquire()
+        other.acquire()
+        def cleanedUp = lock.releaseAndCleanup(cleanup)
+
+        then:
+        !cleanedUp
+        0 * cleanup.run()
+
+        when:
+        cleanedUp = other.releaseAndCleanup(cleanup)
+
+        then:
+        cleanedUp
+        1 * cleanup.run()
+    }
+
+    def "does not run cleanup when not acquired"() {
+        def lock = new ArtifactCacheGcLock(lockFile)
+
+        when:
+        def cleanedUp = lock.releaseAndCleanup(cleanup)
+
+        then:
+        !cleanedUp
+        0 * cleanup.run()
+    }
+
+    def "can acquire again after release"() {
+        def lock = new ArtifactCacheGcLock(lockFile)
+
+        when:
+        lock.acquire()
+        lock.releaseAndCleanup(null)
+        lock.acquire()
+        def cleanedUp = lock.releaseAndCleanup(cleanup)
+
+        then:
+        cleanedUp
+        1 * cleanup.run()
+    }
+
+    def "build that starts using the cache during cleanup waits for the cleanup to finish"() {
+        def lock = new ArtifactCacheGcLock(lockFile)
+        def other = new ArtifactCacheGcLock(lockFile)
+        def cleanupStarted = new CountDownLatch(1)
+        def finishCleanup = new CountDownLatch(1)
+        def events = Collections.synchronizedList([])
+
+        when:
+        lock.acquire()
+        def cleaner = Thread.start {
+            lock.releaseAndCleanup({
+                cleanupStarted.countDown()
+                assert finishCleanup.await(10, TimeUnit.SECONDS)
+                events << "cleaned up"
+            } as Runnable)
+        }
+        assert cleanupStarted.await(10, TimeUnit.SECONDS)
+        def user = Thread.start {
+            other.acquire()
+            events << "acquired"
+        }
+        Thread.sleep(100)
+        finishCleanup.countDown()
+        [cleaner, user]*.join(10000)
+
+        then:
+        events == ["cleaned up", "acquired"]
+
+        cleanup:
+        other.releaseAndCleanup(null)
+    }
+}
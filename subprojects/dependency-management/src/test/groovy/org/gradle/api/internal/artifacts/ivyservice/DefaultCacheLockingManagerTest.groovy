@@ -50,6 +50,9 @@ class DefaultCacheLockingManagerTest extends Specification {
         1 * directoryCacheBuilder.withLockOptions(mode(FileLockManager.LockMode.None)) >> directoryCacheBuilder
         1 * directoryCacheBuilder.open() >> persistentCache
         _ * persistentCache.baseDir >> testCacheDir
+
+        cleanup:
+        cacheLockingManager?.close()
     }
 
     def "Create metadata store"() {
@@ -70,5 +73,8 @@ class DefaultCacheLockingManagerTest extends Specification {
         1 * directoryCacheBuilder.withLockOptions(mode(FileLockManager.LockMode.None)) >> directoryCacheBuilder
         1 * directoryCacheBuilder.open() >> persistentCache
         _ * persistentCache.baseDir >> testCacheDir
+
+        cleanup:
+        cacheLockingManager?.close()
     }
 }
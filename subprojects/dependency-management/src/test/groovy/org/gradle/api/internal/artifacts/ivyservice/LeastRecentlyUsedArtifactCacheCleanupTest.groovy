@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.InMemoryIndexedCache
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class LeastRecentlyUsedArtifactCacheCleanupTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def journal = new ArtifactCacheAccessTimeJournal()
+    def accessTimes = new InMemoryIndexedCache<String, Long>(BaseSerializerFactory.LONG_SERIALIZER)
+    def baseDir = tmpDir.createDir("modules-2")
+    def fileStore = baseDir.createDir("files-2.1")
+    def now = System.currentTimeMillis()
+
+    def "removes least recently used entries until the file store fits the maximum size"() {
+        def oldest = entry("group/a/1.0/abc/a-1.0.jar", now - TimeUnit.DAYS.toMillis(10))
+        def older = entry("group/b/1.0/def/b-1.0.jar", now - TimeUnit.DAYS.toMillis(5))
+        def recent = entry("group/c/1.0/123/c-1.0.jar", now - TimeUnit.DAYS.toMillis(2))
+
+        when:
+        cleanup(150)
+
+        then:
+        !oldest.exists()
+        !older.exists()
+        recent.exists()
+
+        and:
+        !fileStore.file("group/a").exists()
+        fileStore.file("group/c/1.0/123").exists()
+        accessTimes.get("files-2.1/group/a/1.0/abc/a-1.0.jar") == null
+    }
+
+    def "uses recorded access time in preference to modification time"() {
+        def first = entry("group/a/1.0/abc/a-1.0.jar", now - TimeUnit.DAYS.toMillis(10))
+        def second = entry("group/b/1.0/def/b-1.0.jar", now - TimeUnit.DAYS.toMillis(5))
+        journal.markAccessed(first)
+        journal.flush(baseDir, accessTimes)
+
+        when:
+        cleanup(150)
+
+        then:
+        first.exists()
+        !second.exists()
+    }
+
+    def "retains recently used entries even when the file store is too large"() {
+        def first = entry("group/a/1.0/abc/a-1.0.jar", now)
+        def second = entry("group/b/1.0/def/b-1.0.jar", now)
+
+        when:
+        cleanup(0)
+
+        then:
+        first.exists()
+        second.exists()
+    }
+
+    def "ignores entries that are being written"() {
+        def inProgress = entry("group/a/1.0/abc/a-1.0.jar", now - TimeUnit.DAYS.toMillis(10))
+        fileStore.file("group/a/1.0/abc/a-1.0.jar.fslck").createFile()
+
+        when:
+        cleanup(0)
+
+        then:
+        inProgress.exists()
+    }
+
+    def entry(String path, long lastModified) {
+        def file = fileStore.file(path)
+        file.text = "x" * 100
+        file.setLastModified(lastModified)
+        return file
+    }
+
+    def cleanup(long maxSize) {
+        new LeastRecentlyUsedArtifactCacheCleanup(baseDir, journal, maxSize, TimeUnit.DAYS.toMillis(1)).cleanup([fileStore], accessTimes)
+    }
+}
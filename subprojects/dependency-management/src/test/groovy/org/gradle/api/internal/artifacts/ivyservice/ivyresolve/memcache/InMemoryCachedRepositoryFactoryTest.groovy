@@ -17,6 +17,8 @@
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache
 
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository
+import org.gradle.cache.internal.stats.CacheStatisticsRegistry
+import org.gradle.internal.memory.MemoryPressureListenerManager
 import org.gradle.util.SetSystemProperties
 import org.junit.Rule
 import spock.lang.Specification
@@ -74,4 +76,20 @@ class InMemoryCachedRepositoryFactoryTest extends Specification {
         then:
         cache.cachePerRepo.isEmpty()
     }
+
+    def "listens for memory pressure until closed"() {
+        def memoryPressureListenerManager = Mock(MemoryPressureListenerManager)
+
+        when:
+        def factory = new InMemoryCachedRepositoryFactory(new CacheStatisticsRegistry(), memoryPressureListenerManager)
+
+        then:
+        1 * memoryPressureListenerManager.addListener(_ as InMemoryCachedRepositoryFactory)
+
+        when:
+        factory.stop()
+
+        then:
+        1 * memoryPressureListenerManager.removeListener({ it.is(factory) })
+    }
 }
@@ -47,6 +47,26 @@ class DefaultBinaryStoreTest extends Specification {
         store.close()
     }
 
+    def "data can be read independently when strings are repeated"() {
+        def store = new DefaultBinaryStore(temp.file("foo.bin"))
+
+        when:
+        store.write({ it.writeString("x"); it.writeString("x") } as BinaryStore.WriteAction)
+        def data1 = store.done()
+        store.write({ it.writeString("y"); it.writeString("x") } as BinaryStore.WriteAction)
+        def data2 = store.done()
+
+        then:
+        data2.read({ [it.readString(), it.readString()] } as BinaryStore.ReadAction) == ["y", "x"]
+        data2.close()
+
+        data1.read({ [it.readString(), it.readString()] } as BinaryStore.ReadAction) == ["x", "x"]
+        data1.close()
+
+        cleanup:
+        store.close()
+    }
+
     def "data can be re-read"() {
         def store = new DefaultBinaryStore(temp.file("foo.bin"))
 
@@ -77,6 +77,7 @@ public class PropertiesToDaemonParametersConverter {
         if (daemonEnabledPropertyValue != null) {
             target.setEnabled(isTrue(daemonEnabledPropertyValue));
         }
+        target.setSpareDaemon(isTrue(properties.get(SPARE_DAEMON_PROPERTY)));
         target.setDebug(isTrue(properties.get(DEBUG_MODE_PROPERTY)));
     }
 }
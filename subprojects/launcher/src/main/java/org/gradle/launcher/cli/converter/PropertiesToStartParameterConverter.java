@@ -26,6 +26,7 @@ import static org.gradle.launcher.daemon.configuration.GradleProperties.isTrue;
 public class PropertiesToStartParameterConverter {
     public StartParameter convert(Map<String, String> properties, StartParameter startParameter) {
         startParameter.setConfigureOnDemand(isTrue(properties.get(GradleProperties.CONFIGURE_ON_DEMAND_PROPERTY)));
+        startParameter.setConfigureInParallel(isTrue(properties.get(GradleProperties.CONFIGURE_IN_PARALLEL_PROPERTY)));
 
         String parallel = properties.get(GradleProperties.PARALLEL_PROPERTY);
         if (isTrue(parallel)) {
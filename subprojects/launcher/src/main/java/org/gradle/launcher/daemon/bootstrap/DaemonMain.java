@@ -34,6 +34,7 @@ import org.gradle.launcher.daemon.configuration.DaemonServerConfiguration;
 import org.gradle.launcher.daemon.configuration.DefaultDaemonServerConfiguration;
 import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
+import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.launcher.daemon.server.AllDaemonExpirationStrategy;
 import org.gradle.launcher.daemon.server.AnyDaemonExpirationStrategy;
 import org.gradle.launcher.daemon.server.Daemon;
@@ -42,8 +43,10 @@ import org.gradle.launcher.daemon.server.DaemonHealthExpirationStrategy;
 import org.gradle.launcher.daemon.server.DaemonIdleTimeoutExpirationStrategy;
 import org.gradle.launcher.daemon.server.DaemonRegistryUnavailableExpirationStrategy;
 import org.gradle.launcher.daemon.server.DaemonServices;
+import org.gradle.launcher.daemon.server.DaemonWarmUp;
 import org.gradle.launcher.daemon.server.LowMemoryDaemonExpirationStrategy;
 import org.gradle.launcher.daemon.server.health.DaemonHealthServices;
+import org.gradle.process.internal.ClassDataSharing;
 import org.gradle.process.internal.streams.EncodedStream;
 
 import java.io.*;
@@ -81,6 +84,7 @@ public class DaemonMain extends EntryPoint {
         int periodicCheckIntervalMs;
         String daemonUid;
         List<File> additionalClassPath;
+        boolean spare;
 
         KryoBackedDecoder decoder = new KryoBackedDecoder(new EncodedStream.EncodedInput(System.in));
         try {
@@ -99,12 +103,16 @@ public class DaemonMain extends EntryPoint {
             for (int i = 0; i < additionalClassPathLength; i++) {
                 additionalClassPath.add(new File(decoder.readString()));
             }
+            spare = decoder.readBoolean();
         } catch (EOFException e) {
             throw new UncheckedIOException(e);
         }
 
         LOGGER.debug("Assuming the daemon was started with following jvm opts: {}", startupOpts);
 
+        // Hold the lock of the class-data sharing archive this daemon writes when it exits, if any
+        ClassDataSharing.lockArchiveForCurrentJvm();
+
         NativeServices.initialize(gradleHomeDir);
         DaemonServerConfiguration parameters = new DefaultDaemonServerConfiguration(daemonUid, daemonBaseDir, idleTimeoutMs, periodicCheckIntervalMs, startupOpts);
         LoggingServiceRegistry loggingRegistry = LoggingServiceRegistry.newCommandLineProcessLogging();
@@ -114,16 +122,24 @@ public class DaemonMain extends EntryPoint {
 
         initialiseLogging(loggingManager, daemonLog);
         Daemon daemon = daemonServices.get(Daemon.class);
+        DaemonWarmUp warmUp = daemonServices.get(DaemonWarmUp.class);
         daemon.start();
 
         try {
             DaemonContext daemonContext = daemonServices.get(DaemonContext.class);
             Long pid = daemonContext.getPid();
             daemonStarted(pid, daemon.getUid(), daemon.getAddress(), daemonLog);
+            if (spare) {
+                // Nobody is waiting to claim a spare daemon, so make it available to any compatible client straight away
+                LOGGER.info("Advertising spare daemon as idle.");
+                daemonServices.get(DaemonRegistry.class).markIdle(daemon.getAddress());
+            }
+            warmUp.start(daemon);
 
             daemon.stopOnExpiration(initializeExpirationStrategy(daemonServices, parameters), parameters.getPeriodicCheckIntervalMs());
         } finally {
             daemon.stop();
+            warmUp.stop();
         }
     }
 
@@ -15,12 +15,15 @@
  */
 package org.gradle.launcher.daemon.client;
 
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.launcher.daemon.bootstrap.DaemonGreeter;
 import org.gradle.launcher.daemon.configuration.DaemonParameters;
 import org.gradle.launcher.daemon.context.DaemonContextBuilder;
 import org.gradle.launcher.daemon.registry.DaemonDir;
+import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.launcher.daemon.registry.DaemonRegistryServices;
+import org.gradle.launcher.daemon.server.health.MemoryInfo;
 
 import java.io.InputStream;
 
@@ -40,6 +43,12 @@ public class DaemonClientServices extends DaemonClientServicesSupport {
         return new DefaultDaemonStarter(daemonDir, daemonParameters, daemonGreeter, jvmVersionValidator);
     }
 
+    SpareDaemonStarter createSpareDaemonStarter(DaemonRegistry daemonRegistry, DaemonDir daemonDir, DaemonParameters daemonParameters, DaemonGreeter daemonGreeter,
+                                                JvmVersionValidator jvmVersionValidator, ExecutorFactory executorFactory) {
+        DaemonStarter spareStarter = new DefaultDaemonStarter(daemonDir, daemonParameters, daemonGreeter, jvmVersionValidator, true);
+        return new SpareDaemonStarter(daemonParameters, daemonRegistry, spareStarter, executorFactory, new MemoryInfo());
+    }
+
     protected void configureDaemonContextBuilder(DaemonContextBuilder builder) {
         builder.setDaemonRegistryDir(get(DaemonDir.class).getBaseDir());
         builder.useDaemonParameters(daemonParameters);
@@ -45,13 +45,15 @@ public class DefaultDaemonConnector implements DaemonConnector {
     protected final OutgoingConnector connector;
     private final DaemonStarter daemonStarter;
     private final DaemonStartListener startListener;
+    private final SpareDaemonStarter spareDaemonStarter;
     private long connectTimeout = DefaultDaemonConnector.DEFAULT_CONNECT_TIMEOUT;
 
-    public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter, DaemonStartListener startListener) {
+    public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter, DaemonStartListener startListener, SpareDaemonStarter spareDaemonStarter) {
         this.daemonRegistry = daemonRegistry;
         this.connector = connector;
         this.daemonStarter = daemonStarter;
         this.startListener = startListener;
+        this.spareDaemonStarter = spareDaemonStarter;
     }
 
     public void setConnectTimeout(long connectTimeout) {
@@ -81,12 +83,12 @@ public class DefaultDaemonConnector implements DaemonConnector {
 
     public DaemonClientConnection connect(ExplainingSpec<DaemonContext> constraint) {
         DaemonClientConnection connection = findConnection(daemonRegistry.getIdle(), constraint);
-        if (connection != null) {
-            return connection;
+        if (connection == null) {
+            LOGGER.lifecycle(STARTING_DAEMON_MESSAGE);
+            connection = startDaemon(constraint);
         }
-
-        LOGGER.lifecycle(STARTING_DAEMON_MESSAGE);
-        return startDaemon(constraint);
+        spareDaemonStarter.daemonClaimed(connection.getDaemon(), constraint);
+        return connection;
     }
 
     private DaemonClientConnection findConnection(List<DaemonInfo> daemons, ExplainingSpec<DaemonContext> constraint) {
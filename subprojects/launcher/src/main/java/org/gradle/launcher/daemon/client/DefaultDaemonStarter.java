@@ -26,6 +26,7 @@ import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.installation.CurrentGradleInstallation;
 import org.gradle.internal.installation.GradleInstallation;
+import org.gradle.internal.jvm.Jvm;
 import org.gradle.internal.serialize.FlushableEncoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 import org.gradle.launcher.daemon.DaemonExecHandleBuilder;
@@ -35,6 +36,7 @@ import org.gradle.launcher.daemon.bootstrap.GradleDaemon;
 import org.gradle.launcher.daemon.configuration.DaemonParameters;
 import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
 import org.gradle.launcher.daemon.registry.DaemonDir;
+import org.gradle.process.internal.ClassDataSharing;
 import org.gradle.process.internal.ExecHandle;
 import org.gradle.process.internal.streams.EncodedStream;
 import org.gradle.util.Clock;
@@ -59,12 +61,21 @@ public class DefaultDaemonStarter implements DaemonStarter {
     private final DaemonParameters daemonParameters;
     private final DaemonGreeter daemonGreeter;
     private final JvmVersionValidator versionValidator;
+    private final boolean spare;
 
     public DefaultDaemonStarter(DaemonDir daemonDir, DaemonParameters daemonParameters, DaemonGreeter daemonGreeter, JvmVersionValidator versionValidator) {
+        this(daemonDir, daemonParameters, daemonGreeter, versionValidator, false);
+    }
+
+    /**
+     * @param spare whether the daemons started are spares, which advertise themselves as idle instead of waiting to be claimed by the client that started them.
+     */
+    public DefaultDaemonStarter(DaemonDir daemonDir, DaemonParameters daemonParameters, DaemonGreeter daemonGreeter, JvmVersionValidator versionValidator, boolean spare) {
         this.daemonDir = daemonDir;
         this.daemonParameters = daemonParameters;
         this.daemonGreeter = daemonGreeter;
         this.versionValidator = versionValidator;
+        this.spare = spare;
     }
 
     public DaemonStartupInfo startDaemon() {
@@ -97,6 +108,10 @@ public class DefaultDaemonStarter implements DaemonStarter {
 
         List<String> daemonOpts = daemonParameters.getEffectiveJvmArgs();
         daemonArgs.addAll(daemonOpts);
+        if (daemonParameters.getEffectiveJvm().equals(Jvm.current())) {
+            // Not part of the daemon opts, as these do not affect whether a daemon is compatible with a build
+            daemonArgs.addAll(ClassDataSharing.forCurrentJvm(daemonParameters.getGradleUserHomeDir()).getDaemonJvmArgs(classpath.getAsFiles()));
+        }
         daemonArgs.add("-cp");
         daemonArgs.add(CollectionUtils.join(File.pathSeparator, classpath.getAsFiles()));
 
@@ -127,6 +142,7 @@ public class DefaultDaemonStarter implements DaemonStarter {
             for (File file : searchClassPath) {
                 encoder.writeString(file.getAbsolutePath());
             }
+            encoder.writeBoolean(spare);
             encoder.flush();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
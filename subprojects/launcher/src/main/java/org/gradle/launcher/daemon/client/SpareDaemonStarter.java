@@ -0,0 +1,182 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.client;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.gradle.api.internal.specs.ExplainingSpec;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.launcher.daemon.configuration.DaemonParameters;
+import org.gradle.launcher.daemon.context.DaemonConnectDetails;
+import org.gradle.launcher.daemon.context.DaemonContext;
+import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
+import org.gradle.launcher.daemon.registry.DaemonInfo;
+import org.gradle.launcher.daemon.registry.DaemonRegistry;
+import org.gradle.launcher.daemon.server.health.MemoryInfo;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps one spare compatible daemon started, so that a build which finds all compatible daemons busy does not have to wait for a new one to start.
+ *
+ * <p>When enabled, each time a client claims a daemon and no other compatible daemon is idle, a spare daemon is started in the background. The spare
+ * advertises itself as idle in the registry and is subject to the usual idle timeout and low memory expiration. No spare is started when doing so
+ * would leave less free physical memory than the threshold at which idle daemons expire.</p>
+ */
+public class SpareDaemonStarter implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(SpareDaemonStarter.class);
+    // Matches the free memory threshold below which idle daemons expire
+    private static final double MIN_FREE_MEMORY_PERCENTAGE = 0.2;
+    private static final long DEFAULT_MAX_HEAP = 1024L * 1024 * 1024;
+
+    private final DaemonParameters daemonParameters;
+    private final DaemonRegistry daemonRegistry;
+    private final DaemonStarter daemonStarter;
+    private final ExecutorFactory executorFactory;
+    private final MemoryInfo memoryInfo;
+    private final AtomicBoolean starting = new AtomicBoolean();
+    private StoppableExecutor executor;
+
+    public SpareDaemonStarter(DaemonParameters daemonParameters, DaemonRegistry daemonRegistry, DaemonStarter daemonStarter, ExecutorFactory executorFactory, MemoryInfo memoryInfo) {
+        this.daemonParameters = daemonParameters;
+        this.daemonRegistry = daemonRegistry;
+        this.daemonStarter = daemonStarter;
+        this.executorFactory = executorFactory;
+        this.memoryInfo = memoryInfo;
+    }
+
+    /**
+     * Called when a client has claimed the given daemon to run a build. Starts a spare daemon in the background, if required.
+     */
+    public void daemonClaimed(DaemonConnectDetails claimed, ExplainingSpec<DaemonContext> constraint) {
+        if (!daemonParameters.isSpareDaemon() || hasIdleDaemon(claimed, constraint) || !hasMemoryForSpare()) {
+            return;
+        }
+        if (!starting.compareAndSet(false, true)) {
+            return;
+        }
+        getExecutor().execute(new Runnable() {
+            public void run() {
+                try {
+                    LOGGER.info("Starting a spare Gradle daemon in the background.");
+                    DaemonStartupInfo startupInfo = daemonStarter.startDaemon();
+                    LOGGER.debug("Started spare Gradle daemon {}", startupInfo);
+                } catch (RuntimeException e) {
+                    LOGGER.info("Could not start a spare Gradle daemon.", e);
+                } finally {
+                    starting.set(false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits for any spare daemon that is being started.
+     */
+    public void stop() {
+        StoppableExecutor executor;
+        synchronized (this) {
+            executor = this.executor;
+        }
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
+    private synchronized StoppableExecutor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("Spare daemon starter");
+        }
+        return executor;
+    }
+
+    private boolean hasIdleDaemon(DaemonConnectDetails claimed, ExplainingSpec<DaemonContext> constraint) {
+        for (DaemonInfo daemon : daemonRegistry.getIdle()) {
+            // The claimed daemon is still advertised as idle until it receives the build
+            if (!daemon.getUid().equals(claimed.getUid()) && constraint.isSatisfiedBy(daemon.getContext())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasMemoryForSpare() {
+        long freeMemory;
+        long totalMemory;
+        try {
+            freeMemory = memoryInfo.getFreePhysicalMemory();
+            totalMemory = memoryInfo.getTotalPhysicalMemory();
+        } catch (UnsupportedOperationException e) {
+            LOGGER.info("Not starting a spare Gradle daemon, as this JVM does not support getting free system memory.");
+            return false;
+        }
+        long maxHeap = parseMaxHeap(daemonParameters.getEffectiveJvmArgs());
+        if (maxHeap < 0) {
+            maxHeap = totalMemory > 0 ? totalMemory / 4 : DEFAULT_MAX_HEAP;
+        }
+        if (freeMemory - maxHeap < totalMemory * MIN_FREE_MEMORY_PERCENTAGE) {
+            LOGGER.info("Not starting a spare Gradle daemon, as free system memory ({} bytes) is too low.", freeMemory);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the maximum heap size in bytes given by the last -Xmx argument, or -1 when there is none.
+     */
+    @VisibleForTesting
+    static long parseMaxHeap(List<String> jvmArgs) {
+        long maxHeap = -1;
+        for (String arg : jvmArgs) {
+            if (!arg.startsWith("-Xmx") || arg.length() == 4) {
+                continue;
+            }
+            String value = arg.substring(4);
+            long multiplier = 1;
+            switch (Character.toLowerCase(value.charAt(value.length() - 1))) {
+                case 'k':
+                    multiplier = 1024L;
+                    break;
+                case 'm':
+                    multiplier = 1024L * 1024;
+                    break;
+                case 'g':
+                    multiplier = 1024L * 1024 * 1024;
+                    break;
+                case 't':
+                    multiplier = 1024L * 1024 * 1024 * 1024;
+                    break;
+                default:
+                    break;
+            }
+            if (multiplier != 1) {
+                value = value.substring(0, value.length() - 1);
+            }
+            try {
+                maxHeap = Long.parseLong(value) * multiplier;
+            } catch (NumberFormatException e) {
+                // Let the JVM complain about it
+            }
+        }
+        return maxHeap;
+    }
+}
@@ -48,6 +48,7 @@ public class DaemonParameters {
     private DaemonUsage daemonUsage = DaemonUsage.IMPLICITLY_DISABLED;
     private boolean hasJvmArgs;
     private boolean foreground;
+    private boolean spareDaemon;
     private boolean stop;
     private boolean interactive = System.console() != null || Boolean.getBoolean(INTERACTIVE_TOGGLE);
     private JavaInfo jvm = Jvm.current();
@@ -168,6 +169,17 @@ public class DaemonParameters {
         this.foreground = foreground;
     }
 
+    /**
+     * Returns true when a spare compatible daemon should be kept started in the background, ready for the next build.
+     */
+    public boolean isSpareDaemon() {
+        return spareDaemon;
+    }
+
+    public void setSpareDaemon(boolean spareDaemon) {
+        this.spareDaemon = spareDaemon;
+    }
+
     public boolean isStop() {
         return stop;
     }
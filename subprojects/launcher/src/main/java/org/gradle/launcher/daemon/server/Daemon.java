@@ -17,6 +17,7 @@ package org.gradle.launcher.daemon.server;
 
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.api.specs.Spec;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.Stoppable;
@@ -49,6 +50,8 @@ public class Daemon implements Stoppable {
     private final DaemonCommandExecuter commandExecuter;
     private final ScheduledExecutorService scheduledExecutorService;
     private final ExecutorFactory executorFactory;
+    private final int maxConcurrentBuilds;
+    private final Spec<? super String> concurrentBuildAdmission;
 
     private DaemonStateCoordinator stateCoordinator;
 
@@ -63,14 +66,19 @@ public class Daemon implements Stoppable {
      *
      * @param connector The provider of server connections for this daemon
      * @param daemonRegistry The registry that this daemon should advertise itself in
+     * @param maxConcurrentBuilds The maximum number of builds this daemon runs at the same time
+     * @param concurrentBuildAdmission Decides whether a build may start while other builds are running
      */
-    public Daemon(DaemonServerConnector connector, DaemonRegistry daemonRegistry, DaemonContext daemonContext, DaemonCommandExecuter commandExecuter, ExecutorFactory executorFactory, ScheduledExecutorService scheduledExecutorService) {
+    public Daemon(DaemonServerConnector connector, DaemonRegistry daemonRegistry, DaemonContext daemonContext, DaemonCommandExecuter commandExecuter, ExecutorFactory executorFactory, ScheduledExecutorService scheduledExecutorService,
+                  int maxConcurrentBuilds, Spec<? super String> concurrentBuildAdmission) {
         this.connector = connector;
         this.daemonRegistry = daemonRegistry;
         this.daemonContext = daemonContext;
         this.commandExecuter = commandExecuter;
         this.executorFactory = executorFactory;
         this.scheduledExecutorService = scheduledExecutorService;
+        this.maxConcurrentBuilds = maxConcurrentBuilds;
+        this.concurrentBuildAdmission = concurrentBuildAdmission;
     }
 
     public String getUid() {
@@ -137,7 +145,7 @@ public class Daemon implements Stoppable {
             // 3. start accepting incoming connections
             // 4. advertise presence in registry
 
-            stateCoordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand);
+            stateCoordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, maxConcurrentBuilds, concurrentBuildAdmission);
             connectionHandler = new DefaultIncomingConnectionHandler(commandExecuter, daemonContext, stateCoordinator, executorFactory, token);
             Runnable connectionErrorHandler = new Runnable() {
                 @Override
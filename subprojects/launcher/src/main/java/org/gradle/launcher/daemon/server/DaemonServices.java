@@ -15,10 +15,14 @@
  */
 package org.gradle.launcher.daemon.server;
 
+import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.api.specs.Spec;
+import org.gradle.initialization.ClassLoaderRegistry;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.memory.MemoryPressureListenerManager;
 import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.nativeintegration.services.NativeServices;
 import org.gradle.internal.service.DefaultServiceRegistry;
@@ -32,8 +36,10 @@ import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.launcher.daemon.registry.DaemonRegistryServices;
 import org.gradle.launcher.daemon.server.exec.DefaultDaemonCommandExecuter;
 import org.gradle.launcher.daemon.server.health.DaemonHealthServices;
+import org.gradle.launcher.daemon.server.health.DaemonStatus;
 import org.gradle.launcher.daemon.server.health.DefaultDaemonHealthServices;
 import org.gradle.launcher.exec.BuildExecuter;
+import org.gradle.model.internal.manage.schema.ModelSchemaStore;
 import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.remote.services.MessagingServices;
 import org.gradle.internal.remote.internal.inet.InetAddressFactory;
@@ -47,6 +53,12 @@ import java.util.concurrent.ScheduledExecutorService;
  * Takes care of instantiating and wiring together the services required by the daemon server.
  */
 public class DaemonServices extends DefaultServiceRegistry {
+    /**
+     * The maximum number of builds a daemon runs at the same time. Defaults to 1. Builds only run concurrently when they use the same build environment
+     * and the daemon has enough free heap for another build.
+     */
+    public static final String MAX_CONCURRENT_BUILDS_PROPERTY = "org.gradle.daemon.max-concurrent-builds";
+
     private final DaemonServerConfiguration configuration;
     private final LoggingManagerInternal loggingManager;
     private final static Logger LOGGER = Logging.getLogger(DaemonServices.class);
@@ -80,19 +92,29 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new File(get(DaemonDir.class).getVersionedDir(), fileName);
     }
 
-    protected DaemonHealthServices createDaemonHealthServices(ScheduledExecutorService scheduledExecutorService) {
-        return new DefaultDaemonHealthServices(scheduledExecutorService);
+    protected DaemonHealthServices createDaemonHealthServices(ScheduledExecutorService scheduledExecutorService, MemoryPressureListenerManager memoryPressureListenerManager) {
+        return new DefaultDaemonHealthServices(scheduledExecutorService, memoryPressureListenerManager);
     }
 
     protected ScheduledExecutorService createScheduledExecutorService() {
         return Executors.newScheduledThreadPool(1);
     }
 
+    protected RecentProjectCacheDirs createRecentProjectCacheDirs(DaemonDir daemonDir) {
+        return new RecentProjectCacheDirs(new File(daemonDir.getVersionedDir(), "recent-projects.txt"));
+    }
+
+    protected DaemonWarmUp createDaemonWarmUp(ExecutorFactory executorFactory, ClassLoaderRegistry classLoaderRegistry, ModuleRegistry moduleRegistry,
+                                              ModelSchemaStore schemaStore, RecentProjectCacheDirs recentProjects) {
+        return new DaemonWarmUp(executorFactory, classLoaderRegistry, moduleRegistry, schemaStore, recentProjects);
+    }
+
     protected Daemon createDaemon(BuildExecuter buildActionExecuter) {
         return new Daemon(
             new DaemonTcpServerConnector(
                 get(ExecutorFactory.class),
-                get(MessagingServices.class).get(InetAddressFactory.class)
+                get(MessagingServices.class).get(InetAddressFactory.class),
+                get(DaemonDir.class).getVersionedDir()
             ),
             get(DaemonRegistry.class),
             get(DaemonContext.class),
@@ -102,11 +124,44 @@ public class DaemonServices extends DefaultServiceRegistry {
                 get(ProcessEnvironment.class),
                 loggingManager,
                 getDaemonLogFile(),
-                get(DaemonHealthServices.class)
+                get(DaemonHealthServices.class),
+                get(RecentProjectCacheDirs.class)
             ),
             get(ExecutorFactory.class),
-            get(ScheduledExecutorService.class)
+            get(ScheduledExecutorService.class),
+            getMaxConcurrentBuilds(),
+            new ConcurrentBuildAdmission(get(DaemonHealthServices.class).getDaemonStatus())
         );
     }
 
+    private static int getMaxConcurrentBuilds() {
+        String value = System.getProperty(MAX_CONCURRENT_BUILDS_PROPERTY);
+        if (value == null) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Ignoring invalid value '{}' for system property '{}'. The value needs to be an integer.", value, MAX_CONCURRENT_BUILDS_PROPERTY);
+            return 1;
+        }
+    }
+
+    private static class ConcurrentBuildAdmission implements Spec<String> {
+        private final DaemonStatus daemonStatus;
+
+        ConcurrentBuildAdmission(DaemonStatus daemonStatus) {
+            this.daemonStatus = daemonStatus;
+        }
+
+        @Override
+        public boolean isSatisfiedBy(String buildDisplayName) {
+            if (daemonStatus.isAbleToRunConcurrentBuild()) {
+                return true;
+            }
+            LOGGER.info("Daemon does not have enough free memory to run {} alongside the builds in progress.", buildDisplayName);
+            return false;
+        }
+    }
+
 }
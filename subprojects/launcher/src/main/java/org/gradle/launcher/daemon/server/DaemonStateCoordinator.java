@@ -16,7 +16,10 @@
 
 package org.gradle.launcher.daemon.server;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.logging.Logging;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
 import org.gradle.initialization.BuildCancellationToken;
 import org.gradle.initialization.DefaultBuildCancellationToken;
 import org.gradle.internal.UncheckedException;
@@ -28,7 +31,9 @@ import org.gradle.launcher.daemon.server.api.DaemonStoppedException;
 import org.gradle.launcher.daemon.server.api.DaemonUnavailableException;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -39,6 +44,9 @@ import java.util.concurrent.locks.ReentrantLock;
  * This class has no knowledge of the Daemon's internals and is designed to be used internally by the daemon to coordinate itself and allow worker threads to control the daemon's busy/idle status.
  *
  * This is not exposed to clients of the daemon.
+ *
+ * By default the daemon runs one command at a time. When more concurrent commands are allowed, a command is only admitted alongside the running ones
+ * when it runs in the same build environment and the admission spec is satisfied. The daemon is marked busy only once it cannot accept any more commands.
  */
 public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     private static final Logger LOGGER = Logging.getLogger(DaemonStateCoordinator.class);
@@ -48,11 +56,13 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     private final Lock lock = new ReentrantLock();
     private final Condition condition = lock.newCondition();
     private final long cancelTimeoutMs;
+    private final int maxConcurrentCommands;
+    private final Spec<? super String> concurrentCommandAdmission;
 
     private State state = State.Running;
     private long lastActivityAt = -1;
-    private String currentCommandExecution;
-    private Object result;
+    private final List<CommandExecution> commandExecutions = new ArrayList<CommandExecution>();
+    private final ThreadLocal<CommandExecution> workerCommandExecution = new ThreadLocal<CommandExecution>();
     private volatile DefaultBuildCancellationToken cancellationToken;
 
     private final StoppableExecutor executor;
@@ -60,13 +70,30 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     private final Runnable onFinishCommand;
 
     public DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand) {
-        this(executorFactory, onStartCommand, onFinishCommand, 10 * 1000L);
+        this(executorFactory, onStartCommand, onFinishCommand, 1, Specs.satisfyAll());
+    }
+
+    /**
+     * @param maxConcurrentCommands The maximum number of commands to run at the same time.
+     * @param concurrentCommandAdmission Decides whether a command, given its display name, may start while other commands are running.
+     */
+    public DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand, int maxConcurrentCommands, Spec<? super String> concurrentCommandAdmission) {
+        this(executorFactory, onStartCommand, onFinishCommand, maxConcurrentCommands, concurrentCommandAdmission, 10 * 1000L);
     }
 
     DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand, long cancelTimeoutMs) {
+        this(executorFactory, onStartCommand, onFinishCommand, 1, Specs.satisfyAll(), cancelTimeoutMs);
+    }
+
+    DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand, int maxConcurrentCommands, Spec<? super String> concurrentCommandAdmission, long cancelTimeoutMs) {
+        if (maxConcurrentCommands < 1) {
+            throw new IllegalArgumentException("The maximum number of concurrent commands must be at least 1.");
+        }
         executor = executorFactory.create("Daemon worker");
         this.onStartCommand = onStartCommand;
         this.onFinishCommand = onFinishCommand;
+        this.maxConcurrentCommands = maxConcurrentCommands;
+        this.concurrentCommandAdmission = concurrentCommandAdmission;
         this.cancelTimeoutMs = cancelTimeoutMs;
         updateActivityTimestamp();
         cancellationToken = new DefaultBuildCancellationToken();
@@ -179,21 +206,45 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     }
 
     public BuildCancellationToken getCancellationToken() {
-        return cancellationToken;
+        CommandExecution commandExecution = workerCommandExecution.get();
+        return commandExecution != null ? commandExecution.cancellationToken : cancellationToken;
     }
 
-    private void updateCancellationToken() {
-        cancellationToken = new DefaultBuildCancellationToken();
+    public void cancelBuild() {
+        cancel(null);
     }
 
-    public void cancelBuild() {
+    public void cancelBuild(String commandDisplayName) {
+        cancel(commandDisplayName);
+    }
+
+    private void cancel(@Nullable String commandDisplayName) {
         long waitUntil = System.currentTimeMillis() + cancelTimeoutMs;
         Date expiry = new Date(waitUntil);
-        LOGGER.debug("Cancel requested: will wait for daemon to become idle.");
+        List<CommandExecution> cancelled = new ArrayList<CommandExecution>();
+        List<DefaultBuildCancellationToken> tokens = new ArrayList<DefaultBuildCancellationToken>();
+        lock.lock();
         try {
-            cancellationToken.cancel();
-        } catch (Exception ex) {
-            LOGGER.error("Cancel processing failed. Will continue.", ex);
+            for (CommandExecution commandExecution : commandExecutions) {
+                if (commandDisplayName == null || commandExecution.displayName.equals(commandDisplayName)) {
+                    cancelled.add(commandExecution);
+                    tokens.add(commandExecution.cancellationToken);
+                }
+            }
+            if (commandDisplayName == null && cancelled.isEmpty()) {
+                tokens.add(cancellationToken);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        LOGGER.debug("Cancel requested: will wait for {} to finish.", commandDisplayName == null ? "daemon to become idle" : commandDisplayName);
+        for (DefaultBuildCancellationToken token : tokens) {
+            try {
+                token.cancel();
+            } catch (Exception ex) {
+                LOGGER.error("Cancel processing failed. Will continue.", ex);
+            }
         }
 
         lock.lock();
@@ -202,8 +253,8 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                 try {
                     switch (state) {
                         case Running:
-                            if (isIdle()) {
-                                LOGGER.debug("Cancel: daemon is idle now.");
+                            if (isFinished(cancelled)) {
+                                LOGGER.debug("Cancel: cancelled commands have finished now.");
                                 return;
                             }
                             // fall-through
@@ -228,36 +279,73 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         }
     }
 
-    public void runCommand(final Runnable command, String commandDisplayName) throws DaemonUnavailableException {
-        onStartCommand(commandDisplayName);
+    private boolean isFinished(List<CommandExecution> cancelled) {
+        for (CommandExecution commandExecution : cancelled) {
+            if (commandExecutions.contains(commandExecution)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void abandonCommand(String commandDisplayName) {
+        boolean otherCommandsRunning = false;
+        lock.lock();
+        try {
+            for (CommandExecution commandExecution : commandExecutions) {
+                if (!commandExecution.displayName.equals(commandDisplayName)) {
+                    otherCommandsRunning = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (otherCommandsRunning) {
+            LOGGER.debug("Abandoning {} while other commands are running: cancelling it.", commandDisplayName);
+            cancelBuild(commandDisplayName);
+        } else {
+            requestForcefulStop();
+        }
+    }
+
+    public void runCommand(Runnable command, String commandDisplayName) throws DaemonUnavailableException {
+        runCommand(command, commandDisplayName, null);
+    }
+
+    public void runCommand(final Runnable command, String commandDisplayName, @Nullable Object buildEnvironment) throws DaemonUnavailableException {
+        final CommandExecution commandExecution = onStartCommand(commandDisplayName, buildEnvironment);
         try {
             executor.execute(new Runnable() {
                 public void run() {
+                    workerCommandExecution.set(commandExecution);
                     try {
                         command.run();
-                        onCommandSuccessful();
+                        onCommandSuccessful(commandExecution);
                     } catch (Throwable t) {
-                        onCommandFailed(t);
+                        onCommandFailed(commandExecution, t);
+                    } finally {
+                        workerCommandExecution.remove();
                     }
                 }
             });
-            waitForCommandCompletion();
+            waitForCommandCompletion(commandExecution);
         } finally {
-            onFinishCommand();
+            onFinishCommand(commandExecution);
         }
     }
 
-    private void waitForCommandCompletion() {
+    private void waitForCommandCompletion(CommandExecution commandExecution) {
         lock.lock();
         try {
-            while ((state == State.Running || state == State.StopRequested) && result == null) {
+            while ((state == State.Running || state == State.StopRequested) && commandExecution.result == null) {
                 try {
                     condition.await();
                 } catch (InterruptedException e) {
                     throw UncheckedException.throwAsUncheckedException(e);
                 }
             }
-            LOGGER.debug("Command execution: finished waiting for {}. Result {} with state {}", currentCommandExecution, result, state);
+            Object result = commandExecution.result;
+            LOGGER.debug("Command execution: finished waiting for {}. Result {} with state {}", commandExecution.displayName, result, state);
             if (result instanceof Throwable) {
                 throw UncheckedException.throwAsUncheckedException((Throwable) result);
             }
@@ -277,27 +365,27 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         }
     }
 
-    private void onCommandFailed(Throwable failure) {
+    private void onCommandFailed(CommandExecution commandExecution, Throwable failure) {
         lock.lock();
         try {
-            result = failure;
+            commandExecution.result = failure;
             condition.signalAll();
         } finally {
             lock.unlock();
         }
     }
 
-    private void onCommandSuccessful() {
+    private void onCommandSuccessful(CommandExecution commandExecution) {
         lock.lock();
         try {
-            result = this;
+            commandExecution.result = this;
             condition.signalAll();
         } finally {
             lock.unlock();
         }
     }
 
-    private void onStartCommand(String commandDisplayName) {
+    private CommandExecution onStartCommand(String commandDisplayName, @Nullable Object buildEnvironment) {
         lock.lock();
         try {
             switch (state) {
@@ -308,18 +396,21 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                 case Stopped:
                     throw new DaemonUnavailableException("This daemon has stopped.");
             }
-            if (currentCommandExecution != null) {
-                throw new DaemonUnavailableException(String.format("This daemon is currently executing: %s", currentCommandExecution));
+            if (!commandExecutions.isEmpty() && !canRunAlongsideCurrentCommands(commandDisplayName, buildEnvironment)) {
+                throw new DaemonUnavailableException(String.format("This daemon is currently executing: %s", getCurrentCommandExecutions()));
             }
 
             LOGGER.debug("Command execution: started {} after {} minutes of idle", commandDisplayName, getIdleMinutes());
             try {
-                onStartCommand.run();
-                currentCommandExecution = commandDisplayName;
-                result = null;
+                if (commandExecutions.size() + 1 == maxConcurrentCommands) {
+                    onStartCommand.run();
+                }
+                CommandExecution commandExecution = new CommandExecution(commandDisplayName, buildEnvironment);
+                commandExecutions.add(commandExecution);
+                cancellationToken = commandExecution.cancellationToken;
                 updateActivityTimestamp();
-                updateCancellationToken();
                 condition.signalAll();
+                return commandExecution;
             } catch (Throwable throwable) {
                 setState(State.Broken);
                 throw UncheckedException.throwAsUncheckedException(throwable);
@@ -329,17 +420,43 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         }
     }
 
-    private void onFinishCommand() {
+    private boolean canRunAlongsideCurrentCommands(String commandDisplayName, @Nullable Object buildEnvironment) {
+        if (commandExecutions.size() >= maxConcurrentCommands || buildEnvironment == null) {
+            return false;
+        }
+        for (CommandExecution commandExecution : commandExecutions) {
+            if (!buildEnvironment.equals(commandExecution.buildEnvironment)) {
+                LOGGER.debug("Command execution: {} runs in a different build environment to {}", commandDisplayName, commandExecution.displayName);
+                return false;
+            }
+        }
+        return concurrentCommandAdmission.isSatisfiedBy(commandDisplayName);
+    }
+
+    private String getCurrentCommandExecutions() {
+        StringBuilder builder = new StringBuilder();
+        for (CommandExecution commandExecution : commandExecutions) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(commandExecution.displayName);
+        }
+        return builder.toString();
+    }
+
+    private void onFinishCommand(CommandExecution commandExecution) {
         lock.lock();
         try {
-            LOGGER.debug("Command execution: completed {}", currentCommandExecution);
-            currentCommandExecution = null;
-            result = null;
+            LOGGER.debug("Command execution: completed {}", commandExecution.displayName);
+            boolean wasFull = commandExecutions.size() == maxConcurrentCommands;
+            commandExecutions.remove(commandExecution);
             updateActivityTimestamp();
             switch (state) {
                 case Running:
                     try {
-                        onFinishCommand.run();
+                        if (wasFull) {
+                            onFinishCommand.run();
+                        }
                         condition.signalAll();
                     } catch (Throwable throwable) {
                         setState(State.Broken);
@@ -347,7 +464,11 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                     }
                     break;
                 case StopRequested:
-                    stopNow("command completed and stop requested");
+                    if (commandExecutions.isEmpty()) {
+                        stopNow("command completed and stop requested");
+                    } else {
+                        condition.signalAll();
+                    }
                     break;
                 case Stopped:
                     break;
@@ -383,10 +504,22 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     }
 
     boolean isIdle() {
-        return state == State.Running && currentCommandExecution == null;
+        return state == State.Running && commandExecutions.isEmpty();
     }
 
     boolean isBusy() {
-        return (state == State.Running || state == State.StopRequested) && currentCommandExecution != null;
+        return (state == State.Running || state == State.StopRequested) && !commandExecutions.isEmpty();
+    }
+
+    private static class CommandExecution {
+        private final String displayName;
+        private final Object buildEnvironment;
+        private final DefaultBuildCancellationToken cancellationToken = new DefaultBuildCancellationToken();
+        private Object result;
+
+        CommandExecution(String displayName, @Nullable Object buildEnvironment) {
+            this.displayName = displayName;
+            this.buildEnvironment = buildEnvironment;
+        }
     }
 }
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server;
+
+import com.google.common.collect.ImmutableList;
+import groovy.lang.GroovyClassLoader;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.gradle.api.internal.classpath.Module;
+import org.gradle.api.internal.classpath.ModuleRegistry;
+import org.gradle.api.internal.classpath.UnknownModuleException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.initialization.ClassLoaderRegistry;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.model.internal.manage.schema.ModelSchemaStore;
+import org.gradle.util.Clock;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Warms up a newly started daemon in the background, while it is idle, so that the first build it runs does not pay for class loading,
+ * JIT compilation and cold disk caches.
+ *
+ * <p>Warm-up preloads the classes of the core and most commonly used plugin modules, compiles a representative build script, extracts the
+ * schemas of common model types and reads the persistent caches of the most recently built projects into the OS page cache. It stops for
+ * good as soon as the daemon starts a build, and can be disabled using the {@value #ENABLED_PROPERTY} system property.</p>
+ */
+public class DaemonWarmUp implements Stoppable {
+    public static final String ENABLED_PROPERTY = "org.gradle.daemon.warmup";
+    private static final Logger LOGGER = Logging.getLogger(DaemonWarmUp.class);
+    private static final List<String> CORE_MODULES = ImmutableList.of("gradle-core");
+    private static final List<String> PLUGIN_MODULES = ImmutableList.of(
+        "gradle-plugins", "gradle-platform-base", "gradle-platform-jvm", "gradle-language-jvm", "gradle-language-java",
+        "gradle-testing-base", "gradle-testing-jvm", "gradle-dependency-management", "gradle-reporting");
+    private static final List<String> MODEL_TYPES = ImmutableList.of(
+        "org.gradle.platform.base.ComponentSpec", "org.gradle.platform.base.BinarySpec", "org.gradle.language.base.LanguageSourceSet",
+        "org.gradle.jvm.JvmLibrarySpec", "org.gradle.jvm.JarBinarySpec");
+    private static final String SCRIPT_BASE_CLASS = "org.gradle.groovy.scripts.DefaultScript";
+    private static final String REPRESENTATIVE_SCRIPT = "apply plugin: 'java'\n"
+        + "group = 'org.example'\n"
+        + "version = '1.0'\n"
+        + "sourceCompatibility = 1.7\n"
+        + "repositories { mavenCentral() }\n"
+        + "dependencies {\n"
+        + "    compile 'com.google.guava:guava:19.0'\n"
+        + "    testCompile 'junit:junit:4.12'\n"
+        + "}\n"
+        + "tasks.withType(JavaCompile) { options.encoding = 'UTF-8' }\n"
+        + "test { maxParallelForks = 2; systemProperty 'key', \"${project.name}-value\" }\n"
+        + "task sourcesJar(type: Jar) { classifier = 'sources'; from sourceSets.main.allSource }\n";
+    private static final String[] CACHES = {"taskArtifacts"};
+    private static final long MAX_CACHE_BYTES = 256L * 1024 * 1024;
+    private static final int CHECK_INTERVAL = 100;
+
+    private final ExecutorFactory executorFactory;
+    private final ClassLoaderRegistry classLoaderRegistry;
+    private final ModuleRegistry moduleRegistry;
+    private final ModelSchemaStore schemaStore;
+    private final RecentProjectCacheDirs recentProjects;
+    private DaemonStateCoordinator stateCoordinator;
+    private StoppableExecutor executor;
+    private int workDone;
+
+    public DaemonWarmUp(ExecutorFactory executorFactory, ClassLoaderRegistry classLoaderRegistry, ModuleRegistry moduleRegistry, ModelSchemaStore schemaStore, RecentProjectCacheDirs recentProjects) {
+        this.executorFactory = executorFactory;
+        this.classLoaderRegistry = classLoaderRegistry;
+        this.moduleRegistry = moduleRegistry;
+        this.schemaStore = schemaStore;
+        this.recentProjects = recentProjects;
+    }
+
+    /**
+     * Starts warming up the given daemon in the background, unless warm-up has been disabled.
+     */
+    public void start(Daemon daemon) {
+        if (!Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"))) {
+            LOGGER.debug("Daemon warm-up is disabled.");
+            return;
+        }
+        stateCoordinator = daemon.getStateCoordinator();
+        executor = executorFactory.create("Daemon warm-up");
+        executor.execute(new Runnable() {
+            public void run() {
+                Thread thread = Thread.currentThread();
+                int priority = thread.getPriority();
+                thread.setPriority(Thread.MIN_PRIORITY);
+                try {
+                    warmUp();
+                } finally {
+                    thread.setPriority(priority);
+                }
+            }
+        });
+    }
+
+    public void stop() {
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
+    void warmUp() {
+        Clock clock = new Clock();
+        boolean completed = preloadClasses(classLoaderRegistry.getRuntimeClassLoader(), CORE_MODULES, true)
+            && preloadClasses(classLoaderRegistry.getPluginsClassLoader(), PLUGIN_MODULES, false)
+            && compileScript(classLoaderRegistry.getPluginsClassLoader())
+            && extractSchemas(classLoaderRegistry.getPluginsClassLoader())
+            && readRecentCaches();
+        if (completed) {
+            LOGGER.info("Daemon warm-up completed in {}.", clock.getTime());
+        } else {
+            LOGGER.info("Daemon warm-up abandoned after {} as the daemon is no longer idle.", clock.getTime());
+        }
+    }
+
+    /**
+     * Returns true when warm-up may carry on. Only consults the daemon state every so often, as the units of work are small.
+     */
+    private boolean mayContinue() {
+        return ++workDone % CHECK_INTERVAL != 0 || stateCoordinator.isIdle();
+    }
+
+    private boolean preloadClasses(ClassLoader classLoader, List<String> moduleNames, boolean includeRequiredModules) {
+        if (!stateCoordinator.isIdle()) {
+            return false;
+        }
+        Set<File> jars = new LinkedHashSet<File>();
+        for (String moduleName : moduleNames) {
+            Module module;
+            try {
+                module = moduleRegistry.getModule(moduleName);
+            } catch (UnknownModuleException e) {
+                continue;
+            }
+            Set<Module> modules = includeRequiredModules ? module.getAllRequiredModules() : Collections.singleton(module);
+            for (Module required : modules) {
+                jars.addAll(required.getImplementationClasspath().getAsFiles());
+            }
+        }
+        for (File jar : jars) {
+            if (jar.isFile() && !preloadClasses(classLoader, jar)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean preloadClasses(ClassLoader classLoader, File jar) {
+        try {
+            JarFile jarFile = new JarFile(jar);
+            try {
+                Enumeration<JarEntry> entries = jarFile.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (!name.endsWith(".class") || name.endsWith("package-info.class")) {
+                        continue;
+                    }
+                    if (!mayContinue()) {
+                        return false;
+                    }
+                    String className = name.substring(0, name.length() - ".class".length()).replace('/', '.');
+                    try {
+                        Class.forName(className, false, classLoader);
+                    } catch (ClassNotFoundException e) {
+                        // Not visible from this ClassLoader, ignore
+                    } catch (LinkageError e) {
+                        // Depends on something that is not available, ignore
+                    }
+                }
+            } finally {
+                jarFile.close();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not preload classes from {}.", jar, e);
+        }
+        return true;
+    }
+
+    private boolean compileScript(ClassLoader classLoader) {
+        if (!stateCoordinator.isIdle()) {
+            return false;
+        }
+        CompilerConfiguration configuration = new CompilerConfiguration();
+        configuration.setScriptBaseClass(SCRIPT_BASE_CLASS);
+        // Generate the bytecode but do not define the classes, so nothing is left behind
+        CompilationUnit unit = new CompilationUnit(configuration, null, new GroovyClassLoader(classLoader, configuration, false));
+        unit.addSource("build_warm_up", REPRESENTATIVE_SCRIPT);
+        try {
+            unit.compile(Phases.CLASS_GENERATION);
+        } catch (Exception e) {
+            LOGGER.debug("Could not compile warm-up build script.", e);
+        }
+        return true;
+    }
+
+    private boolean extractSchemas(ClassLoader classLoader) {
+        for (String typeName : MODEL_TYPES) {
+            if (!stateCoordinator.isIdle()) {
+                return false;
+            }
+            try {
+                schemaStore.getSchema(classLoader.loadClass(typeName));
+            } catch (ClassNotFoundException e) {
+                // Plugin not available, ignore
+            } catch (RuntimeException e) {
+                LOGGER.debug("Could not extract schema for {}.", typeName, e);
+            }
+        }
+        return true;
+    }
+
+    private boolean readRecentCaches() {
+        long remaining = MAX_CACHE_BYTES;
+        byte[] buffer = new byte[64 * 1024];
+        for (File projectCacheDir : recentProjects.getDirectories()) {
+            for (String cache : CACHES) {
+                File[] files = new File(projectCacheDir, cache).listFiles();
+                if (files == null) {
+                    continue;
+                }
+                for (File file : files) {
+                    if (!file.isFile()) {
+                        continue;
+                    }
+                    try {
+                        InputStream inputStream = new FileInputStream(file);
+                        try {
+                            int read;
+                            while (remaining > 0 && (read = inputStream.read(buffer)) > 0) {
+                                remaining -= read;
+                                if (!mayContinue()) {
+                                    return false;
+                                }
+                            }
+                        } finally {
+                            inputStream.close();
+                        }
+                    } catch (IOException e) {
+                        LOGGER.debug("Could not read cache file {}.", file, e);
+                    }
+                    if (remaining <= 0) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.util.GradleVersion;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Remembers the project cache directories used by the most recent builds run by daemons of this Gradle version,
+ * so that a newly started daemon can warm up using the persistent caches found in them.
+ */
+public class RecentProjectCacheDirs {
+    private static final Logger LOGGER = Logging.getLogger(RecentProjectCacheDirs.class);
+    static final int MAX_ENTRIES = 5;
+
+    private final File storeFile;
+
+    public RecentProjectCacheDirs(File storeFile) {
+        this.storeFile = storeFile;
+    }
+
+    /**
+     * Locates the versioned project cache directory for a build with the given parameters, if one exists yet.
+     */
+    public static File findProjectCacheDir(File currentDir, File projectCacheDir) {
+        String version = GradleVersion.current().getVersion();
+        if (projectCacheDir != null) {
+            File dir = new File(projectCacheDir, version);
+            return dir.isDirectory() ? dir : null;
+        }
+        for (File dir = currentDir; dir != null; dir = dir.getParentFile()) {
+            File candidate = new File(new File(dir, ".gradle"), version);
+            if (candidate.isDirectory()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records that the given project cache directory was used by a build, making it the most recent entry.
+     */
+    public synchronized void recordUsed(File cacheDir) {
+        File dir = cacheDir.getAbsoluteFile();
+        List<File> entries = readEntries();
+        if (!entries.isEmpty() && entries.get(0).equals(dir)) {
+            return;
+        }
+        entries.remove(dir);
+        entries.add(0, dir);
+        while (entries.size() > MAX_ENTRIES) {
+            entries.remove(entries.size() - 1);
+        }
+        StringBuilder content = new StringBuilder();
+        for (File entry : entries) {
+            content.append(entry.getPath()).append('\n');
+        }
+        try {
+            Files.createParentDirs(storeFile);
+            Files.write(content, storeFile, Charsets.UTF_8);
+        } catch (IOException e) {
+            LOGGER.debug("Could not write recent project cache directories to {}.", storeFile, e);
+        }
+    }
+
+    /**
+     * Returns the recently used project cache directories that still exist, most recent first.
+     */
+    public synchronized List<File> getDirectories() {
+        List<File> directories = new ArrayList<File>();
+        for (File entry : readEntries()) {
+            if (entry.isDirectory()) {
+                directories.add(entry);
+            }
+        }
+        return directories;
+    }
+
+    private List<File> readEntries() {
+        if (!storeFile.isFile()) {
+            return new ArrayList<File>();
+        }
+        List<String> lines;
+        try {
+            lines = Files.readLines(storeFile, Charsets.UTF_8);
+        } catch (IOException e) {
+            LOGGER.debug("Could not read recent project cache directories from {}.", storeFile, e);
+            return new ArrayList<File>();
+        }
+        List<File> entries = new ArrayList<File>(lines.size());
+        for (String line : lines) {
+            if (line.length() > 0 && entries.size() < MAX_ENTRIES) {
+                File entry = new File(line);
+                if (entry.isAbsolute() && !entries.contains(entry)) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+}
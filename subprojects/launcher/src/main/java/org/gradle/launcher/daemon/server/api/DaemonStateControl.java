@@ -16,6 +16,7 @@
 
 package org.gradle.launcher.daemon.server.api;
 
+import org.gradle.api.Nullable;
 import org.gradle.initialization.BuildCancellationToken;
 
 public interface DaemonStateControl {
@@ -43,15 +44,32 @@ public interface DaemonStateControl {
      */
     void cancelBuild();
 
+    /**
+     * Communicates a request for cancellation of the given command, leaving any other running commands alone. Blocks in the same way as {@link #cancelBuild()}.
+     *
+     * @param commandDisplayName The display name the command was started with.
+     */
+    void cancelBuild(String commandDisplayName);
+
+    /**
+     * Abandons the given command, for example because its client has disconnected. When no other command is running, this is the same as
+     * {@link #requestForcefulStop()}. Otherwise the command is cancelled as per {@link #cancelBuild(String)}, so that the other commands can complete.
+     *
+     * @param commandDisplayName The display name the command was started with.
+     */
+    void abandonCommand(String commandDisplayName);
+
     /**
      * Returns a cancellation token used to communicate cancel requests to commands processed in this daemon.
      *
+     * <p>When called from the thread running a command, the token of that command is returned.</p>
+     *
      * @return Created cancellation token associated with currently running command or an arbitrary instance if no command is running.
      */
     BuildCancellationToken getCancellationToken();
 
     /**
-     * Runs the given long running command. No more than 1 command may be running at any given time.
+     * Runs the given long running command. Unless the daemon has been configured to run builds concurrently, no more than 1 command may be running at any given time.
      *
      * @param command The command to run
      * @param commandDisplayName The command's display name, used for logging and error messages.
@@ -62,4 +80,12 @@ public interface DaemonStateControl {
      * The caller should note that the command may still be running at the time the method returns but should consider the command as abandoned.
      */
     void runCommand(Runnable command, String commandDisplayName) throws DaemonUnavailableException, DaemonStoppedException;
+
+    /**
+     * Runs the given long running command, which requires the given build environment. The command may run concurrently with other commands only
+     * if they all require an equal build environment. A command without a build environment never runs concurrently with other commands.
+     *
+     * @see #runCommand(Runnable, String)
+     */
+    void runCommand(Runnable command, String commandDisplayName, @Nullable Object buildEnvironment) throws DaemonUnavailableException, DaemonStoppedException;
 }
@@ -21,6 +21,7 @@ import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics;
 import org.gradle.launcher.daemon.protocol.Command;
+import org.gradle.launcher.daemon.server.RecentProjectCacheDirs;
 import org.gradle.launcher.daemon.server.api.*;
 import org.gradle.launcher.daemon.server.health.DaemonHealthServices;
 import org.gradle.launcher.exec.BuildActionExecuter;
@@ -41,15 +42,20 @@ public class DefaultDaemonCommandExecuter implements DaemonCommandExecuter {
     private final ProcessEnvironment processEnvironment;
     private final File daemonLog;
     private final ServiceRegistry contextServices;
+    private final RecentProjectCacheDirs recentProjects;
+    private final EstablishBuildEnvironment establishBuildEnvironment;
 
     public DefaultDaemonCommandExecuter(BuildActionExecuter<BuildActionParameters> actionExecuter, ServiceRegistry contextServices, ProcessEnvironment processEnvironment,
-                                        LoggingManagerInternal loggingOutput, File daemonLog, DaemonHealthServices healthServices) {
+                                        LoggingManagerInternal loggingOutput, File daemonLog, DaemonHealthServices healthServices,
+                                        RecentProjectCacheDirs recentProjects) {
         this.processEnvironment = processEnvironment;
         this.daemonLog = daemonLog;
         this.loggingOutput = loggingOutput;
         this.actionExecuter = actionExecuter;
         this.healthServices = healthServices;
         this.contextServices = contextServices;
+        this.recentProjects = recentProjects;
+        this.establishBuildEnvironment = new EstablishBuildEnvironment(processEnvironment);
     }
 
     public void executeCommand(DaemonConnection connection, Command command, DaemonContext daemonContext, DaemonStateControl daemonStateControl) {
@@ -70,12 +76,13 @@ public class DefaultDaemonCommandExecuter implements DaemonCommandExecuter {
             new ReturnResult(),
             new StartBuildOrRespondWithBusy(daemonDiagnostics), // from this point down, the daemon is 'busy'
             healthServices.getGCHintAction(), //TODO SF needs to happen after the result is returned to the client
-            new EstablishBuildEnvironment(processEnvironment),
+            establishBuildEnvironment, // shared, as builds running concurrently share the environment
             new LogToClient(loggingOutput, daemonDiagnostics), // from this point down, logging is sent back to the client
             healthServices.getHealthTrackerAction(),
             new ForwardClientInput(),
             new RequestStopIfSingleUsedDaemon(),
             new ResetDeprecationLogger(),
+            new RecordRecentProject(recentProjects),
             new WatchForDisconnection(),
             new ExecuteBuild(actionExecuter, contextServices)
         );
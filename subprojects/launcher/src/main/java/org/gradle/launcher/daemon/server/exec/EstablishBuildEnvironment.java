@@ -24,6 +24,7 @@ import org.gradle.launcher.daemon.protocol.Build;
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -31,22 +32,36 @@ import java.util.Properties;
 
 /**
  * Aims to make the local environment the same as the client's environment.
+ *
+ * <p>The environment is process wide, so builds running concurrently share it. A single instance is used for all builds: the first build to start establishes
+ * the environment and the last one to finish restores the original one. Builds only run concurrently when they have the same {@link #environmentOf(Build) environment}.</p>
  */
 public class EstablishBuildEnvironment extends BuildCommandOnly {
     private final static Logger LOGGER = Logging.getLogger(EstablishBuildEnvironment.class);
 
     private final ProcessEnvironment processEnvironment;
 
+    private int activeBuilds;
+    private Properties originalSystemProperties;
+    private Map<String, String> originalEnv;
+    private File originalProcessDir;
+    private Locale originalLocale;
+
     public EstablishBuildEnvironment(ProcessEnvironment processEnvironment) {
         this.processEnvironment = processEnvironment;
     }
 
-    protected void doBuild(DaemonCommandExecution execution, Build build) {
-        Properties originalSystemProperties = new Properties();
-        originalSystemProperties.putAll(System.getProperties());
-        Map<String, String> originalEnv = new HashMap<String, String>(System.getenv());
-        File originalProcessDir = FileUtils.canonicalize(new File("."));
+    /**
+     * Returns a value describing the environment the given build runs in. Builds with equal values can share the environment.
+     *
+     * <p>This includes the log level, as the level of the logging output is also process wide.</p>
+     */
+    public static Object environmentOf(Build build) {
+        return Arrays.asList(buildSystemProperties(build), build.getParameters().getEnvVariables(), build.getParameters().getCurrentDir(), build.getParameters().getLogLevel());
+    }
 
+    private static Map<String, String> buildSystemProperties(Build build) {
+        Map<String, String> systemProperties = new HashMap<String, String>();
         for (Map.Entry<String, String> entry : build.getParameters().getSystemProperties().entrySet()) {
             if (SystemProperties.getInstance().getStandardProperties().contains(entry.getKey())) {
                 continue;
@@ -58,6 +73,32 @@ public class EstablishBuildEnvironment extends BuildCommandOnly {
                     || entry.getKey().contains(".awt.")) {
                 continue;
             }
+            systemProperties.put(entry.getKey(), entry.getValue());
+        }
+        return systemProperties;
+    }
+
+    protected void doBuild(DaemonCommandExecution execution, Build build) {
+        establish(build);
+        try {
+            execution.proceed();
+        } finally {
+            restore();
+        }
+    }
+
+    private synchronized void establish(Build build) {
+        if (activeBuilds++ > 0) {
+            LOGGER.debug("Build environment has already been established by another build.");
+            return;
+        }
+
+        originalSystemProperties = new Properties();
+        originalSystemProperties.putAll(System.getProperties());
+        originalEnv = new HashMap<String, String>(System.getenv());
+        originalProcessDir = FileUtils.canonicalize(new File("."));
+
+        for (Map.Entry<String, String> entry : buildSystemProperties(build).entrySet()) {
             System.setProperty(entry.getKey(), entry.getValue());
         }
 
@@ -66,15 +107,20 @@ public class EstablishBuildEnvironment extends BuildCommandOnly {
         processEnvironment.maybeSetProcessDir(build.getParameters().getCurrentDir());
 
         // Capture and restore this in case the build code calls Locale.setDefault()
-        Locale locale = Locale.getDefault();
+        originalLocale = Locale.getDefault();
+    }
 
-        try {
-            execution.proceed();
-        } finally {
-            System.setProperties(originalSystemProperties);
-            processEnvironment.maybeSetEnvironment(originalEnv);
-            processEnvironment.maybeSetProcessDir(originalProcessDir);
-            Locale.setDefault(locale);
+    private synchronized void restore() {
+        if (--activeBuilds > 0) {
+            return;
         }
+        System.setProperties(originalSystemProperties);
+        processEnvironment.maybeSetEnvironment(originalEnv);
+        processEnvironment.maybeSetProcessDir(originalProcessDir);
+        Locale.setDefault(originalLocale);
+        originalSystemProperties = null;
+        originalEnv = null;
+        originalProcessDir = null;
+        originalLocale = null;
     }
 }
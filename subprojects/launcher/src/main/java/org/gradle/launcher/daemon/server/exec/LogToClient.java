@@ -18,6 +18,7 @@ package org.gradle.launcher.daemon.server.exec;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.WorkOwner;
 import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
 import org.gradle.launcher.daemon.protocol.Build;
@@ -27,7 +28,10 @@ import org.gradle.internal.logging.LoggingOutputInternal;
 import org.gradle.internal.logging.events.OutputEvent;
 import org.gradle.internal.logging.events.OutputEventListener;
 
+import java.util.Collections;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
@@ -37,6 +41,12 @@ public class LogToClient extends BuildCommandOnly {
     public static final String DISABLE_OUTPUT = "org.gradle.daemon.disable-output";
     private static final Logger LOGGER = Logging.getLogger(LogToClient.class);
 
+    /**
+     * The dispatchers of the builds that are running. The dispatcher of a build is the {@link WorkOwner} of the work done for that build, which is used to keep
+     * the output of builds running concurrently in the same daemon apart. Output from threads that work for no build, or for a build that has finished, goes to every client.
+     */
+    private static final Set<Object> ACTIVE_BUILD_OWNERS = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+
     private final LoggingOutputInternal loggingOutput;
     private final DaemonDiagnostics diagnostics;
 
@@ -56,9 +66,13 @@ public class LogToClient extends BuildCommandOnly {
         dispatcher = new AsynchronousLogDispatcher(execution.getConnection(), build.getParameters().getLogLevel());
         LOGGER.info("{}{}). The daemon log file: {}", DaemonMessages.STARTED_RELAYING_LOGS, diagnostics.getPid(), diagnostics.getDaemonLog());
         dispatcher.start();
+        Object previousOwner = WorkOwner.set(dispatcher);
+        ACTIVE_BUILD_OWNERS.add(dispatcher);
         try {
             execution.proceed();
         } finally {
+            ACTIVE_BUILD_OWNERS.remove(dispatcher);
+            WorkOwner.set(previousOwner);
             dispatcher.waitForCompletion();
         }
     }
@@ -76,8 +90,8 @@ public class LogToClient extends BuildCommandOnly {
             this.connection = conn;
             this.listener = new OutputEventListener() {
                 public void onOutput(OutputEvent event) {
-                    if (event.getLogLevel() != null && event.getLogLevel().compareTo(buildLogLevel) >= 0) {
-                        dispatcher.submit(event);
+                    if (event.getLogLevel() != null && event.getLogLevel().compareTo(buildLogLevel) >= 0 && !isOwnedByAnotherBuild()) {
+                        submit(event);
                     }
                 }
             };
@@ -85,6 +99,11 @@ public class LogToClient extends BuildCommandOnly {
             loggingOutput.addOutputEventListener(listener);
         }
 
+        private boolean isOwnedByAnotherBuild() {
+            Object owner = WorkOwner.current();
+            return owner != null && owner != this && ACTIVE_BUILD_OWNERS.contains(owner);
+        }
+
         public void submit(OutputEvent event) {
             eventQueue.add(event);
         }
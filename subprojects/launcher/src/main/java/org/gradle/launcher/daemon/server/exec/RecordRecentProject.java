@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.exec;
+
+import org.gradle.StartParameter;
+import org.gradle.launcher.daemon.protocol.Build;
+import org.gradle.launcher.daemon.server.RecentProjectCacheDirs;
+import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
+
+import java.io.File;
+
+/**
+ * Remembers the project cache directory of the build, so that daemons started later can warm up using its persistent caches.
+ */
+public class RecordRecentProject extends BuildCommandOnly {
+    private final RecentProjectCacheDirs recentProjects;
+
+    public RecordRecentProject(RecentProjectCacheDirs recentProjects) {
+        this.recentProjects = recentProjects;
+    }
+
+    @Override
+    protected void doBuild(DaemonCommandExecution execution, Build build) {
+        StartParameter startParameter = build.getAction().getStartParameter();
+        if (startParameter != null) {
+            File cacheDir = RecentProjectCacheDirs.findProjectCacheDir(startParameter.getCurrentDir(), startParameter.getProjectCacheDir());
+            if (cacheDir != null) {
+                recentProjects.recordUsed(cacheDir);
+            }
+        }
+        execution.proceed();
+    }
+}
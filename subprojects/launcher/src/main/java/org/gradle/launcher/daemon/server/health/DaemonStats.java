@@ -36,9 +36,13 @@ public class DaemonStats {
     private final GarbageCollectionMonitor gcMonitor;
 
     private int buildCount;
+    private int runningBuilds;
     private long currentBuildStart;
     private long allBuildsTime;
     private int currentPerformance;
+    private long currentBuildHeapBaseline;
+    private boolean measuringBuildHeap;
+    private long largestBuildHeapUsage;
 
     DaemonStats(ScheduledExecutorService scheduledExecutorService) {
         this(new Clock(), new TrueTimeProvider(), new MemoryInfo(), new GarbageCollectionMonitor(scheduledExecutorService));
@@ -52,20 +56,51 @@ public class DaemonStats {
     }
 
     /**
-     * Informs the stats that build started
+     * Informs the stats that build started. When builds overlap, the daemon is considered busy from the start of the first one
+     * until the end of the last one.
      */
-    void buildStarted() {
+    synchronized void buildStarted() {
         ++buildCount;
-        currentBuildStart = timeProvider.getCurrentTime();
+        if (++runningBuilds == 1) {
+            currentBuildStart = timeProvider.getCurrentTime();
+            memory.resetPeakHeap();
+            currentBuildHeapBaseline = memory.getUsedHeap();
+            measuringBuildHeap = true;
+        } else {
+            // Cannot tell the builds apart, so don't measure either of them
+            measuringBuildHeap = false;
+        }
     }
 
     /**
      * Informs the stats that the build finished
      */
-    void buildFinished() {
+    synchronized void buildFinished() {
+        if (--runningBuilds > 0) {
+            return;
+        }
         long buildTime = Math.max(timeProvider.getCurrentTime() - currentBuildStart, 1);
         allBuildsTime += buildTime;
         currentPerformance = performance(allBuildsTime, memory);
+        if (measuringBuildHeap) {
+            largestBuildHeapUsage = Math.max(largestBuildHeapUsage, memory.getPeakHeap() - currentBuildHeapBaseline);
+            measuringBuildHeap = false;
+        }
+    }
+
+    /**
+     * The largest amount of heap, in bytes, that a single build has been seen to use on top of what was already in use when it started.
+     * Only builds that ran on their own are measured. Returns 0 when no build has been measured yet.
+     */
+    synchronized long getLargestBuildHeapUsage() {
+        return largestBuildHeapUsage;
+    }
+
+    /**
+     * The heap, in bytes, that is not currently in use and could still be claimed by a build.
+     */
+    long getAvailableHeap() {
+        return memory.getMaxMemory() - memory.getUsedHeap();
     }
 
     private static int performance(long totalTime, MemoryInfo memoryInfo) {
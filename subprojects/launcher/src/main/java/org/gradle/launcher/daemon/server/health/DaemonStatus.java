@@ -17,6 +17,8 @@
 package org.gradle.launcher.daemon.server.health;
 
 import org.gradle.api.GradleException;
+import org.gradle.api.Nullable;
+import org.gradle.internal.memory.MemoryPressure;
 import org.gradle.launcher.daemon.server.health.gc.GarbageCollectionStats;
 import org.gradle.launcher.daemon.server.health.gc.GarbageCollectorMonitoringStrategy;
 
@@ -27,6 +29,8 @@ public class DaemonStatus {
     public static final String TENURED_USAGE_EXPIRE_AT = "org.gradle.daemon.performance.tenured-usage-expire-at";
     public static final String TENURED_RATE_EXPIRE_AT = "org.gradle.daemon.performance.tenured-rate-expire-at";
 
+    private static final int MODERATE_PRESSURE_MARGIN = 10;
+
     private final DaemonStats stats;
 
     public DaemonStatus(DaemonStats stats) {
@@ -60,6 +64,51 @@ public class DaemonStatus {
         return false;
     }
 
+    /**
+     * Returns how close the tenured space is to being exhausted, or null when there is no pressure on it. The pressure starts to rise
+     * a few percentage points below the usage threshold at which the daemon is considered tired.
+     */
+    @Nullable
+    public MemoryPressure getMemoryPressure() {
+        if (!Boolean.parseBoolean(System.getProperty(ENABLE_PERFORMANCE_MONITORING, "true"))) {
+            return null;
+        }
+        GarbageCollectorMonitoringStrategy strategy = stats.getGcMonitor().getGcStrategy();
+        if (strategy == GarbageCollectorMonitoringStrategy.UNKNOWN) {
+            return null;
+        }
+        int tenuredUsageThreshold = parseValue(TENURED_USAGE_EXPIRE_AT, strategy.getTenuredUsageThreshold());
+        double tenuredRateThreshold = parseValue(TENURED_RATE_EXPIRE_AT, strategy.getGcRateThreshold());
+        if (tenuredUsageThreshold == 0 || tenuredRateThreshold == 0) {
+            return null;
+        }
+        GarbageCollectionStats gcStats = stats.getGcMonitor().getTenuredStats();
+        if (gcStats.getEventCount() < 5) {
+            return null;
+        }
+        int usage = gcStats.getUsage();
+        boolean collectingOften = gcStats.getRate() >= tenuredRateThreshold;
+        if (usage >= tenuredUsageThreshold) {
+            return collectingOften ? MemoryPressure.CRITICAL : MemoryPressure.HIGH;
+        }
+        if (usage >= tenuredUsageThreshold - MODERATE_PRESSURE_MARGIN) {
+            return collectingOften ? MemoryPressure.HIGH : MemoryPressure.MODERATE;
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the daemon has enough headroom to start another build while other builds are running. There must be no pressure on
+     * the tenured space, and the free heap must be able to hold the largest build measured so far.
+     */
+    public boolean isAbleToRunConcurrentBuild() {
+        if (getMemoryPressure() != null) {
+            return false;
+        }
+        long largestBuildHeapUsage = stats.getLargestBuildHeapUsage();
+        return largestBuildHeapUsage > 0 && stats.getAvailableHeap() >= largestBuildHeapUsage;
+    }
+
     private static int parseValue(String property, int defaultValue) {
         String expireAt = System.getProperty(property);
 
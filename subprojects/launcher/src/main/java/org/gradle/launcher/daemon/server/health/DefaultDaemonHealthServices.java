@@ -16,21 +16,27 @@
 
 package org.gradle.launcher.daemon.server.health;
 
+import org.gradle.internal.TrueTimeProvider;
+import org.gradle.internal.memory.MemoryPressureListener;
 import org.gradle.launcher.daemon.server.api.DaemonCommandAction;
 
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class DefaultDaemonHealthServices implements DaemonHealthServices {
+    private static final int MEMORY_PRESSURE_CHECK_INTERVAL = 5;
     private final HintGCAfterBuild hygieneAction = new HintGCAfterBuild();
     private final DaemonStats stats;
     private final DaemonStatus status;
     private final HealthLogger logger = new HealthLogger();
     private final DaemonHealthTracker tracker;
 
-    public DefaultDaemonHealthServices(ScheduledExecutorService scheduledExecutorService) {
+    public DefaultDaemonHealthServices(ScheduledExecutorService scheduledExecutorService, MemoryPressureListener memoryPressureListener) {
         this.stats = new DaemonStats(scheduledExecutorService);
         this.status = new DaemonStatus(stats);
         this.tracker = new DaemonHealthTracker(stats, status, logger);
+        MemoryPressureMonitor memoryPressureMonitor = new MemoryPressureMonitor(status, memoryPressureListener, new TrueTimeProvider());
+        scheduledExecutorService.scheduleAtFixedRate(memoryPressureMonitor, MEMORY_PRESSURE_CHECK_INTERVAL, MEMORY_PRESSURE_CHECK_INTERVAL, TimeUnit.SECONDS);
     }
 
     /**
@@ -18,6 +18,8 @@ package org.gradle.launcher.daemon.server.health;
 
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
 import java.lang.management.OperatingSystemMXBean;
 import java.lang.reflect.InvocationTargetException;
 
@@ -60,6 +62,38 @@ public class MemoryInfo {
         return Runtime.getRuntime().totalMemory();
     }
 
+    /**
+     * Heap memory currently used by this process in bytes, including objects that are no longer reachable but have not been collected yet.
+     */
+    public long getUsedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Heap memory used by this process at its peak since the last call to {@link #resetPeakHeap()}, in bytes.
+     * The peaks of the individual heap pools are summed up, so the returned value may overestimate the real peak.
+     */
+    public long getPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Resets the peak heap usage to the current heap usage.
+     */
+    public void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
     /**
      * Retrieves the total physical memory size on the system in bytes.
      * This value is independent of {@link #getMaxMemory()}, which is the total memory available to the JVM.
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.health;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.memory.MemoryPressure;
+import org.gradle.internal.memory.MemoryPressureListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checks the tenured space of the daemon and asks the in-memory caches to release entries while it is under pressure, so that
+ * the daemon can recover before it is expired for exhausting its heap.
+ */
+class MemoryPressureMonitor implements Runnable {
+    private static final Logger LOGGER = Logging.getLogger(MemoryPressureMonitor.class);
+    // The garbage collection stats are averaged over a window of events, so allow released entries time to show up in them
+    static final long NOTIFICATION_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+
+    private final DaemonStatus status;
+    private final MemoryPressureListener listener;
+    private final TimeProvider timeProvider;
+    private MemoryPressure lastPressure;
+    private long lastNotified;
+
+    MemoryPressureMonitor(DaemonStatus status, MemoryPressureListener listener, TimeProvider timeProvider) {
+        this.status = status;
+        this.listener = listener;
+        this.timeProvider = timeProvider;
+    }
+
+    @Override
+    public void run() {
+        try {
+            check();
+        } catch (Exception e) {
+            // Keep the periodic check scheduled
+            LOGGER.debug("Could not check memory pressure.", e);
+        }
+    }
+
+    private void check() {
+        MemoryPressure pressure = status.getMemoryPressure();
+        if (pressure == null) {
+            lastPressure = null;
+            return;
+        }
+        long now = timeProvider.getCurrentTime();
+        if (lastPressure == null || pressure.compareTo(lastPressure) > 0 || now - lastNotified >= NOTIFICATION_INTERVAL) {
+            LOGGER.info("Daemon tenured space is under {} pressure. Releasing in-memory caches.", pressure.name().toLowerCase());
+            listener.onMemoryPressure(pressure);
+            lastPressure = pressure;
+            lastNotified = now;
+        }
+    }
+}
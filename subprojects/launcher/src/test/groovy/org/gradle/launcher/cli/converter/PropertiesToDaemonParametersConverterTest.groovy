@@ -86,6 +86,20 @@ class PropertiesToDaemonParametersConverterTest extends Specification {
         params.periodicCheckInterval == 42
     }
 
+    def "spare daemon is disabled unless requested"() {
+        when:
+        converter.convert([:], params)
+
+        then:
+        !params.spareDaemon
+
+        when:
+        converter.convert([(SPARE_DAEMON_PROPERTY): "true"], params)
+
+        then:
+        params.spareDaemon
+    }
+
     def "shows nice message for dummy java home"() {
         when:
         converter.convert([(JAVA_HOME_PROPERTY): "/invalid/path"], params)
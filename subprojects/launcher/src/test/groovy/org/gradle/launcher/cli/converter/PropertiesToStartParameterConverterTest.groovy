@@ -32,6 +32,8 @@ class PropertiesToStartParameterConverterTest extends Specification {
         converter.convert([(PARALLEL_PROPERTY): "false"], new StartParameter()).parallelThreadCount == 0
         converter.convert([(CONFIGURE_ON_DEMAND_PROPERTY): "TRUE"], new StartParameter()).configureOnDemand
         !converter.convert([(CONFIGURE_ON_DEMAND_PROPERTY): "xxx"], new StartParameter()).configureOnDemand
+        converter.convert([(CONFIGURE_IN_PARALLEL_PROPERTY): "true"], new StartParameter()).configureInParallel
+        !converter.convert([:], new StartParameter()).configureInParallel
     }
 
     def invalidMaxWorkersProperty() {
@@ -34,6 +34,7 @@ class DefaultDaemonConnectorTest extends Specification {
     def javaHome = new File("tmp")
     def connectTimeoutSecs = 1
     def daemonCounter = 0
+    def spareDaemonStarter = Mock(SpareDaemonStarter)
 
     class OutgoingConnectorStub implements OutgoingConnector {
         ConnectCompletion connect(Address address) throws ConnectException {
@@ -57,7 +58,8 @@ class DefaultDaemonConnectorTest extends Specification {
                 new EmbeddedDaemonRegistry(),
                 Spy(OutgoingConnectorStub),
                 { startBusyDaemon() } as DaemonStarter,
-                Stub(DaemonStartListener)]
+                Stub(DaemonStartListener),
+                spareDaemonStarter]
         )
         connector.connectTimeout = connectTimeoutSecs * 1000
         connector
@@ -176,6 +178,32 @@ class DefaultDaemonConnectorTest extends Specification {
         thrown(DaemonConnectionException)
     }
 
+    def "connect() notifies spare daemon starter of the existing daemon that was claimed"() {
+        given:
+        startIdleDaemon()
+        startIdleDaemon()
+        def spec = {it.pid == 1} as DummyExplainingSpec
+
+        when:
+        def connection = connector.connect(spec)
+
+        then:
+        connection.connection.num == 1
+        1 * spareDaemonStarter.daemonClaimed({ it.uid == "1" }, spec)
+    }
+
+    def "connect() notifies spare daemon starter of the new daemon that was claimed"() {
+        given:
+        def spec = {true} as DummyExplainingSpec
+
+        when:
+        def connection = connector.connect(spec)
+
+        then:
+        connection.connection.num == 0
+        1 * spareDaemonStarter.daemonClaimed({ it.uid == "0" }, spec)
+    }
+
     def "suspect address is removed from the registry on connect failure"() {
         given:
         startIdleDaemon()
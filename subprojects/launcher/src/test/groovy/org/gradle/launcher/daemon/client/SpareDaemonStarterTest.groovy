@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.client
+
+import org.gradle.api.internal.specs.ExplainingSpec
+import org.gradle.api.internal.specs.ExplainingSpecs
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.StoppableExecutor
+import org.gradle.internal.remote.Address
+import org.gradle.launcher.daemon.configuration.DaemonParameters
+import org.gradle.launcher.daemon.context.DaemonContext
+import org.gradle.launcher.daemon.context.DefaultDaemonContext
+import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo
+import org.gradle.launcher.daemon.registry.DaemonInfo
+import org.gradle.launcher.daemon.registry.EmbeddedDaemonRegistry
+import org.gradle.launcher.daemon.server.health.MemoryInfo
+import spock.lang.Specification
+
+class SpareDaemonStarterTest extends Specification {
+    static final long GB = 1024L * 1024 * 1024
+
+    final daemonParameters = Stub(DaemonParameters) {
+        isSpareDaemon() >> true
+        getEffectiveJvmArgs() >> ["-Xmx1g"]
+    }
+    final registry = new EmbeddedDaemonRegistry()
+    final daemonStarter = Mock(DaemonStarter)
+    final executor = Mock(StoppableExecutor) {
+        execute(_) >> { Runnable runnable -> runnable.run() }
+    }
+    final executorFactory = Stub(ExecutorFactory) {
+        create(_) >> executor
+    }
+    final memoryInfo = Stub(MemoryInfo) {
+        getTotalPhysicalMemory() >> 16 * GB
+        getFreePhysicalMemory() >> 8 * GB
+    }
+    final spareDaemonStarter = new SpareDaemonStarter(daemonParameters, registry, daemonStarter, executorFactory, memoryInfo)
+    final claimed = daemon("claimed", 1, true)
+
+    def "starts a spare daemon when no other compatible daemon is idle"() {
+        given:
+        daemon("busy", 2, false)
+        daemon("incompatible", 3, true)
+
+        when:
+        spareDaemonStarter.daemonClaimed(claimed, { it.uid != "incompatible" } as DummyExplainingSpec)
+
+        then:
+        1 * daemonStarter.startDaemon() >> new DaemonStartupInfo("spare", null, null)
+    }
+
+    def "does not start a spare daemon when another compatible daemon is idle"() {
+        given:
+        daemon("idle", 2, true)
+
+        when:
+        spareDaemonStarter.daemonClaimed(claimed, ExplainingSpecs.satisfyAll())
+
+        then:
+        0 * daemonStarter._
+    }
+
+    def "does not start a spare daemon when not enabled"() {
+        when:
+        new SpareDaemonStarter(Stub(DaemonParameters), registry, daemonStarter, executorFactory, memoryInfo).daemonClaimed(claimed, ExplainingSpecs.satisfyAll())
+
+        then:
+        0 * daemonStarter._
+    }
+
+    def "does not start a spare daemon when it would leave too little free memory"() {
+        given:
+        def lowMemory = Stub(MemoryInfo) {
+            getTotalPhysicalMemory() >> 16 * GB
+            getFreePhysicalMemory() >> 4 * GB
+        }
+
+        when:
+        new SpareDaemonStarter(daemonParameters, registry, daemonStarter, executorFactory, lowMemory).daemonClaimed(claimed, ExplainingSpecs.satisfyAll())
+
+        then:
+        0 * daemonStarter._
+    }
+
+    def "does not start a spare daemon when free memory is unknown"() {
+        given:
+        def unknownMemory = Stub(MemoryInfo) {
+            getFreePhysicalMemory() >> { throw new UnsupportedOperationException() }
+        }
+
+        when:
+        new SpareDaemonStarter(daemonParameters, registry, daemonStarter, executorFactory, unknownMemory).daemonClaimed(claimed, ExplainingSpecs.satisfyAll())
+
+        then:
+        0 * daemonStarter._
+    }
+
+    def "failure to start a spare daemon is ignored"() {
+        when:
+        spareDaemonStarter.daemonClaimed(claimed, ExplainingSpecs.satisfyAll())
+        spareDaemonStarter.daemonClaimed(claimed, ExplainingSpecs.satisfyAll())
+
+        then:
+        2 * daemonStarter.startDaemon() >> { throw new RuntimeException("broken") }
+    }
+
+    def "stop waits for spare daemon being started"() {
+        given:
+        spareDaemonStarter.daemonClaimed(claimed, ExplainingSpecs.satisfyAll())
+
+        when:
+        spareDaemonStarter.stop()
+
+        then:
+        1 * executor.stop()
+    }
+
+    def "parses max heap size from jvm args"() {
+        expect:
+        SpareDaemonStarter.parseMaxHeap(args) == expected
+
+        where:
+        args                            | expected
+        []                              | -1
+        ["-Xms256m"]                    | -1
+        ["-Xmx512m"]                    | 512L * 1024 * 1024
+        ["-Xmx2G", "-Dfoo=bar"]         | 2 * GB
+        ["-Xmx1024k"]                   | 1024L * 1024
+        ["-Xmx1048576"]                 | 1024L * 1024
+        ["-Xmx256m", "-Xmx1g"]          | GB
+        ["-Xmx"]                        | -1
+    }
+
+    private DaemonInfo daemon(String uid, int pid, boolean idle) {
+        DaemonContext context = new DefaultDaemonContext(uid, new File("java"), new File("registry"), pid, 1000, [])
+        def info = new DaemonInfo(Stub(Address), context, "password".bytes, idle)
+        registry.store(info)
+        return info
+    }
+
+    abstract static class DummyExplainingSpec implements ExplainingSpec<DaemonContext> {
+        String whyUnsatisfied(DaemonContext element) {
+            ""
+        }
+    }
+}
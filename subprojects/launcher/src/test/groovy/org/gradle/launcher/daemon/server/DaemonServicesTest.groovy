@@ -48,4 +48,9 @@ class DaemonServicesTest extends Specification {
         expect:
         services.get(Daemon.class) != null
     }
+
+    def "makes a DaemonWarmUp available"() {
+        expect:
+        services.get(DaemonWarmUp.class) != null
+    }
 }
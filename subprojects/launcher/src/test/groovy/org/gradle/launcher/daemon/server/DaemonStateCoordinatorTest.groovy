@@ -15,10 +15,14 @@
  */
 package org.gradle.launcher.daemon.server
 
+import org.gradle.api.specs.Spec
+import org.gradle.api.specs.Specs
 import org.gradle.launcher.daemon.server.api.DaemonStoppedException
 import org.gradle.launcher.daemon.server.api.DaemonUnavailableException
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 
+import java.util.concurrent.CountDownLatch
+
 class DaemonStateCoordinatorTest extends ConcurrentSpec {
     final Runnable onStartCommand = Mock(Runnable)
     final Runnable onFinishCommand = Mock(Runnable)
@@ -623,4 +627,120 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         coordinator.idle
         coordinator.getIdleMillis(110) == 10
     }
+
+    def "runs command alongside another command with the same build environment when concurrent commands are allowed"() {
+        def coordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, 2, Specs.satisfyAll(), 2000)
+        def ran = []
+        def command2 = { ran << "command2" } as Runnable
+        def command = {
+            coordinator.runCommand(command2, "command2", "env")
+            assert coordinator.busy
+            ran << "command"
+        } as Runnable
+
+        when:
+        coordinator.runCommand(command, "command", "env")
+
+        then:
+        ran == ["command2", "command"]
+        1 * onStartCommand.run()
+        1 * onFinishCommand.run()
+        0 * _._
+
+        and:
+        coordinator.idle
+    }
+
+    def "cannot run command alongside another command with a different build environment"() {
+        def coordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, 2, Specs.satisfyAll(), 2000)
+        def command = { coordinator.runCommand({} as Runnable, "other", otherEnvironment) } as Runnable
+
+        when:
+        coordinator.runCommand(command, "command", "env")
+
+        then:
+        DaemonUnavailableException e = thrown()
+        e.message == 'This daemon is currently executing: command'
+
+        where:
+        otherEnvironment << ["other env", null]
+    }
+
+    def "cannot run command alongside other commands when the admission spec is not satisfied"() {
+        def admission = Mock(Spec)
+        def coordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, 2, admission, 2000)
+        def command = { coordinator.runCommand({} as Runnable, "other", "env") } as Runnable
+
+        when:
+        coordinator.runCommand(command, "command", "env")
+
+        then:
+        DaemonUnavailableException e = thrown()
+        e.message == 'This daemon is currently executing: command'
+        1 * admission.isSatisfiedBy("other") >> false
+    }
+
+    def "cannot run more commands than allowed"() {
+        def coordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, 2, Specs.satisfyAll(), 2000)
+        def command2 = { coordinator.runCommand({} as Runnable, "other", "env") } as Runnable
+        def command = { coordinator.runCommand(command2, "command2", "env") } as Runnable
+
+        when:
+        coordinator.runCommand(command, "command", "env")
+
+        then:
+        DaemonUnavailableException e = thrown()
+        e.message == 'This daemon is currently executing: command, command2'
+    }
+
+    def "cancelling a command does not affect other running commands"() {
+        def coordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, 2, Specs.satisfyAll(), 2000)
+        def command2 = {
+            def cancelled = new CountDownLatch(1)
+            coordinator.cancellationToken.addCallback { cancelled.countDown() }
+            start {
+                coordinator.cancelBuild("command2")
+            }
+            cancelled.await()
+        } as Runnable
+        def command = {
+            def token = coordinator.cancellationToken
+            coordinator.runCommand(command2, "command2", "env")
+            assert !token.cancellationRequested
+        } as Runnable
+
+        when:
+        coordinator.runCommand(command, "command", "env")
+
+        then:
+        !coordinator.stopped
+        coordinator.idle
+    }
+
+    def "abandoning a command cancels it when other commands are running"() {
+        def coordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, 2, Specs.satisfyAll(), 2000)
+        def command2 = {
+            def cancelled = new CountDownLatch(1)
+            coordinator.cancellationToken.addCallback { cancelled.countDown() }
+            start {
+                coordinator.abandonCommand("command2")
+            }
+            cancelled.await()
+        } as Runnable
+        def command = { coordinator.runCommand(command2, "command2", "env") } as Runnable
+
+        when:
+        coordinator.runCommand(command, "command", "env")
+
+        then:
+        !coordinator.stopped
+    }
+
+    def "abandoning a command stops the daemon when no other command is running"() {
+        when:
+        coordinator.abandonCommand("command")
+
+        then:
+        coordinator.stopped
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server
+
+import org.gradle.api.internal.classpath.Module
+import org.gradle.api.internal.classpath.ModuleRegistry
+import org.gradle.api.internal.classpath.UnknownModuleException
+import org.gradle.initialization.ClassLoaderRegistry
+import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.StoppableExecutor
+import org.gradle.model.internal.manage.schema.ModelSchemaStore
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+
+class DaemonWarmUpTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final stateCoordinator = Mock(DaemonStateCoordinator)
+    final daemon = Stub(Daemon) {
+        getStateCoordinator() >> stateCoordinator
+    }
+    final executor = Mock(StoppableExecutor) {
+        execute(_) >> { Runnable runnable -> runnable.run() }
+    }
+    final executorFactory = Stub(ExecutorFactory) {
+        create(_) >> executor
+    }
+    final classLoaderRegistry = Stub(ClassLoaderRegistry) {
+        getRuntimeClassLoader() >> getClass().classLoader
+        getPluginsClassLoader() >> getClass().classLoader
+    }
+    final moduleRegistry = Mock(ModuleRegistry)
+    final schemaStore = Mock(ModelSchemaStore)
+    final recentProjects = new RecentProjectCacheDirs(tmpDir.file("recent-projects.txt"))
+    final warmUp = new DaemonWarmUp(executorFactory, classLoaderRegistry, moduleRegistry, schemaStore, recentProjects)
+
+    def cleanup() {
+        System.clearProperty(DaemonWarmUp.ENABLED_PROPERTY)
+    }
+
+    def "does nothing when disabled"() {
+        given:
+        System.setProperty(DaemonWarmUp.ENABLED_PROPERTY, "false")
+
+        when:
+        warmUp.start(daemon)
+        warmUp.stop()
+
+        then:
+        0 * stateCoordinator._
+        0 * moduleRegistry._
+    }
+
+    def "does nothing once the daemon is no longer idle"() {
+        when:
+        warmUp.start(daemon)
+
+        then:
+        1 * stateCoordinator.isIdle() >> false
+        0 * moduleRegistry._
+        0 * schemaStore._
+    }
+
+    def "preloads classes from modules and reads caches of recent projects while daemon is idle"() {
+        given:
+        def jar = tmpDir.file("gradle-core.jar")
+        new JarOutputStream(new FileOutputStream(jar)).withStream { out ->
+            ["org/gradle/launcher/daemon/server/RecentProjectCacheDirs.class", "org/gradle/Unknown.class", "META-INF/MANIFEST.MF"].each {
+                out.putNextEntry(new JarEntry(it))
+                out.closeEntry()
+            }
+        }
+        def module = Stub(Module)
+        module.allRequiredModules >> ([module] as Set)
+        module.implementationClasspath >> new DefaultClassPath(jar)
+        def cacheDir = tmpDir.createDir("project/.gradle/version")
+        cacheDir.createFile("taskArtifacts/fileHashes.bin").bytes = new byte[100 * 1024]
+        recentProjects.recordUsed(cacheDir)
+
+        when:
+        warmUp.start(daemon)
+        warmUp.stop()
+
+        then:
+        _ * stateCoordinator.isIdle() >> true
+        1 * moduleRegistry.getModule("gradle-core") >> module
+        _ * moduleRegistry.getModule(_) >> { throw new UnknownModuleException("unknown") }
+        1 * executor.stop()
+    }
+}
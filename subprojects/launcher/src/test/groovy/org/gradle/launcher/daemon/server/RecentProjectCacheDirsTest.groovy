@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.GradleVersion
+import org.junit.Rule
+import spock.lang.Specification
+
+class RecentProjectCacheDirsTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final RecentProjectCacheDirs recentProjects = new RecentProjectCacheDirs(tmpDir.file("daemon/recent-projects.txt"))
+
+    def "has no directories when nothing recorded"() {
+        expect:
+        recentProjects.directories.empty
+    }
+
+    def "returns most recently used directories first"() {
+        def dir1 = tmpDir.createDir("dir1")
+        def dir2 = tmpDir.createDir("dir2")
+        def dir3 = tmpDir.createDir("dir3")
+
+        when:
+        recentProjects.recordUsed(dir1)
+        recentProjects.recordUsed(dir2)
+        recentProjects.recordUsed(dir3)
+        recentProjects.recordUsed(dir1)
+
+        then:
+        recentProjects.directories == [dir1, dir3, dir2]
+        new RecentProjectCacheDirs(tmpDir.file("daemon/recent-projects.txt")).directories == [dir1, dir3, dir2]
+    }
+
+    def "keeps a limited number of directories"() {
+        def dirs = (1..RecentProjectCacheDirs.MAX_ENTRIES + 2).collect { tmpDir.createDir("dir$it") }
+
+        when:
+        dirs.each { recentProjects.recordUsed(it) }
+
+        then:
+        recentProjects.directories == dirs.reverse().take(RecentProjectCacheDirs.MAX_ENTRIES)
+    }
+
+    def "ignores directories that no longer exist"() {
+        def dir1 = tmpDir.createDir("dir1")
+        def dir2 = tmpDir.createDir("dir2")
+        recentProjects.recordUsed(dir1)
+        recentProjects.recordUsed(dir2)
+
+        when:
+        dir2.deleteDir()
+
+        then:
+        recentProjects.directories == [dir1]
+    }
+
+    def "finds project cache dir in current dir or one of its ancestors"() {
+        def root = tmpDir.createDir("root")
+        def cacheDir = root.createDir(".gradle/${GradleVersion.current().version}")
+        def subDir = root.createDir("sub/project")
+
+        expect:
+        RecentProjectCacheDirs.findProjectCacheDir(root, null) == cacheDir
+        RecentProjectCacheDirs.findProjectCacheDir(subDir, null) == cacheDir
+        RecentProjectCacheDirs.findProjectCacheDir(tmpDir.createDir("other"), tmpDir.file("missing")) == null
+    }
+
+    def "uses explicit project cache dir when provided"() {
+        def projectCacheDir = tmpDir.createDir("project-cache")
+        def cacheDir = projectCacheDir.createDir(GradleVersion.current().version)
+        tmpDir.createDir("root/.gradle/${GradleVersion.current().version}")
+
+        expect:
+        RecentProjectCacheDirs.findProjectCacheDir(tmpDir.file("root"), projectCacheDir) == cacheDir
+    }
+}
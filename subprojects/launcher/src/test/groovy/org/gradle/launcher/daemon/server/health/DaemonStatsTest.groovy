@@ -99,4 +99,29 @@ class DaemonStatsTest extends Specification {
         then:
         stats.healthInfo == String.format("Starting 2nd build in daemon [uptime: %s, performance: 98%%, GC rate: %.2f/s, tenured heap usage: 0%% of 0 B]", Clock.prettyTime(1), 0.0)
     }
+
+    def "measures the heap used by builds that run on their own"() {
+        time.getCurrentTime() >> 1
+        memory.getUsedHeap() >>> [100, 200, 300]
+        memory.getPeakHeap() >>> [1100, 1300, 5000]
+        def stats = new DaemonStats(clock, time, memory, gcMonitor)
+
+        when:
+        stats.buildStarted()
+        stats.buildFinished()
+        stats.buildStarted()
+        stats.buildFinished()
+
+        then:
+        stats.largestBuildHeapUsage == 1100
+
+        when:
+        stats.buildStarted()
+        stats.buildStarted()
+        stats.buildFinished()
+        stats.buildFinished()
+
+        then:
+        stats.largestBuildHeapUsage == 1100
+    }
 }
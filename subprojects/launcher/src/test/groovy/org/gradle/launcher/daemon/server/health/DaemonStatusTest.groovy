@@ -17,6 +17,7 @@
 package org.gradle.launcher.daemon.server.health
 
 import org.gradle.api.GradleException
+import org.gradle.internal.memory.MemoryPressure
 import org.gradle.launcher.daemon.server.health.gc.GarbageCollectionMonitor
 import org.gradle.launcher.daemon.server.health.gc.GarbageCollectionStats
 import org.gradle.launcher.daemon.server.health.gc.GarbageCollectorMonitoringStrategy
@@ -97,11 +98,75 @@ class DaemonStatusTest extends Specification {
         1.0           | 75             | 1.0  | 100  | true
     }
 
+    @Unroll
+    def "knows memory pressure (#rateThreshold <= #rate, #usageThreshold <= #used)"() {
+        _ * stats.getGcMonitor() >> gcMonitor
+        _ * gcMonitor.gcStrategy >> GarbageCollectorMonitoringStrategy.ORACLE_PARALLEL_CMS
+
+        when:
+        System.setProperty(TENURED_USAGE_EXPIRE_AT, usageThreshold.toString())
+        System.setProperty(TENURED_RATE_EXPIRE_AT, rateThreshold.toString())
+        gcMonitor.getTenuredStats() >> {
+            Stub(GarbageCollectionStats) {
+                getUsage() >> used
+                getRate() >> rate
+                getEventCount() >> 10
+            }
+        }
+
+        then:
+        status.memoryPressure == pressure
+
+        where:
+        rateThreshold | usageThreshold | rate | used | pressure
+        1.0           | 90             | 0.1  | 50   | null
+        1.0           | 90             | 1.1  | 79   | null
+        1.0           | 90             | 0.1  | 80   | MemoryPressure.MODERATE
+        1.0           | 90             | 1.1  | 80   | MemoryPressure.HIGH
+        1.0           | 90             | 0.1  | 90   | MemoryPressure.HIGH
+        1.0           | 90             | 1.1  | 90   | MemoryPressure.CRITICAL
+        1.0           | 0              | 1.1  | 100  | null
+        0             | 90             | 1.1  | 100  | null
+    }
+
     def "can disable daemon performance monitoring"() {
         when:
         System.setProperty(DaemonStatus.ENABLE_PERFORMANCE_MONITORING, "false")
 
         then:
         !status.isDaemonTired()
+        status.memoryPressure == null
+    }
+
+    def "can run concurrent build when free heap can hold the largest build (#largest <= #available)"() {
+        _ * stats.getGcMonitor() >> gcMonitor
+        _ * gcMonitor.gcStrategy >> GarbageCollectorMonitoringStrategy.UNKNOWN
+        _ * stats.getLargestBuildHeapUsage() >> largest
+        _ * stats.getAvailableHeap() >> available
+
+        expect:
+        status.ableToRunConcurrentBuild == canRun
+
+        where:
+        largest | available | canRun
+        0       | 1000      | false
+        100     | 1000      | true
+        1000    | 1000      | true
+        1001    | 1000      | false
+    }
+
+    def "cannot run concurrent build when under memory pressure"() {
+        _ * stats.getGcMonitor() >> gcMonitor
+        _ * gcMonitor.gcStrategy >> GarbageCollectorMonitoringStrategy.ORACLE_PARALLEL_CMS
+        _ * gcMonitor.tenuredStats >> Stub(GarbageCollectionStats) {
+            getUsage() >> 100
+            getRate() >> 10.0
+            getEventCount() >> 10
+        }
+        _ * stats.getLargestBuildHeapUsage() >> 100
+        _ * stats.getAvailableHeap() >> 1000
+
+        expect:
+        !status.ableToRunConcurrentBuild
     }
 }
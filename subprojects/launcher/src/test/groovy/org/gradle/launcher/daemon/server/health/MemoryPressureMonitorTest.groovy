@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.health
+
+import org.gradle.internal.TimeProvider
+import org.gradle.internal.memory.MemoryPressure
+import org.gradle.internal.memory.MemoryPressureListener
+import spock.lang.Specification
+
+class MemoryPressureMonitorTest extends Specification {
+    def status = Mock(DaemonStatus)
+    def listener = Mock(MemoryPressureListener)
+    def timeProvider = Mock(TimeProvider)
+    def monitor = new MemoryPressureMonitor(status, listener, timeProvider)
+
+    def "does nothing while there is no pressure"() {
+        when:
+        monitor.run()
+
+        then:
+        1 * status.getMemoryPressure() >> null
+        0 * listener._
+    }
+
+    def "notifies listener when pressure rises and periodically while it persists"() {
+        when:
+        monitor.run()
+
+        then:
+        1 * status.getMemoryPressure() >> MemoryPressure.MODERATE
+        _ * timeProvider.getCurrentTime() >> 1000
+        1 * listener.onMemoryPressure(MemoryPressure.MODERATE)
+
+        when:
+        monitor.run()
+
+        then:
+        1 * status.getMemoryPressure() >> MemoryPressure.MODERATE
+        _ * timeProvider.getCurrentTime() >> 2000
+        0 * listener._
+
+        when:
+        monitor.run()
+
+        then:
+        1 * status.getMemoryPressure() >> MemoryPressure.HIGH
+        _ * timeProvider.getCurrentTime() >> 3000
+        1 * listener.onMemoryPressure(MemoryPressure.HIGH)
+
+        when:
+        monitor.run()
+
+        then:
+        1 * status.getMemoryPressure() >> MemoryPressure.HIGH
+        _ * timeProvider.getCurrentTime() >> 3000 + MemoryPressureMonitor.NOTIFICATION_INTERVAL
+        1 * listener.onMemoryPressure(MemoryPressure.HIGH)
+    }
+
+    def "notifies listener again once pressure returns"() {
+        given:
+        _ * timeProvider.getCurrentTime() >> 1000
+
+        when:
+        monitor.run()
+        monitor.run()
+        monitor.run()
+
+        then:
+        3 * status.getMemoryPressure() >>> [MemoryPressure.MODERATE, null, MemoryPressure.MODERATE]
+        2 * listener.onMemoryPressure(MemoryPressure.MODERATE)
+    }
+
+    def "keeps running when check fails"() {
+        when:
+        monitor.run()
+
+        then:
+        1 * status.getMemoryPressure() >> { throw new RuntimeException("broken") }
+        noExceptionThrown()
+    }
+}
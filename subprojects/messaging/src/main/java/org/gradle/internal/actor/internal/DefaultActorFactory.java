@@ -24,15 +24,19 @@ import org.slf4j.LoggerFactory;
 
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * A basic {@link ActorFactory} implementation. Currently cannot support creating both a blocking and non-blocking actor for the same target object.
+ *
+ * <p>Non-blocking actors share the threads of a single executor. An actor uses a thread only while it has method calls to deliver, so idle actors do not use any threads.</p>
  */
 public class DefaultActorFactory implements ActorFactory, Stoppable {
     private final Map<Object, NonBlockingActor> nonBlockingActors = new IdentityHashMap<Object, NonBlockingActor>();
     private final Map<Object, BlockingActor> blockingActors = new IdentityHashMap<Object, BlockingActor>();
     private final Object lock = new Object();
     private final ExecutorFactory executorFactory;
+    private StoppableExecutor executor;
 
     public DefaultActorFactory(ExecutorFactory executorFactory) {
         this.executorFactory = executorFactory;
@@ -44,9 +48,10 @@ public class DefaultActorFactory implements ActorFactory, Stoppable {
     public void stop() {
         synchronized (lock) {
             try {
-                CompositeStoppable.stoppable(nonBlockingActors.values()).add(blockingActors.values()).stop();
+                CompositeStoppable.stoppable(nonBlockingActors.values()).add(blockingActors.values()).add(executor).stop();
             } finally {
                 nonBlockingActors.clear();
+                executor = null;
             }
         }
     }
@@ -61,7 +66,10 @@ public class DefaultActorFactory implements ActorFactory, Stoppable {
             }
             NonBlockingActor actor = nonBlockingActors.get(target);
             if (actor == null) {
-                actor = new NonBlockingActor(target);
+                if (executor == null) {
+                    executor = executorFactory.create("Actor dispatch");
+                }
+                actor = new NonBlockingActor(target, executor);
                 nonBlockingActors.put(target, actor);
             }
             return actor;
@@ -125,14 +133,12 @@ public class DefaultActorFactory implements ActorFactory, Stoppable {
     }
 
     private class NonBlockingActor implements Actor {
-        private final Dispatch<MethodInvocation> dispatch;
-        private final StoppableExecutor executor;
+        private final MultiplexedAsyncDispatch<MethodInvocation> dispatch;
         private final ExceptionTrackingFailureHandler failureHandler;
 
-        public NonBlockingActor(Object targetObject) {
-            executor = executorFactory.create("Dispatch " + targetObject);
+        public NonBlockingActor(Object targetObject, Executor executor) {
             failureHandler = new ExceptionTrackingFailureHandler(LoggerFactory.getLogger(NonBlockingActor.class));
-            dispatch = new AsyncDispatch<MethodInvocation>(executor,
+            dispatch = new MultiplexedAsyncDispatch<MethodInvocation>(executor,
                     new FailureHandlingDispatch<MethodInvocation>(
                             new ReflectionDispatch(targetObject),
                             failureHandler));
@@ -144,7 +150,7 @@ public class DefaultActorFactory implements ActorFactory, Stoppable {
 
         public void stop() {
             try {
-                CompositeStoppable.stoppable(dispatch, executor, failureHandler).stop();
+                CompositeStoppable.stoppable(dispatch, failureHandler).stop();
             } finally {
                 stopped(this);
             }
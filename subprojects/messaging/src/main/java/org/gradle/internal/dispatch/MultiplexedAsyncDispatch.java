@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.dispatch;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.LinkedList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>A {@link Dispatch} implementation which delivers messages asynchronously, in the order they have been received, to a single delegate {@link Dispatch}.</p>
+ *
+ * <p>Unlike {@link AsyncDispatch}, this dispatch does not hold on to a thread while there are no messages to deliver. A task is submitted to the executor
+ * only when messages are queued, and the task finishes once the queue is empty. This allows many instances to share the threads of a single executor.</p>
+ */
+public class MultiplexedAsyncDispatch<T> implements Dispatch<T>, Stoppable {
+    private static final int MAX_QUEUE_SIZE = 200;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final LinkedList<T> queue = new LinkedList<T>();
+    private final Executor executor;
+    private final Dispatch<? super T> dispatch;
+    private final Runnable dispatchMessages = new Runnable() {
+        public void run() {
+            dispatchMessages();
+        }
+    };
+    private boolean scheduled;
+    private boolean stopped;
+
+    public MultiplexedAsyncDispatch(Executor executor, Dispatch<? super T> dispatch) {
+        this.executor = executor;
+        this.dispatch = dispatch;
+    }
+
+    public void dispatch(T message) {
+        lock.lock();
+        try {
+            while (!stopped && queue.size() >= MAX_QUEUE_SIZE) {
+                await();
+            }
+            if (stopped) {
+                throw new IllegalStateException("Cannot dispatch message, as this message dispatch has been stopped. Message: " + message);
+            }
+            queue.add(message);
+            if (!scheduled) {
+                scheduled = true;
+                try {
+                    executor.execute(dispatchMessages);
+                } catch (RuntimeException e) {
+                    scheduled = false;
+                    queue.removeLast();
+                    throw e;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatchMessages() {
+        while (true) {
+            T message;
+            lock.lock();
+            try {
+                if (queue.isEmpty()) {
+                    scheduled = false;
+                    condition.signalAll();
+                    return;
+                }
+                message = queue.remove();
+                condition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            boolean dispatched = false;
+            try {
+                dispatch.dispatch(message);
+                dispatched = true;
+            } finally {
+                if (!dispatched) {
+                    onDispatchFailed();
+                }
+            }
+        }
+    }
+
+    private void onDispatchFailed() {
+        lock.lock();
+        try {
+            if (queue.isEmpty()) {
+                scheduled = false;
+                condition.signalAll();
+            } else {
+                // Carry on with the remaining messages in a new task
+                executor.execute(dispatchMessages);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void await() {
+        try {
+            condition.await();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    /**
+     * Stops accepting new messages, and blocks until all queued messages have been dispatched.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            condition.signalAll();
+            while (scheduled) {
+                await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -31,28 +31,62 @@ public abstract class AbstractBroadcastDispatch<T> implements Dispatch<MethodInv
         this.type = type;
     }
 
+    public Class<T> getType() {
+        return type;
+    }
+
     private String getErrorMessage() {
         String typeDescription = type.getSimpleName().replaceAll("(\\p{Upper})", " $1").trim().toLowerCase();
         return "Failed to notify " + typeDescription + ".";
     }
 
     protected void dispatch(MethodInvocation invocation, Iterator<? extends Dispatch<MethodInvocation>> handlers) {
-        List<Throwable> failures = new ArrayList<Throwable>();
+        List<Throwable> failures = null;
         while (handlers.hasNext()) {
             Dispatch<MethodInvocation> handler = handlers.next();
             try {
                 handler.dispatch(invocation);
-            } catch (UncheckedException e) {
-                failures.add(e.getCause());
             } catch (Throwable t) {
-                failures.add(t);
+                failures = addFailure(failures, t);
             }
         }
+        rethrowFailures(failures);
+    }
+
+    /**
+     * Starts notifying the handlers of this broadcast through a generated source, and returns a snapshot of the handlers to notify, in order. Each
+     * handler that implements the listener type is called directly, a null handler is skipped, and every other handler is a {@link Dispatch}.
+     */
+    protected abstract Object[] startNotification();
+
+    /**
+     * Finishes notifying the given handlers through a generated source, then rethrows any failures.
+     */
+    protected void endNotification(Object[] handlers, List<Throwable> failures) {
+        rethrowFailures(failures);
+    }
+
+    /**
+     * Records a failure thrown by a listener, creating the list of failures on first use.
+     */
+    List<Throwable> addFailure(List<Throwable> failures, Throwable failure) {
+        if (failures == null) {
+            failures = new ArrayList<Throwable>();
+        }
+        failures.add(failure instanceof UncheckedException ? failure.getCause() : failure);
+        return failures;
+    }
+
+    /**
+     * Rethrows the failures collected while notifying listeners, if any.
+     */
+    void rethrowFailures(List<Throwable> failures) {
+        if (failures == null) {
+            return;
+        }
         if (failures.size() == 1 && failures.get(0) instanceof RuntimeException) {
             throw (RuntimeException) failures.get(0);
         }
-        if (!failures.isEmpty()) {
-            throw new ListenerNotificationException(getErrorMessage(), failures);
-        }
+        throw new ListenerNotificationException(getErrorMessage(), failures);
     }
 }
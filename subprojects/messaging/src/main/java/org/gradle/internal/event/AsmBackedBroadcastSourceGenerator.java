@@ -0,0 +1,354 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.event;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.gradle.internal.UncheckedException;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates the source object for a broadcast, which implements the listener interface and calls each listener directly, rather than going through a
+ * {@link java.lang.reflect.Proxy} and reflective {@link org.gradle.internal.dispatch.MethodInvocation} per listener.
+ *
+ * <p>For each method of the listener interface, the generated class iterates over the snapshot of handlers returned by {@link AbstractBroadcastDispatch#startNotification()}.
+ * A handler that implements the listener interface is called directly, with no boxing of the arguments. Any other handler, such as a {@link org.gradle.internal.dispatch.Dispatch}
+ * or an action, receives a {@code MethodInvocation} as before. Failures are collected and rethrown in the same way as {@link AbstractBroadcastDispatch}.</p>
+ *
+ * <p>A type is supported when it is a public interface. No source is generated for any other type.</p>
+ */
+class AsmBackedBroadcastSourceGenerator {
+    private static final String BASE_TYPE = Type.getInternalName(GeneratedBroadcastSource.class);
+    private static final String OBJECT_TYPE = Type.getInternalName(Object.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(AbstractBroadcastDispatch.class), Type.getType(Method[].class));
+    private static final String SNAPSHOT_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(Object[].class));
+    private static final String DISPATCH_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Object.class), Type.INT_TYPE, Type.getType(Object[].class));
+    private static final String FAILED_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(List.class), Type.getType(List.class), Type.getType(Throwable.class));
+    private static final String COMPLETED_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Object[].class), Type.getType(List.class));
+
+    // Shared by all generators, so that a listener type is generated once no matter which broadcast it is used with
+    private static final Cache<Class<?>, Class<?>> GENERATED_TYPES = CacheBuilder.newBuilder().weakKeys().weakValues().build();
+
+    /**
+     * Returns a source object for the given broadcast, or null when the listener type is not supported.
+     */
+    public <T> T generate(AbstractBroadcastDispatch<T> broadcast) {
+        final Class<T> type = broadcast.getType();
+        final List<Method> methods = inspect(type);
+        if (methods == null) {
+            return null;
+        }
+        Class<?> sourceType;
+        try {
+            sourceType = GENERATED_TYPES.get(type, new Callable<Class<?>>() {
+                @Override
+                public Class<?> call() {
+                    return generateType(type, methods);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+
+        try {
+            Object source = sourceType.getConstructor(AbstractBroadcastDispatch.class, Method[].class).newInstance(broadcast, methods.toArray(new Method[0]));
+            return type.cast(source);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static List<Method> inspect(Class<?> type) {
+        if (!type.isInterface() || !Modifier.isPublic(type.getModifiers()) || type.getName().startsWith("java.")) {
+            return null;
+        }
+
+        // Sort the methods, so that the index of each method is the same each time the type is inspected
+        Map<String, Method> methods = new TreeMap<String, Method>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            String descriptor = Type.getMethodDescriptor(method);
+            if (isObjectMethod(method.getName(), descriptor)) {
+                // Handled by the base class, in the same way as the proxy
+                continue;
+            }
+            if (isBaseMethod(method.getName(), descriptor)) {
+                return null;
+            }
+            methods.put(method.getName() + descriptor, method);
+        }
+        return new ArrayList<Method>(methods.values());
+    }
+
+    private static boolean isObjectMethod(String name, String descriptor) {
+        return (name.equals("equals") && descriptor.equals("(Ljava/lang/Object;)Z"))
+            || (name.equals("hashCode") && descriptor.equals("()I"))
+            || (name.equals("toString") && descriptor.equals("()Ljava/lang/String;"));
+    }
+
+    private static boolean isBaseMethod(String name, String descriptor) {
+        for (Method method : GeneratedBroadcastSource.class.getDeclaredMethods()) {
+            if (method.getName().equals(name) && Type.getMethodDescriptor(method).equals(descriptor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Class<?> generateType(Class<?> type, List<Method> methods) {
+        String typeName = type.getName() + "$$Broadcast";
+        String generatedType = typeName.replace('.', '/');
+        String listenerType = Type.getInternalName(type);
+
+        ClassWriter visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        visitor.visit(V1_5, ACC_PUBLIC | ACC_FINAL | ACC_SYNTHETIC, generatedType, null, BASE_TYPE, new String[]{listenerType});
+
+        // public <init>(AbstractBroadcastDispatch broadcast, Method[] methods)
+        MethodVisitor methodVisitor = visitor.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+        methodVisitor.visitCode();
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitVarInsn(ALOAD, 1);
+        methodVisitor.visitVarInsn(ALOAD, 2);
+        methodVisitor.visitMethodInsn(INVOKESPECIAL, BASE_TYPE, "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+        methodVisitor.visitInsn(RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+
+        for (int i = 0; i < methods.size(); i++) {
+            generateMethod(visitor, generatedType, listenerType, methods.get(i), i);
+        }
+
+        visitor.visitEnd();
+        ClassLoader targetClassLoader = type.getClassLoader() != null ? type.getClassLoader() : GeneratedBroadcastSource.class.getClassLoader();
+        return new GeneratedClassLoader(targetClassLoader).define(typeName, visitor.toByteArray());
+    }
+
+    private static void generateMethod(ClassWriter visitor, String generatedType, String listenerType, Method method, int methodIndex) {
+        String descriptor = Type.getMethodDescriptor(method);
+        Type[] parameterTypes = Type.getArgumentTypes(descriptor);
+        Type returnType = Type.getReturnType(descriptor);
+
+        int nextLocal = 1;
+        for (Type parameterType : parameterTypes) {
+            nextLocal += parameterType.getSize();
+        }
+        int listenersVar = nextLocal;
+        int failuresVar = nextLocal + 1;
+        int indexVar = nextLocal + 2;
+        int listenerVar = nextLocal + 3;
+        int failureVar = nextLocal + 4;
+
+        Label loop = new Label();
+        Label tryStart = new Label();
+        Label tryEnd = new Label();
+        Label handler = new Label();
+        Label notListener = new Label();
+        Label next = new Label();
+        Label end = new Label();
+
+        MethodVisitor methodVisitor = visitor.visitMethod(ACC_PUBLIC, method.getName(), descriptor, null, null);
+        methodVisitor.visitCode();
+        methodVisitor.visitTryCatchBlock(tryStart, tryEnd, handler, Type.getInternalName(Throwable.class));
+
+        // Object[] listeners = startNotification(); List failures = null;
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitMethodInsn(INVOKEVIRTUAL, generatedType, "startNotification", SNAPSHOT_DESCRIPTOR, false);
+        methodVisitor.visitVarInsn(ASTORE, listenersVar);
+        methodVisitor.visitInsn(ACONST_NULL);
+        methodVisitor.visitVarInsn(ASTORE, failuresVar);
+
+        // for (int i = 0; i < listeners.length; i++)
+        methodVisitor.visitInsn(ICONST_0);
+        methodVisitor.visitVarInsn(ISTORE, indexVar);
+        methodVisitor.visitLabel(loop);
+        methodVisitor.visitVarInsn(ILOAD, indexVar);
+        methodVisitor.visitVarInsn(ALOAD, listenersVar);
+        methodVisitor.visitInsn(ARRAYLENGTH);
+        methodVisitor.visitJumpInsn(IF_ICMPGE, end);
+        methodVisitor.visitVarInsn(ALOAD, listenersVar);
+        methodVisitor.visitVarInsn(ILOAD, indexVar);
+        methodVisitor.visitInsn(AALOAD);
+        methodVisitor.visitVarInsn(ASTORE, listenerVar);
+
+        // if (listener == null) continue;
+        methodVisitor.visitVarInsn(ALOAD, listenerVar);
+        methodVisitor.visitJumpInsn(IFNULL, next);
+
+        methodVisitor.visitLabel(tryStart);
+        // if (listener instanceof T) { ((T) listener).method(params) }
+        methodVisitor.visitVarInsn(ALOAD, listenerVar);
+        methodVisitor.visitTypeInsn(INSTANCEOF, listenerType);
+        methodVisitor.visitJumpInsn(IFEQ, notListener);
+        methodVisitor.visitVarInsn(ALOAD, listenerVar);
+        methodVisitor.visitTypeInsn(CHECKCAST, listenerType);
+        int local = 1;
+        for (Type parameterType : parameterTypes) {
+            methodVisitor.visitVarInsn(parameterType.getOpcode(ILOAD), local);
+            local += parameterType.getSize();
+        }
+        methodVisitor.visitMethodInsn(INVOKEINTERFACE, listenerType, method.getName(), descriptor, true);
+        if (returnType.getSize() == 2) {
+            methodVisitor.visitInsn(POP2);
+        } else if (returnType.getSize() == 1) {
+            methodVisitor.visitInsn(POP);
+        }
+        methodVisitor.visitJumpInsn(GOTO, next);
+
+        // else { dispatchTo(listener, methodIndex, new Object[] {params}) }
+        methodVisitor.visitLabel(notListener);
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitVarInsn(ALOAD, listenerVar);
+        methodVisitor.visitLdcInsn(methodIndex);
+        methodVisitor.visitLdcInsn(parameterTypes.length);
+        methodVisitor.visitTypeInsn(ANEWARRAY, OBJECT_TYPE);
+        local = 1;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Type parameterType = parameterTypes[i];
+            methodVisitor.visitInsn(DUP);
+            methodVisitor.visitLdcInsn(i);
+            methodVisitor.visitVarInsn(parameterType.getOpcode(ILOAD), local);
+            box(methodVisitor, parameterType);
+            methodVisitor.visitInsn(AASTORE);
+            local += parameterType.getSize();
+        }
+        methodVisitor.visitMethodInsn(INVOKEVIRTUAL, generatedType, "dispatchTo", DISPATCH_DESCRIPTOR, false);
+        methodVisitor.visitLabel(tryEnd);
+        methodVisitor.visitJumpInsn(GOTO, next);
+
+        // catch (Throwable t) { failures = failed(failures, t) }
+        methodVisitor.visitLabel(handler);
+        methodVisitor.visitVarInsn(ASTORE, failureVar);
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitVarInsn(ALOAD, failuresVar);
+        methodVisitor.visitVarInsn(ALOAD, failureVar);
+        methodVisitor.visitMethodInsn(INVOKEVIRTUAL, generatedType, "failed", FAILED_DESCRIPTOR, false);
+        methodVisitor.visitVarInsn(ASTORE, failuresVar);
+
+        methodVisitor.visitLabel(next);
+        methodVisitor.visitIincInsn(indexVar, 1);
+        methodVisitor.visitJumpInsn(GOTO, loop);
+
+        // completed(listeners, failures); return default value
+        methodVisitor.visitLabel(end);
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitVarInsn(ALOAD, listenersVar);
+        methodVisitor.visitVarInsn(ALOAD, failuresVar);
+        methodVisitor.visitMethodInsn(INVOKEVIRTUAL, generatedType, "completed", COMPLETED_DESCRIPTOR, false);
+        returnDefaultValue(methodVisitor, returnType);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+    }
+
+    private static void box(MethodVisitor methodVisitor, Type type) {
+        Class<?> boxedType;
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                boxedType = Boolean.class;
+                break;
+            case Type.CHAR:
+                boxedType = Character.class;
+                break;
+            case Type.BYTE:
+                boxedType = Byte.class;
+                break;
+            case Type.SHORT:
+                boxedType = Short.class;
+                break;
+            case Type.INT:
+                boxedType = Integer.class;
+                break;
+            case Type.FLOAT:
+                boxedType = Float.class;
+                break;
+            case Type.LONG:
+                boxedType = Long.class;
+                break;
+            case Type.DOUBLE:
+                boxedType = Double.class;
+                break;
+            default:
+                return;
+        }
+        String boxedTypeName = Type.getInternalName(boxedType);
+        methodVisitor.visitMethodInsn(INVOKESTATIC, boxedTypeName, "valueOf", Type.getMethodDescriptor(Type.getObjectType(boxedTypeName), type), false);
+    }
+
+    private static void returnDefaultValue(MethodVisitor methodVisitor, Type returnType) {
+        switch (returnType.getSort()) {
+            case Type.VOID:
+                methodVisitor.visitInsn(RETURN);
+                break;
+            case Type.LONG:
+                methodVisitor.visitInsn(LCONST_0);
+                methodVisitor.visitInsn(LRETURN);
+                break;
+            case Type.FLOAT:
+                methodVisitor.visitInsn(FCONST_0);
+                methodVisitor.visitInsn(FRETURN);
+                break;
+            case Type.DOUBLE:
+                methodVisitor.visitInsn(DCONST_0);
+                methodVisitor.visitInsn(DRETURN);
+                break;
+            case Type.OBJECT:
+            case Type.ARRAY:
+                methodVisitor.visitInsn(ACONST_NULL);
+                methodVisitor.visitInsn(ARETURN);
+                break;
+            default:
+                methodVisitor.visitInsn(ICONST_0);
+                methodVisitor.visitInsn(IRETURN);
+        }
+    }
+
+    private static class GeneratedClassLoader extends ClassLoader {
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(GeneratedBroadcastSource.class.getName())) {
+                return GeneratedBroadcastSource.class;
+            }
+            if (name.equals(AbstractBroadcastDispatch.class.getName())) {
+                return AbstractBroadcastDispatch.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
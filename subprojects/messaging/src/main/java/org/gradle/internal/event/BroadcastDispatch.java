@@ -23,36 +23,39 @@ import org.gradle.internal.dispatch.ReflectionDispatch;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Handlers can be added and removed while other threads are notifying the handlers. Each notification uses a snapshot of the handlers.
+ */
 public class BroadcastDispatch<T> extends AbstractBroadcastDispatch<T> {
     private final Map<Object, Dispatch<MethodInvocation>> handlers = new LinkedHashMap<Object, Dispatch<MethodInvocation>>();
+    private volatile Object[] listeners;
 
     public BroadcastDispatch(Class<T> type) {
         super(type);
     }
 
-    public Class<T> getType() {
-        return type;
-    }
-
-    public boolean isEmpty() {
+    public synchronized boolean isEmpty() {
         return handlers.isEmpty();
     }
 
-    public void add(Dispatch<MethodInvocation> dispatch) {
+    public synchronized void add(Dispatch<MethodInvocation> dispatch) {
         handlers.put(dispatch, dispatch);
+        listeners = null;
     }
 
-    public void add(T listener) {
-        handlers.put(listener, new ReflectionDispatch(listener));
+    public synchronized void add(T listener) {
+        handlers.put(listener, new ListenerDispatch(listener));
+        listeners = null;
     }
 
-    public void add(String methodName, Action<?> action) {
+    public synchronized void add(String methodName, Action<?> action) {
         assertIsMethod(methodName);
         handlers.put(action, new ActionInvocationHandler(methodName, action));
+        listeners = null;
     }
 
     private void assertIsMethod(String methodName) {
@@ -65,18 +68,76 @@ public class BroadcastDispatch<T> extends AbstractBroadcastDispatch<T> {
                 type.getSimpleName()));
     }
 
-    public void remove(Object listener) {
+    public synchronized void remove(Object listener) {
         handlers.remove(listener);
+        listeners = null;
     }
 
-    public void removeAll() {
+    public synchronized void removeAll() {
         handlers.clear();
+        listeners = null;
+    }
+
+    /**
+     * Returns a snapshot of the handlers, in the order they were added. Each listener added using {@link #add(Object)} is returned as is, and
+     * every other handler is returned as a {@link Dispatch} that does not implement the listener type.
+     */
+    @Override
+    protected Object[] startNotification() {
+        Object[] listeners = this.listeners;
+        if (listeners == null) {
+            listeners = snapshot();
+        }
+        return listeners;
+    }
+
+    private synchronized Object[] snapshot() {
+        Object[] listeners = this.listeners;
+        if (listeners == null) {
+            listeners = new Object[handlers.size()];
+            int i = 0;
+            for (Dispatch<MethodInvocation> handler : handlers.values()) {
+                if (handler instanceof ListenerDispatch) {
+                    listeners[i++] = ((ListenerDispatch) handler).listener;
+                } else if (type.isInstance(handler)) {
+                    listeners[i++] = new DispatchAdapter(handler);
+                } else {
+                    listeners[i++] = handler;
+                }
+            }
+            this.listeners = listeners;
+        }
+        return listeners;
     }
 
     @Override
     public void dispatch(MethodInvocation message) {
-        Iterator<Dispatch<MethodInvocation>> iterator = new ArrayList<Dispatch<MethodInvocation>>(handlers.values()).iterator();
-        dispatch(message, iterator);
+        dispatch(message, copyHandlers().iterator());
+    }
+
+    private synchronized List<Dispatch<MethodInvocation>> copyHandlers() {
+        return new ArrayList<Dispatch<MethodInvocation>>(handlers.values());
+    }
+
+    private static class ListenerDispatch extends ReflectionDispatch {
+        private final Object listener;
+
+        ListenerDispatch(Object listener) {
+            super(listener);
+            this.listener = listener;
+        }
+    }
+
+    private static class DispatchAdapter implements Dispatch<MethodInvocation> {
+        private final Dispatch<MethodInvocation> dispatch;
+
+        DispatchAdapter(Dispatch<MethodInvocation> dispatch) {
+            this.dispatch = dispatch;
+        }
+
+        public void dispatch(MethodInvocation message) {
+            dispatch.dispatch(message);
+        }
     }
 
     private class ActionInvocationHandler implements Dispatch<MethodInvocation> {
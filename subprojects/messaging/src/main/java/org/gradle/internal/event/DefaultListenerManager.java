@@ -16,6 +16,7 @@
 
 package org.gradle.internal.event;
 
+import org.gradle.internal.Cast;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.dispatch.Dispatch;
 import org.gradle.internal.dispatch.MethodInvocation;
@@ -27,6 +28,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 @SuppressWarnings({"unchecked"})
 public class DefaultListenerManager implements ListenerManager {
+    private static final AsmBackedBroadcastSourceGenerator SOURCE_GENERATOR = new AsmBackedBroadcastSourceGenerator();
     private final Map<Object, ListenerDetails> allListeners = new LinkedHashMap<Object, ListenerDetails>();
     private final Map<Object, ListenerDetails> allLoggers = new LinkedHashMap<Object, ListenerDetails>();
     private final Map<Class<?>, EventBroadcast> broadcasters = new HashMap<Class<?>, EventBroadcast>();
@@ -84,7 +86,7 @@ public class DefaultListenerManager implements ListenerManager {
 
     public <T> ListenerBroadcast<T> createAnonymousBroadcaster(Class<T> listenerClass) {
         ListenerBroadcast<T> broadcast = new ListenerBroadcast(listenerClass);
-        broadcast.add(getBroadcasterInternal(listenerClass).getDispatch(true));
+        broadcast.add(getBroadcasterInternal(listenerClass).getBroadcaster());
         return broadcast;
     }
 
@@ -111,15 +113,18 @@ public class DefaultListenerManager implements ListenerManager {
 
     private class EventBroadcast<T> {
         private final Class<T> type;
-        private final ProxyDispatchAdapter<T> source;
         private final ListenerDispatch dispatch;
         private final ListenerDispatch dispatchNoLogger;
 
         // The following state is protected by lock
         private final Set<ListenerDetails> listeners = new LinkedHashSet<ListenerDetails>();
         private ListenerDetails logger;
-        private Dispatch<MethodInvocation> parentDispatch;
+        private ListenerDispatch parentDispatch;
         private Thread owner;
+        private List<ListenerDetails> notifying;
+        // The listeners being called directly by a generated source, starting at the given offset, so that a removed listener can be skipped
+        private Object[] directHandlers;
+        private int directListenersOffset;
 
         EventBroadcast(Class<T> type) {
             this.type = type;
@@ -128,15 +133,14 @@ public class DefaultListenerManager implements ListenerManager {
             if (parent != null) {
                 parentDispatch = parent.getBroadcasterInternal(type).getDispatch(true);
             }
-            source = new ProxyDispatchAdapter<T>(dispatch, type);
         }
 
-        Dispatch<MethodInvocation> getDispatch(boolean includeLogger) {
+        ListenerDispatch getDispatch(boolean includeLogger) {
             return includeLogger ? dispatch : dispatchNoLogger;
         }
 
         T getBroadcaster() {
-            return source.getSource();
+            return dispatch.source;
         }
 
         // Must be holding lock
@@ -150,6 +154,12 @@ public class DefaultListenerManager implements ListenerManager {
         void maybeRemove(ListenerDetails listener) {
             listeners.remove(listener);
             // Another thread may be using listener
+            if (owner == Thread.currentThread() && directHandlers != null) {
+                int index = notifying.indexOf(listener);
+                if (index >= 0) {
+                    directHandlers[directListenersOffset + index] = null;
+                }
+            }
         }
 
         // Must be holding lock
@@ -162,7 +172,11 @@ public class DefaultListenerManager implements ListenerManager {
             }
         }
 
-        private List<Dispatch<MethodInvocation>> startNotification(boolean includeLogger) {
+        /**
+         * Takes a snapshot of the handlers to notify. When direct, each listener is returned as is so that it can be called by a generated source,
+         * otherwise each handler is returned as a {@link Dispatch}.
+         */
+        private Object[] startNotification(boolean includeLogger, boolean direct) {
             synchronized (lock) {
                 // Mark this listener type as being notified
                 while (owner != null) {
@@ -178,29 +192,35 @@ public class DefaultListenerManager implements ListenerManager {
                 owner = Thread.currentThread();
 
                 // Take a snapshot while holding lock
-                List<Dispatch<MethodInvocation>> dispatchers = new ArrayList<Dispatch<MethodInvocation>>(listeners.size() + 2);
-                if (includeLogger && logger != null) {
-                    dispatchers.add(logger);
+                boolean notifyLogger = includeLogger && logger != null;
+                Object[] handlers = new Object[listeners.size() + (notifyLogger ? 1 : 0) + (parentDispatch != null ? 1 : 0)];
+                int count = 0;
+                if (notifyLogger) {
+                    handlers[count++] = direct ? logger.listener : logger;
                 }
                 if (parentDispatch != null) {
-                    dispatchers.add(parentDispatch);
+                    handlers[count++] = direct ? parentDispatch.source : parentDispatch;
+                }
+                notifying = new ArrayList<ListenerDetails>(listeners);
+                if (direct) {
+                    directHandlers = handlers;
+                    directListenersOffset = count;
                 }
-                for (ListenerDetails listener : listeners) {
+                for (ListenerDetails listener : notifying) {
                     listener.startNotification(owner);
-                    dispatchers.add(listener);
+                    handlers[count++] = direct ? listener.listener : listener;
                 }
-                return dispatchers;
+                return handlers;
             }
         }
 
-        private void endNotification(List<Dispatch<MethodInvocation>> dispatchers) {
+        private void endNotification() {
             synchronized (lock) {
-                for (Dispatch<MethodInvocation> dispatcher : dispatchers) {
-                    if (dispatcher instanceof ListenerDetails) {
-                        ListenerDetails listener = (ListenerDetails) dispatcher;
-                        listener.endNotification(owner);
-                    }
+                for (ListenerDetails listener : notifying) {
+                    listener.endNotification(owner);
                 }
+                notifying = null;
+                directHandlers = null;
                 owner = null;
                 lock.notifyAll();
             }
@@ -208,21 +228,36 @@ public class DefaultListenerManager implements ListenerManager {
 
         private class ListenerDispatch extends AbstractBroadcastDispatch<T> {
             private final boolean includeLogger;
+            private final T source;
 
             public ListenerDispatch(Class<T> type, boolean includeLogger) {
                 super(type);
                 this.includeLogger = includeLogger;
+                T generatedSource = SOURCE_GENERATOR.generate(this);
+                this.source = generatedSource != null ? generatedSource : new ProxyDispatchAdapter<T>(this, type).getSource();
             }
 
             @Override
             public void dispatch(MethodInvocation invocation) {
-                List<Dispatch<MethodInvocation>> dispatchers = startNotification(includeLogger);
+                Object[] handlers = EventBroadcast.this.startNotification(includeLogger, false);
                 try {
+                    List<Dispatch<MethodInvocation>> dispatchers = Cast.uncheckedCast(Arrays.asList(handlers));
                     dispatch(invocation, dispatchers.iterator());
                 } finally {
-                    endNotification(dispatchers);
+                    EventBroadcast.this.endNotification();
                 }
             }
+
+            @Override
+            protected Object[] startNotification() {
+                return EventBroadcast.this.startNotification(includeLogger, true);
+            }
+
+            @Override
+            protected void endNotification(Object[] handlers, List<Throwable> failures) {
+                EventBroadcast.this.endNotification();
+                rethrowFailures(failures);
+            }
         }
     }
 
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.event;
+
+import org.gradle.internal.Cast;
+import org.gradle.internal.dispatch.Dispatch;
+import org.gradle.internal.dispatch.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * The base class for the broadcast sources generated by {@link AsmBackedBroadcastSourceGenerator}. This class is public only so that the generated
+ * classes, which are defined in their own class loader, can extend it. It should not be used directly.
+ */
+public abstract class GeneratedBroadcastSource {
+    private final AbstractBroadcastDispatch<?> broadcast;
+    private final Method[] methods;
+
+    protected GeneratedBroadcastSource(AbstractBroadcastDispatch<?> broadcast, Method[] methods) {
+        this.broadcast = broadcast;
+        this.methods = methods;
+    }
+
+    protected final Object[] startNotification() {
+        return broadcast.startNotification();
+    }
+
+    protected final void dispatchTo(Object handler, int method, Object[] arguments) {
+        Dispatch<MethodInvocation> dispatch = Cast.uncheckedCast(handler);
+        dispatch.dispatch(new MethodInvocation(methods[method], arguments));
+    }
+
+    protected final List<Throwable> failed(List<Throwable> failures, Throwable failure) {
+        return broadcast.addFailure(failures, failure);
+    }
+
+    protected final void completed(Object[] handlers, List<Throwable> failures) {
+        broadcast.endNotification(handlers, failures);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof GeneratedBroadcastSource && ((GeneratedBroadcastSource) obj).broadcast == broadcast;
+    }
+
+    @Override
+    public int hashCode() {
+        return broadcast.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return broadcast.getType().getSimpleName() + " broadcast";
+    }
+}
@@ -28,17 +28,21 @@ import org.gradle.internal.dispatch.ProxyDispatchAdapter;
  * <p>Ordering is maintained for events, so that events are delivered to listeners in the order they are generated.
  * Events are delivered to listeners in the order that listeners are added to this broadcaster.</p>
  *
+ * <p>When T is a public interface, the broadcaster is a generated class that calls each listener directly. Otherwise, it is a dynamic proxy.</p>
+ *
  * @param <T> The listener type.
  */
 public class ListenerBroadcast<T> implements Dispatch<MethodInvocation> {
-    private final ProxyDispatchAdapter<T> source;
+    private static final AsmBackedBroadcastSourceGenerator SOURCE_GENERATOR = new AsmBackedBroadcastSourceGenerator();
+    private final T source;
     private final BroadcastDispatch<T> broadcast;
     private final Class<T> type;
 
     public ListenerBroadcast(Class<T> type) {
         this.type = type;
         broadcast = new BroadcastDispatch<T>(type);
-        source = new ProxyDispatchAdapter<T>(broadcast, type);
+        T generatedSource = SOURCE_GENERATOR.generate(broadcast);
+        source = generatedSource != null ? generatedSource : new ProxyDispatchAdapter<T>(broadcast, type).getSource();
     }
 
     /**
@@ -47,7 +51,7 @@ public class ListenerBroadcast<T> implements Dispatch<MethodInvocation> {
      * @return The broadcaster.
      */
     public T getSource() {
-        return source.getSource();
+        return source;
     }
 
     /**
@@ -51,7 +51,8 @@ public interface ObjectConnectionBuilder {
     void useJavaSerializationForParameters(ClassLoader incomingMessageClassLoader);
 
     /**
-     * Use the specified serializers for all incoming and outgoing method parameters.
+     * Use the specified serializers for all incoming and outgoing method parameters. When {@link #useJavaSerializationForParameters(ClassLoader)} is also used,
+     * Java serialization is used only for those parameter types that the given serializers cannot handle.
      */
     void useParameterSerializers(SerializerRegistry serializers);
 }
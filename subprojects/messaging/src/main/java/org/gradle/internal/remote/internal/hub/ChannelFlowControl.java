@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.remote.internal.hub;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.remote.internal.hub.protocol.ChannelCredit;
+import org.gradle.internal.remote.internal.hub.protocol.ChannelIdentifier;
+import org.gradle.internal.remote.internal.hub.protocol.ChannelWindow;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Credit based flow control for the channels of a hub. Flow control is off unless enabled for a channel. For an outgoing channel with a window, at most
+ * that many messages may be sent before the peer has handled them. The peer is told about the window using a {@link ChannelWindow}, and returns credit by
+ * sending a {@link ChannelCredit} once its handlers have handled half a window of messages.
+ *
+ * <p>Not thread-safe. All methods must be called while holding the hub's lock.</p>
+ */
+class ChannelFlowControl {
+    private final Condition creditAvailable;
+    private final Map<ChannelIdentifier, Integer> outgoingWindows = new HashMap<ChannelIdentifier, Integer>();
+    private final Map<ChannelIdentifier, Integer> incomingWindows = new HashMap<ChannelIdentifier, Integer>();
+    private final Map<ChannelIdentifier, Integer> unacknowledged = new HashMap<ChannelIdentifier, Integer>();
+    private final Map<ChannelIdentifier, Integer> handled = new HashMap<ChannelIdentifier, Integer>();
+    private boolean enabled = true;
+
+    ChannelFlowControl(Lock lock) {
+        this.creditAvailable = lock.newCondition();
+    }
+
+    /**
+     * Limits the number of messages in flight on the given outgoing channel.
+     *
+     * @return the message to send to the peer, so that it returns credit for the channel.
+     */
+    ChannelWindow limitOutgoing(ChannelIdentifier channel, int window) {
+        outgoingWindows.put(channel, window);
+        return new ChannelWindow(channel, window);
+    }
+
+    /**
+     * Called when the peer limits the number of messages in flight on the given channel.
+     */
+    void windowReceived(ChannelWindow window) {
+        incomingWindows.put(window.getChannel(), window.getWindow());
+    }
+
+    /**
+     * Takes credit to send one message on the given channel, if available.
+     *
+     * @return true if the message may be sent, false if the caller should {@link #awaitCredit()} and try again.
+     */
+    boolean tryAcquire(ChannelIdentifier channel) {
+        Integer window = outgoingWindows.get(channel);
+        if (window == null || !enabled) {
+            return true;
+        }
+        int count = count(unacknowledged, channel);
+        if (count >= window) {
+            return false;
+        }
+        unacknowledged.put(channel, count + 1);
+        return true;
+    }
+
+    void awaitCredit() {
+        try {
+            creditAvailable.await();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    /**
+     * Called when the peer has handled some messages sent on the given channel.
+     */
+    void creditReceived(ChannelCredit credit) {
+        int count = count(unacknowledged, credit.getChannel());
+        unacknowledged.put(credit.getChannel(), Math.max(0, count - credit.getCount()));
+        creditAvailable.signalAll();
+    }
+
+    /**
+     * Called when the local handlers have handled some messages received on the given channel.
+     *
+     * @return the credit to return to the peer, or null when the peer does not limit the channel or not enough messages have been handled yet.
+     */
+    ChannelCredit messagesHandled(ChannelIdentifier channel, int count) {
+        Integer window = incomingWindows.get(channel);
+        if (window == null) {
+            return null;
+        }
+        int total = count(handled, channel) + count;
+        if (total < window / 2) {
+            handled.put(channel, total);
+            return null;
+        }
+        handled.remove(channel);
+        return new ChannelCredit(channel, total);
+    }
+
+    /**
+     * Stops limiting the number of messages that can be sent, for example because the peer has gone away, and wakes up any waiting producers.
+     */
+    void disable() {
+        enabled = false;
+        creditAvailable.signalAll();
+    }
+
+    private static int count(Map<ChannelIdentifier, Integer> counts, ChannelIdentifier channel) {
+        Integer count = counts.get(channel);
+        return count == null ? 0 : count;
+    }
+}
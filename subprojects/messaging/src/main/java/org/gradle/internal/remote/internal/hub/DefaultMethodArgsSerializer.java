@@ -16,17 +16,28 @@
 
 package org.gradle.internal.remote.internal.hub;
 
+import org.gradle.api.Nullable;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Message;
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.internal.serialize.SerializerRegistry;
 
 class DefaultMethodArgsSerializer implements MethodArgsSerializer {
     private static final Object[] ZERO_ARGS = new Object[0];
     private final SerializerRegistry serializers;
+    private final ClassLoader javaSerializationClassLoader;
 
     public DefaultMethodArgsSerializer(SerializerRegistry serializers) {
+        this(serializers, null);
+    }
+
+    /**
+     * @param javaSerializationClassLoader When not null, Java serialization is used for those parameter types that the given registry cannot serialize.
+     */
+    public DefaultMethodArgsSerializer(SerializerRegistry serializers, @Nullable ClassLoader javaSerializationClassLoader) {
         this.serializers = serializers;
+        this.javaSerializationClassLoader = javaSerializationClassLoader;
     }
 
     @Override
@@ -37,7 +48,11 @@ class DefaultMethodArgsSerializer implements MethodArgsSerializer {
         final Serializer<Object>[] serializers = new Serializer[types.length];
         for (int i = 0; i < types.length; i++) {
             Class<?> type = types[i];
-            serializers[i] = (Serializer<Object>) this.serializers.build(type);
+            if (javaSerializationClassLoader != null && !this.serializers.canSerialize(type)) {
+                serializers[i] = new JavaSerializationSerializer(javaSerializationClassLoader);
+            } else {
+                serializers[i] = (Serializer<Object>) this.serializers.build(type);
+            }
         }
         return new ArraySerializer(serializers);
     }
@@ -66,6 +81,24 @@ class DefaultMethodArgsSerializer implements MethodArgsSerializer {
         }
     }
 
+    private static class JavaSerializationSerializer implements Serializer<Object> {
+        private final ClassLoader classLoader;
+
+        JavaSerializationSerializer(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public Object read(Decoder decoder) throws Exception {
+            return Message.receive(decoder.getInputStream(), classLoader);
+        }
+
+        @Override
+        public void write(Encoder encoder, Object value) throws Exception {
+            Message.send(value, encoder.getOutputStream());
+        }
+    }
+
     private class EmptyArraySerializer implements Serializer<Object[]> {
         @Override
         public Object[] read(Decoder decoder) {
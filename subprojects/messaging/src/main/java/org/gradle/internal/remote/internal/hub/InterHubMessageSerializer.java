@@ -16,7 +16,9 @@
 
 package org.gradle.internal.remote.internal.hub;
 
+import org.gradle.internal.remote.internal.hub.protocol.ChannelCredit;
 import org.gradle.internal.remote.internal.hub.protocol.ChannelMessage;
+import org.gradle.internal.remote.internal.hub.protocol.ChannelWindow;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.ObjectReader;
@@ -33,6 +35,8 @@ import java.util.Map;
 public class InterHubMessageSerializer implements StatefulSerializer<InterHubMessage> {
     private static final byte CHANNEL_MESSAGE = 1;
     private static final byte END_STREAM_MESSAGE = 2;
+    private static final byte CHANNEL_CREDIT_MESSAGE = 3;
+    private static final byte CHANNEL_WINDOW_MESSAGE = 4;
     private final StatefulSerializer<Object> payloadSerializer;
 
     public InterHubMessageSerializer(StatefulSerializer<Object> payloadSerializer) {
@@ -67,6 +71,12 @@ public class InterHubMessageSerializer implements StatefulSerializer<InterHubMes
                     return new ChannelMessage(channelId, payload);
                 case END_STREAM_MESSAGE:
                     return new EndOfStream();
+                case CHANNEL_CREDIT_MESSAGE:
+                    ChannelIdentifier creditChannelId = readChannelId();
+                    return new ChannelCredit(creditChannelId, decoder.readSmallInt());
+                case CHANNEL_WINDOW_MESSAGE:
+                    ChannelIdentifier windowChannelId = readChannelId();
+                    return new ChannelWindow(windowChannelId, decoder.readSmallInt());
                 default:
                     throw new IllegalArgumentException();
             }
@@ -98,22 +108,32 @@ public class InterHubMessageSerializer implements StatefulSerializer<InterHubMes
             if (message instanceof ChannelMessage) {
                 ChannelMessage channelMessage = (ChannelMessage) message;
                 encoder.writeByte(CHANNEL_MESSAGE);
-                writeChannelId(channelMessage);
+                writeChannelId(channelMessage.getChannel());
                 payloadWriter.write(channelMessage.getPayload());
             } else if (message instanceof EndOfStream) {
                 encoder.writeByte(END_STREAM_MESSAGE);
+            } else if (message instanceof ChannelCredit) {
+                ChannelCredit credit = (ChannelCredit) message;
+                encoder.writeByte(CHANNEL_CREDIT_MESSAGE);
+                writeChannelId(credit.getChannel());
+                encoder.writeSmallInt(credit.getCount());
+            } else if (message instanceof ChannelWindow) {
+                ChannelWindow window = (ChannelWindow) message;
+                encoder.writeByte(CHANNEL_WINDOW_MESSAGE);
+                writeChannelId(window.getChannel());
+                encoder.writeSmallInt(window.getWindow());
             } else {
                 throw new IllegalArgumentException();
             }
         }
 
-        private void writeChannelId(ChannelMessage channelMessage) throws IOException {
-            Integer channelNum = channels.get(channelMessage.getChannel());
+        private void writeChannelId(ChannelIdentifier channel) throws IOException {
+            Integer channelNum = channels.get(channel);
             if (channelNum == null) {
                 channelNum = channels.size();
-                channels.put(channelMessage.getChannel(), channelNum);
+                channels.put(channel, channelNum);
                 encoder.writeSmallInt(channelNum);
-                encoder.writeString(channelMessage.getChannel().getName());
+                encoder.writeString(channel.getName());
             } else {
                 encoder.writeSmallInt(channelNum);
             }
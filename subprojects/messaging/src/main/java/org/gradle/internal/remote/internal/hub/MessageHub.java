@@ -26,23 +26,27 @@ import org.gradle.internal.remote.internal.Connection;
 import org.gradle.internal.remote.internal.RemoteConnection;
 import org.gradle.internal.remote.internal.hub.protocol.*;
 import org.gradle.internal.remote.internal.hub.queue.EndPointQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A multi-channel message router.
  *
- * Use {@link #getOutgoing(String, Class)} to create a {@link Dispatch} to send unicast messages on a given channel.
+ * Use {@link #getOutgoing(String, Class)} to create a {@link Dispatch} to send unicast messages on a given channel, or {@link #getOutgoing(String, Class, int)}
+ * to also limit the number of messages in flight on the channel.
  * Use {@link #addHandler(String, Object)} to create a worker for incoming messages on a given channel.
  * Use {@link #addConnection(RemoteConnection)} to attach another router to this router.
- *
- */
+ * */
 public class MessageHub implements AsyncStoppable {
     private enum State {Running, Stopping, Stopped}
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageHub.class);
     private static final Discard DISCARD = new Discard();
     private final StoppableExecutor workers;
     private final String displayName;
@@ -52,6 +56,7 @@ public class MessageHub implements AsyncStoppable {
     private final IncomingQueue incomingQueue = new IncomingQueue(lock);
     private final OutgoingQueue outgoingQueue = new OutgoingQueue(incomingQueue, lock);
     private final ConnectionSet connections = new ConnectionSet(incomingQueue, outgoingQueue);
+    private final ChannelFlowControl flowControl;
 
     /**
      * @param errorHandler Notified when some asynch. activity fails. Must be thread-safe.
@@ -60,6 +65,7 @@ public class MessageHub implements AsyncStoppable {
         this.displayName = displayName;
         this.errorHandler = errorHandler;
         workers = executorFactory.create(displayName + " workers");
+        flowControl = new ChannelFlowControl(lock);
     }
 
     /**
@@ -78,6 +84,25 @@ public class MessageHub implements AsyncStoppable {
         }
     }
 
+    /**
+     * <p>Adds a {@link Dispatch} implementation that can be used to send outgoing unicast messages on the given channel, as for {@link #getOutgoing(String, Class)}.
+     * At most {@code window} messages can be in flight on the channel before the handlers of the peer hub have handled them. Dispatching a message blocks while
+     * this limit is reached, so that a producer cannot get far ahead of a slow consumer.</p>
+     *
+     * <p>The returned value is thread-safe.</p>
+     */
+    public <T> Dispatch<T> getOutgoing(final String channelName, final Class<T> type, int window) {
+        lock.lock();
+        try {
+            assertRunning("create outgoing dispatch");
+            ChannelIdentifier identifier = new ChannelIdentifier(channelName);
+            outgoingQueue.dispatch(flowControl.limitOutgoing(identifier, window));
+            return new ChannelDispatch<T>(type, identifier);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Adds a handler for messages on the given channel. The handler may implement any of the following:
      *
@@ -121,7 +146,7 @@ public class MessageHub implements AsyncStoppable {
             }
             ChannelIdentifier identifier = new ChannelIdentifier(channelName);
             EndPointQueue queue = incomingQueue.getChannel(identifier).newEndpoint();
-            workers.execute(new Handler(queue, dispatch, boundedDispatch, rejectedMessageListener));
+            workers.execute(new Handler(identifier, queue, dispatch, boundedDispatch, rejectedMessageListener));
         } finally {
             lock.unlock();
         }
@@ -184,6 +209,7 @@ public class MessageHub implements AsyncStoppable {
                 connections.noFurtherConnections();
             } finally {
                 state = State.Stopping;
+                flowControl.disable();
             }
         } finally {
             lock.unlock();
@@ -216,6 +242,11 @@ public class MessageHub implements AsyncStoppable {
             lock.lock();
             try {
                 state = State.Stopped;
+                if (LOGGER.isDebugEnabled()) {
+                    for (Map.Entry<ChannelIdentifier, Integer> entry : incomingQueue.getMaxQueueDepths().entrySet()) {
+                        LOGGER.debug("At most {} incoming messages were queued on {} channel {}.", entry.getValue(), displayName, entry.getKey());
+                    }
+                }
             } finally {
                 lock.unlock();
             }
@@ -253,7 +284,13 @@ public class MessageHub implements AsyncStoppable {
                         }
                         lock.lock();
                         try {
-                            incomingQueue.queue(message);
+                            if (message instanceof ChannelCredit) {
+                                flowControl.creditReceived((ChannelCredit) message);
+                            } else if (message instanceof ChannelWindow) {
+                                flowControl.windowReceived((ChannelWindow) message);
+                            } else {
+                                incomingQueue.queue(message);
+                            }
                         } finally {
                             lock.unlock();
                         }
@@ -261,6 +298,8 @@ public class MessageHub implements AsyncStoppable {
                 } finally {
                     lock.lock();
                     try {
+                        // No further credit will be received from this connection, so don't block producers waiting for it
+                        flowControl.disable();
                         connectionState.receiveFinished();
                     } finally {
                         lock.unlock();
@@ -294,15 +333,24 @@ public class MessageHub implements AsyncStoppable {
                         } finally {
                             lock.unlock();
                         }
-                        for (InterHubMessage message : messages) {
-                            connection.dispatch(message);
-                            if (message instanceof EndOfStream) {
-                                connection.flush();
-                                return;
+                        while (!messages.isEmpty()) {
+                            for (InterHubMessage message : messages) {
+                                connection.dispatch(message);
+                                if (message instanceof EndOfStream) {
+                                    connection.flush();
+                                    return;
+                                }
+                            }
+                            messages.clear();
+                            // Write any messages queued while the previous batch was being written, so that a burst of messages is flushed to the connection once
+                            lock.lock();
+                            try {
+                                queue.poll(messages);
+                            } finally {
+                                lock.unlock();
                             }
                         }
                         connection.flush();
-                        messages.clear();
                     }
                 } finally {
                     lock.lock();
@@ -336,6 +384,10 @@ public class MessageHub implements AsyncStoppable {
             lock.lock();
             try {
                 assertRunning("dispatch message");
+                while (!flowControl.tryAcquire(channelIdentifier)) {
+                    flowControl.awaitCredit();
+                    assertRunning("dispatch message");
+                }
                 outgoingQueue.dispatch(new ChannelMessage(channelIdentifier, message));
             } finally {
                 lock.unlock();
@@ -344,12 +396,14 @@ public class MessageHub implements AsyncStoppable {
     }
 
     private class Handler implements Runnable {
+        private final ChannelIdentifier channel;
         private final EndPointQueue queue;
         private final Dispatch<Object> dispatch;
         private final BoundedDispatch<Object> boundedDispatch;
         private final RejectedMessageListener listener;
 
-        public Handler(EndPointQueue queue, Dispatch<Object> dispatch, BoundedDispatch<Object> boundedDispatch, RejectedMessageListener listener) {
+        public Handler(ChannelIdentifier channel, EndPointQueue queue, Dispatch<Object> dispatch, BoundedDispatch<Object> boundedDispatch, RejectedMessageListener listener) {
+            this.channel = channel;
             this.queue = queue;
             this.dispatch = dispatch;
             this.boundedDispatch = boundedDispatch;
@@ -359,10 +413,15 @@ public class MessageHub implements AsyncStoppable {
         public void run() {
             try {
                 List<InterHubMessage> messages = new ArrayList<InterHubMessage>();
+                int handled = 0;
                 try {
                     while (true) {
                         lock.lock();
                         try {
+                            if (handled > 0) {
+                                returnCredit(handled);
+                                handled = 0;
+                            }
                             queue.take(messages);
                         } finally {
                             lock.unlock();
@@ -375,6 +434,7 @@ public class MessageHub implements AsyncStoppable {
                             if (message instanceof ChannelMessage) {
                                 ChannelMessage channelMessage = (ChannelMessage) message;
                                 dispatch.dispatch(channelMessage.getPayload());
+                                handled++;
                             } else if (message instanceof RejectedMessage) {
                                 RejectedMessage rejectedMessage = (RejectedMessage) message;
                                 listener.messageDiscarded(rejectedMessage.getPayload());
@@ -396,5 +456,12 @@ public class MessageHub implements AsyncStoppable {
                 errorHandler.execute(t);
             }
         }
+
+        private void returnCredit(int handled) {
+            ChannelCredit credit = flowControl.messagesHandled(channel, handled);
+            if (credit != null && state == State.Running) {
+                outgoingQueue.dispatch(credit);
+            }
+        }
     }
 }
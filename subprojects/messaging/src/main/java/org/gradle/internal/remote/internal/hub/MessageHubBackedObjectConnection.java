@@ -37,6 +37,7 @@ public class MessageHubBackedObjectConnection implements ObjectConnection {
     private ConnectCompletion completion;
     private RemoteConnection<InterHubMessage> connection;
     private ClassLoader methodParamClassLoader;
+    private ClassLoader javaSerializationClassLoader;
     private SerializerRegistry paramSerializers;
 
     public MessageHubBackedObjectConnection(ExecutorFactory executorFactory, ConnectCompletion completion) {
@@ -51,6 +52,7 @@ public class MessageHubBackedObjectConnection implements ObjectConnection {
     @Override
     public void useJavaSerializationForParameters(ClassLoader incomingMessageClassLoader) {
         methodParamClassLoader = incomingMessageClassLoader;
+        javaSerializationClassLoader = incomingMessageClassLoader;
     }
 
     public <T> void addIncoming(Class<T> type, final T instance) {
@@ -83,7 +85,7 @@ public class MessageHubBackedObjectConnection implements ObjectConnection {
 
         MethodArgsSerializer argsSerializer;
         if (paramSerializers != null) {
-            argsSerializer = new DefaultMethodArgsSerializer(paramSerializers);
+            argsSerializer = new DefaultMethodArgsSerializer(paramSerializers, javaSerializationClassLoader);
         } else {
             argsSerializer = new JavaSerializationBackedMethodArgsSerializer(methodParamClassLoader);
         }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.remote.internal.hub.protocol;
+
+/**
+ * Sent by a hub to tell its peer that some number of messages on a channel have been handled, so that the peer may send that many more.
+ */
+public class ChannelCredit extends InterHubMessage {
+    private final ChannelIdentifier channel;
+    private final int count;
+
+    public ChannelCredit(ChannelIdentifier channel, int count) {
+        this.channel = channel;
+        this.count = count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s channel:%s, count:%s]", getClass().getSimpleName(), channel, count);
+    }
+
+    @Override
+    public Delivery getDelivery() {
+        return Delivery.SingleHandler;
+    }
+
+    public ChannelIdentifier getChannel() {
+        return channel;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
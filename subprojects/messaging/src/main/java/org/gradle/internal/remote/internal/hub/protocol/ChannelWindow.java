@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.remote.internal.hub.protocol;
+
+/**
+ * Sent by a hub to tell its peer that at most {@code window} messages may be in flight on a channel, so that the peer returns a {@link ChannelCredit}
+ * as its handlers handle the messages of the channel.
+ */
+public class ChannelWindow extends InterHubMessage {
+    private final ChannelIdentifier channel;
+    private final int window;
+
+    public ChannelWindow(ChannelIdentifier channel, int window) {
+        this.channel = channel;
+        this.window = window;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s channel:%s, window:%s]", getClass().getSimpleName(), channel, window);
+    }
+
+    @Override
+    public Delivery getDelivery() {
+        return Delivery.SingleHandler;
+    }
+
+    public ChannelIdentifier getChannel() {
+        return channel;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+}
@@ -55,6 +55,17 @@ public class EndPointQueue implements Dispatch<InterHubMessage> {
         queue.clear();
     }
 
+    /**
+     * Takes any messages that are currently queued for this endpoint, without blocking.
+     */
+    public void poll(Collection<InterHubMessage> drainTo) {
+        if (queue.isEmpty()) {
+            owner.poll(this);
+        }
+        drainTo.addAll(queue);
+        queue.clear();
+    }
+
     public void stop() {
         owner.stopped(this);
     }
@@ -43,6 +43,17 @@ public class MultiChannelQueue {
         return queue;
     }
 
+    /**
+     * Returns the largest number of messages that have been waiting for a handler at the same time, for each channel.
+     */
+    public Map<ChannelIdentifier, Integer> getMaxQueueDepths() {
+        Map<ChannelIdentifier, Integer> depths = new HashMap<ChannelIdentifier, Integer>();
+        for (Map.Entry<ChannelIdentifier, MultiEndPointQueue> entry : channels.entrySet()) {
+            depths.put(entry.getKey(), entry.getValue().getMaxQueueDepth());
+        }
+        return depths;
+    }
+
     public void queue(InterHubMessage message) {
         if (message.getDelivery() == InterHubMessage.Delivery.Stateful) {
             initializer.onStatefulMessage(message);
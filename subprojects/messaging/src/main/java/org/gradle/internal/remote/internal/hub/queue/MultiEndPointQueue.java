@@ -31,6 +31,7 @@ public class MultiEndPointQueue implements Dispatch<InterHubMessage> {
     private final List<EndPointQueue> waiting = new ArrayList<EndPointQueue>();
     private final Lock lock;
     private final QueueInitializer initializer = new QueueInitializer();
+    private int maxQueueDepth;
 
     public MultiEndPointQueue(Lock lock) {
         this.lock = lock;
@@ -38,14 +39,28 @@ public class MultiEndPointQueue implements Dispatch<InterHubMessage> {
 
     public void dispatch(InterHubMessage message) {
         queue.add(message);
+        maxQueueDepth = Math.max(maxQueueDepth, queue.size());
         flush();
     }
 
+    /**
+     * Returns the largest number of messages that have been waiting in this queue for an endpoint at the same time.
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
     void empty(EndPointQueue endPointQueue) {
         waiting.add(endPointQueue);
         flush();
     }
 
+    void poll(EndPointQueue endPointQueue) {
+        waiting.add(0, endPointQueue);
+        flush();
+        waiting.remove(endPointQueue);
+    }
+
     void stopped(EndPointQueue queue) {
         waiting.remove(queue);
         endpoints.remove(queue);
@@ -15,9 +15,12 @@
  */
 package org.gradle.internal.remote.internal.inet;
 
+import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import org.gradle.api.Nullable;
 
+import java.io.File;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,14 +30,23 @@ public class MultiChoiceAddress implements InetEndpoint {
     private final UUID canonicalAddress;
     private final int port;
     private final List<InetAddress> candidates;
+    private final File socketFile;
 
     public MultiChoiceAddress(UUID canonicalAddress, int port, List<InetAddress> candidates) {
+        this(canonicalAddress, port, candidates, null);
+    }
+
+    public MultiChoiceAddress(UUID canonicalAddress, int port, List<InetAddress> candidates, @Nullable File socketFile) {
         this.canonicalAddress = canonicalAddress;
         this.port = port;
         this.candidates = new ArrayList<InetAddress>(candidates);
+        this.socketFile = socketFile;
     }
 
     public String getDisplayName() {
+        if (socketFile != null) {
+            return "[" + canonicalAddress + " port:" + port + ", addresses:" + candidates + ", socket:" + socketFile + "]";
+        }
         return "[" + canonicalAddress + " port:" + port + ", addresses:" + candidates + "]";
     }
 
@@ -50,6 +62,15 @@ public class MultiChoiceAddress implements InetEndpoint {
         return port;
     }
 
+    /**
+     * Returns the Unix domain socket that the peer is also listening on, if any. This can be used in preference to the inet addresses when the peer
+     * is on the same machine.
+     */
+    @Nullable
+    public File getSocketFile() {
+        return socketFile;
+    }
+
     @Override
     public String toString() {
         return getDisplayName();
@@ -64,7 +85,7 @@ public class MultiChoiceAddress implements InetEndpoint {
             return false;
         }
         MultiChoiceAddress other = (MultiChoiceAddress) o;
-        return other.canonicalAddress.equals(canonicalAddress) && port == other.port && candidates.equals(other.candidates);
+        return other.canonicalAddress.equals(canonicalAddress) && port == other.port && candidates.equals(other.candidates) && Objects.equal(socketFile, other.socketFile);
     }
 
     @Override
@@ -73,6 +94,6 @@ public class MultiChoiceAddress implements InetEndpoint {
     }
 
     public MultiChoiceAddress addAddresses(Iterable<InetAddress> candidates) {
-        return new MultiChoiceAddress(canonicalAddress, port, Lists.newArrayList(Iterables.concat(candidates, this.candidates)));
+        return new MultiChoiceAddress(canonicalAddress, port, Lists.newArrayList(Iterables.concat(candidates, this.candidates)), socketFile);
     }
 }
@@ -20,6 +20,7 @@ import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.Serializer;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.util.ArrayList;
@@ -37,7 +38,8 @@ public class MultiChoiceAddressSerializer implements Serializer<MultiChoiceAddre
             InetAddress address = InetAddress.getByAddress(decoder.readBinary());
             addresses.add(address);
         }
-        return new MultiChoiceAddress(canonicalAddress, port, addresses);
+        String socketPath = decoder.readNullableString();
+        return new MultiChoiceAddress(canonicalAddress, port, addresses, socketPath == null ? null : new File(socketPath));
     }
 
     @Override
@@ -50,5 +52,6 @@ public class MultiChoiceAddressSerializer implements Serializer<MultiChoiceAddre
         for (InetAddress inetAddress : address.getCandidates()) {
             encoder.writeBinary(inetAddress.getAddress());
         }
+        encoder.writeNullableString(address.getSocketFile() == null ? null : address.getSocketFile().getPath());
     }
 }
@@ -32,6 +32,10 @@ class SocketConnectCompletion implements ConnectCompletion {
 
     @Override
     public String toString() {
+        String socketPath = UnixDomainSockets.getSocketPath(socket);
+        if (socketPath != null) {
+            return new UnixDomainSocketAddress(socketPath).getDisplayName();
+        }
         return socket.socket().getLocalSocketAddress() + " to " + socket.socket().getRemoteSocketAddress();
     }
 
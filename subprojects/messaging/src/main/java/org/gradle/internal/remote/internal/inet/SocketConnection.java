@@ -19,6 +19,7 @@ package org.gradle.internal.remote.internal.inet;
 import com.google.common.base.Objects;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.remote.Address;
 import org.gradle.internal.serialize.FlushableEncoder;
 import org.gradle.internal.serialize.ObjectReader;
 import org.gradle.internal.serialize.ObjectWriter;
@@ -40,8 +41,8 @@ import java.nio.channels.SocketChannel;
 public class SocketConnection<T> implements RemoteConnection<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(SocketConnection.class);
     private final SocketChannel socket;
-    private final SocketInetAddress localAddress;
-    private final SocketInetAddress remoteAddress;
+    private final Address localAddress;
+    private final Address remoteAddress;
     private final ObjectWriter<T> objectWriter;
     private final ObjectReader<T> objectReader;
     private final InputStream instr;
@@ -54,15 +55,23 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             // NOTE: we use non-blocking IO as there is no reliable way when using blocking IO to shutdown reads while
             // keeping writes active. For example, Socket.shutdownInput() does not work on Windows.
             socket.configureBlocking(false);
+            String socketPath = UnixDomainSockets.getSocketPath(socket);
+            if (socketPath != null) {
+                localAddress = new UnixDomainSocketAddress(socketPath);
+                remoteAddress = localAddress;
+            } else {
+                // Messages are coalesced before being written, so don't delay small writes any further
+                socket.socket().setTcpNoDelay(true);
+                InetSocketAddress localSocketAddress = (InetSocketAddress) socket.socket().getLocalSocketAddress();
+                localAddress = new SocketInetAddress(localSocketAddress.getAddress(), localSocketAddress.getPort());
+                InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
+                remoteAddress = new SocketInetAddress(remoteSocketAddress.getAddress(), remoteSocketAddress.getPort());
+            }
             outstr = new SocketOutputStream(socket);
             instr = new SocketInputStream(socket);
         } catch (IOException e) {
             throw UncheckedException.throwAsUncheckedException(e);
         }
-        InetSocketAddress localSocketAddress = (InetSocketAddress) socket.socket().getLocalSocketAddress();
-        localAddress = new SocketInetAddress(localSocketAddress.getAddress(), localSocketAddress.getPort());
-        InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
-        remoteAddress = new SocketInetAddress(remoteSocketAddress.getAddress(), remoteSocketAddress.getPort());
         objectReader = messageSerializer.newReader(streamSerializer.newDecoder(instr));
         encoder = streamSerializer.newEncoder(outstr);
         objectWriter = messageSerializer.newWriter(encoder);
@@ -141,7 +150,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             this.socket = socket;
             selector = Selector.open();
             socket.register(selector, SelectionKey.OP_READ);
-            buffer = ByteBuffer.allocateDirect(4096);
+            buffer = ByteBuffer.allocateDirect(32 * 1024);
             buffer.limit(0);
         }
 
@@ -161,21 +170,27 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             }
 
             if (buffer.remaining() == 0) {
-                try {
-                    selector.select();
-                } catch (ClosedSelectorException e) {
-                    return -1;
-                }
-                if (!selector.isOpen()) {
-                    return -1;
-                }
-
                 buffer.clear();
                 int nread;
                 try {
+                    // Try to read before waiting, as there is usually more data available when a burst of messages is received
                     nread = socket.read(buffer);
+                    while (nread == 0) {
+                        try {
+                            selector.select();
+                        } catch (ClosedSelectorException e) {
+                            buffer.limit(0);
+                            return -1;
+                        }
+                        if (!selector.isOpen()) {
+                            buffer.limit(0);
+                            return -1;
+                        }
+                        selector.selectedKeys().clear();
+                        nread = socket.read(buffer);
+                    }
                 } catch (IOException e) {
-                    if (isEndOfStream(e)) {
+                    if (isEndOfStream(e) || !selector.isOpen()) {
                         buffer.position(0);
                         buffer.limit(0);
                         return -1;
@@ -201,7 +216,6 @@ public class SocketConnection<T> implements RemoteConnection<T> {
     }
 
     private static class SocketOutputStream extends OutputStream {
-        private static final int RETRIES_WHEN_BUFFER_FULL = 2;
         private Selector selector;
         private final SocketChannel socket;
         private final ByteBuffer buffer;
@@ -244,40 +258,29 @@ public class SocketConnection<T> implements RemoteConnection<T> {
 
         private void writeBufferToChannel() throws IOException {
             buffer.flip();
-            int count = writeWithNonBlockingRetry();
-            if (count == 0) {
-                // buffer was still full after non-blocking retries, now block
-                waitForWriteBufferToDrain();
-            }
-            buffer.compact();
-        }
-
-        private int writeWithNonBlockingRetry() throws IOException {
-            int count = 0;
-            int retryCount = 0;
-            while (count == 0 && retryCount++ < RETRIES_WHEN_BUFFER_FULL) {
-                count = socket.write(buffer);
+            while (true) {
+                int count = socket.write(buffer);
                 if (count < 0) {
                     throw new EOFException();
-                } else if (count == 0) {
-                    // buffer was full, just call Thread.yield
-                    Thread.yield();
                 }
+                if (count > 0 || !buffer.hasRemaining()) {
+                    break;
+                }
+                // Socket send buffer is full, park until the peer has drained it
+                waitForWriteBufferToDrain();
             }
-            return count;
+            buffer.compact();
         }
 
         private void waitForWriteBufferToDrain() throws IOException {
             if (selector == null) {
                 selector = Selector.open();
+                // Stay registered, as cancelling the key requires another select operation to complete
+                socket.register(selector, SelectionKey.OP_WRITE);
             }
-            SelectionKey key = socket.register(selector, SelectionKey.OP_WRITE);
             // block until ready for write operations
             selector.select();
-            // cancel OP_WRITE selection
-            key.cancel();
-            // complete cancelling key
-            selector.selectNow();
+            selector.selectedKeys().clear();
         }
 
         @Override
@@ -17,6 +17,7 @@
 package org.gradle.internal.remote.internal.inet;
 
 import org.gradle.api.Action;
+import org.gradle.api.Nullable;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.ExecutorFactory;
@@ -29,6 +30,7 @@ import org.gradle.internal.remote.internal.IncomingConnector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.nio.channels.ClosedChannelException;
@@ -42,11 +44,21 @@ public class TcpIncomingConnector implements IncomingConnector {
     private final ExecutorFactory executorFactory;
     private final InetAddressFactory addressFactory;
     private final IdGenerator<UUID> idGenerator;
+    private final UnixDomainSocketFiles socketFiles;
 
     public TcpIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory addressFactory, IdGenerator<UUID> idGenerator) {
+        this(executorFactory, addressFactory, idGenerator, null);
+    }
+
+    /**
+     * @param socketDir The directory in which to create Unix domain socket files for local connections, or null to use only TCP. This directory
+     * should be owned by Gradle, as socket files left behind by processes that have exited are removed from it.
+     */
+    public TcpIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory addressFactory, IdGenerator<UUID> idGenerator, @Nullable File socketDir) {
         this.executorFactory = executorFactory;
         this.addressFactory = addressFactory;
         this.idGenerator = idGenerator;
+        this.socketFiles = socketDir == null ? null : new UnixDomainSocketFiles(socketDir);
     }
 
     public ConnectionAcceptor accept(Action<ConnectCompletion> action, boolean allowRemote) {
@@ -62,11 +74,17 @@ public class TcpIncomingConnector implements IncomingConnector {
 
         UUID id = idGenerator.generateId();
         List<InetAddress> addresses = allowRemote ? addressFactory.findRemoteAddresses() : addressFactory.findLocalAddresses();
-        final Address address = new MultiChoiceAddress(id, localPort, addresses);
+        final UnixDomainSocketFiles.SocketFile socketFile = allowRemote ? null : allocateSocketFile(id);
+        final ServerSocketChannel localServerSocket = socketFile == null ? null : bindLocalSocket(socketFile);
+        final Address address = new MultiChoiceAddress(id, localPort, addresses, localServerSocket == null ? null : socketFile.getFile());
         LOGGER.debug("Listening on {}.", address);
 
         final StoppableExecutor executor = executorFactory.create("Incoming " + (allowRemote ? "remote" : "local")+ " TCP Connector on port " + localPort);
         executor.execute(new Receiver(serverSocket, action, allowRemote));
+        if (localServerSocket != null) {
+            // Peers connecting via the Unix domain socket are always on this machine
+            executor.execute(new Receiver(localServerSocket, action, true));
+        }
 
         return new ConnectionAcceptor() {
             public Address getAddress() {
@@ -74,7 +92,7 @@ public class TcpIncomingConnector implements IncomingConnector {
             }
 
             public void requestStop() {
-                CompositeStoppable.stoppable(serverSocket).stop();
+                CompositeStoppable.stoppable(serverSocket, localServerSocket, socketFile).stop();
             }
 
             public void stop() {
@@ -84,6 +102,30 @@ public class TcpIncomingConnector implements IncomingConnector {
         };
     }
 
+    @Nullable
+    private UnixDomainSocketFiles.SocketFile allocateSocketFile(UUID id) {
+        if (socketFiles == null || !UnixDomainSockets.isAvailable()) {
+            return null;
+        }
+        try {
+            return socketFiles.allocate(id);
+        } catch (Exception e) {
+            LOGGER.debug("Could not create Unix domain socket file in {}, using TCP only.", socketFiles.getDir(), e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private ServerSocketChannel bindLocalSocket(UnixDomainSocketFiles.SocketFile socketFile) {
+        try {
+            return UnixDomainSockets.bind(socketFile.getFile());
+        } catch (Exception e) {
+            LOGGER.debug("Could not listen on Unix domain socket {}, using TCP only.", socketFile.getFile(), e);
+            socketFile.close();
+            return null;
+        }
+    }
+
     private class Receiver implements Runnable {
         private final ServerSocketChannel serverSocket;
         private final Action<ConnectCompletion> action;
@@ -100,14 +142,16 @@ public class TcpIncomingConnector implements IncomingConnector {
                 try {
                     while (true) {
                         final SocketChannel socket = serverSocket.accept();
-                        InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
-                        InetAddress remoteInetAddress = remoteSocketAddress.getAddress();
-                        if (!allowRemote && !addressFactory.isLocal(remoteInetAddress)) {
-                            LOGGER.error("Cannot accept connection from remote address {}.", remoteInetAddress);
-                            socket.close();
-                            continue;
+                        if (!allowRemote) {
+                            InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
+                            InetAddress remoteInetAddress = remoteSocketAddress.getAddress();
+                            if (!addressFactory.isLocal(remoteInetAddress)) {
+                                LOGGER.error("Cannot accept connection from remote address {}.", remoteInetAddress);
+                                socket.close();
+                                continue;
+                            }
                         }
-                        LOGGER.debug("Accepted connection from {} to {}.", socket.socket().getRemoteSocketAddress(), socket.socket().getLocalSocketAddress());
+                        LOGGER.debug("Accepted connection on {}.", new SocketConnectCompletion(socket));
                         try {
                             action.execute(new SocketConnectCompletion(socket));
                         } catch (Throwable t) {
@@ -23,6 +23,7 @@ import org.gradle.internal.remote.internal.OutgoingConnector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.*;
 import java.nio.channels.SocketChannel;
@@ -39,6 +40,20 @@ public class TcpOutgoingConnector implements OutgoingConnector {
         InetEndpoint address = (InetEndpoint) destinationAddress;
         LOGGER.debug("Attempting to connect to {}.", address);
 
+        // Prefer the peer's Unix domain socket, when it has one and it is on this machine
+        if (address instanceof MultiChoiceAddress) {
+            File socketFile = ((MultiChoiceAddress) address).getSocketFile();
+            if (socketFile != null && UnixDomainSockets.isAvailable() && socketFile.exists()) {
+                try {
+                    SocketChannel socketChannel = UnixDomainSockets.connect(socketFile);
+                    LOGGER.debug("Connected to Unix domain socket {}.", socketFile);
+                    return new SocketConnectCompletion(socketChannel);
+                } catch (IOException e) {
+                    LOGGER.debug("Cannot connect to Unix domain socket {}, using TCP instead.", socketFile);
+                }
+            }
+        }
+
         // Try each address in turn. Not all of them are necessarily reachable (eg when socket option IPV6_V6ONLY
         // is on - the default for debian and others), so we will try each of them until we can connect
         List<InetAddress> candidateAddresses = address.getCandidates();
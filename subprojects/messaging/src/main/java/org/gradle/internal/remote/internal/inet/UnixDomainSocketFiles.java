@@ -0,0 +1,142 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The Unix domain socket files in a directory owned by Gradle. While a process listens on a socket file, it holds a lock on a lock file next to it.
+ * The lock is released by the operating system when the process exits, so the socket files left behind by a process that crashed or was killed can be
+ * recognized and removed. This is done the first time a socket file is allocated.
+ */
+class UnixDomainSocketFiles {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnixDomainSocketFiles.class);
+    private static final String PREFIX = "gradle-";
+    private static final String SOCKET_SUFFIX = ".sock";
+    private static final String LOCK_SUFFIX = ".lock";
+
+    private final File dir;
+    private final AtomicBoolean staleFilesRemoved = new AtomicBoolean();
+
+    UnixDomainSocketFiles(File dir) {
+        this.dir = dir;
+    }
+
+    File getDir() {
+        return dir;
+    }
+
+    /**
+     * Allocates a socket file for the given id. The socket file is locked until the returned object is closed.
+     */
+    SocketFile allocate(UUID id) throws IOException {
+        if (staleFilesRemoved.compareAndSet(false, true)) {
+            removeStaleFiles();
+        }
+        dir.mkdirs();
+
+        // Keep the path short, as the maximum length of a socket path is around 100 characters
+        String name = PREFIX + Long.toHexString(id.getMostSignificantBits());
+        File socketFile = new File(dir, name + SOCKET_SUFFIX);
+        File lockFile = new File(dir, name + LOCK_SUFFIX);
+        RandomAccessFile lockFileAccess = new RandomAccessFile(lockFile, "rw");
+        FileLock lock = lockFileAccess.getChannel().tryLock();
+        if (lock == null) {
+            lockFileAccess.close();
+            throw new IOException(String.format("Socket file %s is in use by another process.", socketFile));
+        }
+        socketFile.delete();
+        return new SocketFile(socketFile, lockFile, lockFileAccess);
+    }
+
+    /**
+     * Removes the socket files whose lock is not held by any process.
+     */
+    void removeStaleFiles() {
+        File[] lockFiles = dir.listFiles(new FileFilter() {
+            public boolean accept(File file) {
+                return file.getName().startsWith(PREFIX) && file.getName().endsWith(LOCK_SUFFIX);
+            }
+        });
+        if (lockFiles == null) {
+            return;
+        }
+        for (File lockFile : lockFiles) {
+            String name = lockFile.getName().substring(0, lockFile.getName().length() - LOCK_SUFFIX.length());
+            File socketFile = new File(dir, name + SOCKET_SUFFIX);
+            try {
+                if (isStale(lockFile)) {
+                    LOGGER.debug("Removing stale socket file {}.", socketFile);
+                    socketFile.delete();
+                    lockFile.delete();
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Could not check whether socket file {} is stale.", socketFile, e);
+            }
+        }
+    }
+
+    private static boolean isStale(File lockFile) throws IOException {
+        RandomAccessFile lockFileAccess = new RandomAccessFile(lockFile, "rw");
+        try {
+            return lockFileAccess.getChannel().tryLock() != null;
+        } catch (OverlappingFileLockException e) {
+            // Held by this process
+            return false;
+        } finally {
+            lockFileAccess.close();
+        }
+    }
+
+    static class SocketFile implements Closeable {
+        private final File file;
+        private final File lockFile;
+        private final RandomAccessFile lockFileAccess;
+
+        SocketFile(File file, File lockFile, RandomAccessFile lockFileAccess) {
+            this.file = file;
+            this.lockFile = lockFile;
+            this.lockFileAccess = lockFileAccess;
+        }
+
+        File getFile() {
+            return file;
+        }
+
+        /**
+         * Removes the socket file and releases its lock.
+         */
+        public void close() {
+            file.delete();
+            CompositeStoppable.stoppable(lockFileAccess).stop();
+            lockFile.delete();
+        }
+    }
+}
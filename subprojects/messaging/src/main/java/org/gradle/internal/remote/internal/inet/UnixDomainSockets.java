@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.UncheckedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.SocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Creates Unix domain socket channels. These are supported by the JVM from Java 16, so are accessed reflectively. When not supported, {@link #isAvailable()}
+ * returns false and callers should use TCP instead.
+ */
+class UnixDomainSockets {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnixDomainSockets.class);
+    private static final UnixDomainSockets INSTANCE = create();
+
+    private final Object protocolFamily;
+    private final Class<?> addressType;
+    private final Method createAddress;
+    private final Method openServerChannel;
+    private final Method openChannel;
+    private final Method bind;
+    private final Method localAddress;
+    private final Method remoteAddress;
+
+    private UnixDomainSockets(Object protocolFamily, Class<?> addressType, Method createAddress, Method openServerChannel, Method openChannel, Method bind, Method localAddress, Method remoteAddress) {
+        this.protocolFamily = protocolFamily;
+        this.addressType = addressType;
+        this.createAddress = createAddress;
+        this.openServerChannel = openServerChannel;
+        this.openChannel = openChannel;
+        this.bind = bind;
+        this.localAddress = localAddress;
+        this.remoteAddress = remoteAddress;
+    }
+
+    @Nullable
+    private static UnixDomainSockets create() {
+        try {
+            Class<?> protocolFamilyType = Class.forName("java.net.ProtocolFamily");
+            Class<? extends Enum> standardFamilies = Class.forName("java.net.StandardProtocolFamily").asSubclass(Enum.class);
+            Object unix = Enum.valueOf(standardFamilies, "UNIX");
+            Class<?> addressType = Class.forName("java.net.UnixDomainSocketAddress");
+            return new UnixDomainSockets(
+                unix,
+                addressType,
+                addressType.getMethod("of", String.class),
+                ServerSocketChannel.class.getMethod("open", protocolFamilyType),
+                SocketChannel.class.getMethod("open", protocolFamilyType),
+                ServerSocketChannel.class.getMethod("bind", SocketAddress.class),
+                SocketChannel.class.getMethod("getLocalAddress"),
+                SocketChannel.class.getMethod("getRemoteAddress"));
+        } catch (Exception e) {
+            LOGGER.debug("Unix domain sockets are not available in this JVM.");
+            return null;
+        }
+    }
+
+    static boolean isAvailable() {
+        return INSTANCE != null;
+    }
+
+    /**
+     * Creates a server channel that listens on the given socket file.
+     */
+    static ServerSocketChannel bind(File socketFile) throws IOException {
+        UnixDomainSockets sockets = get();
+        ServerSocketChannel channel = (ServerSocketChannel) sockets.invoke(sockets.openServerChannel, null, sockets.protocolFamily);
+        try {
+            sockets.invoke(sockets.bind, channel, sockets.address(socketFile));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    /**
+     * Connects to the server channel listening on the given socket file.
+     */
+    static SocketChannel connect(File socketFile) throws IOException {
+        UnixDomainSockets sockets = get();
+        SocketChannel channel = (SocketChannel) sockets.invoke(sockets.openChannel, null, sockets.protocolFamily);
+        try {
+            channel.connect((SocketAddress) sockets.address(socketFile));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    /**
+     * Returns the socket file of the given channel, or null when the channel is not a Unix domain socket channel.
+     */
+    @Nullable
+    static String getSocketPath(SocketChannel channel) {
+        if (INSTANCE == null) {
+            return null;
+        }
+        try {
+            Object address = INSTANCE.invoke(INSTANCE.localAddress, channel);
+            if (!INSTANCE.addressType.isInstance(address)) {
+                return null;
+            }
+            if (address.toString().length() == 0) {
+                // The connecting side of a channel is not bound to a file
+                address = INSTANCE.invoke(INSTANCE.remoteAddress, channel);
+            }
+            return address.toString();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static UnixDomainSockets get() {
+        if (INSTANCE == null) {
+            throw new UnsupportedOperationException("Unix domain sockets are not available in this JVM.");
+        }
+        return INSTANCE;
+    }
+
+    private Object address(File socketFile) throws IOException {
+        return invoke(createAddress, null, socketFile.getAbsolutePath());
+    }
+
+    private Object invoke(Method method, @Nullable Object target, Object... args) throws IOException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
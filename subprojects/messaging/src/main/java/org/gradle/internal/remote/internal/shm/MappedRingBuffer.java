@@ -0,0 +1,275 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.shm;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.UncheckedException;
+
+import sun.misc.Unsafe;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single producer, single consumer queue of byte records, held in a memory mapped file so that it can be shared between processes on the same machine.
+ * One process creates the buffer using {@link #create(File, int)} and the other opens it using {@link #open(File)}. One side may then only call
+ * {@link #write(byte[], int, int)}, and the other side may only call {@link #read()}.
+ *
+ * <p>The file starts with a header that holds the total number of bytes written and read so far, followed by the records. Each record is an
+ * int length followed by the content, padded to a multiple of 4 bytes. The write position is only updated after the record content is written,
+ * so that the reader never sees a partial record. The positions are shared with the other process, so the usual Java memory model guarantees
+ * do not apply to them. They are accessed directly in memory using ordered stores and volatile loads, which keep them ordered with the record content on
+ * any CPU. As they are accessed in native byte order, the header is only portable between processes on the same machine.</p>
+ *
+ * <p>Either side can close the buffer. After that, writes are rejected, so the writer can fall back to some other transport.</p>
+ */
+public class MappedRingBuffer implements Closeable {
+    private static final int MAGIC = 0x47524231;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int WRITE_POSITION_OFFSET = 8;
+    // Keep the read position on a different cache line to the write position
+    private static final int READ_POSITION_OFFSET = 64;
+    private static final int CLOSED_OFFSET = 72;
+    private static final int DATA_OFFSET = 128;
+    private static final int RECORD_HEADER_SIZE = 4;
+    private static final long WRITE_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final Unsafe UNSAFE;
+    private static final long BUFFER_ADDRESS_OFFSET;
+
+    static {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            UNSAFE = (Unsafe) field.get(null);
+            BUFFER_ADDRESS_OFFSET = UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final ByteBuffer writeBuffer;
+    private final ByteBuffer readBuffer;
+    private final int capacity;
+    private final int mask;
+    private final long address;
+    private long writePosition;
+    private long readPosition;
+    private boolean unmapped;
+
+    private MappedRingBuffer(File file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = buffer.getInt(CAPACITY_OFFSET);
+        this.mask = capacity - 1;
+        this.writeBuffer = buffer.duplicate();
+        this.readBuffer = buffer.duplicate();
+        this.address = UNSAFE.getLong(buffer, BUFFER_ADDRESS_OFFSET);
+        this.writePosition = UNSAFE.getLongVolatile(null, address + WRITE_POSITION_OFFSET);
+        this.readPosition = UNSAFE.getLongVolatile(null, address + READ_POSITION_OFFSET);
+    }
+
+    /**
+     * Creates a new, empty buffer in the given file. The capacity is rounded up to a power of 2.
+     */
+    public static MappedRingBuffer create(File file, int capacity) {
+        int dataSize = Integer.highestOneBit(Math.max(capacity, 1024) - 1) << 1;
+        MappedByteBuffer buffer = map(file, DATA_OFFSET + dataSize);
+        buffer.putInt(CAPACITY_OFFSET, dataSize);
+        buffer.putLong(WRITE_POSITION_OFFSET, 0);
+        buffer.putLong(READ_POSITION_OFFSET, 0);
+        buffer.putInt(CLOSED_OFFSET, 0);
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.force();
+        return new MappedRingBuffer(file, buffer);
+    }
+
+    /**
+     * Creates a new, empty buffer in a temporary file. Uses a memory backed file system where one is available, so that the buffer content is never
+     * written to disk. The caller is responsible for deleting the file.
+     */
+    public static MappedRingBuffer createTemporary(String prefix, int capacity) {
+        File sharedMemoryDir = new File("/dev/shm");
+        try {
+            File file = File.createTempFile(prefix, ".buffer", sharedMemoryDir.isDirectory() && sharedMemoryDir.canWrite() ? sharedMemoryDir : null);
+            return create(file, capacity);
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    /**
+     * Opens a buffer previously created using {@link #create(File, int)}.
+     */
+    public static MappedRingBuffer open(File file) {
+        MappedByteBuffer buffer = map(file, file.length());
+        if (buffer.capacity() < DATA_OFFSET || buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+            throw new IllegalArgumentException(String.format("File %s does not contain a ring buffer.", file));
+        }
+        return new MappedRingBuffer(file, buffer);
+    }
+
+    private static MappedByteBuffer map(File file, long size) {
+        try {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                // The mapping remains valid after the file is closed
+                return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } finally {
+                randomAccessFile.close();
+            }
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the largest record that can be written to this buffer.
+     */
+    public int getMaxRecordSize() {
+        return capacity - RECORD_HEADER_SIZE;
+    }
+
+    /**
+     * Appends a record to this buffer, blocking while there is not enough space for it.
+     *
+     * @return true if the record was written, false if the record is larger than {@link #getMaxRecordSize()} or the buffer has been closed.
+     */
+    public boolean write(byte[] bytes, int offset, int length) {
+        int recordSize = recordSize(length);
+        if (recordSize > capacity) {
+            return false;
+        }
+        while (true) {
+            if (isClosed()) {
+                return false;
+            }
+            // Do not overwrite the space of a record before the reader has finished with it
+            long readPosition = UNSAFE.getLongVolatile(null, address + READ_POSITION_OFFSET);
+            if (writePosition + recordSize - readPosition <= capacity) {
+                break;
+            }
+            LockSupport.parkNanos(WRITE_WAIT_NANOS);
+        }
+
+        int index = (int) (writePosition & mask);
+        writeBuffer.putInt(DATA_OFFSET + index, length);
+        index = (index + RECORD_HEADER_SIZE) & mask;
+        int firstPart = Math.min(length, capacity - index);
+        writeBuffer.position(DATA_OFFSET + index);
+        writeBuffer.put(bytes, offset, firstPart);
+        if (firstPart < length) {
+            writeBuffer.position(DATA_OFFSET);
+            writeBuffer.put(bytes, offset + firstPart, length - firstPart);
+        }
+
+        writePosition += recordSize;
+        // Make the record content visible before the new write position
+        UNSAFE.putOrderedLong(null, address + WRITE_POSITION_OFFSET, writePosition);
+        return true;
+    }
+
+    /**
+     * Removes the next record from this buffer, if any. Does not block.
+     *
+     * @return the record, or null if there are no records available.
+     */
+    @Nullable
+    public byte[] read() {
+        // Do not read the record content before the write position
+        long writePosition = UNSAFE.getLongVolatile(null, address + WRITE_POSITION_OFFSET);
+        if (writePosition == readPosition) {
+            return null;
+        }
+
+        int index = (int) (readPosition & mask);
+        int length = readBuffer.getInt(DATA_OFFSET + index);
+        byte[] bytes = new byte[length];
+        index = (index + RECORD_HEADER_SIZE) & mask;
+        int firstPart = Math.min(length, capacity - index);
+        readBuffer.position(DATA_OFFSET + index);
+        readBuffer.get(bytes, 0, firstPart);
+        if (firstPart < length) {
+            readBuffer.position(DATA_OFFSET);
+            readBuffer.get(bytes, firstPart, length - firstPart);
+        }
+
+        readPosition += recordSize(length);
+        // Finish reading the record content before the writer can reuse the space
+        UNSAFE.putOrderedLong(null, address + READ_POSITION_OFFSET, readPosition);
+        return bytes;
+    }
+
+    public boolean isClosed() {
+        return UNSAFE.getIntVolatile(null, address + CLOSED_OFFSET) != 0;
+    }
+
+    /**
+     * Marks this buffer as closed. Any further writes, from either side, are rejected. Records already written can still be read.
+     */
+    @Override
+    public void close() {
+        UNSAFE.putIntVolatile(null, address + CLOSED_OFFSET, 1);
+    }
+
+    /**
+     * Releases the mapping of the file into memory, so that the file can be deleted on platforms that do not allow mapped files to be deleted.
+     * This buffer must not be used afterwards, and no other thread may be using it, as accessing unmapped memory crashes the JVM.
+     */
+    public void unmap() {
+        if (unmapped) {
+            return;
+        }
+        unmapped = true;
+        try {
+            try {
+                // Java 9 and later
+                Method invokeCleaner = Unsafe.class.getMethod("invokeCleaner", ByteBuffer.class);
+                invokeCleaner.invoke(UNSAFE, buffer);
+            } catch (NoSuchMethodException e) {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static int recordSize(int length) {
+        return RECORD_HEADER_SIZE + ((length + 3) & ~3);
+    }
+}
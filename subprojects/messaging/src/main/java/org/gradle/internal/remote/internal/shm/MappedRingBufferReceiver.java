@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.shm;
+
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.dispatch.Dispatch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Delivers the records written to a {@link MappedRingBuffer} to a {@link Dispatch}, in the order they were written.
+ *
+ * <p>Records are delivered by a background thread, which polls the buffer and backs off while it is idle. Records can also be delivered
+ * synchronously using {@link #drain()}. The writer can use this to order the records with messages sent through some other channel,
+ * such as a socket: if the receiver of such a message calls {@link #drain()} before handling the message, then every record written
+ * before the message was sent is delivered before the message is handled.</p>
+ */
+public class MappedRingBufferReceiver implements Stoppable {
+    private static final long MIN_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long MAX_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final MappedRingBuffer buffer;
+    private final Dispatch<byte[]> dispatch;
+    private final Lock lock = new ReentrantLock();
+    private final StoppableExecutor executor;
+    private volatile boolean stopped;
+
+    public MappedRingBufferReceiver(MappedRingBuffer buffer, Dispatch<byte[]> dispatch, ExecutorFactory executorFactory) {
+        this.buffer = buffer;
+        this.dispatch = dispatch;
+        executor = executorFactory.create("Receive " + buffer.getFile().getName());
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                receive();
+            }
+        });
+    }
+
+    /**
+     * Delivers all records that have been written so far.
+     */
+    public void drain() {
+        lock.lock();
+        try {
+            deliverAvailable();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Delivers all records that have been written so far, then runs the given action before any further records are delivered.
+     */
+    public void drainThen(Runnable action) {
+        lock.lock();
+        try {
+            deliverAvailable();
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean deliverAvailable() {
+        boolean delivered = false;
+        byte[] record;
+        while ((record = buffer.read()) != null) {
+            dispatch.dispatch(record);
+            delivered = true;
+        }
+        return delivered;
+    }
+
+    private void receive() {
+        long pollNanos = MIN_POLL_NANOS;
+        while (!stopped) {
+            boolean delivered;
+            lock.lock();
+            try {
+                delivered = deliverAvailable();
+            } finally {
+                lock.unlock();
+            }
+            pollNanos = delivered ? MIN_POLL_NANOS : Math.min(pollNanos * 2, MAX_POLL_NANOS);
+            LockSupport.parkNanos(pollNanos);
+        }
+    }
+
+    /**
+     * Closes the buffer, stops the background thread and delivers any remaining records. The writer should have finished writing before this is called.
+     * Does not delete the buffer's file.
+     */
+    @Override
+    public void stop() {
+        buffer.close();
+        stopped = true;
+        executor.stop();
+        drain();
+    }
+}
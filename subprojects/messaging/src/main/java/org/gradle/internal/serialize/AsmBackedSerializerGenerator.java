@@ -0,0 +1,429 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.serialize;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.gradle.internal.Cast;
+import org.gradle.internal.UncheckedException;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates {@link Serializer} implementations for bean style protocol types, so that values of these types can be sent between processes
+ * without using reflection or Java serialization.
+ *
+ * <p>A type is supported when it is a public concrete class with a public no-args constructor. Each property with a public getter and a public
+ * setter is written, in order of property name. Primitive and {@link String} properties are written inline. The serializer for any other property
+ * type is looked up from the given {@link SerializerRegistry} the first time a value is written or read. When the property type is not final, the
+ * runtime type of each value is written too, and writing a value of a type that the registry has no serializer for fails. Values are written as a
+ * tree, so shared references are not preserved and cyclic references are not supported.</p>
+ */
+class AsmBackedSerializerGenerator {
+    private static final String SERIALIZER_TYPE = Type.getInternalName(Serializer.class);
+    private static final String ENCODER_TYPE = Type.getInternalName(Encoder.class);
+    private static final String DECODER_TYPE = Type.getInternalName(Decoder.class);
+    private static final String OBJECT_TYPE = Type.getInternalName(Object.class);
+    private static final String SERIALIZERS_FIELD = "serializers";
+    private static final String SERIALIZERS_FIELD_DESCRIPTOR = Type.getDescriptor(Serializer[].class);
+
+    private final Cache<Class<?>, Class<?>> generatedTypes = CacheBuilder.newBuilder().weakKeys().weakValues().build();
+
+    public <T> Serializer<T> generate(final Class<T> type, DefaultSerializerRegistry registry) {
+        final List<PropertyDetails> properties = inspect(type);
+        Class<?> serializerType;
+        try {
+            serializerType = generatedTypes.get(type, new Callable<Class<?>>() {
+                @Override
+                public Class<?> call() {
+                    return generateType(type, properties);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+
+        Serializer<?>[] serializers = new Serializer<?>[properties.size()];
+        for (int i = 0; i < serializers.length; i++) {
+            PropertyDetails property = properties.get(i);
+            if (!property.isInline()) {
+                serializers[i] = new RegistryLookupSerializer<Object>(Cast.<Class<Object>>uncheckedCast(property.type), registry);
+            }
+        }
+        try {
+            return Cast.uncheckedCast(serializerType.getConstructor(Serializer[].class).newInstance(new Object[]{serializers}));
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static List<PropertyDetails> inspect(Class<?> type) {
+        if (!Modifier.isPublic(type.getModifiers()) || Modifier.isAbstract(type.getModifiers()) || type.isArray() || type.isPrimitive() || type.isEnum()) {
+            throw new IllegalArgumentException(String.format("Cannot generate a serializer for type %s as it is not a public concrete class.", type.getName()));
+        }
+        try {
+            type.getConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(String.format("Cannot generate a serializer for type %s as it does not have a public no-args constructor.", type.getName()));
+        }
+
+        Map<String, PropertyDetails> properties = new TreeMap<String, PropertyDetails>();
+        for (Method getter : type.getMethods()) {
+            if (Modifier.isStatic(getter.getModifiers()) || getter.isSynthetic() || getter.getDeclaringClass().equals(Object.class) || getter.getParameterTypes().length != 0) {
+                continue;
+            }
+            String propertyName;
+            if (getter.getName().startsWith("get") && getter.getName().length() > 3 && !getter.getReturnType().equals(Void.TYPE)) {
+                propertyName = getter.getName().substring(3);
+            } else if (getter.getName().startsWith("is") && getter.getName().length() > 2 && getter.getReturnType().equals(Boolean.TYPE)) {
+                propertyName = getter.getName().substring(2);
+            } else {
+                continue;
+            }
+            Method setter;
+            try {
+                setter = type.getMethod("set" + propertyName, getter.getReturnType());
+            } catch (NoSuchMethodException e) {
+                // Read-only property, treat as derived state
+                continue;
+            }
+            if (Modifier.isStatic(setter.getModifiers()) || setter.isSynthetic()) {
+                continue;
+            }
+            properties.put(propertyName, new PropertyDetails(getter.getReturnType(), getter, setter));
+        }
+        return new ArrayList<PropertyDetails>(properties.values());
+    }
+
+    private static Class<?> generateType(Class<?> type, List<PropertyDetails> properties) {
+        String typeName = type.getName() + "$$Serializer";
+        String generatedType = typeName.replace('.', '/');
+        String targetType = Type.getInternalName(type);
+
+        ClassWriter visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        visitor.visit(V1_5, ACC_PUBLIC | ACC_FINAL | ACC_SYNTHETIC, generatedType, null, OBJECT_TYPE, new String[]{SERIALIZER_TYPE});
+        visitor.visitField(ACC_PRIVATE | ACC_FINAL, SERIALIZERS_FIELD, SERIALIZERS_FIELD_DESCRIPTOR, null, null).visitEnd();
+
+        // public <init>(Serializer[] serializers)
+        MethodVisitor methodVisitor = visitor.visitMethod(ACC_PUBLIC, "<init>", "(" + SERIALIZERS_FIELD_DESCRIPTOR + ")V", null, null);
+        methodVisitor.visitCode();
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitMethodInsn(INVOKESPECIAL, OBJECT_TYPE, "<init>", "()V", false);
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitVarInsn(ALOAD, 1);
+        methodVisitor.visitFieldInsn(PUTFIELD, generatedType, SERIALIZERS_FIELD, SERIALIZERS_FIELD_DESCRIPTOR);
+        methodVisitor.visitInsn(RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+
+        // public void write(Encoder encoder, Object value)
+        methodVisitor = visitor.visitMethod(ACC_PUBLIC, "write", "(L" + ENCODER_TYPE + ";L" + OBJECT_TYPE + ";)V", null, null);
+        methodVisitor.visitCode();
+        methodVisitor.visitVarInsn(ALOAD, 2);
+        methodVisitor.visitTypeInsn(CHECKCAST, targetType);
+        methodVisitor.visitVarInsn(ASTORE, 3);
+        for (int i = 0; i < properties.size(); i++) {
+            PropertyDetails property = properties.get(i);
+            if (property.isInline()) {
+                methodVisitor.visitVarInsn(ALOAD, 1);
+                invokeGetter(methodVisitor, targetType, property);
+                PrimitiveCodec codec = PrimitiveCodec.of(property.type);
+                codec.toEncoded(methodVisitor);
+                methodVisitor.visitMethodInsn(INVOKEINTERFACE, ENCODER_TYPE, codec.writeMethod, "(" + codec.writeDescriptor + ")V", true);
+            } else {
+                Label isNull = new Label();
+                Label end = new Label();
+                invokeGetter(methodVisitor, targetType, property);
+                methodVisitor.visitVarInsn(ASTORE, 4);
+                methodVisitor.visitVarInsn(ALOAD, 4);
+                methodVisitor.visitJumpInsn(IFNULL, isNull);
+                methodVisitor.visitVarInsn(ALOAD, 1);
+                methodVisitor.visitInsn(ICONST_1);
+                methodVisitor.visitMethodInsn(INVOKEINTERFACE, ENCODER_TYPE, "writeBoolean", "(Z)V", true);
+                loadSerializer(methodVisitor, generatedType, i);
+                methodVisitor.visitVarInsn(ALOAD, 1);
+                methodVisitor.visitVarInsn(ALOAD, 4);
+                methodVisitor.visitMethodInsn(INVOKEINTERFACE, SERIALIZER_TYPE, "write", "(L" + ENCODER_TYPE + ";L" + OBJECT_TYPE + ";)V", true);
+                methodVisitor.visitJumpInsn(GOTO, end);
+                methodVisitor.visitLabel(isNull);
+                methodVisitor.visitVarInsn(ALOAD, 1);
+                methodVisitor.visitInsn(ICONST_0);
+                methodVisitor.visitMethodInsn(INVOKEINTERFACE, ENCODER_TYPE, "writeBoolean", "(Z)V", true);
+                methodVisitor.visitLabel(end);
+            }
+        }
+        methodVisitor.visitInsn(RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+
+        // public Object read(Decoder decoder)
+        methodVisitor = visitor.visitMethod(ACC_PUBLIC, "read", "(L" + DECODER_TYPE + ";)L" + OBJECT_TYPE + ";", null, null);
+        methodVisitor.visitCode();
+        methodVisitor.visitTypeInsn(NEW, targetType);
+        methodVisitor.visitInsn(DUP);
+        methodVisitor.visitMethodInsn(INVOKESPECIAL, targetType, "<init>", "()V", false);
+        methodVisitor.visitVarInsn(ASTORE, 2);
+        for (int i = 0; i < properties.size(); i++) {
+            PropertyDetails property = properties.get(i);
+            if (property.isInline()) {
+                PrimitiveCodec codec = PrimitiveCodec.of(property.type);
+                methodVisitor.visitVarInsn(ALOAD, 2);
+                methodVisitor.visitVarInsn(ALOAD, 1);
+                methodVisitor.visitMethodInsn(INVOKEINTERFACE, DECODER_TYPE, codec.readMethod, "()" + codec.readDescriptor, true);
+                codec.fromEncoded(methodVisitor);
+                invokeSetter(methodVisitor, targetType, property);
+            } else {
+                // Always call the setter, so that a null value replaces any default assigned by the constructor
+                Label isNull = new Label();
+                Label set = new Label();
+                methodVisitor.visitVarInsn(ALOAD, 2);
+                methodVisitor.visitVarInsn(ALOAD, 1);
+                methodVisitor.visitMethodInsn(INVOKEINTERFACE, DECODER_TYPE, "readBoolean", "()Z", true);
+                methodVisitor.visitJumpInsn(IFEQ, isNull);
+                loadSerializer(methodVisitor, generatedType, i);
+                methodVisitor.visitVarInsn(ALOAD, 1);
+                methodVisitor.visitMethodInsn(INVOKEINTERFACE, SERIALIZER_TYPE, "read", "(L" + DECODER_TYPE + ";)L" + OBJECT_TYPE + ";", true);
+                methodVisitor.visitTypeInsn(CHECKCAST, Type.getInternalName(property.type));
+                methodVisitor.visitJumpInsn(GOTO, set);
+                methodVisitor.visitLabel(isNull);
+                methodVisitor.visitInsn(ACONST_NULL);
+                methodVisitor.visitLabel(set);
+                invokeSetter(methodVisitor, targetType, property);
+            }
+        }
+        methodVisitor.visitVarInsn(ALOAD, 2);
+        methodVisitor.visitInsn(ARETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+
+        visitor.visitEnd();
+
+        ClassLoader targetClassLoader = type.getClassLoader() != null ? type.getClassLoader() : Serializer.class.getClassLoader();
+        return new GeneratedClassLoader(targetClassLoader).define(typeName, visitor.toByteArray());
+    }
+
+    private static void loadSerializer(MethodVisitor methodVisitor, String generatedType, int index) {
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitFieldInsn(GETFIELD, generatedType, SERIALIZERS_FIELD, SERIALIZERS_FIELD_DESCRIPTOR);
+        methodVisitor.visitLdcInsn(index);
+        methodVisitor.visitInsn(AALOAD);
+    }
+
+    private static void invokeGetter(MethodVisitor methodVisitor, String targetType, PropertyDetails property) {
+        methodVisitor.visitVarInsn(ALOAD, 3);
+        methodVisitor.visitMethodInsn(INVOKEVIRTUAL, targetType, property.getter.getName(), Type.getMethodDescriptor(property.getter), false);
+    }
+
+    private static void invokeSetter(MethodVisitor methodVisitor, String targetType, PropertyDetails property) {
+        methodVisitor.visitMethodInsn(INVOKEVIRTUAL, targetType, property.setter.getName(), Type.getMethodDescriptor(property.setter), false);
+        int returnSize = Type.getReturnType(property.setter).getSize();
+        if (returnSize == 1) {
+            methodVisitor.visitInsn(POP);
+        } else if (returnSize == 2) {
+            methodVisitor.visitInsn(POP2);
+        }
+    }
+
+    private static class PropertyDetails {
+        final Class<?> type;
+        final Method getter;
+        final Method setter;
+
+        PropertyDetails(Class<?> type, Method getter, Method setter) {
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        boolean isInline() {
+            return type.isPrimitive() || type.equals(String.class);
+        }
+    }
+
+    /**
+     * Describes how a property value that is written inline maps to the methods of {@link Encoder} and {@link Decoder}.
+     */
+    private enum PrimitiveCodec {
+        BOOLEAN("writeBoolean", "readBoolean", "Z"),
+        BYTE("writeByte", "readByte", "B"),
+        SHORT("writeSmallInt", "readSmallInt", "I") {
+            @Override
+            void fromEncoded(MethodVisitor methodVisitor) {
+                methodVisitor.visitInsn(I2S);
+            }
+        },
+        CHAR("writeSmallInt", "readSmallInt", "I") {
+            @Override
+            void fromEncoded(MethodVisitor methodVisitor) {
+                methodVisitor.visitInsn(I2C);
+            }
+        },
+        INT("writeInt", "readInt", "I"),
+        LONG("writeLong", "readLong", "J"),
+        FLOAT("writeInt", "readInt", "I") {
+            @Override
+            void toEncoded(MethodVisitor methodVisitor) {
+                methodVisitor.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "floatToIntBits", "(F)I", false);
+            }
+
+            @Override
+            void fromEncoded(MethodVisitor methodVisitor) {
+                methodVisitor.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "intBitsToFloat", "(I)F", false);
+            }
+        },
+        DOUBLE("writeLong", "readLong", "J") {
+            @Override
+            void toEncoded(MethodVisitor methodVisitor) {
+                methodVisitor.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "doubleToLongBits", "(D)J", false);
+            }
+
+            @Override
+            void fromEncoded(MethodVisitor methodVisitor) {
+                methodVisitor.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "longBitsToDouble", "(J)D", false);
+            }
+        },
+        STRING("writeNullableString", "Ljava/lang/CharSequence;", "readNullableString", "Ljava/lang/String;");
+
+        final String writeMethod;
+        final String writeDescriptor;
+        final String readMethod;
+        final String readDescriptor;
+
+        PrimitiveCodec(String writeMethod, String readMethod, String encodedDescriptor) {
+            this(writeMethod, encodedDescriptor, readMethod, encodedDescriptor);
+        }
+
+        PrimitiveCodec(String writeMethod, String writeDescriptor, String readMethod, String readDescriptor) {
+            this.writeMethod = writeMethod;
+            this.writeDescriptor = writeDescriptor;
+            this.readMethod = readMethod;
+            this.readDescriptor = readDescriptor;
+        }
+
+        void toEncoded(MethodVisitor methodVisitor) {
+        }
+
+        void fromEncoded(MethodVisitor methodVisitor) {
+        }
+
+        static PrimitiveCodec of(Class<?> type) {
+            if (type.equals(Boolean.TYPE)) {
+                return BOOLEAN;
+            }
+            if (type.equals(Byte.TYPE)) {
+                return BYTE;
+            }
+            if (type.equals(Short.TYPE)) {
+                return SHORT;
+            }
+            if (type.equals(Character.TYPE)) {
+                return CHAR;
+            }
+            if (type.equals(Integer.TYPE)) {
+                return INT;
+            }
+            if (type.equals(Long.TYPE)) {
+                return LONG;
+            }
+            if (type.equals(Float.TYPE)) {
+                return FLOAT;
+            }
+            if (type.equals(Double.TYPE)) {
+                return DOUBLE;
+            }
+            if (type.equals(String.class)) {
+                return STRING;
+            }
+            throw new IllegalArgumentException(String.format("Type %s is not written inline.", type.getName()));
+        }
+    }
+
+    /**
+     * Looks up the serializer for a property type on first use, so that types can refer to each other regardless of the order
+     * in which they are registered.
+     */
+    private static class RegistryLookupSerializer<T> implements Serializer<T> {
+        private final Class<T> type;
+        private final DefaultSerializerRegistry registry;
+        private volatile Serializer<T> serializer;
+
+        RegistryLookupSerializer(Class<T> type, DefaultSerializerRegistry registry) {
+            this.type = type;
+            this.registry = registry;
+        }
+
+        @Override
+        public T read(Decoder decoder) throws Exception {
+            return getSerializer().read(decoder);
+        }
+
+        @Override
+        public void write(Encoder encoder, T value) throws Exception {
+            getSerializer().write(encoder, value);
+        }
+
+        private Serializer<T> getSerializer() {
+            Serializer<T> result = serializer;
+            if (result == null) {
+                // The declared type of a property only constrains its values when the type is final
+                result = Modifier.isFinal(type.getModifiers()) ? registry.build(type) : registry.buildForSubtypes(type);
+                serializer = result;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Defines a generated serializer so that it can see both the target type and the serialization types of this module.
+     */
+    private static class GeneratedClassLoader extends ClassLoader {
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(Serializer.class.getName())) {
+                return Serializer.class;
+            }
+            if (name.equals(Encoder.class.getName())) {
+                return Encoder.class;
+            }
+            if (name.equals(Decoder.class.getName())) {
+                return Decoder.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
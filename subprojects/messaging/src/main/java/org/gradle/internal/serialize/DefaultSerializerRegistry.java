@@ -19,6 +19,7 @@ package org.gradle.internal.serialize;
 import java.util.*;
 
 public class DefaultSerializerRegistry implements SerializerRegistry {
+    private static final AsmBackedSerializerGenerator SERIALIZER_GENERATOR = new AsmBackedSerializerGenerator();
     private final Map<Class<?>, Serializer<?>> serializerMap = new TreeMap<Class<?>, Serializer<?>>(new Comparator<Class<?>>() {
         public int compare(Class<?> o1, Class<?> o2) {
             return o1.getName().compareTo(o2.getName());
@@ -36,8 +37,40 @@ public class DefaultSerializerRegistry implements SerializerRegistry {
         javaSerialization.add(implementationType);
     }
 
+    @Override
+    public <T> void useGeneratedSerializer(Class<T> implementationType) {
+        serializerMap.put(implementationType, SERIALIZER_GENERATOR.generate(implementationType, this));
+    }
+
+    @Override
+    public boolean canSerialize(Class<?> baseType) {
+        for (Class<?> candidate : serializerMap.keySet()) {
+            if (baseType.isAssignableFrom(candidate)) {
+                return true;
+            }
+        }
+        for (Class<?> candidate : javaSerialization) {
+            if (baseType.isAssignableFrom(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public <T> Serializer<T> build(Class<T> baseType) {
+        return build(baseType, false);
+    }
+
+    /**
+     * Creates a serializer that always writes the type of each value, so that a value of a subtype of T is written using the serializer registered for
+     * that subtype, or is rejected, rather than being written as if it were an instance of T.
+     */
+    <T> Serializer<T> buildForSubtypes(Class<T> baseType) {
+        return build(baseType, true);
+    }
+
+    private <T> Serializer<T> build(Class<T> baseType, boolean tagged) {
         Map<Class<?>, Serializer<?>> matches = new LinkedHashMap<Class<?>, Serializer<?>>();
         for (Map.Entry<Class<?>, Serializer<?>> entry : serializerMap.entrySet()) {
             if (baseType.isAssignableFrom(entry.getKey())) {
@@ -53,7 +86,7 @@ public class DefaultSerializerRegistry implements SerializerRegistry {
         if (matches.isEmpty() && matchingJavaSerialization.isEmpty()) {
             throw new IllegalArgumentException(String.format("Don't know how to serialize objects of type %s.", baseType.getName()));
         }
-        if (matches.size() == 1 && matchingJavaSerialization.isEmpty()) {
+        if (!tagged && matches.size() == 1 && matchingJavaSerialization.isEmpty()) {
             return (Serializer<T>) matches.values().iterator().next();
         }
         return new TaggedTypeSerializer<T>(matches, matchingJavaSerialization);
@@ -28,6 +28,18 @@ public interface SerializerRegistry {
      */
     <T> void useJavaSerialization(Class<T> implementationType);
 
+    /**
+     * Use a serializer generated at runtime for objects of the given type. The type must be a public class with a public no-args constructor, and
+     * its state must be exposed through properties with a public getter and setter. Property values of types other than primitives and strings are
+     * serialized using the serializers of this registry.
+     */
+    <T> void useGeneratedSerializer(Class<T> implementationType);
+
+    /**
+     * Returns true when this registry can create a serializer for objects of the given type.
+     */
+    boolean canSerialize(Class<?> baseType);
+
     /**
      * Creates a serializer that uses the current registrations to serialize objects of type T.
      */
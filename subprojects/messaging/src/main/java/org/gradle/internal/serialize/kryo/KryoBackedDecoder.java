@@ -29,9 +29,13 @@ import java.io.InputStream;
 /**
  * Note that this decoder uses buffering, so will attempt to read beyond the end of the encoded data. This means you should use this type only when this decoder will be used to decode the entire
  * stream.
+ *
+ * <p>The buffer is taken from a per-thread pool and returned when this decoder is closed, so the decoder must not be used after it has been closed.</p>
  */
 public class KryoBackedDecoder extends AbstractDecoder implements Decoder, Closeable {
+    private static final ThreadLocalBufferPool BUFFERS = new ThreadLocalBufferPool();
     private final Input input;
+    private byte[] buffer;
     private final InputStream inputStream;
     private long extraSkipped;
 
@@ -41,7 +45,9 @@ public class KryoBackedDecoder extends AbstractDecoder implements Decoder, Close
 
     public KryoBackedDecoder(InputStream inputStream, int bufferSize) {
         this.inputStream = inputStream;
-        input = new Input(this.inputStream, bufferSize);
+        buffer = BUFFERS.take(bufferSize);
+        input = new Input(buffer);
+        input.setInputStream(inputStream);
     }
 
     @Override
@@ -152,5 +158,9 @@ public class KryoBackedDecoder extends AbstractDecoder implements Decoder, Close
 
     public void close() throws IOException {
         input.close();
+        if (buffer != null) {
+            BUFFERS.release(buffer);
+            buffer = null;
+        }
     }
 }
@@ -24,15 +24,22 @@ import org.gradle.internal.serialize.FlushableEncoder;
 import java.io.Closeable;
 import java.io.OutputStream;
 
+/**
+ * Note that this encoder takes its buffer from a per-thread pool and returns it when closed, so it must not be used after it has been closed.
+ */
 public class KryoBackedEncoder extends AbstractEncoder implements FlushableEncoder, Closeable {
+    private static final ThreadLocalBufferPool BUFFERS = new ThreadLocalBufferPool();
     private final Output output;
+    private byte[] buffer;
 
     public KryoBackedEncoder(OutputStream outputStream) {
         this(outputStream, 4096);
     }
 
     public KryoBackedEncoder(OutputStream outputStream, int bufferSize) {
-        output = new Output(outputStream, bufferSize);
+        buffer = BUFFERS.take(bufferSize);
+        output = new Output(buffer);
+        output.setOutputStream(outputStream);
     }
 
     public void writeByte(byte value) {
@@ -87,5 +94,9 @@ public class KryoBackedEncoder extends AbstractEncoder implements FlushableEncod
 
     public void close() {
         output.close();
+        if (buffer != null) {
+            BUFFERS.release(buffer);
+            buffer = null;
+        }
     }
 }
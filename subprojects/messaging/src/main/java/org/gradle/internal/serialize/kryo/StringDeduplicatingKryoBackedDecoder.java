@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.serialize.kryo;
+
+import java.io.EOFException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes the data written by a {@link StringDeduplicatingKryoBackedEncoder}.
+ */
+public class StringDeduplicatingKryoBackedDecoder extends KryoBackedDecoder {
+    private List<String> strings;
+
+    public StringDeduplicatingKryoBackedDecoder(InputStream inputStream) {
+        super(inputStream);
+    }
+
+    public StringDeduplicatingKryoBackedDecoder(InputStream inputStream, int bufferSize) {
+        super(inputStream, bufferSize);
+    }
+
+    @Override
+    public String readString() throws EOFException {
+        String value = readNullableString();
+        if (value == null) {
+            throw new IllegalStateException("Expected a string but found null.");
+        }
+        return value;
+    }
+
+    @Override
+    public String readNullableString() throws EOFException {
+        int index = readSmallInt();
+        if (index == 0) {
+            return null;
+        }
+        if (strings == null) {
+            strings = new ArrayList<String>();
+        }
+        if (index <= strings.size()) {
+            return strings.get(index - 1);
+        }
+        if (index != strings.size() + 1) {
+            throw new IllegalStateException(String.format("Unexpected string reference %s, only %s strings have been read.", index, strings.size()));
+        }
+        String value = super.readNullableString();
+        strings.add(value);
+        return value;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.serialize.kryo;
+
+import org.gradle.api.Nullable;
+
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link KryoBackedEncoder} that writes each distinct string only once. Later occurrences of the string are written as a reference to the first occurrence.
+ *
+ * <p>The data must be read using a {@link StringDeduplicatingKryoBackedDecoder}, starting from the beginning of the stream or from the most recent call to {@link #resetStrings()}.</p>
+ */
+public class StringDeduplicatingKryoBackedEncoder extends KryoBackedEncoder {
+    private Map<String, Integer> strings;
+
+    public StringDeduplicatingKryoBackedEncoder(OutputStream outputStream) {
+        super(outputStream);
+    }
+
+    public StringDeduplicatingKryoBackedEncoder(OutputStream outputStream, int bufferSize) {
+        super(outputStream, bufferSize);
+    }
+
+    @Override
+    public void writeString(CharSequence value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cannot encode a null string.");
+        }
+        writeNullableString(value);
+    }
+
+    @Override
+    public void writeNullableString(@Nullable CharSequence value) {
+        if (value == null) {
+            writeSmallInt(0);
+            return;
+        }
+        if (strings == null) {
+            strings = new HashMap<String, Integer>();
+        }
+        String key = value.toString();
+        Integer index = strings.get(key);
+        if (index != null) {
+            writeSmallInt(index);
+            return;
+        }
+        index = strings.size() + 1;
+        strings.put(key, index);
+        writeSmallInt(index);
+        super.writeString(key);
+    }
+
+    /**
+     * Discards the strings written so far, so that the data written after this call can be decoded independently of the data written before it.
+     */
+    public void resetStrings() {
+        strings = null;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.serialize.kryo;
+
+/**
+ * Holds on to one released buffer per thread, so that the short-lived encoders and decoders used for cache entries and messages do not allocate a fresh buffer each time.
+ */
+class ThreadLocalBufferPool {
+    private static final int MAX_POOLED_SIZE = 64 * 1024;
+    private final ThreadLocal<byte[]> buffers = new ThreadLocal<byte[]>();
+
+    byte[] take(int size) {
+        byte[] buffer = buffers.get();
+        if (buffer != null && buffer.length == size) {
+            buffers.set(null);
+            return buffer;
+        }
+        return new byte[size];
+    }
+
+    void release(byte[] buffer) {
+        if (buffer.length <= MAX_POOLED_SIZE) {
+            buffers.set(buffer);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gradle.internal.actor.internal
 
+import org.gradle.internal.concurrent.ExecutorFactory
 import org.gradle.internal.concurrent.ThreadSafe
 import org.gradle.internal.dispatch.DispatchException
 import org.gradle.internal.dispatch.MethodInvocation
@@ -183,6 +184,36 @@ class DefaultActorFactorySpec extends ConcurrentSpec {
         operation.dispatch.end < instant.actionFinished
     }
 
+    def nonBlockingActorDeliversMethodCallsInOrder() {
+        def received = []
+        def target = { param -> received << param } as TargetObject
+        def proxy = factory.createActor(target).getProxy(TargetObject)
+
+        when:
+        50.times { proxy.doStuff("param $it" as String) }
+        factory.stop()
+
+        then:
+        received == (0..49).collect { "param $it" as String }
+    }
+
+    def nonBlockingActorsShareAnExecutor() {
+        def executor = executorFactory.create("actors")
+        def actorExecutorFactory = Mock(ExecutorFactory)
+        def factory = new DefaultActorFactory(actorExecutorFactory)
+
+        when:
+        factory.createActor(Mock(TargetObject))
+        factory.createActor(Mock(TargetObject))
+
+        then:
+        1 * actorExecutorFactory.create(_) >> executor
+        0 * actorExecutorFactory._
+
+        cleanup:
+        factory.stop()
+    }
+
     def nonBlockingActorPropagatesMethodFailuresOnStop() {
         def actor = factory.createActor(target)
         def proxy = actor.getProxy(TargetObject.class)
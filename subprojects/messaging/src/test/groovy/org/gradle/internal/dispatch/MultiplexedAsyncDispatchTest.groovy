@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.dispatch
+
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executor
+
+class MultiplexedAsyncDispatchTest extends ConcurrentSpec {
+    final Dispatch<String> target = Mock()
+
+    def "delivers messages in order they are dispatched"() {
+        def received = new CopyOnWriteArrayList()
+        def dispatch = new MultiplexedAsyncDispatch<String>(executor, { received << it } as Dispatch)
+
+        when:
+        100.times { dispatch.dispatch("message $it" as String) }
+        dispatch.stop()
+
+        then:
+        received == (0..99).collect { "message $it" as String }
+    }
+
+    def "dispatch does not wait for message to be delivered"() {
+        def dispatch = new MultiplexedAsyncDispatch<String>(executor, target)
+
+        when:
+        operation.dispatch {
+            dispatch.dispatch("message")
+        }
+        thread.blockUntil.delivered
+
+        then:
+        1 * target.dispatch("message") >> {
+            thread.block()
+            instant.delivered
+        }
+
+        and:
+        operation.dispatch.end < instant.delivered
+
+        cleanup:
+        dispatch.stop()
+    }
+
+    def "uses the executor only while there are messages to deliver"() {
+        def tasks = 0
+        def countingExecutor = { Runnable task ->
+            tasks++
+            task.run()
+        } as Executor
+        def dispatch = new MultiplexedAsyncDispatch<String>(countingExecutor, target)
+
+        when:
+        dispatch.dispatch("message 1")
+        dispatch.dispatch("message 2")
+        dispatch.stop()
+
+        then:
+        1 * target.dispatch("message 1")
+        1 * target.dispatch("message 2")
+        tasks == 2
+    }
+
+    def "stop blocks until queued messages are delivered"() {
+        def dispatch = new MultiplexedAsyncDispatch<String>(executor, target)
+
+        when:
+        async {
+            dispatch.dispatch("message")
+            thread.blockUntil.delivering
+            dispatch.stop()
+            instant.stopped
+        }
+
+        then:
+        1 * target.dispatch("message") >> {
+            instant.delivering
+            thread.block()
+            instant.delivered
+        }
+
+        and:
+        instant.stopped > instant.delivered
+    }
+
+    def "continues delivering queued messages after delegate fails"() {
+        def failure = new RuntimeException()
+        def received = new CopyOnWriteArrayList()
+        def failureIgnoringExecutor = { Runnable task ->
+            executor.execute {
+                try {
+                    task.run()
+                } catch (RuntimeException e) {
+                    assert e.is(failure)
+                }
+            }
+        } as Executor
+        def dispatch = new MultiplexedAsyncDispatch<String>(failureIgnoringExecutor, { message ->
+            received << message
+            if (message == "message 1") {
+                thread.blockUntil.message2Dispatched
+                throw failure
+            }
+        } as Dispatch)
+
+        when:
+        async {
+            dispatch.dispatch("message 1")
+            dispatch.dispatch("message 2")
+            instant.message2Dispatched
+            dispatch.stop()
+        }
+
+        then:
+        received == ["message 1", "message 2"]
+    }
+
+    def "cannot dispatch messages after stop"() {
+        def dispatch = new MultiplexedAsyncDispatch<String>(executor, target)
+
+        given:
+        dispatch.stop()
+
+        when:
+        dispatch.dispatch("message")
+
+        then:
+        IllegalStateException e = thrown()
+        e.message == "Cannot dispatch message, as this message dispatch has been stopped. Message: message"
+    }
+}
@@ -46,6 +46,12 @@ class DefaultListenerManagerTest extends ConcurrentSpec {
         manager.getBroadcaster(TestFooListener.class).is(manager.getBroadcaster(TestFooListener.class))
     }
 
+    def broadcasterCallsListenersWithoutReflection() {
+        expect:
+        manager.getBroadcaster(TestFooListener.class) instanceof GeneratedBroadcastSource
+        manager.createChild().getBroadcaster(TestFooListener.class) instanceof GeneratedBroadcastSource
+    }
+
     def canAddListenerBeforeObtainingBroadcaster() {
         given:
         manager.addListener(fooListener1);
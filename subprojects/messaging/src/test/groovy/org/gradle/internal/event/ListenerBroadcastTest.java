@@ -28,6 +28,8 @@ import org.jmock.integration.junit4.JUnit4Mockery;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.lang.reflect.Proxy;
+
 import static org.gradle.util.Matchers.strictlyEqual;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
@@ -258,6 +260,55 @@ public class ListenerBroadcastTest {
         }
     }
 
+    @Test
+    public void generatesSourceObjectForPublicListenerType() {
+        assertFalse(Proxy.isProxyClass(broadcast.getSource().getClass()));
+    }
+
+    @Test
+    public void usesProxyForNonPublicListenerType() {
+        ListenerBroadcast<NonPublicListener> broadcast = new ListenerBroadcast<NonPublicListener>(NonPublicListener.class);
+        final NonPublicListener listener = context.mock(NonPublicListener.class);
+
+        context.checking(new Expectations() {{
+            one(listener).event();
+        }});
+
+        broadcast.add(listener);
+
+        assertTrue(Proxy.isProxyClass(broadcast.getSource().getClass()));
+        assertThat(broadcast.getSource().toString(), equalTo("NonPublicListener broadcast"));
+        broadcast.getSource().event();
+    }
+
+    @Test
+    public void dispatchReceivesBoxedArguments() throws NoSuchMethodException {
+        final Dispatch<MethodInvocation> dispatch = context.mock(Dispatch.class);
+        final MethodInvocation invocation = new MethodInvocation(TestListener.class.getMethod("event2", int.class, String.class), new Object[]{12, "param"});
+
+        context.checking(new Expectations() {{
+            one(dispatch).dispatch(invocation);
+        }});
+
+        broadcast.add(dispatch);
+
+        broadcast.getSource().event2(12, "param");
+    }
+
+    @Test
+    public void dispatchThatImplementsListenerTypeReceivesMethodInvocation() throws NoSuchMethodException {
+        final DispatchingListener dispatch = context.mock(DispatchingListener.class);
+        final MethodInvocation invocation = new MethodInvocation(TestListener.class.getMethod("event1", String.class), new Object[]{"param"});
+
+        context.checking(new Expectations() {{
+            one(dispatch).dispatch(invocation);
+        }});
+
+        broadcast.add((Dispatch<MethodInvocation>) dispatch);
+
+        broadcast.getSource().event1("param");
+    }
+
     public interface TestListener {
         void event1(String param);
 
@@ -265,4 +316,11 @@ public class ListenerBroadcastTest {
 
         void event3() throws Exception;
     }
+
+    public interface DispatchingListener extends TestListener, Dispatch<MethodInvocation> {
+    }
+
+    interface NonPublicListener {
+        void event();
+    }
 }
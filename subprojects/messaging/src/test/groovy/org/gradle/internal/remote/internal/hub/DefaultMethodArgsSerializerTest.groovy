@@ -40,4 +40,14 @@ class DefaultMethodArgsSerializerTest extends SerializerSpec {
         def arraySerializer = serializer.forTypes([String, Long, String] as Class[])
         serialize(["a", 12L, "b"] as Object[], arraySerializer) == ["a", 12L, "b"] as Object[]
     }
+
+    def "uses Java serialization for args with types that have no registered serializer"() {
+        given:
+        registry.register(String, BaseSerializerFactory.STRING_SERIALIZER)
+        def serializer = new DefaultMethodArgsSerializer(registry, getClass().classLoader)
+
+        expect:
+        def arraySerializer = serializer.forTypes([String, BigDecimal, String] as Class[])
+        serialize(["a", 12.5, "b"] as Object[], arraySerializer) == ["a", 12.5, "b"] as Object[]
+    }
 }
@@ -16,8 +16,10 @@
 
 package org.gradle.internal.remote.internal.hub
 
+import org.gradle.internal.remote.internal.hub.protocol.ChannelCredit
 import org.gradle.internal.remote.internal.hub.protocol.ChannelIdentifier
 import org.gradle.internal.remote.internal.hub.protocol.ChannelMessage
+import org.gradle.internal.remote.internal.hub.protocol.ChannelWindow
 import org.gradle.internal.remote.internal.hub.protocol.EndOfStream
 import org.gradle.internal.remote.internal.hub.protocol.InterHubMessage
 import org.gradle.internal.serialize.DefaultSerializer
@@ -98,6 +100,37 @@ class InterHubMessageSerializerTest extends Specification {
         result instanceof EndOfStream
     }
 
+    def "can serialise ChannelCredit"() {
+        def channelId = new ChannelIdentifier("channel name")
+        def message1 = new ChannelMessage(channelId, "payload")
+        def message2 = new ChannelCredit(channelId, 512)
+
+        when:
+        def serialized = serialize(message1, message2)
+        def result = deserializeMultiple(serialized, 2)
+
+        then:
+        result[1] instanceof ChannelCredit
+        result[1].channel == channelId
+        result[1].count == 512
+    }
+
+    def "can serialise ChannelWindow"() {
+        def channelId = new ChannelIdentifier("channel name")
+        def message1 = new ChannelWindow(channelId, 1024)
+        def message2 = new ChannelMessage(channelId, "payload")
+
+        when:
+        def serialized = serialize(message1, message2)
+        def result = deserializeMultiple(serialized, 2)
+
+        then:
+        result[0] instanceof ChannelWindow
+        result[0].channel == channelId
+        result[0].window == 1024
+        result[1].channel == channelId
+    }
+
     def serialize(InterHubMessage... messages) {
         def outStr = new ByteArrayOutputStream()
         def encoder = new OutputStreamBackedEncoder(outStr)
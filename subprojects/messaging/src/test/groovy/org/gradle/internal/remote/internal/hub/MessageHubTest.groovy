@@ -21,8 +21,10 @@ import org.gradle.internal.dispatch.BoundedDispatch
 import org.gradle.internal.dispatch.Dispatch
 import org.gradle.internal.remote.internal.RemoteConnection
 import org.gradle.internal.remote.internal.TestConnection
+import org.gradle.internal.remote.internal.hub.protocol.ChannelCredit
 import org.gradle.internal.remote.internal.hub.protocol.ChannelIdentifier
 import org.gradle.internal.remote.internal.hub.protocol.ChannelMessage
+import org.gradle.internal.remote.internal.hub.protocol.ChannelWindow
 import org.gradle.internal.remote.internal.hub.protocol.EndOfStream
 import org.gradle.internal.remote.internal.hub.protocol.InterHubMessage
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
@@ -638,6 +640,138 @@ class MessageHubTest extends ConcurrentSpec {
         0 * _._
     }
 
+    def "outgoing dispatch blocks until peer returns credit for the channel"() {
+        def connection = new TestConnection()
+        def dispatcher = hub.getOutgoing("channel", String, 2)
+
+        given:
+        hub.addConnection(connection)
+        dispatcher.dispatch("message 1")
+        dispatcher.dispatch("message 2")
+        hub.getOutgoing("other", String).dispatch("message 3")
+
+        when:
+        start {
+            dispatcher.dispatch("message 4")
+            instant.dispatched
+        }
+        start {
+            thread.block()
+            instant.creditReturned
+            connection.queueIncoming(new ChannelCredit(new ChannelIdentifier("channel"), 2))
+        }
+        thread.blockUntil.dispatched
+
+        then:
+        instant.dispatched > instant.creditReturned
+
+        cleanup:
+        connection.stop()
+        hub.stop()
+    }
+
+    def "tells peer about the window of a flow controlled channel"() {
+        def connection = new TestConnection()
+
+        given:
+        hub.addConnection(connection)
+
+        when:
+        hub.getOutgoing("channel", String, 4)
+        def message = connection.outgoing.take()
+
+        then:
+        message instanceof ChannelWindow
+        message.channel == new ChannelIdentifier("channel")
+        message.window == 4
+
+        cleanup:
+        connection.stop()
+        hub.stop()
+    }
+
+    def "blocked outgoing dispatch fails when stop requested"() {
+        def dispatcher = hub.getOutgoing("channel", String, 1)
+
+        given:
+        dispatcher.dispatch("message 1")
+
+        when:
+        start {
+            try {
+                dispatcher.dispatch("message 2")
+            } catch (IllegalStateException e) {
+                instant.failed
+            }
+        }
+        start {
+            thread.block()
+            instant.stopRequested
+            hub.requestStop()
+        }
+        thread.blockUntil.failed
+
+        then:
+        instant.failed > instant.stopRequested
+
+        cleanup:
+        hub.stop()
+    }
+
+    def "returns credit to peer as incoming messages are handled"() {
+        def connection = new TestConnection()
+        def handled = new CopyOnWriteArrayList()
+        Dispatch<String> handler = Mock()
+
+        given:
+        handler.dispatch(_) >> { handled << it[0] }
+        hub.addHandler("channel", handler)
+        hub.addConnection(connection)
+
+        when:
+        connection.queueIncoming(new ChannelWindow(new ChannelIdentifier("channel"), 4))
+        connection.queueIncoming(new ChannelMessage(new ChannelIdentifier("channel"), "message 1"))
+        connection.queueIncoming(new ChannelMessage(new ChannelIdentifier("channel"), "message 2"))
+        connection.queueIncoming(new ChannelMessage(new ChannelIdentifier("channel"), "message 3"))
+        def credit = connection.outgoing.take()
+
+        then:
+        credit instanceof ChannelCredit
+        credit.channel == new ChannelIdentifier("channel")
+        credit.count >= 2
+        handled.size() >= credit.count
+
+        cleanup:
+        connection.stop()
+        hub.stop()
+    }
+
+    def "does not limit or return credit for channels without a window"() {
+        def connection = new TestConnection()
+        def handled = new CopyOnWriteArrayList()
+        Dispatch<String> handler = Mock()
+        def dispatcher = hub.getOutgoing("outgoing", String)
+
+        given:
+        handler.dispatch(_) >> { handled << it[0] }
+        hub.addHandler("incoming", handler)
+        hub.addConnection(connection)
+
+        when:
+        100.times { dispatcher.dispatch("message $it".toString()) }
+        100.times { connection.queueIncoming(new ChannelMessage(new ChannelIdentifier("incoming"), "message $it".toString())) }
+        connection.stop()
+        hub.stop()
+
+        then:
+        handled.size() == 100
+        connection.outgoing.every { it instanceof ChannelMessage || it instanceof EndOfStream }
+
+        cleanup:
+        connection.stop()
+        hub.stop()
+    }
+
     def "cannot dispatch outgoing messages after stop requested"() {
         given:
         def dispatcher = hub.getOutgoing("channel", String)
@@ -162,4 +162,57 @@ class MultiEndPointQueueTest extends AbstractQueueTest {
         messages.size() == 1
         messages[0] instanceof EndOfStream
     }
+
+    def "endpoint can take queued messages without waiting"() {
+        given:
+        def message1 = unicast()
+        def message2 = unicast()
+        def endpoint = queue.newEndpoint()
+
+        when:
+        def messages = []
+        endpoint.poll(messages)
+
+        then:
+        messages.empty
+
+        when:
+        queue.dispatch(message1)
+        queue.dispatch(message2)
+        endpoint.poll(messages)
+
+        then:
+        messages == [message1, message2]
+    }
+
+    def "endpoint that polled is not treated as waiting"() {
+        given:
+        def message = unicast()
+        def endpoint1 = queue.newEndpoint()
+        def endpoint2 = queue.newEndpoint()
+
+        when:
+        endpoint1.poll([])
+        queue.empty(endpoint2)
+        queue.dispatch(message)
+        def messages = []
+        endpoint2.take(messages)
+
+        then:
+        messages == [message]
+    }
+
+    def "tracks the largest number of messages waiting for an endpoint"() {
+        given:
+        def endpoint = queue.newEndpoint()
+
+        when:
+        queue.dispatch(unicast())
+        queue.dispatch(unicast())
+        endpoint.take([])
+        queue.dispatch(unicast())
+
+        then:
+        queue.maxQueueDepth == 2
+    }
 }
@@ -32,6 +32,19 @@ class MultiChoiceAddressTest extends Specification {
         address.toString() == address.displayName
     }
 
+    def "display name includes socket file when present"() {
+        InetAddress candidate = Mock()
+        UUID uuid = UUID.randomUUID()
+        def socketFile = new File("gradle.sock")
+        def address = new MultiChoiceAddress(uuid, 1234, [candidate], socketFile)
+
+        given:
+        candidate.toString() >> '<address>'
+
+        expect:
+        address.displayName == "[${uuid} port:1234, addresses:[<address>], socket:${socketFile}]"
+    }
+
     def "addresses are equal when their canonical id and port and candidate addresses are equal"() {
         InetAddress address1 = Mock()
         InetAddress address2 = Mock()
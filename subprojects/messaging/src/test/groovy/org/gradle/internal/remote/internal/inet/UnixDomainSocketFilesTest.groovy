@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class UnixDomainSocketFilesTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def dir = tmpDir.file("sockets")
+    def socketFiles = new UnixDomainSocketFiles(dir)
+
+    def "allocates socket file in directory and removes it on close"() {
+        def id = UUID.randomUUID()
+
+        when:
+        def socketFile = socketFiles.allocate(id)
+
+        then:
+        socketFile.file.parentFile == dir
+        socketFile.file.name == "gradle-${Long.toHexString(id.mostSignificantBits)}.sock"
+
+        when:
+        socketFile.file.createNewFile()
+        socketFile.close()
+
+        then:
+        dir.list() as List == []
+    }
+
+    def "removes socket files left behind by processes that have exited"() {
+        dir.mkdirs()
+        def staleSocket = new File(dir, "gradle-1234.sock")
+        def staleLock = new File(dir, "gradle-1234.lock")
+        staleSocket.createNewFile()
+        staleLock.createNewFile()
+
+        when:
+        def socketFile = socketFiles.allocate(UUID.randomUUID())
+
+        then:
+        !staleSocket.exists()
+        !staleLock.exists()
+
+        cleanup:
+        socketFile?.close()
+    }
+
+    def "does not remove socket files that are in use"() {
+        def inUse = socketFiles.allocate(UUID.randomUUID())
+        inUse.file.createNewFile()
+
+        when:
+        def other = new UnixDomainSocketFiles(dir).allocate(UUID.randomUUID())
+
+        then:
+        inUse.file.exists()
+
+        cleanup:
+        inUse?.close()
+        other?.close()
+    }
+
+    def "ignores other files in directory"() {
+        dir.mkdirs()
+        def file = new File(dir, "other.lock")
+        file.createNewFile()
+
+        when:
+        socketFiles.removeStaleFiles()
+
+        then:
+        file.exists()
+    }
+}
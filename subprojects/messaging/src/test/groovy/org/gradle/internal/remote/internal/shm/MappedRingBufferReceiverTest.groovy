@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.shm
+
+import org.gradle.internal.dispatch.Dispatch
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+import static org.gradle.test.fixtures.ConcurrentTestUtil.poll
+
+class MappedRingBufferReceiverTest extends ConcurrentSpec {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def buffer = MappedRingBuffer.create(tmpDir.file("buffer"), 1024)
+    def writer = MappedRingBuffer.open(buffer.file)
+    def received = new CopyOnWriteArrayList<String>()
+    def dispatch = { byte[] record -> received << new String(record, "utf-8") } as Dispatch
+
+    def "delivers records as they are written"() {
+        def receiver = new MappedRingBufferReceiver(buffer, dispatch, executorFactory)
+
+        when:
+        write("one")
+        write("two")
+
+        then:
+        poll {
+            assert received == ["one", "two"]
+        }
+
+        cleanup:
+        receiver?.stop()
+    }
+
+    def "delivers records written before an action is run"() {
+        def receiver = new MappedRingBufferReceiver(buffer, dispatch, executorFactory)
+
+        when:
+        write("one")
+        write("two")
+        receiver.drainThen { received << "action" }
+        write("three")
+
+        then:
+        poll {
+            assert received == ["one", "two", "action", "three"]
+        }
+
+        cleanup:
+        receiver?.stop()
+    }
+
+    def "delivers remaining records and closes buffer on stop"() {
+        def receiver = new MappedRingBufferReceiver(buffer, dispatch, executorFactory)
+
+        when:
+        write("one")
+        receiver.stop()
+
+        then:
+        received == ["one"]
+        writer.closed
+        !writer.write(new byte[1], 0, 1)
+    }
+
+    private void write(String text) {
+        def bytes = text.getBytes("utf-8")
+        assert writer.write(bytes, 0, bytes.length)
+    }
+}
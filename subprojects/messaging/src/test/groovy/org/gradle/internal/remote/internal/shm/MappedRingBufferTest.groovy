@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.shm
+
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+
+class MappedRingBufferTest extends ConcurrentSpec {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def file = tmpDir.file("buffer")
+
+    def "reader receives records in the order they were written"() {
+        def writer = MappedRingBuffer.create(file, 1024)
+        def reader = MappedRingBuffer.open(file)
+
+        when:
+        write(writer, "one")
+        write(writer, "")
+        write(writer, "three")
+
+        then:
+        read(reader) == "one"
+        read(reader) == ""
+        read(reader) == "three"
+        reader.read() == null
+    }
+
+    def "records can wrap around the end of the buffer"() {
+        def writer = MappedRingBuffer.create(file, 1024)
+        def reader = MappedRingBuffer.open(file)
+        def record = "x" * 300
+
+        expect:
+        20.times {
+            assert write(writer, record + it)
+            assert write(writer, "short " + it)
+            assert read(reader) == record + it
+            assert read(reader) == "short " + it
+        }
+        reader.read() == null
+    }
+
+    def "rejects record that is larger than the buffer"() {
+        def writer = MappedRingBuffer.create(file, 1024)
+
+        expect:
+        writer.maxRecordSize == 1020
+        !write(writer, "x" * 1021)
+        write(writer, "x" * 1020)
+    }
+
+    def "writer blocks until reader makes space"() {
+        def writer = MappedRingBuffer.create(file, 1024)
+        def reader = MappedRingBuffer.open(file)
+        write(writer, "x" * 1016)
+
+        when:
+        start {
+            write(writer, "next")
+            instant.written
+        }
+        start {
+            thread.block()
+            instant.read
+            read(reader)
+        }
+
+        then:
+        thread.blockUntil.written
+        instant.written > instant.read
+        read(reader) == "next"
+    }
+
+    def "rejects writes after buffer is closed"() {
+        def writer = MappedRingBuffer.create(file, 1024)
+        def reader = MappedRingBuffer.open(file)
+        write(writer, "one")
+
+        when:
+        reader.close()
+
+        then:
+        writer.closed
+        !write(writer, "two")
+        read(reader) == "one"
+        reader.read() == null
+    }
+
+    def "cannot open a file that does not contain a buffer"() {
+        file.text = "not a buffer"
+
+        when:
+        MappedRingBuffer.open(file)
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message == "File $file does not contain a ring buffer."
+    }
+
+    def "file can be deleted once both sides have unmapped the buffer"() {
+        def writer = MappedRingBuffer.create(file, 1024)
+        def reader = MappedRingBuffer.open(file)
+        write(writer, "one")
+
+        when:
+        writer.unmap()
+        reader.unmap()
+        reader.unmap()
+
+        then:
+        file.delete()
+    }
+
+    private static boolean write(MappedRingBuffer buffer, String text) {
+        def bytes = text.getBytes("utf-8")
+        return buffer.write(bytes, 0, bytes.length)
+    }
+
+    private static String read(MappedRingBuffer buffer) {
+        return new String(buffer.read(), "utf-8")
+    }
+}
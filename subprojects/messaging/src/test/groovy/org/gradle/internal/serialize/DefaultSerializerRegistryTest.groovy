@@ -165,4 +165,134 @@ class DefaultSerializerRegistryTest extends SerializerSpec {
         serialize(123, serializer) == 123
         serialize(123.4, serializer) == 123.4
     }
+
+    def "can use generated serializer for bean type"() {
+        given:
+        def registry = new DefaultSerializerRegistry()
+        registry.register(Long, longSerializer)
+        registry.useGeneratedSerializer(TestBean)
+        def serializer = registry.build(TestBean)
+        def bean = new TestBean(name: "parent", count: -12, flag: true, total: 1.5, id: 123L, child: new TestBean(name: "child"))
+
+        when:
+        def result = serialize(bean, serializer)
+
+        then:
+        result.name == "parent"
+        result.count == -12
+        result.flag
+        result.total == 1.5
+        result.id == 123L
+        result.child.name == "child"
+        result.child.id == null
+        result.child.child == null
+    }
+
+    def "can generate serializers for types that refer to each other in any order"() {
+        given:
+        def registry = new DefaultSerializerRegistry()
+        registry.useGeneratedSerializer(TestBeanHolder)
+        registry.useGeneratedSerializer(TestBean)
+        def serializer = registry.build(TestBeanHolder)
+
+        expect:
+        serialize(new TestBeanHolder(bean: new TestBean(name: "a")), serializer).bean.name == "a"
+    }
+
+    def "generated serializer replaces property default with null"() {
+        given:
+        def registry = new DefaultSerializerRegistry()
+        registry.useGeneratedSerializer(BeanWithDefault)
+        registry.useGeneratedSerializer(TestBean)
+        def serializer = registry.build(BeanWithDefault)
+
+        expect:
+        serialize(new BeanWithDefault(name: null, child: null), serializer).name == null
+        serialize(new BeanWithDefault(name: null, child: null), serializer).child == null
+        serialize(new BeanWithDefault(), serializer).child.name == "default"
+    }
+
+    def "generated serializer uses serializer registered for runtime type of property value"() {
+        given:
+        def registry = new DefaultSerializerRegistry()
+        registry.useGeneratedSerializer(TestBeanHolder)
+        registry.useGeneratedSerializer(TestBean)
+        registry.useGeneratedSerializer(TestBeanSubtype)
+        def serializer = registry.build(TestBeanHolder)
+
+        when:
+        def result = serialize(new TestBeanHolder(bean: new TestBeanSubtype(name: "a", extra: "b")), serializer)
+
+        then:
+        result.bean instanceof TestBeanSubtype
+        result.bean.name == "a"
+        result.bean.extra == "b"
+    }
+
+    def "generated serializer fails to write property value of unregistered subtype"() {
+        given:
+        def registry = new DefaultSerializerRegistry()
+        registry.useGeneratedSerializer(TestBeanHolder)
+        registry.useGeneratedSerializer(TestBean)
+        def serializer = registry.build(TestBeanHolder)
+
+        when:
+        serialize(new TestBeanHolder(bean: new TestBeanSubtype(name: "a", extra: "b")), serializer)
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message == "Don't know how to serialize an object of type ${TestBeanSubtype.name}."
+    }
+
+    def "cannot generate serializer for type without public no-args constructor"() {
+        given:
+        def registry = new DefaultSerializerRegistry()
+
+        when:
+        registry.useGeneratedSerializer(NoDefaultConstructor)
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message == "Cannot generate a serializer for type ${NoDefaultConstructor.name} as it does not have a public no-args constructor."
+    }
+
+    def "can query whether a type can be serialized"() {
+        given:
+        def registry = new DefaultSerializerRegistry()
+        registry.register(Long, longSerializer)
+        registry.useJavaSerialization(String)
+
+        expect:
+        registry.canSerialize(Long)
+        registry.canSerialize(Number)
+        registry.canSerialize(CharSequence)
+        !registry.canSerialize(Integer)
+    }
+
+    static class TestBean {
+        String name
+        int count
+        boolean flag
+        double total
+        Long id
+        TestBean child
+    }
+
+    static class TestBeanSubtype extends TestBean {
+        String extra
+    }
+
+    static class BeanWithDefault {
+        String name = "default"
+        TestBean child = new TestBean(name: "default")
+    }
+
+    static class TestBeanHolder {
+        TestBean bean
+    }
+
+    static class NoDefaultConstructor {
+        NoDefaultConstructor(String value) {
+        }
+    }
 }
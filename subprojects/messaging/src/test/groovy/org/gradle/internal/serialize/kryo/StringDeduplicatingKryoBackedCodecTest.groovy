@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.serialize.kryo
+
+import org.gradle.internal.serialize.AbstractCodecTest
+import org.gradle.internal.serialize.Decoder
+import org.gradle.internal.serialize.Encoder
+
+class StringDeduplicatingKryoBackedCodecTest extends AbstractCodecTest {
+    @Override
+    void encodeTo(OutputStream outputStream, Closure<Encoder> closure) {
+        def encoder = new StringDeduplicatingKryoBackedEncoder(outputStream, 10)
+        closure.call(encoder)
+        encoder.flush()
+    }
+
+    @Override
+    void decodeFrom(InputStream inputStream, Closure<Decoder> closure) {
+        def decoder = new StringDeduplicatingKryoBackedDecoder(inputStream, 10)
+        closure.call(decoder)
+    }
+
+    def "writes repeated strings only once"() {
+        def string = "org.gradle.internal.SomeClass"
+        def plain = new ByteArrayOutputStream()
+        def deduplicated = new ByteArrayOutputStream()
+
+        when:
+        def encoder = new KryoBackedEncoder(plain)
+        def deduplicatingEncoder = new StringDeduplicatingKryoBackedEncoder(deduplicated)
+        10.times {
+            encoder.writeString(string)
+            deduplicatingEncoder.writeString(string)
+        }
+        encoder.close()
+        deduplicatingEncoder.close()
+
+        then:
+        deduplicated.size() < plain.size() / 5
+
+        when:
+        def decoder = new StringDeduplicatingKryoBackedDecoder(new ByteArrayInputStream(deduplicated.toByteArray()))
+
+        then:
+        10.times {
+            assert decoder.readString() == string
+        }
+    }
+
+    def "can decode data written after strings were reset"() {
+        def outstr = new ByteArrayOutputStream()
+        def encoder = new StringDeduplicatingKryoBackedEncoder(outstr)
+
+        when:
+        encoder.writeString("a")
+        encoder.writeString("b")
+        encoder.flush()
+        def offset = outstr.size()
+        encoder.resetStrings()
+        encoder.writeString("b")
+        encoder.writeString("a")
+        encoder.writeNullableString(null)
+        encoder.writeString("b")
+        encoder.close()
+        def bytes = outstr.toByteArray()
+        def decoder = new StringDeduplicatingKryoBackedDecoder(new ByteArrayInputStream(bytes, offset, bytes.length - offset))
+
+        then:
+        decoder.readString() == "b"
+        decoder.readString() == "a"
+        decoder.readNullableString() == null
+        decoder.readString() == "b"
+    }
+}
@@ -17,13 +17,15 @@
 package org.gradle.model.internal.manage.schema.extract;
 
 import net.jcip.annotations.ThreadSafe;
+import org.gradle.internal.memory.MemoryPressure;
+import org.gradle.internal.memory.MemoryPressureListener;
 import org.gradle.model.internal.manage.schema.ModelSchema;
 import org.gradle.model.internal.manage.schema.ModelSchemaStore;
 import org.gradle.model.internal.manage.schema.cache.ModelSchemaCache;
 import org.gradle.model.internal.type.ModelType;
 
 @ThreadSafe
-public class DefaultModelSchemaStore implements ModelSchemaStore {
+public class DefaultModelSchemaStore implements ModelSchemaStore, MemoryPressureListener {
     final Object lock = new Object();
     final ModelSchemaCache cache = new ModelSchemaCache();
     final ModelSchemaExtractor schemaExtractor;
@@ -55,6 +57,15 @@ public class DefaultModelSchemaStore implements ModelSchemaStore {
         }
     }
 
+    /**
+     * Schemas are shared by identity while a build runs, so only the schemas for types that have been unloaded are discarded. Types become unloadable
+     * as the class loader cache releases class loaders.
+     */
+    @Override
+    public void onMemoryPressure(MemoryPressure pressure) {
+        cleanUp();
+    }
+
     public long size() {
         synchronized (lock) {
             return cache.size();
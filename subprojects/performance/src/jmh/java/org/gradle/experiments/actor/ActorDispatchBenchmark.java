@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.experiments.actor;
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.dispatch.AsyncDispatch;
+import org.gradle.internal.dispatch.Dispatch;
+import org.gradle.internal.dispatch.MultiplexedAsyncDispatch;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+/**
+ * Compares delivering messages to a set of actors where each actor has its own thread, with delivering them using actors that share an executor.
+ * {@link #dispatchToIdleActors()} sends a burst of messages to all actors at once, {@link #dispatchToEachActorInTurn()} keeps all but one actor idle.
+ */
+@State(Scope.Thread)
+public class ActorDispatchBenchmark {
+    @Param({"threadPerActor", "multiplexed"})
+    String dispatch;
+
+    @Param({"64"})
+    int actors;
+
+    @Param({"20"})
+    int messagesPerActor;
+
+    private DefaultExecutorFactory executorFactory;
+    private List<Dispatch<CountDownLatch>> dispatches;
+
+    @Setup
+    public void setup() {
+        executorFactory = new DefaultExecutorFactory();
+        dispatches = new ArrayList<Dispatch<CountDownLatch>>();
+        Dispatch<CountDownLatch> target = new Dispatch<CountDownLatch>() {
+            public void dispatch(CountDownLatch message) {
+                message.countDown();
+            }
+        };
+        if (dispatch.equals("multiplexed")) {
+            Executor executor = executorFactory.create("Actor dispatch");
+            for (int i = 0; i < actors; i++) {
+                dispatches.add(new MultiplexedAsyncDispatch<CountDownLatch>(executor, target));
+            }
+        } else {
+            for (int i = 0; i < actors; i++) {
+                dispatches.add(new AsyncDispatch<CountDownLatch>(executorFactory.create("Dispatch " + i), target));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (Dispatch<CountDownLatch> dispatch : dispatches) {
+            ((Stoppable) dispatch).stop();
+        }
+        executorFactory.stop();
+    }
+
+    @Benchmark
+    public void dispatchToIdleActors() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(actors * messagesPerActor);
+        for (int i = 0; i < messagesPerActor; i++) {
+            for (Dispatch<CountDownLatch> dispatch : dispatches) {
+                dispatch.dispatch(latch);
+            }
+        }
+        latch.await();
+    }
+
+    @Benchmark
+    public void dispatchToEachActorInTurn() throws InterruptedException {
+        for (Dispatch<CountDownLatch> dispatch : dispatches) {
+            CountDownLatch latch = new CountDownLatch(1);
+            dispatch.dispatch(latch);
+            latch.await();
+        }
+    }
+}
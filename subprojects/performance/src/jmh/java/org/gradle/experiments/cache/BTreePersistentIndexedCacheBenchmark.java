@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.experiments.cache;
+
+import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.util.GFileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures lookups and updates of a large {@link BTreePersistentIndexedCache}. Keys are visited in a scattered order, so that
+ * most operations touch index blocks that are not cached. The cache is not thread-safe, so each benchmark thread works against
+ * its own cache file.
+ */
+@State(Scope.Thread)
+public class BTreePersistentIndexedCacheBenchmark {
+    private static final int STRIDE = 7919;
+
+    @Param({"1000000"})
+    int entries;
+
+    private File cacheDir;
+    private BTreePersistentIndexedCache<String, Long> cache;
+    private String[] keys;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void createCache() throws IOException {
+        cacheDir = File.createTempFile("btree", "benchmark");
+        GFileUtils.forceDelete(cacheDir);
+        GFileUtils.mkdirs(cacheDir);
+        cache = new BTreePersistentIndexedCache<String, Long>(new File(cacheDir, "cache.bin"), BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.LONG_SERIALIZER);
+        keys = new String[entries];
+        Map<String, Long> values = new HashMap<String, Long>();
+        for (int i = 0; i < entries; i++) {
+            keys[i] = "/some/project/src/main/java/org/gradle/File" + i + ".java";
+            values.put(keys[i], (long) i);
+        }
+        cache.putAll(values);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCache() {
+        cache.close();
+        GFileUtils.deleteDirectory(cacheDir);
+    }
+
+    @Benchmark
+    public Long get() {
+        return cache.get(nextKey());
+    }
+
+    @Benchmark
+    public Long getMissing() {
+        return cache.get(nextKey() + ".missing");
+    }
+
+    @Benchmark
+    public void put() {
+        cache.put(nextKey(), (long) index);
+    }
+
+    @Benchmark
+    public void putAll() {
+        Map<String, Long> batch = new HashMap<String, Long>();
+        for (int i = 0; i < 100; i++) {
+            batch.put(nextKey(), (long) index);
+        }
+        cache.putAll(batch);
+    }
+
+    private String nextKey() {
+        index = (index + STRIDE) % entries;
+        return keys[index];
+    }
+}
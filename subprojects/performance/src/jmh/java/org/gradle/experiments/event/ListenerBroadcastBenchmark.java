@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.experiments.event;
+
+import org.gradle.internal.dispatch.ProxyDispatchAdapter;
+import org.gradle.internal.event.ListenerBroadcast;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares broadcasting events to a set of listeners through a dynamic proxy, which creates a {@link org.gradle.internal.dispatch.MethodInvocation}
+ * and calls each listener reflectively, with broadcasting them through the generated source of a {@link ListenerBroadcast}, which calls each
+ * listener directly.
+ */
+@State(Scope.Thread)
+public class ListenerBroadcastBenchmark {
+    @Param({"proxy", "generated"})
+    String source;
+
+    @Param({"1", "8"})
+    int listeners;
+
+    private TaskListener broadcaster;
+
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        ListenerBroadcast<TaskListener> broadcast = new ListenerBroadcast<TaskListener>(TaskListener.class);
+        for (int i = 0; i < listeners; i++) {
+            broadcast.add(new TaskListener() {
+                public void beforeExecute(String path) {
+                    blackhole.consume(path);
+                }
+
+                public void afterExecute(String path, int outcome, long duration) {
+                    blackhole.consume(path);
+                    blackhole.consume(outcome);
+                    blackhole.consume(duration);
+                }
+            });
+        }
+        if (source.equals("proxy")) {
+            broadcaster = new ProxyDispatchAdapter<TaskListener>(broadcast, TaskListener.class).getSource();
+        } else {
+            broadcaster = broadcast.getSource();
+        }
+    }
+
+    @Benchmark
+    public void broadcastEvents() {
+        broadcaster.beforeExecute(":compileJava");
+        broadcaster.afterExecute(":compileJava", 2, 1234L);
+    }
+
+    public interface TaskListener {
+        void beforeExecute(String path);
+
+        void afterExecute(String path, int outcome, long duration);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.experiments.messaging;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Measures encoding and decoding of dependency resolution style records, which repeat a small set of module ids and paths many times,
+ * with and without string deduplication.
+ */
+@State(Scope.Thread)
+public class KryoStringDeduplicationBenchmark {
+    @Param({"plain", "deduplicating"})
+    String encoding;
+
+    @Param({"10000"})
+    int records;
+
+    private String[] moduleIds;
+    private String[] paths;
+    private int[] selections;
+    private ByteArrayOutputStream buffer;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws Exception {
+        moduleIds = new String[300];
+        paths = new String[moduleIds.length];
+        for (int i = 0; i < moduleIds.length; i++) {
+            moduleIds[i] = "org.sample.group" + (i % 20) + ":module-" + i + ":1." + (i % 7) + ".0";
+            paths[i] = "/home/user/.gradle/caches/modules-2/files-2.1/org.sample.group" + (i % 20) + "/module-" + i + "/1." + (i % 7) + ".0/module-" + i + ".jar";
+        }
+        Random random = new Random(42);
+        selections = new int[records * 2];
+        for (int i = 0; i < selections.length; i++) {
+            selections[i] = random.nextInt(moduleIds.length);
+        }
+        buffer = new ByteArrayOutputStream(1024 * 1024);
+        encode();
+        encoded = buffer.toByteArray();
+    }
+
+    @Benchmark
+    public int encode() {
+        buffer.reset();
+        KryoBackedEncoder encoder = newEncoder(buffer);
+        for (int i = 0; i < records; i++) {
+            int from = selections[2 * i];
+            int to = selections[2 * i + 1];
+            encoder.writeSmallLong(i);
+            encoder.writeString(moduleIds[from]);
+            encoder.writeString(moduleIds[to]);
+            encoder.writeString(paths[to]);
+            encoder.writeBoolean((i & 1) == 0);
+        }
+        encoder.close();
+        return buffer.size();
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        KryoBackedDecoder decoder = newDecoder(new ByteArrayInputStream(encoded));
+        Object result = null;
+        for (int i = 0; i < records; i++) {
+            result = read(decoder);
+        }
+        decoder.close();
+        return result;
+    }
+
+    private Object read(Decoder decoder) throws Exception {
+        decoder.readSmallLong();
+        decoder.readString();
+        decoder.readString();
+        String path = decoder.readString();
+        decoder.readBoolean();
+        return path;
+    }
+
+    private KryoBackedEncoder newEncoder(OutputStream outputStream) {
+        return encoding.equals("deduplicating") ? new StringDeduplicatingKryoBackedEncoder(outputStream) : new KryoBackedEncoder(outputStream);
+    }
+
+    private KryoBackedDecoder newDecoder(InputStream inputStream) {
+        return encoding.equals("deduplicating") ? new StringDeduplicatingKryoBackedDecoder(inputStream) : new KryoBackedDecoder(inputStream);
+    }
+}
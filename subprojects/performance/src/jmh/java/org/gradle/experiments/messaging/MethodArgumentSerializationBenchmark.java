@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.experiments.messaging;
+
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.Message;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.Serializable;
+
+/**
+ * Measures the cost of sending a batch of protocol messages between the build process and a worker, using Java serialization and using
+ * a generated serializer. Each operation encodes the batch and then decodes it again, as the worker would.
+ */
+@State(Scope.Thread)
+public class MethodArgumentSerializationBenchmark {
+    @Param({"100"})
+    int messages;
+
+    private Serializer<WorkSpec> generatedSerializer;
+    private WorkSpec spec;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setup() {
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry();
+        registry.register(File.class, BaseSerializerFactory.FILE_SERIALIZER);
+        registry.useGeneratedSerializer(WorkSpec.class);
+        generatedSerializer = registry.build(WorkSpec.class);
+        spec = new WorkSpec();
+        spec.setDisplayName("compile Java sources for :core");
+        spec.setSourceFile(new File("/some/project/src/main/java/org/gradle/SomeClass.java"));
+        spec.setDestinationDir(new File("/some/project/build/classes/main"));
+        spec.setEncoding("UTF-8");
+        spec.setIncremental(true);
+        spec.setMaxErrors(100);
+        spec.setTimestamp(1465000000000L);
+        buffer = new ByteArrayOutputStream(64 * 1024);
+    }
+
+    @Benchmark
+    public Object javaSerialization() throws Exception {
+        buffer.reset();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(buffer);
+        for (int i = 0; i < messages; i++) {
+            Message.send(spec, encoder.getOutputStream());
+        }
+        encoder.flush();
+        KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(buffer.toByteArray()));
+        Object result = null;
+        for (int i = 0; i < messages; i++) {
+            result = Message.receive(decoder.getInputStream(), getClass().getClassLoader());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object generatedSerializer() throws Exception {
+        buffer.reset();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(buffer);
+        for (int i = 0; i < messages; i++) {
+            generatedSerializer.write(encoder, spec);
+        }
+        encoder.flush();
+        KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(buffer.toByteArray()));
+        Object result = null;
+        for (int i = 0; i < messages; i++) {
+            result = generatedSerializer.read(decoder);
+        }
+        return result;
+    }
+
+    public static class WorkSpec implements Serializable {
+        private String displayName;
+        private File sourceFile;
+        private File destinationDir;
+        private String encoding;
+        private boolean incremental;
+        private int maxErrors;
+        private long timestamp;
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public void setDisplayName(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public File getSourceFile() {
+            return sourceFile;
+        }
+
+        public void setSourceFile(File sourceFile) {
+            this.sourceFile = sourceFile;
+        }
+
+        public File getDestinationDir() {
+            return destinationDir;
+        }
+
+        public void setDestinationDir(File destinationDir) {
+            this.destinationDir = destinationDir;
+        }
+
+        public String getEncoding() {
+            return encoding;
+        }
+
+        public void setEncoding(String encoding) {
+            this.encoding = encoding;
+        }
+
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        public void setIncremental(boolean incremental) {
+            this.incremental = incremental;
+        }
+
+        public int getMaxErrors() {
+            return maxErrors;
+        }
+
+        public void setMaxErrors(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public void setTimestamp(long timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+}
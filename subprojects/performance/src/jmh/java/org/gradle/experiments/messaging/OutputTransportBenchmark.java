@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.experiments.messaging;
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.dispatch.Dispatch;
+import org.gradle.internal.remote.internal.KryoBackedMessageSerializer;
+import org.gradle.internal.remote.internal.inet.SocketConnection;
+import org.gradle.internal.remote.internal.shm.MappedRingBuffer;
+import org.gradle.internal.remote.internal.shm.MappedRingBufferReceiver;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Serializers;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sending chunks of output from one thread to another through a loopback {@link SocketConnection}, as test workers send their output
+ * to the build process, with sending them through a {@link MappedRingBuffer}. In both cases the chunks are received by a background thread.
+ */
+@State(Scope.Thread)
+public class OutputTransportBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"socket", "sharedMemory"})
+    String transport;
+
+    @Param({"80", "1024"})
+    int chunkSize;
+
+    private final Semaphore received = new Semaphore(0);
+    private byte[] chunk;
+    private SocketConnection<byte[]> client;
+    private SocketConnection<byte[]> server;
+    private Thread socketReceiver;
+    private MappedRingBuffer writer;
+    private MappedRingBufferReceiver ringBufferReceiver;
+    private DefaultExecutorFactory executorFactory;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        chunk = new byte[chunkSize];
+        Arrays.fill(chunk, (byte) 'x');
+        Dispatch<byte[]> counter = new Dispatch<byte[]>() {
+            @Override
+            public void dispatch(byte[] message) {
+                received.release();
+            }
+        };
+        if (transport.equals("socket")) {
+            ServerSocketChannel serverSocket = ServerSocketChannel.open();
+            try {
+                serverSocket.socket().bind(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+                SocketChannel clientChannel = SocketChannel.open(serverSocket.socket().getLocalSocketAddress());
+                SocketChannel serverChannel = serverSocket.accept();
+                client = new SocketConnection<byte[]>(clientChannel, new KryoBackedMessageSerializer(), Serializers.stateful(BaseSerializerFactory.BYTE_ARRAY_SERIALIZER));
+                server = new SocketConnection<byte[]>(serverChannel, new KryoBackedMessageSerializer(), Serializers.stateful(BaseSerializerFactory.BYTE_ARRAY_SERIALIZER));
+            } finally {
+                serverSocket.close();
+            }
+            socketReceiver = new Thread(new Receive(server, counter));
+            socketReceiver.start();
+        } else {
+            MappedRingBuffer buffer = MappedRingBuffer.createTemporary("output-benchmark", 1024 * 1024);
+            writer = MappedRingBuffer.open(buffer.getFile());
+            executorFactory = new DefaultExecutorFactory();
+            ringBufferReceiver = new MappedRingBufferReceiver(buffer, counter, executorFactory);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException {
+        if (client != null) {
+            client.stop();
+            server.stop();
+            socketReceiver.join();
+            client = null;
+        }
+        if (ringBufferReceiver != null) {
+            ringBufferReceiver.stop();
+            executorFactory.stop();
+            writer.getFile().delete();
+            ringBufferReceiver = null;
+        }
+    }
+
+    /**
+     * Sends a batch of chunks and waits for all of them to be received. The socket connection is flushed once per batch, as the message hub does when
+     * output is generated faster than it can be written.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void throughput() throws InterruptedException {
+        if (client != null) {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                client.dispatch(chunk);
+            }
+            client.flush();
+        } else {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                writer.write(chunk, 0, chunk.length);
+            }
+        }
+        received.acquire(BATCH_SIZE);
+    }
+
+    private static class Receive implements Runnable {
+        private final SocketConnection<byte[]> connection;
+        private final Dispatch<byte[]> dispatch;
+
+        Receive(SocketConnection<byte[]> connection, Dispatch<byte[]> dispatch) {
+            this.connection = connection;
+            this.dispatch = dispatch;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                byte[] message = connection.receive();
+                if (message == null) {
+                    return;
+                }
+                dispatch.dispatch(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.experiments.messaging;
+
+import org.gradle.internal.remote.internal.KryoBackedMessageSerializer;
+import org.gradle.internal.remote.internal.inet.SocketConnection;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Serializers;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput and latency of small messages sent over a loopback {@link SocketConnection}, such as the test output
+ * events sent from a test worker to the build process.
+ */
+@State(Scope.Thread)
+public class SocketConnectionBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    private SocketConnection<Long> client;
+    private SocketConnection<Long> server;
+    private Thread echo;
+
+    @Setup(Level.Iteration)
+    public void connect() throws IOException {
+        ServerSocketChannel serverSocket = ServerSocketChannel.open();
+        try {
+            serverSocket.socket().bind(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+            SocketChannel clientChannel = SocketChannel.open(serverSocket.socket().getLocalSocketAddress());
+            SocketChannel serverChannel = serverSocket.accept();
+            client = new SocketConnection<Long>(clientChannel, new KryoBackedMessageSerializer(), Serializers.stateful(BaseSerializerFactory.LONG_SERIALIZER));
+            server = new SocketConnection<Long>(serverChannel, new KryoBackedMessageSerializer(), Serializers.stateful(BaseSerializerFactory.LONG_SERIALIZER));
+        } finally {
+            serverSocket.close();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void disconnect() throws InterruptedException {
+        client.stop();
+        server.stop();
+        if (echo != null) {
+            echo.join();
+            echo = null;
+        }
+    }
+
+    /**
+     * Sends a batch of messages and flushes once, as the message hub does when messages are queued faster than they can be written.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long throughput() {
+        for (long i = 0; i < BATCH_SIZE; i++) {
+            client.dispatch(i);
+        }
+        client.flush();
+        long total = 0;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            total += server.receive();
+        }
+        return total;
+    }
+
+    /**
+     * Sends a single message and waits for the peer to echo it back.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Long roundTrip() {
+        if (echo == null) {
+            echo = new Thread(new Echo(server));
+            echo.start();
+        }
+        client.dispatch(1L);
+        client.flush();
+        return client.receive();
+    }
+
+    private static class Echo implements Runnable {
+        private final SocketConnection<Long> connection;
+
+        Echo(SocketConnection<Long> connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Long message = connection.receive();
+                if (message == null) {
+                    return;
+                }
+                connection.dispatch(message);
+                connection.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.local;
+
+import java.io.File;
+
+/**
+ * Records that files held in a file store have been used, so that entries that are no longer used can later be removed.
+ * Implementations must be thread-safe and cheap to call.
+ */
+public interface FileAccessTracker {
+    FileAccessTracker NO_OP = new FileAccessTracker() {
+        public void markAccessed(File file) {
+        }
+    };
+
+    /**
+     * Marks the given file as accessed.
+     */
+    void markAccessed(File file);
+}
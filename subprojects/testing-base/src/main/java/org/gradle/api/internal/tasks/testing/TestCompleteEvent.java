@@ -21,9 +21,15 @@ import org.gradle.api.tasks.testing.TestResult;
 
 import java.io.Serializable;
 
+/**
+ * A bean, so that it can be sent to and from test workers using a generated serializer.
+ */
 public class TestCompleteEvent implements Serializable {
-    private final long endTime;
-    private final TestResult.ResultType resultType;
+    private long endTime;
+    private TestResult.ResultType resultType;
+
+    public TestCompleteEvent() {
+    }
 
     public TestCompleteEvent(long endTime) {
         this(endTime, null);
@@ -38,8 +44,16 @@ public class TestCompleteEvent implements Serializable {
         return endTime;
     }
 
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+
     @Nullable
     public TestResult.ResultType getResultType() {
         return resultType;
     }
+
+    public void setResultType(@Nullable TestResult.ResultType resultType) {
+        this.resultType = resultType;
+    }
 }
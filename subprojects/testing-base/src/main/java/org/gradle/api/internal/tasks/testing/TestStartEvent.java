@@ -20,9 +20,15 @@ import org.gradle.api.Nullable;
 
 import java.io.Serializable;
 
+/**
+ * A bean, so that it can be sent to and from test workers using a generated serializer.
+ */
 public class TestStartEvent implements Serializable {
-    private final long startTime;
-    private final Object parentId;
+    private long startTime;
+    private Object parentId;
+
+    public TestStartEvent() {
+    }
 
     public TestStartEvent(long startTime) {
         this(startTime, null);
@@ -37,11 +43,19 @@ public class TestStartEvent implements Serializable {
         return startTime;
     }
 
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
     @Nullable
     public Object getParentId() {
         return parentId;
     }
 
+    public void setParentId(@Nullable Object parentId) {
+        this.parentId = parentId;
+    }
+
     /**
      * Creates a copy of this event with a new parent id.
      */
@@ -22,35 +22,48 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.remote.internal.shm.MappedRingBuffer;
 import org.gradle.process.JavaForkOptions;
 import org.gradle.process.internal.worker.WorkerProcess;
 import org.gradle.process.internal.worker.WorkerProcessBuilder;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.CollectionUtils;
+import org.gradle.util.GFileUtils;
 
 import java.io.File;
 import java.net.URL;
 import java.util.List;
 
 public class ForkingTestClassProcessor implements TestClassProcessor {
+    /**
+     * When set to true, test output is sent from the test worker through a shared memory buffer instead of the worker's connection.
+     */
+    public static final String SHARED_MEMORY_OUTPUT_PROPERTY = "org.gradle.testing.sharedMemoryOutput";
+    private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
     private final WorkerProcessFactory workerFactory;
     private final WorkerTestClassProcessorFactory processorFactory;
     private final JavaForkOptions options;
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
     private final ModuleRegistry moduleRegistry;
+    private final ExecutorFactory executorFactory;
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
     private TestResultProcessor resultProcessor;
+    private MappedRingBuffer outputBuffer;
+    private SharedMemoryTestOutputReceiver outputReceiver;
 
-    public ForkingTestClassProcessor(WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry) {
+    public ForkingTestClassProcessor(WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, ExecutorFactory executorFactory) {
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
         this.options = options;
         this.classPath = classPath;
         this.buildConfigAction = buildConfigAction;
         this.moduleRegistry = moduleRegistry;
+        this.executorFactory = executorFactory;
     }
 
     @Override
@@ -68,7 +81,10 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     }
 
     RemoteTestClassProcessor forkProcess() {
-        WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory));
+        if (Boolean.getBoolean(SHARED_MEMORY_OUTPUT_PROPERTY)) {
+            outputBuffer = MappedRingBuffer.createTemporary("gradle-test-output", OUTPUT_BUFFER_SIZE);
+        }
+        WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory, outputBuffer == null ? null : outputBuffer.getFile()));
         builder.setBaseName("Gradle Test Executor");
         builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
         builder.applicationClasspath(classPath);
@@ -80,7 +96,12 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
         ObjectConnection connection = workerProcess.getConnection();
         connection.useParameterSerializers(TestEventSerializer.create());
-        connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        TestResultProcessor workerResultProcessor = resultProcessor;
+        if (outputBuffer != null) {
+            outputReceiver = new SharedMemoryTestOutputReceiver(outputBuffer, resultProcessor, executorFactory);
+            workerResultProcessor = outputReceiver;
+        }
+        connection.addIncoming(TestResultProcessor.class, workerResultProcessor);
         RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
         connection.connect();
         remoteProcessor.startProcessing();
@@ -102,6 +123,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
             moduleRegistry.getExternalModule("jul-to-slf4j").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getExternalModule("native-platform").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getExternalModule("kryo").getImplementationClasspath().getAsURLs(),
+            moduleRegistry.getExternalModule("asm-all").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getExternalModule("commons-lang").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getExternalModule("junit").getImplementationClasspath().getAsURLs()
         );
@@ -109,9 +131,21 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
     @Override
     public void stop() {
-        if (remoteProcessor != null) {
-            remoteProcessor.stop();
-            workerProcess.waitForStop();
+        try {
+            if (remoteProcessor != null) {
+                remoteProcessor.stop();
+                workerProcess.waitForStop();
+            }
+        } finally {
+            if (outputBuffer != null) {
+                try {
+                    CompositeStoppable.stoppable(outputReceiver).stop();
+                } finally {
+                    // The file cannot be deleted on Windows while it is mapped
+                    outputBuffer.unmap();
+                    GFileUtils.deleteQuietly(outputBuffer.getFile());
+                }
+            }
         }
     }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.dispatch.Dispatch;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.remote.internal.shm.MappedRingBuffer;
+import org.gradle.internal.remote.internal.shm.MappedRingBufferReceiver;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * Used in the build process to receive the test output written by a {@link SharedMemoryTestOutputWriter}, and to merge it with the events received
+ * from the test worker's connection. Output is forwarded to the given processor in the order it was generated relative to the other events.
+ */
+public class SharedMemoryTestOutputReceiver implements TestResultProcessor, Stoppable {
+    private final TestResultProcessor processor;
+    private final MappedRingBufferReceiver receiver;
+
+    public SharedMemoryTestOutputReceiver(MappedRingBuffer buffer, TestResultProcessor processor, ExecutorFactory executorFactory) {
+        this.processor = processor;
+        this.receiver = new MappedRingBufferReceiver(buffer, new OutputDispatch(processor), executorFactory);
+    }
+
+    @Override
+    public void started(final TestDescriptorInternal test, final TestStartEvent event) {
+        receiver.drainThen(new Runnable() {
+            @Override
+            public void run() {
+                processor.started(test, event);
+            }
+        });
+    }
+
+    @Override
+    public void completed(final Object testId, final TestCompleteEvent event) {
+        receiver.drainThen(new Runnable() {
+            @Override
+            public void run() {
+                processor.completed(testId, event);
+            }
+        });
+    }
+
+    @Override
+    public void output(final Object testId, final TestOutputEvent event) {
+        receiver.drainThen(new Runnable() {
+            @Override
+            public void run() {
+                processor.output(testId, event);
+            }
+        });
+    }
+
+    @Override
+    public void failure(final Object testId, final Throwable result) {
+        receiver.drainThen(new Runnable() {
+            @Override
+            public void run() {
+                processor.failure(testId, result);
+            }
+        });
+    }
+
+    @Override
+    public void stop() {
+        receiver.stop();
+    }
+
+    private static class OutputDispatch implements Dispatch<byte[]> {
+        private final TestResultProcessor processor;
+        private final Serializer<CompositeIdGenerator.CompositeId> idSerializer;
+        private final Serializer<DefaultTestOutputEvent> eventSerializer;
+
+        OutputDispatch(TestResultProcessor processor) {
+            this.processor = processor;
+            SerializerRegistry registry = TestEventSerializer.create();
+            idSerializer = registry.build(CompositeIdGenerator.CompositeId.class);
+            eventSerializer = registry.build(DefaultTestOutputEvent.class);
+        }
+
+        @Override
+        public void dispatch(byte[] record) {
+            try {
+                KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(record));
+                try {
+                    CompositeIdGenerator.CompositeId testId = idSerializer.read(decoder);
+                    DefaultTestOutputEvent event = eventSerializer.read(decoder);
+                    processor.output(testId, event);
+                } finally {
+                    decoder.close();
+                }
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.remote.internal.shm.MappedRingBuffer;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Used in the test worker to send test output to the build process through a {@link MappedRingBuffer}, rather than through the connection to the
+ * build process. All other events, and any output that cannot be written to the buffer, are sent to the given processor.
+ *
+ * @see SharedMemoryTestOutputReceiver
+ */
+public class SharedMemoryTestOutputWriter implements TestResultProcessor {
+    private final MappedRingBuffer buffer;
+    private final TestResultProcessor processor;
+    private final Serializer<CompositeIdGenerator.CompositeId> idSerializer;
+    private final Serializer<DefaultTestOutputEvent> eventSerializer;
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+
+    public SharedMemoryTestOutputWriter(MappedRingBuffer buffer, TestResultProcessor processor) {
+        this.buffer = buffer;
+        this.processor = processor;
+        SerializerRegistry registry = TestEventSerializer.create();
+        idSerializer = registry.build(CompositeIdGenerator.CompositeId.class);
+        eventSerializer = registry.build(DefaultTestOutputEvent.class);
+    }
+
+    @Override
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        processor.started(test, event);
+    }
+
+    @Override
+    public void completed(Object testId, TestCompleteEvent event) {
+        processor.completed(testId, event);
+    }
+
+    @Override
+    public void output(Object testId, TestOutputEvent event) {
+        if (testId instanceof CompositeIdGenerator.CompositeId && event instanceof DefaultTestOutputEvent
+            && write((CompositeIdGenerator.CompositeId) testId, (DefaultTestOutputEvent) event)) {
+            return;
+        }
+        processor.output(testId, event);
+    }
+
+    @Override
+    public void failure(Object testId, Throwable result) {
+        processor.failure(testId, result);
+    }
+
+    // Output can be generated by any thread, but the buffer only supports a single writer
+    private synchronized boolean write(CompositeIdGenerator.CompositeId testId, DefaultTestOutputEvent event) {
+        record.reset();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(record);
+        try {
+            idSerializer.write(encoder, testId);
+            eventSerializer.write(encoder, event);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            encoder.close();
+        }
+        return buffer.write(record.toByteArray(), 0, record.size());
+    }
+}
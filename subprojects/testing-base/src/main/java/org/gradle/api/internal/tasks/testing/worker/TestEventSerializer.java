@@ -33,37 +33,14 @@ public class TestEventSerializer {
         registry.register(DefaultTestClassDescriptor.class, new DefaultTestClassDescriptorSerializer());
         registry.register(DefaultTestMethodDescriptor.class, new DefaultTestMethodDescriptorSerializer());
         registry.register(DefaultTestDescriptor.class, new DefaultTestDescriptorSerializer());
-        registry.register(TestStartEvent.class, new TestStartEventSerializer());
-        registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
+        registry.useGeneratedSerializer(TestStartEvent.class);
+        registry.useGeneratedSerializer(TestCompleteEvent.class);
+        registry.register(TestResult.ResultType.class, factory.getSerializerFor(TestResult.ResultType.class));
         registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
         registry.register(Throwable.class, factory.getSerializerFor(Throwable.class));
         return registry;
     }
 
-    private static class NullableSerializer<T> implements Serializer<T> {
-        private final Serializer<T> serializer;
-
-        private NullableSerializer(Serializer<T> serializer) {
-            this.serializer = serializer;
-        }
-
-        @Override
-        public T read(Decoder decoder) throws Exception {
-            if (!decoder.readBoolean()) {
-                return null;
-            }
-            return serializer.read(decoder);
-        }
-
-        @Override
-        public void write(Encoder encoder, T value) throws Exception {
-            encoder.writeBoolean(value != null);
-            if (value != null) {
-                serializer.write(encoder, value);
-            }
-        }
-    }
-
     private static class IdSerializer implements Serializer<CompositeIdGenerator.CompositeId> {
         @Override
         public CompositeIdGenerator.CompositeId read(Decoder decoder) throws Exception {
@@ -89,40 +66,6 @@ public class TestEventSerializer {
         }
     }
 
-    private static class TestStartEventSerializer implements Serializer<TestStartEvent> {
-        final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new NullableSerializer<CompositeIdGenerator.CompositeId>(new IdSerializer());
-
-        @Override
-        public TestStartEvent read(Decoder decoder) throws Exception {
-            long time = decoder.readLong();
-            Object id = idSerializer.read(decoder);
-            return new TestStartEvent(time, id);
-        }
-
-        @Override
-        public void write(Encoder encoder, TestStartEvent value) throws Exception {
-            encoder.writeLong(value.getStartTime());
-            idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) value.getParentId());
-        }
-    }
-
-    private static class TestCompleteEventSerializer implements Serializer<TestCompleteEvent> {
-        private final Serializer<TestResult.ResultType> typeSerializer = new NullableSerializer<TestResult.ResultType>(new BaseSerializerFactory().getSerializerFor(TestResult.ResultType.class));
-
-        @Override
-        public TestCompleteEvent read(Decoder decoder) throws Exception {
-            long endTime = decoder.readLong();
-            TestResult.ResultType result = typeSerializer.read(decoder);
-            return new TestCompleteEvent(endTime, result);
-        }
-
-        @Override
-        public void write(Encoder encoder, TestCompleteEvent value) throws Exception {
-            encoder.writeLong(value.getEndTime());
-            typeSerializer.write(encoder, value.getResultType());
-        }
-    }
-
     private static class DefaultTestOutputEventSerializer implements Serializer<DefaultTestOutputEvent> {
         private final Serializer<TestOutputEvent.Destination> destinationSerializer = new BaseSerializerFactory().getSerializerFor(TestOutputEvent.Destination.class);
 
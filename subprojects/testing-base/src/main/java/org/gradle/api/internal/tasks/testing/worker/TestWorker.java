@@ -17,6 +17,7 @@
 package org.gradle.api.internal.tasks.testing.worker;
 
 import org.gradle.api.Action;
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
@@ -35,10 +36,12 @@ import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.actor.internal.DefaultActorFactory;
 import org.gradle.internal.dispatch.ContextClassLoaderProxy;
 import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.remote.internal.shm.MappedRingBuffer;
 import org.gradle.process.internal.worker.WorkerProcessContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.Serializable;
 import java.util.concurrent.CountDownLatch;
 
@@ -46,12 +49,21 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     private static final Logger LOGGER = LoggerFactory.getLogger(TestWorker.class);
     public static final String WORKER_ID_SYS_PROPERTY = "org.gradle.test.worker";
     private final WorkerTestClassProcessorFactory factory;
+    private final File outputBuffer;
     private CountDownLatch completed;
     private TestClassProcessor processor;
     private TestResultProcessor resultProcessor;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
+        this(factory, null);
+    }
+
+    /**
+     * @param outputBuffer A {@link MappedRingBuffer} to use to send test output to the build process, or null to send it through the connection.
+     */
+    public TestWorker(WorkerTestClassProcessorFactory factory, @Nullable File outputBuffer) {
         this.factory = factory;
+        this.outputBuffer = outputBuffer;
     }
 
     @Override
@@ -92,6 +104,9 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         ObjectConnection serverConnection = workerProcessContext.getServerConnection();
         serverConnection.useParameterSerializers(TestEventSerializer.create());
         this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        if (outputBuffer != null) {
+            this.resultProcessor = new SharedMemoryTestOutputWriter(MappedRingBuffer.open(outputBuffer), resultProcessor);
+        }
         serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
         serverConnection.connect();
     }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.StoppableExecutor
+import org.gradle.internal.id.CompositeIdGenerator
+import org.gradle.internal.remote.internal.shm.MappedRingBuffer
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class SharedMemoryTestOutputReceiverTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def buffer = MappedRingBuffer.create(tmpDir.file("buffer"), 1024)
+    def connection = Mock(TestResultProcessor)
+    def target = Mock(TestResultProcessor)
+    // Records are only delivered when the receiver is drained, so that the order of delivery is predictable
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_) >> Stub(StoppableExecutor)
+    }
+    def writer = new SharedMemoryTestOutputWriter(MappedRingBuffer.open(buffer.file), connection)
+    def receiver = new SharedMemoryTestOutputReceiver(buffer, target, executorFactory)
+    def testId = new CompositeIdGenerator.CompositeId(1L, 2L)
+    def completeEvent = new TestCompleteEvent(100L)
+
+    def "forwards output written to buffer before the events that follow it"() {
+        def output1 = new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "line 1")
+        def output2 = new DefaultTestOutputEvent(TestOutputEvent.Destination.StdErr, "line 2")
+
+        when:
+        writer.output(testId, output1)
+        writer.output(testId, output2)
+        writer.completed(testId, completeEvent)
+
+        then:
+        1 * connection.completed(testId, completeEvent)
+        0 * connection._
+        0 * target._
+
+        when:
+        receiver.completed(testId, completeEvent)
+
+        then:
+        1 * target.output(testId, output1)
+
+        then:
+        1 * target.output(testId, output2)
+
+        then:
+        1 * target.completed(testId, completeEvent)
+        0 * target._
+    }
+
+    def "sends output that does not fit in buffer through connection"() {
+        def output1 = new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "line 1")
+        def output2 = new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "x" * 2000)
+
+        when:
+        writer.output(testId, output1)
+        writer.output(testId, output2)
+
+        then:
+        1 * connection.output(testId, output2)
+        0 * connection._
+
+        when:
+        receiver.output(testId, output2)
+
+        then:
+        1 * target.output(testId, output1)
+
+        then:
+        1 * target.output(testId, output2)
+        0 * target._
+    }
+
+    def "sends output for unknown test id through connection"() {
+        def output = new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "line 1")
+
+        when:
+        writer.output("id", output)
+
+        then:
+        1 * connection.output("id", output)
+        0 * connection._
+    }
+
+    def "forwards remaining output on stop"() {
+        def output = new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "line 1")
+
+        when:
+        writer.output(testId, output)
+        receiver.stop()
+
+        then:
+        1 * target.output(testId, output)
+        0 * target._
+    }
+}
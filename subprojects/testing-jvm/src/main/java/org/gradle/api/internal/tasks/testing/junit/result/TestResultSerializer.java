@@ -23,14 +23,14 @@ import org.gradle.internal.UncheckedException;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.FlushableEncoder;
-import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
-import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedEncoder;
 
 import java.io.*;
 import java.util.Collection;
 
 public class TestResultSerializer {
-    private static final int RESULT_VERSION = 3;
+    private static final int RESULT_VERSION = 4;
 
     private final File resultsFile;
 
@@ -43,7 +43,7 @@ public class TestResultSerializer {
             OutputStream outputStream = new FileOutputStream(resultsFile);
             try {
                 if (!results.isEmpty()) { // only write if we have results, otherwise truncate
-                    FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                    FlushableEncoder encoder = new StringDeduplicatingKryoBackedEncoder(outputStream);
                     encoder.writeSmallInt(RESULT_VERSION);
                     write(results, encoder);
                     encoder.flush();
@@ -94,7 +94,7 @@ public class TestResultSerializer {
         try {
             InputStream inputStream = new FileInputStream(resultsFile);
             try {
-                Decoder decoder = new KryoBackedDecoder(inputStream);
+                Decoder decoder = new StringDeduplicatingKryoBackedDecoder(inputStream);
                 int version = decoder.readSmallInt();
                 if (version != RESULT_VERSION) {
                     throw new IllegalArgumentException(String.format("Unexpected result file version %d found in %s.", version, resultsFile));
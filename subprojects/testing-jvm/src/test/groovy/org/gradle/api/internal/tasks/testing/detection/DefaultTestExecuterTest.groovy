@@ -25,6 +25,7 @@ import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.tasks.testing.Test
 import org.gradle.internal.actor.Actor
 import org.gradle.internal.actor.ActorFactory
+import org.gradle.internal.concurrent.ExecutorFactory
 import org.gradle.process.internal.worker.WorkerProcessFactory
 import spock.lang.Specification
 
@@ -43,7 +44,7 @@ class DefaultTestExecuterTest extends Specification {
     FileCollection testClasspath = Mock()
     Project project = Mock()
 
-    DefaultTestExecuter executer = new DefaultTestExecuter(workerFactory, actorFactory, moduleRegistry)
+    DefaultTestExecuter executer = new DefaultTestExecuter(workerFactory, actorFactory, moduleRegistry, Mock(ExecutorFactory))
 
     def setup() {
         _ * testTask.testFramework >> testFramework